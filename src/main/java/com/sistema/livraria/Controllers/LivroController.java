@@ -1,8 +1,20 @@
 package com.sistema.livraria.Controllers;
 
 import com.fasterxml.jackson.annotation.JsonView;
+import com.sistema.livraria.configs.CacheRespostasLivro;
+import com.sistema.livraria.dtos.AlteracoesRecordDto;
+import com.sistema.livraria.dtos.CadastroLoteIsbnRecordDto;
+import com.sistema.livraria.dtos.EstoqueRecordDto;
+import com.sistema.livraria.dtos.FacetasRecordDto;
+import com.sistema.livraria.dtos.ImportacaoRecordDto;
 import com.sistema.livraria.dtos.LivroIsbnRecordDto;
 import com.sistema.livraria.dtos.LivroRecordDto;
+import com.sistema.livraria.dtos.MovimentoEstoqueRecordDto;
+import com.sistema.livraria.dtos.SugestaoRecordDto;
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.FormatoImportacao;
+import com.sistema.livraria.enums.ModoImportacao;
+import com.sistema.livraria.exceptios.VersaoDivergenteException;
 import com.sistema.livraria.models.LivroModel;
 import com.sistema.livraria.services.*;
 import com.sistema.livraria.specifications.SpecificationsTemplate;
@@ -18,9 +30,16 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Optional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controlador REST responsável por gerenciar os endpoints relacionados à entidade Livro.
@@ -35,17 +54,42 @@ public class LivroController {
     final LivroService livroService;
     final LivrariaService livrariaService;
     final RelatorioService relatorioService;
+    final SugestaoService sugestaoService;
+    final AlteracaoLivroService alteracaoLivroService;
+    final EstoqueStreamService estoqueStreamService;
+    final CacheRespostasLivro cacheRespostasLivro;
+    final ExportacaoLivroService exportacaoLivroService;
+    final ImportacaoLivroService importacaoLivroService;
+    final FacetaService facetaService;
 
     /**
      * Construtor do controlador, com injeção dos serviços necessários para o gerenciamento de livros.
      *
      * @param livroService    Serviço responsável pelas operações de livro.
      * @param livrariaService Serviço responsável pelas operações de livraria.
+     * @param sugestaoService Serviço responsável pelas sugestões de autocompletar.
+     * @param alteracaoLivroService Serviço responsável pelo feed de alterações do catálogo.
+     * @param estoqueStreamService Serviço responsável pelo stream (SSE) de estoque.
+     * @param cacheRespostasLivro  Cache do JSON serializado dos livros.
+     * @param exportacaoLivroService Serviço responsável pela exportação do catálogo.
+     * @param importacaoLivroService Serviço responsável pela importação em lote.
+     * @param facetaService Serviço responsável pelas facetas do catálogo.
      */
-    public LivroController(LivroService livroService, LivrariaService livrariaService, RelatorioService relatorioService) {
+    public LivroController(LivroService livroService, LivrariaService livrariaService, RelatorioService relatorioService,
+                           SugestaoService sugestaoService, AlteracaoLivroService alteracaoLivroService,
+                           EstoqueStreamService estoqueStreamService, CacheRespostasLivro cacheRespostasLivro,
+                           ExportacaoLivroService exportacaoLivroService, ImportacaoLivroService importacaoLivroService,
+                           FacetaService facetaService) {
         this.livroService = livroService;
         this.livrariaService = livrariaService;
         this.relatorioService = relatorioService;
+        this.sugestaoService = sugestaoService;
+        this.alteracaoLivroService = alteracaoLivroService;
+        this.estoqueStreamService = estoqueStreamService;
+        this.cacheRespostasLivro = cacheRespostasLivro;
+        this.exportacaoLivroService = exportacaoLivroService;
+        this.importacaoLivroService = importacaoLivroService;
+        this.facetaService = facetaService;
     }
 
     /**
@@ -76,7 +120,8 @@ public class LivroController {
     /**
      * Endpoint para buscar todos os livros com paginação e possibilidade de filtros dinâmicos.
      *
-     * @param spec     Especificação com filtros (título, valor, editora, autor).
+     * @param spec     Especificação com filtros: prefixo de título, ISBN, autor e editora; faixas de valor, data de
+     *                 cadastro e número de páginas; listas de categoria, status e formato (ver LivroSpec).
      * @param pageable Objeto com as configurações de paginação.
      * @return Página de livros conforme os filtros aplicados.
      */
@@ -88,16 +133,137 @@ public class LivroController {
         return ResponseEntity.status(HttpStatus.OK).body(livroPage);
     }
 
+    /**
+     * Endpoint de exportação do catálogo completo em NDJSON (um livro por linha), transmitido enquanto é lido
+     * do banco. Aceita os mesmos filtros da listagem e compacta com gzip quando o cliente aceita.
+     *
+     * @param spec           Especificação com filtros (opcional).
+     * @param acceptEncoding Cabeçalho Accept-Encoding do cliente.
+     * @return Corpo transmitido em streaming.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarLivros(SpecificationsTemplate.LivroSpec spec,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        logger.debug("GET: exportarLivros, gzip: {}", gzip);
+        StreamingResponseBody corpo = saida -> {
+            if (gzip) {
+                GZIPOutputStream compactado = new GZIPOutputStream(saida, 8192);
+                exportacaoLivroService.exportar(spec, compactado);
+                compactado.finish();
+            } else {
+                exportacaoLivroService.exportar(spec, saida);
+            }
+        };
+        var resposta = ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return resposta.body(corpo);
+    }
+
+    /**
+     * Endpoint de importação em lote (CSV com cabeçalho ou NDJSON), com as mesmas validações do cadastro.
+     * ISBNs novos são criados e os existentes atualizados (somente se mudaram); linhas inválidas são ignoradas e
+     * listadas no relatório. Com modo=RECONCILIACAO, o arquivo é tratado como o inventário completo e os livros
+     * ausentes nele são removidos (desde que o arquivo não tenha linhas inválidas). Se a remoção atingir mais que a
+     * proporção configurada do catálogo, a importação é recusada com 422, a menos que forcarRemocao=true.
+     * Restrito a administradores.
+     *
+     * @param modo          MESCLA (padrão) ou RECONCILIACAO.
+     * @param forcarRemocao Confirma uma reconciliação acima da proporção máxima de remoção.
+     * @param contentType   text/csv ou application/x-ndjson.
+     * @param corpo       Conteúdo do arquivo, lido em streaming.
+     * @return Relatório da importação.
+     */
+    @PostMapping(value = "/importacao", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportacaoRecordDto> importarLivros(@RequestParam(value = "modo", defaultValue = "MESCLA") ModoImportacao modo,
+                                                              @RequestParam(value = "forcarRemocao", defaultValue = "false") boolean forcarRemocao,
+                                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                              InputStream corpo) throws IOException {
+        FormatoImportacao formato = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? FormatoImportacao.NDJSON : FormatoImportacao.CSV;
+        logger.debug("POST: importarLivros, formato: {}, modo: {}, forcarRemocao: {}", formato, modo, forcarRemocao);
+        return ResponseEntity.status(HttpStatus.OK).body(importacaoLivroService.importar(corpo, formato, modo, forcarRemocao));
+    }
+
+    /**
+     * Endpoint com as contagens de livros por categoria, status, formato e tipo de capa (barra lateral da loja),
+     * atendido pela estrutura em memória.
+     *
+     * @return Contagens por faceta (valores sem livros aparecem com zero).
+     */
+    @GetMapping("/facetas")
+    public ResponseEntity<FacetasRecordDto> getFacetas() {
+        return ResponseEntity.status(HttpStatus.OK).body(facetaService.contar());
+    }
+
+    /**
+     * Endpoint de autocompletar para título, autor e editora, atendido pelo índice em memória.
+     *
+     * @param prefixo Texto digitado pelo usuário.
+     * @param limite  Quantidade máxima de sugestões (até 50).
+     * @return Sugestões ordenadas por relevância.
+     */
+    @GetMapping("/sugestoes")
+    public ResponseEntity<List<SugestaoRecordDto>> getSugestoes(@RequestParam(value = "prefixo") String prefixo,
+                                                                @RequestParam(value = "limite", defaultValue = "10") int limite) {
+        return ResponseEntity.status(HttpStatus.OK).body(sugestaoService.sugerir(prefixo, Math.min(limite, 50)));
+    }
+
+    /**
+     * Endpoint do feed de alterações: livros criados, atualizados ou removidos depois do cursor.
+     * O cliente guarda o "proximoCursor" da resposta e o envia como "desde" na chamada seguinte,
+     * repetindo enquanto "temMais" for verdadeiro. Livros removidos vêm sem o campo "livro".
+     * Uma alteração aparece no feed alguns instantes após o commit, quando recebe a sua sequência.
+     *
+     * @param desde  Última sequência já processada (0 para a carga completa).
+     * @param limite Quantidade máxima de alterações por chamada (até 1000).
+     * @return As alterações, em ordem de commit, e o próximo cursor.
+     */
+    @GetMapping("/alteracoes")
+    public ResponseEntity<AlteracoesRecordDto> getAlteracoes(@RequestParam(value = "desde", defaultValue = "0") long desde,
+                                                             @RequestParam(value = "limite", defaultValue = "100") int limite) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(alteracaoLivroService.listar(desde, Math.max(1, Math.min(limite, 1000))));
+    }
+
+    /**
+     * Endpoint de Server-Sent Events com as alterações de quantidade e status dos livros, enviadas após o commit.
+     * Substitui o polling de getOneLivro em telas que mostram o estoque ao vivo.
+     *
+     * @param livroIds  Livros de interesse (opcional; todos se ausente).
+     * @param categoria Categoria de interesse (opcional).
+     * @return Conexão SSE com eventos "estoque".
+     */
+    @GetMapping(value = "/estoque/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEstoque(@RequestParam(value = "livroIds", required = false) Set<UUID> livroIds,
+                                    @RequestParam(value = "categoria", required = false) Categoria categoria) {
+        logger.debug("GET: streamEstoque, livroIds: {}, categoria: {}", livroIds, categoria);
+        return estoqueStreamService.assinar(livroIds != null ? livroIds : Set.of(), categoria);
+    }
+
     /**
      * Endpoint para buscar um único livro pelo seu ID.
      *
+     * Responde com o ETag da versão do livro; com If-None-Match igual, retorna 304 sem corpo.
+     * A versão é lida sozinha (uma coluna) e comparada antes de carregar o livro; o JSON vem do cache de
+     * respostas serializadas, e o livro só é carregado quando essa versão ainda não está nele.
+     *
      * @param livroId UUID do livro.
+     * @param request Requisição, para a avaliação do If-None-Match.
      * @return Objeto do livro encontrado.
      */
     @GetMapping("/livroId/{livroId}")
-    public ResponseEntity<Object> getOneLivro(@PathVariable(value = "livroId") UUID livroId) {
+    public ResponseEntity<Object> getOneLivro(@PathVariable(value = "livroId") UUID livroId, WebRequest request) {
         logger.debug("GET: getOneLivro, consulta: {}", livroId);
-        return ResponseEntity.status(HttpStatus.OK).body(livroService.findById(livroId));
+        Long versao = livroService.buscarVersao(livroId);
+        if (request.checkNotModified(etag(livroId, versao))) {
+            return naoModificado();
+        }
+        return respostaLivro(cacheRespostasLivro.json(livroId, versao, () -> livroService.findById(livroId).get()));
     }
 
 
@@ -106,6 +272,7 @@ public class LivroController {
      *
      * @param livroId        UUID do livro a ser atualizado.
      * @param livroRecordDto DTO com os novos dados do livro.
+     * @param ifMatch        ETag da versão lida pelo cliente (opcional); divergente retorna 412.
      * @return Livro atualizado.
      */
     @PutMapping("/{livroId}")
@@ -113,20 +280,48 @@ public class LivroController {
                                               @RequestBody
                                               @Validated(LivroRecordDto.LivroView.PutLivro.class)
                                               @JsonView(LivroRecordDto.LivroView.PutLivro.class)
-                                              LivroRecordDto livroRecordDto) {
+                                              LivroRecordDto livroRecordDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.debug("PUT: updateLivro, livroId recebido: {}", livroId);
-        return ResponseEntity.status(HttpStatus.OK).body(livroService.update(livroService.findById(livroId).get(), livroRecordDto));
+        LivroModel livro = verificarIfMatch(livroService.findById(livroId).get(), ifMatch);
+        LivroModel atualizado = livroService.update(livro, livroRecordDto);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag(atualizado)).body(atualizado);
     }
 
+    /**
+     * Endpoint para alterar o status de um livro.
+     *
+     * @param livroId        UUID do livro.
+     * @param livroRecordDto DTO com o novo status.
+     * @param ifMatch        ETag da versão lida pelo cliente (opcional); divergente retorna 412.
+     * @return Livro atualizado.
+     */
     @PatchMapping("/status/{livroId}")
     public ResponseEntity<Object> patchStatusLivro(@PathVariable(value = "livroId") UUID livroId,
                                                    @RequestBody
                                                    @Validated(LivroRecordDto.LivroView.PathStatus.class)
                                                    @JsonView(LivroRecordDto.LivroView.PathStatus.class)
-                                                   LivroRecordDto livroRecordDto){
+                                                   LivroRecordDto livroRecordDto,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         logger.debug("PATCH: patchStatusLivro, livroId recebido: {}", livroId);
-        return ResponseEntity.status(HttpStatus.OK)
-                .body(livroService.patchStatus(livroService.findById(livroId).get(), livroRecordDto));
+        LivroModel livro = verificarIfMatch(livroService.findById(livroId).get(), ifMatch);
+        LivroModel atualizado = livroService.patchStatus(livro, livroRecordDto);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag(atualizado)).body(atualizado);
+    }
+
+    /**
+     * Endpoint para registrar uma entrada ou saída de estoque.
+     * Saídas maiores que a quantidade disponível (descontadas as reservas ativas) retornam 409 (CONFLICT) sem alterar o livro.
+     *
+     * @param livroId                   UUID do livro.
+     * @param movimentoEstoqueRecordDto Tipo (ENTRADA/SAIDA) e quantidade do movimento.
+     * @return Quantidade e status do livro após o movimento.
+     */
+    @PostMapping("/{livroId}/estoque/movimento")
+    public ResponseEntity<EstoqueRecordDto> movimentarEstoque(@PathVariable(value = "livroId") UUID livroId,
+                                                              @RequestBody @Validated MovimentoEstoqueRecordDto movimentoEstoqueRecordDto) {
+        logger.debug("POST: movimentarEstoque, livroId recebido: {}, movimento: {}", livroId, movimentoEstoqueRecordDto);
+        return ResponseEntity.status(HttpStatus.OK).body(livroService.movimentarEstoque(livroId, movimentoEstoqueRecordDto));
     }
 
     /**
@@ -138,10 +333,7 @@ public class LivroController {
      */
     @DeleteMapping("/{livroId}")
     public ResponseEntity<Object> deleteLivro(@PathVariable(value = "livroId") UUID livroId) {
-        Optional<LivroModel> livroOptional = livroService.findById(livroId);
-        LivroModel livro = livroOptional.get();
-
-        // Chama o serviço para deletar o livro.
+        // Chama o serviço para deletar o livro (findById lança NotFoundException se não existir).
         livroService.delete(livroService.findById(livroId).get());
         logger.debug("DELETE: deleteLivro, livroId recebido: {}", livroId);
         return ResponseEntity.noContent().build(); // 204 No Content
@@ -160,8 +352,8 @@ public class LivroController {
                                                      @Validated(LivroIsbnRecordDto.LivroView.Cadastro.class)
                                                      @JsonView(LivroIsbnRecordDto.LivroView.Cadastro.class)
                                                      LivroIsbnRecordDto livroIsbnRecordDto) {
-        // Verifica se o ISBN já está cadastrado.
-        if (livroService.existsByIsbn(livroIsbnRecordDto.isbn())) {
+        // Verifica se o ISBN do caminho (o que será cadastrado) já existe, no catálogo ativo ou no arquivo.
+        if (livroService.existsByIsbn(isbn)) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Livro já cadastrado!");
         }
 
@@ -170,16 +362,78 @@ public class LivroController {
         return ResponseEntity.status(HttpStatus.CREATED).body(livro);
     }
 
+    /**
+     * Endpoint para cadastrar vários livros a partir de seus ISBNs. Os livros são buscados na Open Library em lotes
+     * e gravados juntos; cada item é validado individualmente e um item com erro não impede os demais.
+     * Roda no compartimento de lote (livraria.compartimentos.lote.caminhos). Lotes acima de
+     * livraria.openlibrary.max-itens-lote são recusados com 400, sem consultar a Open Library.
+     *
+     * @param livros Lista com o ISBN e os dados adicionais de cada livro.
+     * @return Totais e o resultado de cada ISBN, na ordem recebida.
+     */
+    @PostMapping("/isbn/lote")
+    public ResponseEntity<CadastroLoteIsbnRecordDto> registrarLivrosPorIsbn(@RequestBody List<LivroIsbnRecordDto> livros) {
+        logger.debug("POST: registrarLivrosPorIsbn, {} ISBN(s) recebido(s)", livros.size());
+        return ResponseEntity.status(HttpStatus.OK).body(livrariaService.registrarLivrosPorIsbn(livros));
+    }
+
     /**
      * Endpoint para consultar um livro a partir de seu ISBN.
      *
-     * @param isbn ISBN do livro a ser consultado.
+     * Responde com o ETag da versão do livro; com If-None-Match igual, retorna 304 sem corpo.
+     * O JSON vem do cache de respostas serializadas.
+     *
+     * @param isbn    ISBN do livro a ser consultado.
+     * @param request Requisição, para a avaliação do If-None-Match.
      * @return O livro consultado.
      */
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<Object> consultarLivroPorIsbn(@PathVariable String isbn) {
-        logger.debug("POST: saveLivro, dados recebidos: {}");
+    public ResponseEntity<Object> consultarLivroPorIsbn(@PathVariable String isbn, WebRequest request) {
+        logger.debug("GET: consultarLivroPorIsbn, isbn: {}", isbn);
         LivroModel livro = livrariaService.consultarLivroPorIsbn(isbn);
-        return ResponseEntity.status(HttpStatus.CREATED).body(livro);
+        if (request.checkNotModified(etag(livro))) {
+            return naoModificado();
+        }
+        return respostaLivro(cacheRespostasLivro.json(livro));
+    }
+
+    // Resposta de livro único com os bytes do cache, sem passar pelo Jackson. Só é montada depois que o
+    // checkNotModified decidiu que o cliente não tem a versão; o ETag já foi colocado na resposta por ele.
+    private static ResponseEntity<Object> respostaLivro(byte[] json) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json);
+    }
+
+    // O checkNotModified já definiu o status 304 e o ETag
+    private static ResponseEntity<Object> naoModificado() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
+
+    // ETag forte do livro: identificador + versão (muda a cada gravação, inclusive movimentações de estoque)
+    private static String etag(LivroModel livro) {
+        return etag(livro.getLivroId(), livro.getVersao());
+    }
+
+    private static String etag(UUID livroId, Long versao) {
+        return "\"" + livroId + "-" + versao + "\"";
+    }
+
+    /**
+     * Confere o cabeçalho If-Match (comparação forte) com a versão atual do livro.
+     * Sem cabeçalho, a gravação segue normalmente e fica protegida apenas pelo @Version.
+     */
+    private static LivroModel verificarIfMatch(LivroModel livro, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return livro;
+        }
+        String atual = etag(livro);
+        for (String candidato : ifMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*") || valor.equals(atual)) {
+                return livro;
+            }
+        }
+        throw new VersaoDivergenteException("O livro foi alterado desde a última consulta (ETag atual: " + atual + ").");
     }
 }
\ No newline at end of file
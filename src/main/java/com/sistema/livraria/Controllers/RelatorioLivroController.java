@@ -13,44 +13,47 @@ public class RelatorioLivroController {
     private final RelatorioService relatorioService;
 
     @GetMapping("/generico")
-    public ResponseEntity<byte[]> gerarRelatorioGenerico(@RequestParam(value = "titulo", defaultValue = "RELATORIO GERAL") String titulo) {
-        byte[] pdf = relatorioService.gerarRelatorioGenerico(titulo);
+    public ResponseEntity<byte[]> gerarRelatorioGenerico(@RequestParam(value = "titulo", defaultValue = "RELATORIO GERAL") String titulo,
+                                                         @RequestParam(defaultValue = "false") boolean incluirArquivados) {
+        byte[] pdf = relatorioService.gerarRelatorioGenerico(titulo, incluirArquivados);
         return montarRespostaPdf(pdf, "relatorio_generico_livros.pdf");
     }
 
     @GetMapping("/por-categoria")
-    public ResponseEntity<byte[]> gerarRelatorioLivrosPorCategoria() {
-        byte[] pdf = relatorioService.gerarRelatorioLivrosPorCategoria();
+    public ResponseEntity<byte[]> gerarRelatorioLivrosPorCategoria(@RequestParam(defaultValue = "false") boolean incluirArquivados) {
+        byte[] pdf = relatorioService.gerarRelatorioLivrosPorCategoria(incluirArquivados);
         return montarRespostaPdf(pdf, "relatorio_livros_por_categoria.pdf");
     }
 
     @GetMapping("/por-autor")
-    public ResponseEntity<byte[]> gerarRelatorioLivrosPorAutor() {
-        byte[] pdf = relatorioService.gerarRelatorioLivrosPorAutor();
+    public ResponseEntity<byte[]> gerarRelatorioLivrosPorAutor(@RequestParam(defaultValue = "false") boolean incluirArquivados) {
+        byte[] pdf = relatorioService.gerarRelatorioLivrosPorAutor(incluirArquivados);
         return montarRespostaPdf(pdf, "relatorio_livros_por_autor.pdf");
     }
 
     @GetMapping("/por-valor")
-    public ResponseEntity<byte[]> gerarRelatorioLivrosPorValor(@RequestParam(defaultValue = "0.0") double valorMinimo) {
-        byte[] pdf = relatorioService.gerarRelatorioLivrosPorValor(valorMinimo);
+    public ResponseEntity<byte[]> gerarRelatorioLivrosPorValor(@RequestParam(defaultValue = "0.0") double valorMinimo,
+                                                               @RequestParam(defaultValue = "false") boolean incluirArquivados) {
+        byte[] pdf = relatorioService.gerarRelatorioLivrosPorValor(valorMinimo, incluirArquivados);
         return montarRespostaPdf(pdf, "relatorio_livros_por_valor.pdf");
     }
 
     @GetMapping("/por-editora")
-    public ResponseEntity<byte[]> gerarRelatorioLivrosPorEditora() {
-        byte[] pdf = relatorioService.gerarRelatorioLivrosPorEditora();
+    public ResponseEntity<byte[]> gerarRelatorioLivrosPorEditora(@RequestParam(defaultValue = "false") boolean incluirArquivados) {
+        byte[] pdf = relatorioService.gerarRelatorioLivrosPorEditora(incluirArquivados);
         return montarRespostaPdf(pdf, "relatorio_livros_por_editora.pdf");
     }
 
     @GetMapping("/por-status")
-    public ResponseEntity<byte[]> gerarRelatorioLivrosPorStatus(@RequestParam(value = "status", defaultValue = "DISPONIVEL") String status) {
-        byte[] pdf = relatorioService.gerarRelatorioLivroPorStatus(status);
+    public ResponseEntity<byte[]> gerarRelatorioLivrosPorStatus(@RequestParam(value = "status", defaultValue = "DISPONIVEL") String status,
+                                                                 @RequestParam(defaultValue = "false") boolean incluirArquivados) {
+        byte[] pdf = relatorioService.gerarRelatorioLivroPorStatus(status, incluirArquivados);
         return montarRespostaPdf(pdf, "relatorio_livros_por_status.pdf");
     }
 
     @GetMapping("/por-estoque-zerado")
-    public ResponseEntity<byte[]> gerarRelatorioLivrosPorEstoqueZerado() {
-        byte[] pdf = relatorioService.gerarRelatorioLivrosPorEstoqueZerado();
+    public ResponseEntity<byte[]> gerarRelatorioLivrosPorEstoqueZerado(@RequestParam(defaultValue = "false") boolean incluirArquivados) {
+        byte[] pdf = relatorioService.gerarRelatorioLivrosPorEstoqueZerado(incluirArquivados);
         return montarRespostaPdf(pdf, "relatorio_livros_por_estoque_zerado.pdf");
     }
 
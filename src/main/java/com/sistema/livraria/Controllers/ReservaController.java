@@ -0,0 +1,69 @@
+package com.sistema.livraria.Controllers;
+
+import com.sistema.livraria.dtos.ReservaEstoqueRecordDto;
+import com.sistema.livraria.dtos.ReservaRecordDto;
+import com.sistema.livraria.services.ReservaService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * Controlador REST responsável pelas reservas de estoque (reservar, confirmar e cancelar).
+ * Só existe com o motor de reservas habilitado (livraria.reservas.habilitado).
+ */
+@RestController
+@RequestMapping("/reservas")
+@ConditionalOnProperty(name = "livraria.reservas.habilitado", havingValue = "true")
+public class ReservaController {
+    // Logger para registrar informações, erros e fluxos de execução no controller.
+    Logger logger = LogManager.getLogger(ReservaController.class);
+
+    final ReservaService reservaService;
+
+    public ReservaController(ReservaService reservaService) {
+        this.reservaService = reservaService;
+    }
+
+    /**
+     * Endpoint para reservar unidades de um livro. A reserva expira se não for confirmada no prazo.
+     *
+     * @param reservaRecordDto Livro e quantidade a reservar.
+     * @return A reserva criada (201) ou 409 (CONFLICT) se não houver estoque disponível.
+     */
+    @PostMapping
+    public ResponseEntity<ReservaEstoqueRecordDto> reservar(@RequestBody @Validated ReservaRecordDto reservaRecordDto) {
+        logger.debug("POST: reservar, dados recebidos: {}", reservaRecordDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservaService.reservar(reservaRecordDto));
+    }
+
+    /**
+     * Endpoint para confirmar uma reserva (baixa de estoque).
+     *
+     * @param reservaId UUID da reserva.
+     * @return A reserva confirmada, 404 se não existir ou 410 (GONE) se tiver expirado.
+     */
+    @PostMapping("/{reservaId}/confirmacao")
+    public ResponseEntity<ReservaEstoqueRecordDto> confirmar(@PathVariable(value = "reservaId") UUID reservaId) {
+        logger.debug("POST: confirmar, reservaId recebido: {}", reservaId);
+        return ResponseEntity.status(HttpStatus.OK).body(reservaService.confirmar(reservaId));
+    }
+
+    /**
+     * Endpoint para cancelar uma reserva, devolvendo as unidades ao estoque.
+     *
+     * @param reservaId UUID da reserva.
+     * @return 204 (No Content).
+     */
+    @DeleteMapping("/{reservaId}")
+    public ResponseEntity<Void> liberar(@PathVariable(value = "reservaId") UUID reservaId) {
+        logger.debug("DELETE: liberar, reservaId recebido: {}", reservaId);
+        reservaService.liberar(reservaId);
+        return ResponseEntity.noContent().build();
+    }
+}
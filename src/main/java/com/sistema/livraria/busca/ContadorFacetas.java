@@ -0,0 +1,145 @@
+package com.sistema.livraria.busca;
+
+import com.sistema.livraria.dtos.FacetasRecordDto;
+import com.sistema.livraria.dtos.LivroFacetasRecordDto;
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.Formato;
+import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.enums.TipoCapa;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Contagem em memória dos livros por categoria, status, formato e tipo de capa (facetas do catálogo).
+ *
+ * <p>Cada faceta é um {@code int[]} indexado pelo ordinal do enum. Para poder decrementar a contagem antiga
+ * quando um livro muda, o contador guarda o último estado conhecido de cada livro, com os quatro ordinais
+ * empacotados em um único {@code int} (8 bits cada; {@value #SEM_VALOR} representa campo nulo).</p>
+ *
+ * <p>As operações registram o estado absoluto do livro (e não deltas), então reaplicá-las é seguro. Isso permite
+ * recarregar do banco sem perder alterações concorrentes: entre {@link #iniciarRecarga()} e
+ * {@link #recarregar(Collection)}, as operações recebidas são guardadas e reaplicadas sobre a carga nova.</p>
+ */
+public class ContadorFacetas {
+
+    static final int SEM_VALOR = 0xFF;
+
+    private final Map<UUID, Integer> estados = new HashMap<>();
+    private final int[] categorias = new int[Categoria.values().length];
+    private final int[] status = new int[StatusLivro.values().length];
+    private final int[] formatos = new int[Formato.values().length];
+    private final int[] tiposCapa = new int[TipoCapa.values().length];
+
+    // Operações recebidas durante uma recarga (nulo fora de recarga)
+    private List<Consumer<ContadorFacetas>> pendentes;
+
+    /**
+     * Registra (ou substitui) o estado de um livro.
+     */
+    public synchronized void registrar(UUID livroId, Categoria categoria, StatusLivro statusLivro,
+                                       Formato formato, TipoCapa tipoCapa) {
+        aplicar(contador -> contador.definir(livroId, empacotar(categoria, statusLivro, formato, tipoCapa)));
+    }
+
+    /**
+     * Altera apenas o status de um livro já contado (movimentações de estoque não trazem os demais campos).
+     */
+    public synchronized void alterarStatus(UUID livroId, StatusLivro statusLivro) {
+        aplicar(contador -> {
+            Integer atual = contador.estados.get(livroId);
+            if (atual != null) {
+                contador.definir(livroId, (atual & 0xFF00FFFF) | (ordinal(statusLivro) << 16));
+            }
+        });
+    }
+
+    public synchronized void remover(UUID livroId) {
+        aplicar(contador -> contador.definir(livroId, null));
+    }
+
+    /**
+     * Passa a guardar as operações recebidas até a próxima chamada de {@link #recarregar(Collection)}.
+     * Deve ser chamado antes de consultar o banco.
+     */
+    public synchronized void iniciarRecarga() {
+        pendentes = new ArrayList<>();
+    }
+
+    /**
+     * Substitui todas as contagens pelos livros informados e reaplica as operações recebidas desde
+     * {@link #iniciarRecarga()}.
+     *
+     * @return Verdadeiro se as contagens mudaram em relação às mantidas incrementalmente.
+     */
+    public synchronized boolean recarregar(Collection<LivroFacetasRecordDto> livros) {
+        FacetasRecordDto anteriores = contagens();
+        estados.clear();
+        Arrays.fill(categorias, 0);
+        Arrays.fill(status, 0);
+        Arrays.fill(formatos, 0);
+        Arrays.fill(tiposCapa, 0);
+        for (LivroFacetasRecordDto livro : livros) {
+            definir(livro.livroId(), empacotar(livro.categoria(), livro.statusLivro(), livro.formato(), livro.tipoCapa()));
+        }
+        if (pendentes != null) {
+            pendentes.forEach(operacao -> operacao.accept(this));
+            pendentes = null;
+        }
+        return !anteriores.equals(contagens());
+    }
+
+    public synchronized FacetasRecordDto contagens() {
+        return new FacetasRecordDto(estados.size(),
+                mapa(Categoria.class, categorias),
+                mapa(StatusLivro.class, status),
+                mapa(Formato.class, formatos),
+                mapa(TipoCapa.class, tiposCapa));
+    }
+
+    private void aplicar(Consumer<ContadorFacetas> operacao) {
+        operacao.accept(this);
+        if (pendentes != null) {
+            pendentes.add(operacao);
+        }
+    }
+
+    private void definir(UUID livroId, Integer novo) {
+        Integer anterior = novo == null ? estados.remove(livroId) : estados.put(livroId, novo);
+        if (anterior != null) {
+            somar(anterior, -1);
+        }
+        if (novo != null) {
+            somar(novo, 1);
+        }
+    }
+
+    private void somar(int estado, int delta) {
+        somar(categorias, estado >>> 24, delta);
+        somar(status, (estado >>> 16) & 0xFF, delta);
+        somar(formatos, (estado >>> 8) & 0xFF, delta);
+        somar(tiposCapa, estado & 0xFF, delta);
+    }
+
+    private static void somar(int[] contagens, int ordinal, int delta) {
+        if (ordinal != SEM_VALOR) {
+            contagens[ordinal] += delta;
+        }
+    }
+
+    static int empacotar(Categoria categoria, StatusLivro statusLivro, Formato formato, TipoCapa tipoCapa) {
+        return ordinal(categoria) << 24 | ordinal(statusLivro) << 16 | ordinal(formato) << 8 | ordinal(tipoCapa);
+    }
+
+    private static int ordinal(Enum<?> valor) {
+        return valor == null ? SEM_VALOR : valor.ordinal();
+    }
+
+    private static <E extends Enum<E>> Map<E, Integer> mapa(Class<E> tipo, int[] contagens) {
+        Map<E, Integer> mapa = new EnumMap<>(tipo);
+        for (E valor : tipo.getEnumConstants()) {
+            mapa.put(valor, contagens[valor.ordinal()]);
+        }
+        return mapa;
+    }
+}
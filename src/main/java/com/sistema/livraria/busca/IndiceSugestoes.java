@@ -0,0 +1,588 @@
+package com.sistema.livraria.busca;
+
+import com.sistema.livraria.dtos.LivroTextoRecordDto;
+import com.sistema.livraria.dtos.SugestaoRecordDto;
+import com.sistema.livraria.enums.CampoSugestao;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória para autocompletar títulos, autores e editoras.
+ *
+ * <p>Cada livro ocupa um "slot" com três entradas (título, autor e editora). Os textos são normalizados
+ * (minúsculas, sem acentos e sem pontuação) e indexados de duas formas:</p>
+ * <ul>
+ *     <li>um array ordenado de sufixos que começam em início de palavra, empacotados em {@code long}
+ *     (entrada &lt;&lt; 16 | deslocamento), usado para buscas por prefixo com busca binária;</li>
+ *     <li>listas de postagens de trigramas ({@code int[]} por trigrama), usadas para encontrar o termo
+ *     no meio de uma palavra quando os prefixos não bastam.</li>
+ * </ul>
+ *
+ * <p>Alterações são incrementais: livros novos ou alterados ganham um slot novo (o antigo é marcado como
+ * inativo) e seus sufixos entram, por inserção ordenada, num segundo array menor (a área "delta"), consultado
+ * com a mesma busca binária. Quando a área cresce o suficiente, a compactação reconstrói o array principal
+ * apenas com os slots ativos e esvazia o delta.</p>
+ *
+ * <p>O top-k é aproximado para prefixos muito comuns: em cada array são avaliados no máximo
+ * {@code MAX_CANDIDATOS} sufixos do intervalo do prefixo, na ordem alfabética dos sufixos, e no máximo
+ * {@code MAX_CANDIDATOS} postagens de trigramas, na ordem das entradas. Candidatos mais relevantes além desse
+ * ponto não são vistos; quanto mais o usuário digita, menor o intervalo e mais exato o resultado.</p>
+ */
+public class IndiceSugestoes {
+
+    private static final int CAMPOS = CampoSugestao.values().length;
+    private static final int[] PESO_CAMPO = {300, 200, 100}; // TITULO, AUTOR, EDITORA
+    private static final int MAX_CANDIDATOS = 512; // limite de custo por busca (ver a documentação da classe)
+    private static final int DELTA_MINIMO_COMPACTACAO = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Slots dos livros
+    private UUID[] ids = new UUID[64];
+    private String[] textos = new String[64 * CAMPOS];
+    private String[] termos = new String[64 * CAMPOS];
+    private final BitSet ativos = new BitSet();
+    private final Map<UUID, Integer> slotPorLivro = new HashMap<>();
+    private int totalSlots;
+    private int slotsInativos;
+
+    // Array ordenado de sufixos (apenas slots < slotsBase)
+    private long[] prefixos = new long[0];
+    private int slotsBase;
+
+    // Sufixos dos slots >= slotsBase, também ordenados (as primeiras totalDelta posições)
+    private long[] prefixosDelta = new long[64];
+    private int totalDelta;
+
+    // Postagens de trigramas: trigrama -> entradas (em ordem crescente)
+    private final Map<Long, Postagens> trigramas = new HashMap<>();
+
+    /**
+     * Indexa (ou reindexa) um livro.
+     */
+    public void indexar(UUID livroId, String titulo, String autor, String editora) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(livroId);
+            int slot = novoSlot(livroId);
+            definirEntrada(slot, CampoSugestao.TITULO, titulo, true);
+            definirEntrada(slot, CampoSugestao.AUTOR, autor, true);
+            definirEntrada(slot, CampoSugestao.EDITORA, editora, true);
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Substitui todo o conteúdo do índice pelos livros informados, compactando uma única vez ao final.
+     */
+    public void recarregar(Collection<LivroTextoRecordDto> livros) {
+        lock.writeLock().lock();
+        try {
+            limparSemLock();
+            for (LivroTextoRecordDto livro : livros) {
+                removerSemLock(livro.livroId());
+                int slot = novoSlot(livro.livroId());
+                // Sem o delta: a compactação ao final monta o array ordenado de uma vez
+                definirEntrada(slot, CampoSugestao.TITULO, livro.titulo(), false);
+                definirEntrada(slot, CampoSugestao.AUTOR, livro.autor(), false);
+                definirEntrada(slot, CampoSugestao.EDITORA, livro.editora(), false);
+            }
+            compactarSemLock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um livro do índice.
+     */
+    public void remover(UUID livroId) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(livroId);
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta todo o conteúdo do índice.
+     */
+    public void limpar() {
+        lock.writeLock().lock();
+        try {
+            limparSemLock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstrói o array ordenado de prefixos e as postagens apenas com os livros ativos.
+     */
+    public void compactar() {
+        lock.writeLock().lock();
+        try {
+            compactarSemLock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return slotPorLivro.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca as sugestões mais relevantes para o prefixo informado.
+     *
+     * @param prefixo Texto digitado pelo usuário.
+     * @param limite  Quantidade máxima de sugestões.
+     * @return Sugestões ordenadas por relevância (maior primeiro).
+     */
+    public List<SugestaoRecordDto> buscar(String prefixo, int limite) {
+        String consulta = normalizar(prefixo);
+        if (consulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            TopK melhores = new TopK(limite);
+            buscarPrefixos(prefixos, prefixos.length, consulta, melhores);
+            buscarPrefixos(prefixosDelta, totalDelta, consulta, melhores);
+            if (melhores.tamanho < limite && consulta.length() >= 3) {
+                buscarTrigramas(consulta, melhores);
+            }
+
+            List<SugestaoRecordDto> resultado = new ArrayList<>(melhores.tamanho);
+            for (int i = 0; i < melhores.tamanho; i++) {
+                int entrada = melhores.entradas[i];
+                resultado.add(new SugestaoRecordDto(ids[entrada / CAMPOS],
+                        CampoSugestao.values()[entrada % CAMPOS], textos[entrada]));
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normaliza o texto para indexação: remove acentos, converte para minúsculas e
+     * substitui qualquer caractere que não seja letra ou dígito por um único espaço.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(semAcentos.length());
+        boolean espaco = true;
+        for (int i = 0; i < semAcentos.length(); i++) {
+            char c = semAcentos.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                espaco = false;
+            } else if (!espaco) {
+                sb.append(' ');
+                espaco = true;
+            }
+        }
+        int fim = sb.length();
+        if (fim > 0 && sb.charAt(fim - 1) == ' ') {
+            sb.setLength(fim - 1);
+        }
+        return sb.toString();
+    }
+
+    // ----------------------------------------------------------------------------------------------
+    // Busca
+    // ----------------------------------------------------------------------------------------------
+
+    private void buscarPrefixos(long[] sufixos, int total, String consulta, TopK melhores) {
+        int inicio = limiteInferior(sufixos, total, consulta);
+        int lidos = 0;
+        for (int i = inicio; i < total && lidos < MAX_CANDIDATOS; i++) {
+            long chave = sufixos[i];
+            int entrada = (int) (chave >>> 16);
+            int deslocamento = (int) (chave & 0xFFFF);
+            if (compararPrefixo(termos[entrada], deslocamento, consulta) != 0) {
+                break;
+            }
+            lidos++;
+            if (ativos.get(entrada / CAMPOS)) {
+                melhores.oferecer(entrada, pontuar(entrada, deslocamento, consulta, false));
+            }
+        }
+    }
+
+    private void buscarTrigramas(String consulta, TopK melhores) {
+        // Usa a menor lista de postagens dentre os trigramas da consulta e confirma com indexOf
+        Postagens menor = null;
+        for (int i = 0; i + 3 <= consulta.length(); i++) {
+            Postagens p = trigramas.get(trigrama(consulta, i));
+            if (p == null) {
+                return;
+            }
+            if (menor == null || p.tamanho < menor.tamanho) {
+                menor = p;
+            }
+        }
+        if (menor == null) {
+            return;
+        }
+        int verificados = 0;
+        for (int i = 0; i < menor.tamanho && verificados < MAX_CANDIDATOS; i++) {
+            int entrada = menor.entradas[i];
+            if (!ativos.get(entrada / CAMPOS)) {
+                continue;
+            }
+            verificados++;
+            int desloc = termos[entrada].indexOf(consulta);
+            if (desloc >= 0) {
+                melhores.oferecer(entrada, pontuar(entrada, desloc, consulta, true));
+            }
+        }
+    }
+
+    private int pontuar(int entrada, int deslocamento, String consulta, boolean infixo) {
+        String termo = termos[entrada];
+        int pontuacao = PESO_CAMPO[entrada % CAMPOS];
+        if (termo.length() == consulta.length()) {
+            pontuacao += 100; // correspondência exata
+        }
+        if (deslocamento == 0) {
+            pontuacao += 50;  // começa pelo início do campo
+        }
+        pontuacao -= Math.min(termo.length(), 50); // textos mais curtos primeiro
+        return infixo ? pontuacao / 2 : pontuacao;
+    }
+
+    private int limiteInferior(long[] sufixos, int total, String consulta) {
+        int baixo = 0;
+        int alto = total;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            long chave = sufixos[meio];
+            int cmp = compararPrefixo(termos[(int) (chave >>> 16)], (int) (chave & 0xFFFF), consulta);
+            if (cmp < 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    // Compara o sufixo termo[deslocamento..] com a consulta; 0 indica que o sufixo começa com a consulta
+    private static int compararPrefixo(String termo, int deslocamento, String consulta) {
+        int n = Math.min(termo.length() - deslocamento, consulta.length());
+        for (int i = 0; i < n; i++) {
+            int diff = termo.charAt(deslocamento + i) - consulta.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return termo.length() - deslocamento >= consulta.length() ? 0 : -1;
+    }
+
+    // ----------------------------------------------------------------------------------------------
+    // Manutenção
+    // ----------------------------------------------------------------------------------------------
+
+    private int novoSlot(UUID livroId) {
+        if (totalSlots == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            textos = Arrays.copyOf(textos, ids.length * CAMPOS);
+            termos = Arrays.copyOf(termos, ids.length * CAMPOS);
+        }
+        int slot = totalSlots++;
+        ids[slot] = livroId;
+        ativos.set(slot);
+        slotPorLivro.put(livroId, slot);
+        return slot;
+    }
+
+    private void definirEntrada(int slot, CampoSugestao campo, String texto, boolean delta) {
+        int entrada = slot * CAMPOS + campo.ordinal();
+        String termo = normalizar(texto);
+        if (termo.isEmpty()) {
+            return;
+        }
+        textos[entrada] = texto.trim();
+        termos[entrada] = termo;
+        indexarTrigramas(entrada, termo);
+        if (delta) {
+            indexarDelta(entrada, termo);
+        }
+    }
+
+    // Insere os sufixos da entrada no array delta, mantendo-o ordenado
+    private void indexarDelta(int entrada, String termo) {
+        for (int desloc = 0; desloc < termo.length() && desloc <= 0xFFFF; desloc++) {
+            if (desloc == 0 || termo.charAt(desloc - 1) == ' ') {
+                long chave = ((long) entrada << 16) | desloc;
+                int pos = posicaoDelta(chave);
+                if (totalDelta == prefixosDelta.length) {
+                    prefixosDelta = Arrays.copyOf(prefixosDelta, totalDelta * 2);
+                }
+                System.arraycopy(prefixosDelta, pos, prefixosDelta, pos + 1, totalDelta - pos);
+                prefixosDelta[pos] = chave;
+                totalDelta++;
+            }
+        }
+    }
+
+    private int posicaoDelta(long chave) {
+        int baixo = 0;
+        int alto = totalDelta;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (compararSufixos(prefixosDelta[meio], chave) <= 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private void indexarTrigramas(int entrada, String termo) {
+        for (int i = 0; i + 3 <= termo.length(); i++) {
+            trigramas.computeIfAbsent(trigrama(termo, i), k -> new Postagens()).adicionar(entrada);
+        }
+    }
+
+    private void limparSemLock() {
+        ids = new UUID[64];
+        textos = new String[64 * CAMPOS];
+        termos = new String[64 * CAMPOS];
+        ativos.clear();
+        slotPorLivro.clear();
+        trigramas.clear();
+        prefixos = new long[0];
+        prefixosDelta = new long[64];
+        totalDelta = 0;
+        totalSlots = 0;
+        slotsInativos = 0;
+        slotsBase = 0;
+    }
+
+    private void removerSemLock(UUID livroId) {
+        Integer slot = slotPorLivro.remove(livroId);
+        if (slot != null) {
+            ativos.clear(slot);
+            slotsInativos++;
+        }
+    }
+
+    private void compactarSeNecessario() {
+        int delta = totalSlots - slotsBase;
+        if (delta >= Math.max(DELTA_MINIMO_COMPACTACAO, slotsBase / 8) || slotsInativos > totalSlots / 2 + DELTA_MINIMO_COMPACTACAO) {
+            compactarSemLock();
+        }
+    }
+
+    private void compactarSemLock() {
+        int ativosTotal = slotPorLivro.size();
+        UUID[] novosIds = new UUID[Math.max(64, ativosTotal * 2)];
+        String[] novosTextos = new String[novosIds.length * CAMPOS];
+        String[] novosTermos = new String[novosIds.length * CAMPOS];
+
+        int novo = 0;
+        for (int slot = ativos.nextSetBit(0); slot >= 0 && slot < totalSlots; slot = ativos.nextSetBit(slot + 1)) {
+            novosIds[novo] = ids[slot];
+            System.arraycopy(textos, slot * CAMPOS, novosTextos, novo * CAMPOS, CAMPOS);
+            System.arraycopy(termos, slot * CAMPOS, novosTermos, novo * CAMPOS, CAMPOS);
+            novo++;
+        }
+
+        ids = novosIds;
+        textos = novosTextos;
+        termos = novosTermos;
+        totalSlots = novo;
+        slotsInativos = 0;
+        ativos.clear();
+        ativos.set(0, novo);
+        slotPorLivro.clear();
+        trigramas.clear();
+
+        int totalSufixos = 0;
+        for (int slot = 0; slot < novo; slot++) {
+            slotPorLivro.put(ids[slot], slot);
+            for (int campo = 0; campo < CAMPOS; campo++) {
+                int entrada = slot * CAMPOS + campo;
+                String termo = termos[entrada];
+                if (termo != null) {
+                    indexarTrigramas(entrada, termo);
+                    totalSufixos += contarPalavras(termo);
+                }
+            }
+        }
+
+        long[] sufixos = new long[totalSufixos];
+        int i = 0;
+        for (int entrada = 0; entrada < novo * CAMPOS; entrada++) {
+            String termo = termos[entrada];
+            if (termo == null) {
+                continue;
+            }
+            for (int desloc = 0; desloc < termo.length() && desloc <= 0xFFFF; desloc++) {
+                if (desloc == 0 || termo.charAt(desloc - 1) == ' ') {
+                    sufixos[i++] = ((long) entrada << 16) | desloc;
+                }
+            }
+        }
+        // A ordem vem do texto apontado por cada chave: ordenação própria, sem encaixotar em Long
+        ordenarSufixos(sufixos, new long[i], 0, i);
+
+        prefixos = i == sufixos.length ? sufixos : Arrays.copyOf(sufixos, i);
+        slotsBase = novo;
+        prefixosDelta = new long[64];
+        totalDelta = 0;
+    }
+
+    // Merge sort de sufixos[de..ate) usando aux como área de trabalho; trechos curtos por inserção
+    private void ordenarSufixos(long[] sufixos, long[] aux, int de, int ate) {
+        if (ate - de <= 32) {
+            for (int i = de + 1; i < ate; i++) {
+                long chave = sufixos[i];
+                int j = i - 1;
+                while (j >= de && compararSufixos(sufixos[j], chave) > 0) {
+                    sufixos[j + 1] = sufixos[j];
+                    j--;
+                }
+                sufixos[j + 1] = chave;
+            }
+            return;
+        }
+        int meio = (de + ate) >>> 1;
+        ordenarSufixos(sufixos, aux, de, meio);
+        ordenarSufixos(sufixos, aux, meio, ate);
+        if (compararSufixos(sufixos[meio - 1], sufixos[meio]) <= 0) {
+            return; // já em ordem
+        }
+        System.arraycopy(sufixos, de, aux, de, ate - de);
+        int a = de;
+        int b = meio;
+        for (int k = de; k < ate; k++) {
+            if (b >= ate || (a < meio && compararSufixos(aux[a], aux[b]) <= 0)) {
+                sufixos[k] = aux[a++];
+            } else {
+                sufixos[k] = aux[b++];
+            }
+        }
+    }
+
+    private int compararSufixos(long a, long b) {
+        String termoA = termos[(int) (a >>> 16)];
+        String termoB = termos[(int) (b >>> 16)];
+        int deslocA = (int) (a & 0xFFFF);
+        int deslocB = (int) (b & 0xFFFF);
+        int n = Math.min(termoA.length() - deslocA, termoB.length() - deslocB);
+        for (int k = 0; k < n; k++) {
+            int diff = termoA.charAt(deslocA + k) - termoB.charAt(deslocB + k);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return (termoA.length() - deslocA) - (termoB.length() - deslocB);
+    }
+
+    private static int contarPalavras(String termo) {
+        int palavras = 0;
+        for (int i = 0; i < termo.length() && i <= 0xFFFF; i++) {
+            if (i == 0 || termo.charAt(i - 1) == ' ') {
+                palavras++;
+            }
+        }
+        return palavras;
+    }
+
+    private static long trigrama(String termo, int i) {
+        return ((long) termo.charAt(i) << 32) | ((long) termo.charAt(i + 1) << 16) | termo.charAt(i + 2);
+    }
+
+    /**
+     * Lista de entradas que contêm um trigrama, armazenada num {@code int[]} que cresce por duplicação.
+     */
+    private static final class Postagens {
+        int[] entradas = new int[4];
+        int tamanho;
+
+        void adicionar(int entrada) {
+            if (tamanho > 0 && entradas[tamanho - 1] == entrada) {
+                return; // trigrama repetido no mesmo termo
+            }
+            if (tamanho == entradas.length) {
+                entradas = Arrays.copyOf(entradas, tamanho * 2);
+            }
+            entradas[tamanho++] = entrada;
+        }
+    }
+
+    /**
+     * Mantém as {@code k} melhores entradas ordenadas por pontuação, sem alocação por candidato.
+     * Sugestões iguais (mesmo campo e mesmo texto normalizado) aparecem apenas uma vez.
+     */
+    private final class TopK {
+        final int[] entradas;
+        final int[] pontuacoes;
+        int tamanho;
+
+        TopK(int k) {
+            entradas = new int[k];
+            pontuacoes = new int[k];
+        }
+
+        void oferecer(int entrada, int pontuacao) {
+            int k = entradas.length;
+            if (tamanho == k && pontuacao <= pontuacoes[k - 1]) {
+                return; // não entra no top-k
+            }
+            String termo = termos[entrada];
+            for (int i = 0; i < tamanho; i++) {
+                int outra = entradas[i];
+                if (outra % CAMPOS == entrada % CAMPOS && termos[outra].equals(termo)) {
+                    if (pontuacoes[i] >= pontuacao) {
+                        return;
+                    }
+                    remover(i);
+                    break;
+                }
+            }
+            int pos = tamanho < k ? tamanho++ : k - 1;
+            while (pos > 0 && precede(pontuacao, termo, pos - 1)) {
+                entradas[pos] = entradas[pos - 1];
+                pontuacoes[pos] = pontuacoes[pos - 1];
+                pos--;
+            }
+            entradas[pos] = entrada;
+            pontuacoes[pos] = pontuacao;
+        }
+
+        private boolean precede(int pontuacao, String termo, int i) {
+            return pontuacao > pontuacoes[i]
+                    || (pontuacao == pontuacoes[i] && termo.compareTo(termos[entradas[i]]) < 0);
+        }
+
+        private void remover(int i) {
+            System.arraycopy(entradas, i + 1, entradas, i, tamanho - i - 1);
+            System.arraycopy(pontuacoes, i + 1, pontuacoes, i, tamanho - i - 1);
+            tamanho--;
+        }
+    }
+}
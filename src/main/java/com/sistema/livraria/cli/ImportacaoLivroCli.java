@@ -0,0 +1,82 @@
+package com.sistema.livraria.cli;
+
+import com.sistema.livraria.compartimentos.ContextoCompartimento;
+import com.sistema.livraria.dtos.ImportacaoRecordDto;
+import com.sistema.livraria.enums.Compartimento;
+import com.sistema.livraria.enums.FormatoImportacao;
+import com.sistema.livraria.enums.ModoImportacao;
+import com.sistema.livraria.services.ImportacaoLivroService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Importação em lote pela linha de comando, para cargas iniciais sem passar pelo HTTP:
+ *
+ * <pre>
+ * java -jar livraria.jar --importar=livros.csv [--modo=RECONCILIACAO [--forcar-remocao]] --spring.main.web-application-type=none
+ * </pre>
+ *
+ * O formato vem da extensão (.csv, .ndjson ou .jsonl, opcionalmente .gz). A aplicação termina ao fim da
+ * importação, com código de saída 0 (sem erros), 2 (linhas inválidas ignoradas) ou 1 (falha).
+ */
+@Component
+@ConditionalOnProperty(name = "importar")
+public class ImportacaoLivroCli implements ApplicationRunner {
+
+    Logger logger = LogManager.getLogger(ImportacaoLivroCli.class);
+
+    final ImportacaoLivroService importacaoLivroService;
+    final ApplicationContext applicationContext;
+
+    public ImportacaoLivroCli(ImportacaoLivroService importacaoLivroService, ApplicationContext applicationContext) {
+        this.importacaoLivroService = importacaoLivroService;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String arquivo = args.getOptionValues("importar").get(0);
+        ModoImportacao modo = args.containsOption("modo")
+                ? ModoImportacao.valueOf(args.getOptionValues("modo").get(0).toUpperCase())
+                : ModoImportacao.MESCLA;
+        boolean forcarRemocao = args.containsOption("forcar-remocao");
+        int codigoSaida;
+        ContextoCompartimento.definir(Compartimento.LOTE); // o processo termina ao fim da importação
+        try (InputStream entrada = abrir(Path.of(arquivo))) {
+            ImportacaoRecordDto relatorio = importacaoLivroService.importar(entrada, FormatoImportacao.doArquivo(arquivo), modo,
+                    forcarRemocao);
+            relatorio.erros().forEach(erro ->
+                    logger.warn("Linha {} (ISBN {}): {}", erro.linha(), erro.isbn(), erro.mensagem()));
+            if (relatorio.totalErros() > relatorio.erros().size()) {
+                logger.warn("... e mais {} linhas inválidas", relatorio.totalErros() - relatorio.erros().size());
+            }
+            logger.info("Importação de {} concluída: {} linhas, {} inseridos, {} atualizados, {} removidos, {} inalterados, {} erros",
+                    arquivo, relatorio.linhasLidas(), relatorio.inseridos(), relatorio.atualizados(), relatorio.removidos(),
+                    relatorio.inalterados(), relatorio.totalErros());
+            codigoSaida = relatorio.totalErros() == 0 ? 0 : 2;
+        } catch (Exception e) {
+            logger.error("Falha na importação de {}: {}", arquivo, e.getMessage(), e);
+            codigoSaida = 1;
+        }
+        int codigo = codigoSaida;
+        System.exit(SpringApplication.exit(applicationContext, () -> codigo));
+    }
+
+    private static InputStream abrir(Path arquivo) throws IOException {
+        InputStream entrada = new BufferedInputStream(Files.newInputStream(arquivo), 1 << 16);
+        return arquivo.toString().endsWith(".gz") ? new GZIPInputStream(entrada, 1 << 16) : entrada;
+    }
+}
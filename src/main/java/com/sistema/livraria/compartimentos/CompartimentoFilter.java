@@ -0,0 +1,130 @@
+package com.sistema.livraria.compartimentos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sistema.livraria.enums.Compartimento;
+import com.sistema.livraria.exceptios.ErroRecordResponse;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Atribui cada requisição a um compartimento pelo caminho (livraria.compartimentos.*.caminhos) e aplica o limite
+ * de concorrência dele. Sem vaga dentro da espera configurada, responde 503 sem chegar ao controller.
+ *
+ * Nos compartimentos pesados a vaga fica ocupada até o fim das respostas assíncronas (exportação em streaming);
+ * no interativo ela é devolvida quando o controller retorna, pois o stream SSE tem limite próprio.
+ */
+public class CompartimentoFilter extends OncePerRequestFilter {
+
+    Logger logger = LogManager.getLogger(CompartimentoFilter.class);
+
+    private final Map<Compartimento, List<String>> caminhos;
+    private final Map<Compartimento, LimiteCompartimento> limites;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public CompartimentoFilter(Map<Compartimento, List<String>> caminhos, Map<Compartimento, LimiteCompartimento> limites,
+                               ObjectMapper objectMapper) {
+        this.caminhos = caminhos;
+        this.limites = limites;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Compartimento compartimento = compartimento(urlPathHelper.getPathWithinApplication(request));
+        LimiteCompartimento limite = limites.get(compartimento);
+        try {
+            if (!limite.entrar()) {
+                recusar(response, limite);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recusar(response, limite);
+            return;
+        }
+
+        AtomicBoolean liberado = new AtomicBoolean();
+        Runnable liberar = () -> {
+            if (liberado.compareAndSet(false, true)) {
+                limite.sair();
+            }
+        };
+        Compartimento anterior = ContextoCompartimento.definir(compartimento);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ContextoCompartimento.restaurar(anterior);
+            if (request.isAsyncStarted() && compartimento != Compartimento.INTERATIVO) {
+                request.getAsyncContext().addListener(new LiberarAoConcluir(liberar));
+            } else {
+                liberar.run();
+            }
+        }
+    }
+
+    Compartimento compartimento(String caminho) {
+        for (Map.Entry<Compartimento, List<String>> entrada : caminhos.entrySet()) {
+            for (String padrao : entrada.getValue()) {
+                if (matcher.match(padrao, caminho)) {
+                    return entrada.getKey();
+                }
+            }
+        }
+        return Compartimento.INTERATIVO;
+    }
+
+    private void recusar(HttpServletResponse response, LimiteCompartimento limite) throws IOException {
+        logger.warn("CAPACIDADE: compartimento {} sem vaga após {} ms ({} em uso, {} aguardando)",
+                limite.compartimento, limite.esperaMs, limite.emUso(), limite.aguardando());
+        var erro = new ErroRecordResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Limite de requisições simultâneas atingido (" + limite.compartimento.name().toLowerCase()
+                        + "). Tente novamente em instantes.", null);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), erro);
+    }
+
+    private record LiberarAoConcluir(Runnable liberar) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Novo ciclo assíncrono: o listener precisa ser registrado de novo
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.sistema.livraria.compartimentos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sistema.livraria.enums.Compartimento;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compartimentos (bulkheads) que isolam o CRUD interativo dos trabalhos pesados.
+ *
+ * Cada compartimento (INTERATIVO, RELATORIO, LOTE) tem:
+ * - um pool de conexões próprio (hikaricp.* com pool=interativo|relatorio|lote), com tamanho e espera próprios;
+ * - um limite de requisições simultâneas com fila de espera limitada (livraria.compartimentos.*), aplicado
+ *   por caminho em {@link CompartimentoFilter}.
+ * Assim um relatório ou uma importação esgota no máximo o próprio compartimento, e GET /livros continua com
+ * as suas conexões e threads.
+ */
+@Configuration
+public class CompartimentosConfig {
+
+    /**
+     * Configuração de um compartimento (livraria.compartimentos.&lt;nome&gt;).
+     *
+     * @param tamanhoPool     Conexões do pool do compartimento.
+     * @param esperaConexao   Espera máxima por uma conexão do pool.
+     * @param maxConcorrentes Requisições simultâneas no compartimento.
+     * @param esperaFila      Espera máxima por uma vaga antes de responder 503.
+     * @param caminhos        Padrões de caminho (estilo Ant) atribuídos ao compartimento.
+     */
+    public record ConfiguracaoCompartimento(int tamanhoPool, Duration esperaConexao, int maxConcorrentes,
+                                            Duration esperaFila, List<String> caminhos) {
+    }
+
+    static Map<Compartimento, ConfiguracaoCompartimento> configuracoes(Environment environment) {
+        return Binder.get(environment)
+                .bind("livraria.compartimentos", Bindable.mapOf(Compartimento.class, ConfiguracaoCompartimento.class))
+                .get();
+    }
+
+    static DataSource pool(DataSourceProperties properties, Environment environment, Compartimento compartimento) {
+        ConfiguracaoCompartimento configuracao = configuracoes(environment).get(compartimento);
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(compartimento.name().toLowerCase());
+        pool.setMaximumPoolSize(configuracao.tamanhoPool());
+        pool.setConnectionTimeout(configuracao.esperaConexao().toMillis());
+        return pool;
+    }
+
+    @Bean
+    public DataSource dataSourceInterativo(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, Compartimento.INTERATIVO);
+    }
+
+    @Bean
+    public DataSource dataSourceRelatorio(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, Compartimento.RELATORIO);
+    }
+
+    @Bean
+    public DataSource dataSourceLote(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, Compartimento.LOTE);
+    }
+
+    static DataSource primario(DataSource interativo, DataSource relatorio, DataSource lote) {
+        return new CompartimentosDataSource(Map.of(
+                Compartimento.INTERATIVO, interativo,
+                Compartimento.RELATORIO, relatorio,
+                Compartimento.LOTE, lote));
+    }
+
+    /**
+     * Sem réplicas, o primário roteado por compartimento é o próprio DataSource da aplicação.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnExpression("'${livraria.replicas.urls:}'.isBlank()")
+    static class SemReplicas {
+
+        @Bean(name = {"dataSource", "dataSourcePrimario"})
+        @Primary
+        public DataSource dataSource(@Qualifier("dataSourceInterativo") DataSource interativo,
+                                     @Qualifier("dataSourceRelatorio") DataSource relatorio,
+                                     @Qualifier("dataSourceLote") DataSource lote) {
+            return primario(interativo, relatorio, lote);
+        }
+    }
+
+    /**
+     * Com réplicas, o DataSource da aplicação é o roteamento de leituras (ReplicasConfig) sobre este primário.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnExpression("!'${livraria.replicas.urls:}'.isBlank()")
+    static class ComReplicas {
+
+        @Bean
+        public DataSource dataSourcePrimario(@Qualifier("dataSourceInterativo") DataSource interativo,
+                                             @Qualifier("dataSourceRelatorio") DataSource relatorio,
+                                             @Qualifier("dataSourceLote") DataSource lote) {
+            return primario(interativo, relatorio, lote);
+        }
+    }
+
+    @Bean
+    public Map<Compartimento, LimiteCompartimento> limitesCompartimentos(Environment environment) {
+        Map<Compartimento, LimiteCompartimento> limites = new EnumMap<>(Compartimento.class);
+        configuracoes(environment).forEach((compartimento, configuracao) -> limites.put(compartimento,
+                new LimiteCompartimento(compartimento, configuracao.maxConcorrentes(), configuracao.esperaFila())));
+        return limites;
+    }
+
+    @Bean
+    public FilterRegistrationBean<CompartimentoFilter> compartimentoFilter(Environment environment,
+                                                                          Map<Compartimento, LimiteCompartimento> limitesCompartimentos,
+                                                                          ObjectMapper objectMapper) {
+        Map<Compartimento, List<String>> caminhos = new EnumMap<>(Compartimento.class);
+        configuracoes(environment).forEach((compartimento, configuracao) ->
+                caminhos.put(compartimento, configuracao.caminhos() == null ? List.of() : configuracao.caminhos()));
+        var registro = new FilterRegistrationBean<>(new CompartimentoFilter(caminhos, limitesCompartimentos, objectMapper));
+        // Antes da segurança: requisições recusadas por capacidade não chegam a validar o token
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+
+    /**
+     * Leva o compartimento da requisição para as tarefas assíncronas (ex.: a escrita da exportação em streaming,
+     * que roda no executor do Spring MVC e precisa do pool de relatórios).
+     */
+    @Bean
+    public TaskDecorator compartimentoTaskDecorator() {
+        return tarefa -> {
+            Compartimento compartimento = ContextoCompartimento.atual();
+            return () -> ContextoCompartimento.executar(compartimento, tarefa);
+        };
+    }
+
+    /**
+     * Ocupação de cada compartimento em /actuator/metrics/livraria.compartimentos.* (tag compartimento);
+     * a saturação dos pools aparece em hikaricp.connections.* (tag pool).
+     */
+    @Bean
+    public MeterBinder metricasCompartimentos(Map<Compartimento, LimiteCompartimento> limitesCompartimentos) {
+        return registry -> limitesCompartimentos.forEach((compartimento, limite) -> {
+            String tag = compartimento.name().toLowerCase();
+            Gauge.builder("livraria.compartimentos.em.uso", limite, LimiteCompartimento::emUso)
+                    .tag("compartimento", tag).register(registry);
+            Gauge.builder("livraria.compartimentos.aguardando", limite, LimiteCompartimento::aguardando)
+                    .tag("compartimento", tag).register(registry);
+            Gauge.builder("livraria.compartimentos.limite", limite, l -> l.maximo)
+                    .tag("compartimento", tag).register(registry);
+            FunctionCounter.builder("livraria.compartimentos.rejeitadas", limite, LimiteCompartimento::rejeitadas)
+                    .tag("compartimento", tag).register(registry);
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.sistema.livraria.compartimentos;
+
+import com.sistema.livraria.enums.Compartimento;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource do primário que entrega a conexão do pool do compartimento da thread atual.
+ * Cada compartimento tem o próprio pool (tamanho e espera), então relatórios e importações esgotam só o seu.
+ */
+public class CompartimentosDataSource extends AbstractRoutingDataSource {
+
+    public CompartimentosDataSource(Map<Compartimento, DataSource> pools) {
+        setTargetDataSources(Map.copyOf(pools));
+        setDefaultTargetDataSource(pools.get(Compartimento.INTERATIVO));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ContextoCompartimento.atual();
+    }
+}
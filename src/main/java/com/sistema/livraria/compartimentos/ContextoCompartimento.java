@@ -0,0 +1,62 @@
+package com.sistema.livraria.compartimentos;
+
+import com.sistema.livraria.enums.Compartimento;
+
+import java.util.function.Supplier;
+
+/**
+ * Compartimento da thread atual, que decide de qual pool vêm as conexões ({@link CompartimentosDataSource}).
+ * Definido por requisição em {@link CompartimentoFilter}, propagado às tarefas assíncronas pelo TaskDecorator
+ * de {@link CompartimentosConfig} e definido explicitamente nos trabalhos pesados fora de requisições.
+ */
+public final class ContextoCompartimento {
+
+    private static final ThreadLocal<Compartimento> ATUAL = new ThreadLocal<>();
+
+    private ContextoCompartimento() {
+    }
+
+    public static Compartimento atual() {
+        Compartimento compartimento = ATUAL.get();
+        return compartimento != null ? compartimento : Compartimento.INTERATIVO;
+    }
+
+    /**
+     * Executa a tarefa no compartimento informado, restaurando o anterior ao final.
+     */
+    public static <T> T executar(Compartimento compartimento, Supplier<T> tarefa) {
+        Compartimento anterior = ATUAL.get();
+        ATUAL.set(compartimento);
+        try {
+            return tarefa.get();
+        } finally {
+            restaurar(anterior);
+        }
+    }
+
+    public static void executar(Compartimento compartimento, Runnable tarefa) {
+        executar(compartimento, () -> {
+            tarefa.run();
+            return null;
+        });
+    }
+
+    /**
+     * Define o compartimento da thread atual. Quem define deve chamar {@link #restaurar} com o retorno ao final.
+     *
+     * @return O compartimento anterior (nulo se não havia).
+     */
+    public static Compartimento definir(Compartimento compartimento) {
+        Compartimento anterior = ATUAL.get();
+        ATUAL.set(compartimento);
+        return anterior;
+    }
+
+    public static void restaurar(Compartimento anterior) {
+        if (anterior == null) {
+            ATUAL.remove();
+        } else {
+            ATUAL.set(anterior);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.sistema.livraria.compartimentos;
+
+import com.sistema.livraria.enums.Compartimento;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite de requisições simultâneas de um compartimento, com fila de espera limitada no tempo.
+ * Impede que o trabalho pesado ocupe todas as threads do servidor, mesmo com o pool dele esgotado.
+ */
+public class LimiteCompartimento {
+
+    final Compartimento compartimento;
+    final int maximo;
+    final long esperaMs;
+
+    private final Semaphore permissoes;
+    private final AtomicLong rejeitadas = new AtomicLong();
+
+    public LimiteCompartimento(Compartimento compartimento, int maximo, Duration espera) {
+        this.compartimento = compartimento;
+        this.maximo = maximo;
+        this.esperaMs = espera.toMillis();
+        this.permissoes = new Semaphore(maximo, true);
+    }
+
+    /**
+     * @return Falso se a espera terminou sem vaga (a requisição deve ser recusada).
+     */
+    boolean entrar() throws InterruptedException {
+        if (permissoes.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        rejeitadas.incrementAndGet();
+        return false;
+    }
+
+    void sair() {
+        permissoes.release();
+    }
+
+    public int emUso() {
+        return maximo - permissoes.availablePermits();
+    }
+
+    public int aguardando() {
+        return permissoes.getQueueLength();
+    }
+
+    public long rejeitadas() {
+        return rejeitadas.get();
+    }
+}
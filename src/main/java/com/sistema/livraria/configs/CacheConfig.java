@@ -0,0 +1,186 @@
+package com.sistema.livraria.configs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sistema.livraria.models.LivroModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Configuração dos caches locais (Caffeine) usados nas consultas de livros por ID e por ISBN.
+ *
+ * Os caches são limitados pelo tamanho estimado das entradas (em bytes), expiram por tempo (TTL) e
+ * registram estatísticas de acertos/erros expostas em /actuator/metrics (cache.gets, cache.evictions...).
+ * ISBNs inexistentes também são armazenados (cache negativo), porém com um TTL menor.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String LIVROS_POR_ID = "livrosPorId";
+    public static final String LIVROS_POR_ISBN = "livrosPorIsbn";
+
+    @Value("${livraria.cache.livros.peso-maximo-bytes:33554432}")
+    private long pesoMaximoBytes;
+
+    @Value("${livraria.cache.livros.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${livraria.cache.livros.ttl-negativo:1m}")
+    private Duration ttlNegativo;
+
+    @Bean
+    public CacheManager cacheManager(MeterRegistry meterRegistry) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager() {
+            // Entidades JPA são mutáveis: o cache guarda e devolve cópias para que nenhuma alteração
+            // feita por quem consultou (antes do commit ou numa transação desfeita) "vaze" para o cache.
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new CacheDeCopias(super.adaptCaffeineCache(name, cache));
+            }
+        };
+        caffeineCacheManager.setAllowNullValues(true); // necessário para o cache negativo de ISBN
+
+        for (String nome : new String[]{LIVROS_POR_ID, LIVROS_POR_ISBN}) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = criarCacheLivros();
+            caffeineCacheManager.registerCustomCache(nome, cache);
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, nome);
+        }
+
+        // As remoções (evict) só são aplicadas após o commit, evitando que uma leitura concorrente
+        // recoloque no cache o valor antigo enquanto a transação ainda não terminou.
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> criarCacheLivros() {
+        return Caffeine.newBuilder()
+                .maximumWeight(pesoMaximoBytes)
+                .weigher((Object chave, Object valor) -> estimarPeso(valor))
+                .expireAfter(new Expiry<Object, Object>() {
+                    @Override
+                    public long expireAfterCreate(Object chave, Object valor, long tempoAtual) {
+                        return (valor instanceof NullValue ? ttlNegativo : ttl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Object chave, Object valor, long tempoAtual, long duracaoAtual) {
+                        return expireAfterCreate(chave, valor, tempoAtual);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Object chave, Object valor, long tempoAtual, long duracaoAtual) {
+                        return duracaoAtual;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Estimativa simples do tamanho em memória de uma entrada (cabeçalhos + textos em UTF-16).
+     */
+    static int estimarPeso(Object valor) {
+        if (!(valor instanceof LivroModel livro)) {
+            return 64;
+        }
+        int peso = 256;
+        for (String texto : new String[]{livro.getIsbn(), livro.getTitulo(), livro.getSubtitulo(), livro.getAutor(),
+                livro.getEditora(), livro.getCapaUrl(), livro.getDataPublicacao()}) {
+            if (texto != null) {
+                peso += 40 + texto.length() * 2;
+            }
+        }
+        return peso;
+    }
+
+    static Object copiar(Object valor) {
+        if (valor instanceof LivroModel livro) {
+            LivroModel copia = new LivroModel();
+            BeanUtils.copyProperties(livro, copia);
+            return copia;
+        }
+        return valor;
+    }
+
+    /**
+     * Decorador que copia os livros na escrita e na leitura do cache.
+     */
+    static class CacheDeCopias implements Cache {
+
+        private final Cache delegate;
+
+        CacheDeCopias(Cache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            ValueWrapper wrapper = delegate.get(key);
+            return wrapper == null ? null : () -> copiar(wrapper.get());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            return (T) copiar(delegate.get(key, type));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return (T) copiar(delegate.get(key, () -> (T) copiar(valueLoader.call())));
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, copiar(value));
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            ValueWrapper wrapper = delegate.putIfAbsent(key, copiar(value));
+            return wrapper == null ? null : () -> copiar(wrapper.get());
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return delegate.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            return delegate.invalidate();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.sistema.livraria.configs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.models.LivroModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Cache do JSON já serializado dos livros, usado pelas consultas de livro único (por ID e por ISBN).
+ *
+ * A chave inclui a versão do livro (@Version), então uma gravação nunca devolve bytes antigos: a nova versão
+ * simplesmente não encontra entrada. Após o commit, a entrada da versão anterior é removida para liberar memória.
+ * As estatísticas aparecem em /actuator/metrics (cache.gets com cache=respostasLivro).
+ */
+@Component
+public class CacheRespostasLivro {
+
+    public static final String NOME = "respostasLivro";
+
+    record Chave(UUID livroId, Long versao) {
+    }
+
+    final ObjectMapper objectMapper;
+    final Cache<Chave, byte[]> cache;
+
+    public CacheRespostasLivro(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                               @Value("${livraria.cache.respostas.peso-maximo-bytes:16777216}") long pesoMaximoBytes,
+                               @Value("${livraria.cache.respostas.ttl:10m}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(pesoMaximoBytes)
+                .weigher((Chave chave, byte[] json) -> 64 + json.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOME);
+    }
+
+    /**
+     * Devolve o JSON do livro, serializando apenas na primeira consulta de cada versão.
+     */
+    public byte[] json(LivroModel livro) {
+        return cache.get(new Chave(livro.getLivroId(), livro.getVersao()), chave -> serializar(livro));
+    }
+
+    /**
+     * Devolve o JSON da versão informada sem carregar o livro quando ela já está no cache. Na falta, o livro é
+     * carregado fora do cache (nenhuma consulta roda dentro do compute do Caffeine) e guardado com a versão lida;
+     * se uma gravação concorrente já mudou a versão, o JSON devolvido é o da versão mais nova.
+     *
+     * @param carregar Carrega o livro, chamado só na falta.
+     */
+    public byte[] json(UUID livroId, Long versao, Supplier<LivroModel> carregar) {
+        byte[] json = cache.getIfPresent(new Chave(livroId, versao));
+        return json != null ? json : json(carregar.get());
+    }
+
+    /**
+     * Remove as entradas que deixaram de valer com a alteração (a versão anterior ou, na remoção, a atual).
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarLivro(LivroAlteradoEvent event) {
+        Long versao = event.livro() != null ? event.livro().getVersao() : null;
+        if (versao == null) {
+            return;
+        }
+        if (event.tipo() == TipoAlteracaoLivro.REMOVIDO) {
+            cache.invalidate(new Chave(event.livroId(), versao));
+        } else {
+            cache.invalidate(new Chave(event.livroId(), versao - 1));
+        }
+    }
+
+    /**
+     * Esvazia o cache (usado em operações em lote).
+     */
+    public void limpar() {
+        cache.invalidateAll();
+    }
+
+    private byte[] serializar(LivroModel livro) {
+        try {
+            return objectMapper.writeValueAsBytes(livro);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
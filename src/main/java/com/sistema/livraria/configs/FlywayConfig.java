@@ -1,26 +0,0 @@
-package com.sistema.livraria.configs;
-
-import org.flywaydb.core.Flyway;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Primary;
-
-import javax.sql.DataSource;
-
-@Configuration
-@EnableConfigurationProperties
-public class FlywayConfig {
-
-    @Bean
-    @Primary
-    public Flyway flyway(@Qualifier("dataSource") DataSource dataSource) {
-        return Flyway.configure()
-                .dataSource(dataSource)
-                .locations("classpath:db/migration")
-                .baselineOnMigrate(true)
-                .validateOnMigrate(true)
-                .load();
-    }
-}
\ No newline at end of file
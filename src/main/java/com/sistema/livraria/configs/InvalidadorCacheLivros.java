@@ -0,0 +1,91 @@
+package com.sistema.livraria.configs;
+
+import com.sistema.livraria.models.LivroModel;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Invalida os caches de livros (Spring Cache e cache de segundo nível do Hibernate) quando o livro
+ * é alterado por SQL nativo, que o Hibernate não enxerga. As alterações feitas via JPA já são tratadas
+ * pelas anotações {@code @CacheEvict} e pela estratégia READ_WRITE da região "livros".
+ *
+ * Dentro de uma transação, a invalidação só acontece após o commit.
+ */
+@Component
+public class InvalidadorCacheLivros {
+
+    // Região do cache de consultas usada por findByStatusLivro (ver LivroRepository)
+    public static final String REGIAO_LIVROS_POR_STATUS = "livrosPorStatus";
+
+    final CacheManager cacheManager;
+    final EntityManagerFactory entityManagerFactory;
+    final CacheRespostasLivro cacheRespostasLivro;
+
+    public InvalidadorCacheLivros(CacheManager cacheManager, EntityManagerFactory entityManagerFactory,
+                                  CacheRespostasLivro cacheRespostasLivro) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheRespostasLivro = cacheRespostasLivro;
+    }
+
+    /**
+     * Invalida as entradas de um livro (por ID e por ISBN) e as consultas por status.
+     */
+    public void invalidar(UUID livroId, String isbn) {
+        aposCommit(() -> {
+            evict(CacheConfig.LIVROS_POR_ID, livroId);
+            if (isbn != null) {
+                evict(CacheConfig.LIVROS_POR_ISBN, isbn);
+            }
+            entityManagerFactory.getCache().evict(LivroModel.class, livroId);
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(REGIAO_LIVROS_POR_STATUS);
+        });
+    }
+
+    /**
+     * Invalida todos os caches de livros (usado em operações em lote).
+     */
+    public void invalidarTudo() {
+        aposCommit(() -> {
+            limpar(CacheConfig.LIVROS_POR_ID);
+            limpar(CacheConfig.LIVROS_POR_ISBN);
+            cacheRespostasLivro.limpar();
+            entityManagerFactory.getCache().evict(LivroModel.class);
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        });
+    }
+
+    private void evict(String nomeCache, Object chave) {
+        Cache cache = cacheManager.getCache(nomeCache);
+        if (cache != null) {
+            cache.evict(chave);
+        }
+    }
+
+    private void limpar(String nomeCache) {
+        Cache cache = cacheManager.getCache(nomeCache);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
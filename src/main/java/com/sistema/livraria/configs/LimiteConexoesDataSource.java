@@ -0,0 +1,93 @@
+package com.sistema.livraria.configs;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource que limita, com um semáforo justo (FIFO), quantas threads podem estar com uma conexão ao mesmo tempo.
+ *
+ * <p>Com threads virtuais não há mais o teto do pool do Tomcat: milhares de requisições podem chegar juntas ao
+ * Hikari. O semáforo tem o mesmo tamanho do pool, então quem passa por ele encontra conexão livre, e quem espera
+ * fica numa fila barata (a thread virtual é desmontada), atendida por ordem de chegada e com prazo próprio, menor
+ * que o connection-timeout do Hikari. Esgotado o prazo, a requisição recebe 503 em vez de se acumular.</p>
+ *
+ * <p>A permissão é devolvida no {@code close()} da conexão (uma única vez, mesmo que ele seja chamado de novo).</p>
+ */
+public class LimiteConexoesDataSource extends DelegatingDataSource {
+
+    private final Semaphore permissoes;
+    private final long esperaMaximaMs;
+
+    public LimiteConexoesDataSource(DataSource alvo, int limite, Duration esperaMaxima) {
+        super(alvo);
+        this.permissoes = new Semaphore(limite, true);
+        this.esperaMaximaMs = esperaMaxima.toMillis();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        try {
+            return liberarAoFechar(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        try {
+            return liberarAoFechar(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Quantidade de threads esperando uma permissão (estimativa).
+     */
+    public int aguardando() {
+        return permissoes.getQueueLength();
+    }
+
+    private void adquirir() throws SQLException {
+        try {
+            if (!permissoes.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Nenhuma conexão livre em " + esperaMaximaMs + " ms ("
+                        + aguardando() + " requisições aguardando)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido enquanto aguardava uma conexão", e);
+        }
+    }
+
+    private Connection liberarAoFechar(Connection conexao) {
+        AtomicBoolean liberada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    try {
+                        return metodo.invoke(conexao, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if (metodo.getName().equals("close") && liberada.compareAndSet(false, true)) {
+                            permissoes.release();
+                        }
+                    }
+                });
+    }
+}
@@ -1,28 +1,52 @@
 package com.sistema.livraria.configs;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 /**
- * Configuração para a criação de um bean do RestTemplate.
+ * Configuração dos clientes HTTP usados nas integrações com APIs externas.
  *
- * O RestTemplate é uma classe fornecida pelo Spring que facilita a comunicação com APIs externas
- * por meio de requisições HTTP, sendo amplamente utilizada em integrações com serviços RESTful.
+ * Todas as chamadas saem de um único {@link HttpClient} do JDK, que mantém as conexões abertas entre requisições
+ * (keep-alive), negocia HTTP/2 quando o servidor oferece (várias requisições multiplexadas na mesma conexão) e tem
+ * API assíncrona ({@code sendAsync}). Sem prazos, uma resposta lenta do provedor prenderia a thread da requisição
+ * indefinidamente: a conexão tem {@code livraria.http.conexao-timeout} e cada chamada, seu próprio prazo.
  */
 @Configuration
 public class RestTemplateConfig {
 
     /**
-     * Criação do bean RestTemplate para ser utilizado em toda a aplicação.
+     * Cliente HTTP compartilhado (pool de conexões do JDK). Fechado junto com o contexto da aplicação.
+     *
+     * @param conexaoTimeout Tempo máximo para estabelecer uma conexão nova.
+     */
+    @Bean
+    public HttpClient httpClient(@Value("${livraria.http.conexao-timeout}") Duration conexaoTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2) // servidores só HTTP/1.1 continuam atendidos em HTTP/1.1
+                .connectTimeout(conexaoTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Criação do bean RestTemplate para ser utilizado em toda a aplicação, sobre o cliente HTTP compartilhado.
      *
      * O RestTemplate permite realizar chamadas HTTP, tanto GET quanto POST, PUT, DELETE, etc.,
      * facilitando o consumo de serviços externos.
      *
+     * @param leituraTimeout Prazo de cada chamada, até a chegada da resposta.
      * @return Uma instância de RestTemplate configurada.
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HttpClient httpClient, @Value("${livraria.http.leitura-timeout}") Duration leituraTimeout) {
+        var requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(leituraTimeout);
+        return new RestTemplate(requestFactory);
     }
-}
\ No newline at end of file
+}
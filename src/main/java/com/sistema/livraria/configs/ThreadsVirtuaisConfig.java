@@ -0,0 +1,59 @@
+package com.sistema.livraria.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Ajustes do modo de threads virtuais (spring.threads.virtual.enabled=true, opcional).
+ *
+ * Nesse modo o próprio Spring Boot passa a atender as requisições do Tomcat (inclusive relatórios em PDF e o
+ * cadastro por ISBN, que chama a Open Library), as tarefas @Scheduled e as respostas assíncronas em threads
+ * virtuais. Esta configuração só acrescenta o limite de conexões na frente do Hikari ({@link LimiteConexoesDataSource}).
+ *
+ * Pontos de fixação (pinning) da thread virtual na thread portadora, conferidos para o JDK 21:
+ * - Driver do PostgreSQL (42.7) e Hikari: usam ReentrantLock, sem bloqueio dentro de synchronized.
+ * - iText: os relatórios são gerados em ByteArrayOutputStream; os trechos synchronized não fazem I/O.
+ * - Blocos synchronized da aplicação (MotorReservas, ContadorFacetas, EstoqueStreamServiceImpl, UuidV7, Disjuntor,
+ *   OrcamentoRetentativas) só alteram memória; nenhum acessa banco ou rede.
+ * - Caffeine executa o carregamento dentro de ConcurrentHashMap.compute (synchronized): por isso nenhum
+ *   {@code @Cacheable} usa {@code sync = true} com consulta ao banco, e o ConsultaOpenLibrary usa o cache assíncrono
+ *   (o carregamento roda fora do compute). Manter assim.
+ * - Appenders síncronos do Log4j2 escrevem no console dentro de synchronized; com SQL em debug, preferir
+ *   desligar show_sql ou usar appender assíncrono em produção.
+ * Para auditar em execução: -Djdk.tracePinnedThreads=short.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ThreadsVirtuaisConfig {
+
+    private static final Logger logger = LogManager.getLogger(ThreadsVirtuaisConfig.class);
+
+    /**
+     * Envolve cada pool do Hikari (um por compartimento) com um semáforo do tamanho do pool.
+     *
+     * @param esperaConexao Tempo máximo de espera por uma conexão antes de responder 503.
+     */
+    @Bean
+    static BeanPostProcessor limiteConexoesPostProcessor(@Value("${livraria.threads-virtuais.espera-conexao}") Duration esperaConexao) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    logger.info("Threads virtuais: até {} conexões simultâneas, espera máxima de {}",
+                            hikari.getMaximumPoolSize(), esperaConexao);
+                    return new LimiteConexoesDataSource(hikari, hikari.getMaximumPoolSize(), esperaConexao);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.sistema.livraria.configs.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +15,8 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Implementação do filtro de autenticação JWT.
@@ -21,7 +24,10 @@ import java.io.IOException;
  * <p>Esta classe estende {@link OncePerRequestFilter} para garantir que cada requisição HTTP seja filtrada
  * apenas uma vez. O objetivo é extrair, ValidadorHorarioAntecedencia e processar o token JWT enviado pelo cliente.</p>
  *
- * <p>Se o token JWT for válido, a autenticação do usuário é configurada no contexto de segurança do Spring.</p>
+ * <p>Se o token JWT for válido, a autenticação do usuário é configurada no contexto de segurança do Spring.
+ * O usuário é sempre recarregado pelo {@link UsuarioDetailsServiceImpl}, para que um usuário excluído ou com
+ * perfis alterados não continue autenticado até o token expirar. Com a claim do ID, a leitura é pela chave
+ * primária e vem do cache de segundo nível; tokens sem ela carregam o usuário pelo nome.</p>
  *
  * @author [Seu Nome]
  * @version 1.0
@@ -61,11 +67,10 @@ public class AutenticacaoJwtFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwtStr = getTokenHeader(request);
-            if (jwtStr != null && tokenJwt.validacaoJwt(jwtStr)) {
-                // Extrai o nome de usuário do token JWT
-                String username = tokenJwt.getUsernameJwt(jwtStr);
-                // Carrega os detalhes do usuário a partir do nome extraído
-                UserDetails userDetails = usuarioDetailsService.loadUserByUsername(username);
+            Optional<Claims> claims = jwtStr != null ? tokenJwt.lerClaims(jwtStr) : Optional.empty();
+            if (claims.isPresent()) {
+                // Carrega os detalhes atuais do usuário identificado pelo token
+                UserDetails userDetails = montarUsuario(claims.get());
                 // Cria um objeto de autenticação com as credenciais e permissões do usuário
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
@@ -82,6 +87,22 @@ public class AutenticacaoJwtFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Carrega os detalhes do usuário identificado pelas claims do token. Os perfis são sempre os atuais,
+     * nunca os da claim {@link TokenJwt#CLAIM_ROLES}, que só reflete o momento da emissão.
+     *
+     * @param claims Claims do token JWT já validado.
+     * @return Os detalhes do usuário autenticado.
+     */
+    private UserDetails montarUsuario(Claims claims) {
+        String usuarioId = claims.get(TokenJwt.CLAIM_USUARIO_ID, String.class);
+        if (usuarioId == null) {
+            // Token emitido antes da claim do ID: carrega o usuário pelo nome
+            return usuarioDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        return usuarioDetailsService.loadUserById(UUID.fromString(usuarioId), claims.getSubject());
+    }
+
     /**
      * Obtém o token JWT do cabeçalho da requisição HTTP.
      *
@@ -1,5 +1,6 @@
 package com.sistema.livraria.configs.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
@@ -9,11 +10,13 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 /**
  * Classe responsável por fornecer funcionalidades para geração de tokens JWT na aplicação.
@@ -26,6 +29,11 @@ public class TokenJwt {
 
     private static final Logger logger = LogManager.getLogger(TokenJwt.class);
 
+    // Claims com o ID e os perfis do usuário: o filtro relê o usuário pelo ID (cache de segundo nível);
+    // os perfis da claim são apenas informativos, a autorização usa sempre os atuais
+    public static final String CLAIM_USUARIO_ID = "usuarioId";
+    public static final String CLAIM_ROLES = "roles";
+
     //Chave secreta utilizada para assinar os tokens JWT. */
     @Value("${autorizacao.jwtSecret}")
     private String jwtSecret;
@@ -45,6 +53,8 @@ public class TokenJwt {
 
         return Jwts.builder()
                 .subject(usuarioPrincipal.getUsername()) // Define o nome do usuário como "subject" do token
+                .claim(CLAIM_USUARIO_ID, String.valueOf(usuarioPrincipal.getUsuarioId()))
+                .claim(CLAIM_ROLES, usuarioPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
                 .issuedAt(new Date()) // Define a data de emissão do token
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs)) // Define a data de expiração do token
                 .signWith(getSecretKey()) // Assina o token com a chave secreta
@@ -70,21 +80,18 @@ public class TokenJwt {
     }
 
     /**
-     * Valida um token JWT.
-     *
-     * <p>Este método tenta ValidadorHorarioAntecedencia o token JWT fornecido. Caso o token seja válido, retorna {@code true}.
-     * Caso contrário, captura e registra a exceção correspondente e retorna {@code false}.</p>
+     * Valida o token e devolve as suas claims, com uma única verificação de assinatura.
      *
-     * @param authToken O token JWT a ser validado.
-     * @return {@code true} se o token for válido, {@code false} caso contrário.
+     * @param authToken O token JWT.
+     * @return As claims do token, ou vazio se o token for inválido (o motivo é registrado no log).
      */
-    public boolean validacaoJwt(String authToken) {
+    public Optional<Claims> lerClaims(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSecretKey()) // verifica se o token está expirado
-                    .build()// inicia validação
-                    .parseSignedClaims(authToken);
-            return true;
+            return Optional.of(Jwts.parser()
+                    .verifyWith(getSecretKey())
+                    .build()
+                    .parseSignedClaims(authToken)
+                    .getPayload());
         } catch (SecurityException e) {
             logger.error("Assinatura JWT inválida: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -96,6 +103,19 @@ public class TokenJwt {
         } catch (IllegalArgumentException e) {
             logger.error("A string de reivindicações do JWT está vazia: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Valida um token JWT.
+     *
+     * <p>Este método tenta ValidadorHorarioAntecedencia o token JWT fornecido. Caso o token seja válido, retorna {@code true}.
+     * Caso contrário, captura e registra a exceção correspondente e retorna {@code false}.</p>
+     *
+     * @param authToken O token JWT a ser validado.
+     * @return {@code true} se o token for válido, {@code false} caso contrário.
+     */
+    public boolean validacaoJwt(String authToken) {
+        return lerClaims(authToken).isPresent();
     }
 }
\ No newline at end of file
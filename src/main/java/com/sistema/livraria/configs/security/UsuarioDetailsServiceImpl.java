@@ -8,6 +8,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
 
 @Service
 public class UsuarioDetailsServiceImpl implements UserDetailsService {
@@ -33,4 +36,22 @@ public class UsuarioDetailsServiceImpl implements UserDetailsService {
         // Converte a entidade UsuarioModel para um objeto UserDetails e retorna
         return UsuarioDetailsImpl.build(usuarioModel);
     }
+
+    /**
+     * Método para carregar um usuário pelo ID, usado pelo filtro JWT a cada requisição.
+     * O usuário e suas roles vêm do cache de segundo nível; um usuário excluído, renomeado ou com
+     * roles alteradas deixa de valer (ou passa a valer com as novas roles) sem esperar o token expirar.
+     * @param usuarioId ID do usuário presente no token
+     * @param username Nome de usuário presente no token
+     * @return UserDetails contendo informações do usuário autenticado
+     * @throws UsernameNotFoundException se o usuário não existir mais ou tiver outro nome
+     */
+    @Transactional(readOnly = true)
+    public UserDetails loadUserById(UUID usuarioId, String username) throws UsernameNotFoundException {
+        UsuarioModel usuarioModel = usuarioRepository.findById(usuarioId)
+                .filter(usuario -> usuario.getNome().equals(username))
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+
+        return UsuarioDetailsImpl.build(usuarioModel);
+    }
 }
\ No newline at end of file
@@ -47,6 +47,7 @@ public class WebSecurityConfigurations {
             "/editoras/**",
             "/isbn/**",
             "/relatorios/**",
+            "/actuator/health/**",
             "/error"
     };
 
@@ -91,7 +92,9 @@ public class WebSecurityConfigurations {
                 .authorizeHttpRequests(authorizeRequests -> authorizeRequests
                         .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll() // Permite acesso a páginas de erro
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/livros/importacao").hasRole("ADMINISTRADOR") // Importação em lote (pode remover livros)
                         .requestMatchers(LISTA_AUTENTICADOS).permitAll() // Endpoints permitidos sem autenticação
+                        .requestMatchers("/actuator/**").hasRole("ADMINISTRADOR") // Métricas e caches: só administradores (a saúde é pública)
                         //.requestMatchers(HttpMethod.DELETE, "/usuario/**").hasAnyRole("ADMINISTRADOR")
                         //.requestMatchers(HttpMethod.PUT, "/usuario/**").hasAnyRole("ADMINISTRADOR")
                         .anyRequest().authenticated() // Todas as demais requisições precisam de autenticação
@@ -0,0 +1,16 @@
+package com.sistema.livraria.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.models.LivroModel;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AlteracaoLivroRecordDto(Long sequencia,
+                                      UUID livroId,
+                                      TipoAlteracaoLivro tipo,
+                                      LocalDateTime dataAlteracao,
+                                      LivroModel livro) { // estado atual do livro; ausente nas remoções (tombstone)
+}
@@ -0,0 +1,8 @@
+package com.sistema.livraria.dtos;
+
+import java.util.List;
+
+public record AlteracoesRecordDto(List<AlteracaoLivroRecordDto> alteracoes,
+                                  Long proximoCursor, // valor de "desde" para a próxima chamada
+                                  boolean temMais) {
+}
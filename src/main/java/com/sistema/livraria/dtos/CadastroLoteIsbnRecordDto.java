@@ -0,0 +1,8 @@
+package com.sistema.livraria.dtos;
+
+import java.util.List;
+
+public record CadastroLoteIsbnRecordDto(long total,
+                                        long cadastrados,
+                                        List<ResultadoIsbnRecordDto> resultados) { // um por item, na ordem recebida
+}
@@ -0,0 +1,6 @@
+package com.sistema.livraria.dtos;
+
+public record ErroImportacaoRecordDto(long linha,     // linha do arquivo (a partir de 1, contando o cabeçalho do CSV)
+                                      String isbn,    // ISBN da linha, quando foi possível lê-lo
+                                      String mensagem) {
+}
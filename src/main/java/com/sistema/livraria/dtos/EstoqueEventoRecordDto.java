@@ -0,0 +1,16 @@
+package com.sistema.livraria.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EstoqueEventoRecordDto(UUID livroId,
+                                     TipoAlteracaoLivro tipo,
+                                     Integer quantidade,
+                                     StatusLivro statusLivro,
+                                     Categoria categoria) {
+}
@@ -0,0 +1,10 @@
+package com.sistema.livraria.dtos;
+
+import com.sistema.livraria.enums.StatusLivro;
+
+import java.util.UUID;
+
+public record EstoqueRecordDto(UUID livroId,
+                               Integer quantidade,
+                               StatusLivro statusLivro) {
+}
@@ -0,0 +1,15 @@
+package com.sistema.livraria.dtos;
+
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.Formato;
+import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.enums.TipoCapa;
+
+import java.util.Map;
+
+public record FacetasRecordDto(int total,
+                               Map<Categoria, Integer> categorias,
+                               Map<StatusLivro, Integer> status,
+                               Map<Formato, Integer> formatos,
+                               Map<TipoCapa, Integer> tiposCapa) {
+}
@@ -0,0 +1,12 @@
+package com.sistema.livraria.dtos;
+
+import java.util.List;
+
+public record ImportacaoRecordDto(long linhasLidas,
+                                  long inseridos,
+                                  long atualizados,
+                                  long removidos,     // apenas no modo RECONCILIACAO
+                                  long inalterados,   // ISBNs do arquivo iguais aos do banco (não gravados)
+                                  long totalErros,
+                                  List<ErroImportacaoRecordDto> erros) { // limitado a livraria.importacao.max-erros-relatorio
+}
@@ -0,0 +1,16 @@
+package com.sistema.livraria.dtos;
+
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.Formato;
+import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.enums.TipoCapa;
+
+import java.util.UUID;
+
+// Projeção com os campos do livro contados pelas facetas do catálogo
+public record LivroFacetasRecordDto(UUID livroId,
+                                    Categoria categoria,
+                                    StatusLivro statusLivro,
+                                    Formato formato,
+                                    TipoCapa tipoCapa) {
+}
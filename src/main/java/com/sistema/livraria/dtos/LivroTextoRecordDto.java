@@ -0,0 +1,10 @@
+package com.sistema.livraria.dtos;
+
+import java.util.UUID;
+
+// Projeção com os campos textuais do livro utilizados pelo índice de sugestões
+public record LivroTextoRecordDto(UUID livroId,
+                                  String titulo,
+                                  String autor,
+                                  String editora) {
+}
@@ -0,0 +1,14 @@
+package com.sistema.livraria.dtos;
+
+import com.sistema.livraria.enums.TipoMovimentoEstoque;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record MovimentoEstoqueRecordDto(
+        @NotNull(message = "O campo tipo é obrigatório (ENTRADA ou SAIDA).")
+        TipoMovimentoEstoque tipo,
+
+        @NotNull(message = "O campo quantidade é obrigatório.")
+        @Min(value = 1, message = "A quantidade movimentada deve ser maior que zero.")
+        Integer quantidade) {
+}
@@ -0,0 +1,10 @@
+package com.sistema.livraria.dtos;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ReservaEstoqueRecordDto(UUID reservaId,
+                                      UUID livroId,
+                                      Integer quantidade,
+                                      LocalDateTime expiraEm) {
+}
@@ -0,0 +1,15 @@
+package com.sistema.livraria.dtos;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record ReservaRecordDto(
+        @NotNull(message = "O campo livroId é obrigatório.")
+        UUID livroId,
+
+        @NotNull(message = "O campo quantidade é obrigatório.")
+        @Min(value = 1, message = "A quantidade reservada deve ser maior que zero.")
+        Integer quantidade) {
+}
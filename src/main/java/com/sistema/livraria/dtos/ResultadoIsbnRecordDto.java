@@ -0,0 +1,13 @@
+package com.sistema.livraria.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sistema.livraria.enums.ResultadoCadastroIsbn;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ResultadoIsbnRecordDto(String isbn,
+                                     ResultadoCadastroIsbn resultado,
+                                     UUID livroId,       // livro criado (CADASTRADO)
+                                     String mensagem) {  // motivo, quando o ISBN não foi cadastrado
+}
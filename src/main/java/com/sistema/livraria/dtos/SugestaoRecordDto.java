@@ -0,0 +1,10 @@
+package com.sistema.livraria.dtos;
+
+import com.sistema.livraria.enums.CampoSugestao;
+
+import java.util.UUID;
+
+public record SugestaoRecordDto(UUID livroId,
+                                CampoSugestao campo,
+                                String texto) {
+}
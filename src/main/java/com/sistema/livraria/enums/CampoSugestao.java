@@ -0,0 +1,7 @@
+package com.sistema.livraria.enums;
+
+public enum CampoSugestao {
+    TITULO,   // Sugestão vinda do título do livro.
+    AUTOR,    // Sugestão vinda do nome do autor.
+    EDITORA   // Sugestão vinda do nome da editora.
+}
@@ -0,0 +1,7 @@
+package com.sistema.livraria.enums;
+
+public enum Compartimento {
+    INTERATIVO,  // CRUD e consultas do dia a dia (padrão de toda requisição e tarefa sem compartimento definido)
+    RELATORIO,   // Relatórios em PDF e exportação: varreduras longas da tabela inteira
+    LOTE         // Importações e cadastros em lote, reconciliações periódicas
+}
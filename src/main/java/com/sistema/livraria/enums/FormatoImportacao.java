@@ -0,0 +1,20 @@
+package com.sistema.livraria.enums;
+
+public enum FormatoImportacao {
+    CSV,     // Cabeçalho com os nomes dos campos de LivroRecordDto, um livro por linha (sem quebras de linha nos campos).
+    NDJSON;  // Um objeto JSON (LivroRecordDto) por linha.
+
+    /**
+     * Formato a partir do nome do arquivo (.csv, .ndjson, .jsonl, opcionalmente com .gz).
+     */
+    public static FormatoImportacao doArquivo(String nome) {
+        String semGzip = nome.toLowerCase().replaceFirst("\\.gz$", "");
+        if (semGzip.endsWith(".csv")) {
+            return CSV;
+        }
+        if (semGzip.endsWith(".ndjson") || semGzip.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Formato de arquivo não suportado (use .csv, .ndjson ou .jsonl): " + nome);
+    }
+}
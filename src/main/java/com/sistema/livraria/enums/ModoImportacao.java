@@ -0,0 +1,6 @@
+package com.sistema.livraria.enums;
+
+public enum ModoImportacao {
+    MESCLA,        // Cria os ISBNs novos e atualiza os que mudaram; livros ausentes no arquivo são mantidos.
+    RECONCILIACAO  // O arquivo é o inventário completo: além da mescla, remove os livros ausentes no arquivo.
+}
@@ -0,0 +1,9 @@
+package com.sistema.livraria.enums;
+
+public enum ResultadoCadastroIsbn {
+    CADASTRADO,      // Livro criado com os dados da Open Library.
+    JA_CADASTRADO,   // ISBN já existe no catálogo (ativo ou arquivado); nada foi alterado.
+    NAO_ENCONTRADO,  // A Open Library não conhece o ISBN.
+    INVALIDO,        // Item com dados inválidos ou ISBN repetido no lote.
+    ERRO_PROVEDOR    // Falha ao consultar a Open Library; o ISBN pode ser reenviado.
+}
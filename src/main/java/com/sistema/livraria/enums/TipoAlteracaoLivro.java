@@ -0,0 +1,8 @@
+package com.sistema.livraria.enums;
+
+public enum TipoAlteracaoLivro {
+    CRIADO,      // Livro cadastrado (manualmente ou via ISBN).
+    ATUALIZADO,  // Dados do livro alterados (PUT ou PATCH de status).
+    REMOVIDO,    // Livro excluído do catálogo.
+    ESTOQUE      // Apenas quantidade/status alterados por movimentação de estoque.
+}
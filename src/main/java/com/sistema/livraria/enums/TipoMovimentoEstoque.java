@@ -0,0 +1,6 @@
+package com.sistema.livraria.enums;
+
+public enum TipoMovimentoEstoque {
+    ENTRADA,  // Reposição de estoque (soma à quantidade).
+    SAIDA     // Venda/retirada (subtrai da quantidade, nunca abaixo de zero).
+}
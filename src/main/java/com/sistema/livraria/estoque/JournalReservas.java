@@ -0,0 +1,133 @@
+package com.sistema.livraria.estoque;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Journal local (somente anexação) das baixas de estoque confirmadas e ainda não gravadas no banco.
+ *
+ * <p>O journal é dividido em segmentos numerados ({@code reservas-000000000001.journal}, ...). Cada descarga
+ * do {@link MotorReservas} fecha o segmento atual e grava no banco, na mesma transação das quantidades,
+ * o número do último segmento coberto. Assim, na recuperação, só os segmentos posteriores ao registrado
+ * no banco precisam ser reaplicados. Cada linha ({@code C <livroId> <delta>}) é um delta confirmado:
+ * uma baixa (negativo) ou um ajuste da quantidade.</p>
+ *
+ * <p>Cada registro é sincronizado em disco antes de retornar. A classe não é thread-safe: o acesso é
+ * serializado pelo {@link MotorReservas}.</p>
+ */
+public class JournalReservas implements Closeable {
+
+    private static final String PREFIXO = "reservas-";
+    private static final String SUFIXO = ".journal";
+
+    private final Path diretorio;
+    private long segmentoAtual;
+    private FileChannel canal;
+
+    public JournalReservas(Path diretorio) throws IOException {
+        this.diretorio = Files.createDirectories(diretorio);
+        this.segmentoAtual = segmentos().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+        this.canal = abrir(segmentoAtual);
+    }
+
+    public long segmentoAtual() {
+        return segmentoAtual;
+    }
+
+    /**
+     * Registra um delta confirmado (baixa ou ajuste da quantidade) no segmento atual.
+     */
+    public void registrarConfirmacao(UUID livroId, int delta) throws IOException {
+        gravar("C " + livroId + " " + delta + "\n");
+    }
+
+    /**
+     * Fecha o segmento atual e passa a gravar no próximo.
+     *
+     * @return O número do segmento fechado.
+     */
+    public long rotacionar() throws IOException {
+        FileChannel proximo = abrir(segmentoAtual + 1);
+        canal.close();
+        canal = proximo;
+        return segmentoAtual++;
+    }
+
+    /**
+     * Remove os segmentos já gravados no banco (números menores ou iguais ao informado).
+     */
+    public void removerAte(long segmento) throws IOException {
+        for (long numero : segmentos()) {
+            if (numero <= segmento) {
+                Files.deleteIfExists(caminho(numero));
+            }
+        }
+    }
+
+    /**
+     * Soma, por livro, os deltas ainda não gravados no banco.
+     *
+     * @param ultimoSegmentoAplicado Último segmento cuja descarga foi efetivada no banco.
+     */
+    public Map<UUID, Integer> lerPendentes(long ultimoSegmentoAplicado) throws IOException {
+        Map<UUID, Integer> pendentes = new HashMap<>();
+        List<Long> numeros = segmentos();
+        Collections.sort(numeros);
+        for (long numero : numeros) {
+            if (numero <= ultimoSegmentoAplicado) {
+                continue;
+            }
+            for (String linha : Files.readAllLines(caminho(numero), StandardCharsets.UTF_8)) {
+                String[] partes = linha.split(" ");
+                try {
+                    if (partes.length == 3 && partes[0].equals("C")) {
+                        pendentes.merge(UUID.fromString(partes[1]), Integer.parseInt(partes[2]), Integer::sum);
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Linha incompleta (queda durante a gravação): o registro não chegou a ser confirmado
+                }
+            }
+        }
+        pendentes.values().removeIf(delta -> delta == 0);
+        return pendentes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private void gravar(String registro) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(registro.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        canal.force(false);
+    }
+
+    private FileChannel abrir(long numero) throws IOException {
+        return FileChannel.open(caminho(numero), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path caminho(long numero) {
+        return diretorio.resolve(String.format("%s%012d%s", PREFIXO, numero, SUFIXO));
+    }
+
+    private List<Long> segmentos() throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.map(arquivo -> arquivo.getFileName().toString())
+                    .filter(nome -> nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO))
+                    .forEach(nome -> numeros.add(Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()))));
+        }
+        return numeros;
+    }
+}
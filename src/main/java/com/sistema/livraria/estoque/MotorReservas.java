@@ -0,0 +1,494 @@
+package com.sistema.livraria.estoque;
+
+import com.sistema.livraria.exceptios.EstoqueInsuficienteException;
+import com.sistema.livraria.exceptios.NotFoundException;
+import com.sistema.livraria.exceptios.ReservaExpiradaException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Motor de reservas de estoque em memória, para vendas concorrentes no mesmo título (ex.: lançamentos e promoções).
+ *
+ * <p>Cada livro tem um contador próprio, semeado com a quantidade do banco no primeiro acesso. Reservar,
+ * confirmar e liberar alteram apenas esse contador, sob o monitor do próprio livro: livros diferentes nunca
+ * disputam o mesmo lock e nenhuma operação toca a linha do livro no banco. A verificação de saldo e a
+ * reserva acontecem na mesma seção crítica, então não há venda acima do estoque.</p>
+ *
+ * <p>As baixas confirmadas são gravadas no {@link JournalReservas} antes de serem aceitas e acumuladas como
+ * deltas por livro, que {@link #descarregar(Persistencia)} grava no banco em lote (write-behind). Reservas
+ * não confirmadas não vão para o journal: após uma queda o contador é semeado de novo pelo banco, o que
+ * equivale a liberá-las.</p>
+ *
+ * <p>Saídas de estoque fora das reservas continuam sendo um UPDATE condicional no banco, executado por
+ * {@link #baixarNoBanco}, que desconta as unidades que o motor já comprometeu. Nenhum lock do motor fica preso
+ * durante o acesso ao banco. Os contadores são locais à instância: o motor só pode estar ativo numa instância
+ * da aplicação por vez (ver ReservaServiceImpl).</p>
+ */
+public class MotorReservas {
+
+    /**
+     * Reserva ativa de unidades de um livro.
+     */
+    public record Reserva(UUID reservaId, UUID livroId, int quantidade, Instant expiraEm) {
+    }
+
+    /**
+     * Grava um lote de deltas no banco.
+     */
+    @FunctionalInterface
+    public interface Persistencia {
+        /**
+         * Aplica os deltas do lote numa única transação, registrando também o segmento do journal coberto.
+         * Deltas recusados pelo banco (quantidade final negativa) não são tentados de novo: a implementação
+         * deve registrá-los na mesma transação, para conferência manual.
+         *
+         * @return A quantidade final, no banco, de cada livro atualizado (os recusados ficam de fora).
+         */
+        Map<UUID, Integer> aplicar(Lote lote);
+    }
+
+    /**
+     * Deltas retirados dos contadores para uma descarga.
+     */
+    public final class Lote {
+        private final long segmento;
+        private final Map<UUID, Integer> deltas;
+
+        private Lote(long segmento, Map<UUID, Integer> deltas) {
+            this.segmento = segmento;
+            this.deltas = Collections.unmodifiableMap(deltas);
+        }
+
+        public long segmento() {
+            return segmento;
+        }
+
+        public Map<UUID, Integer> deltas() {
+            return deltas;
+        }
+    }
+
+    private final ConcurrentHashMap<UUID, Contador> contadores = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Reserva> reservas = new ConcurrentHashMap<>();
+
+    // journalLock: gravação no journal + alteração dos deltas pendentes são atômicas em relação à retirada do lote.
+    // loteLock: uma descarga por vez; também serializa a ressincronização com o banco.
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final ReentrantLock loteLock = new ReentrantLock();
+    private final AtomicLong baixasRecusadas = new AtomicLong();
+
+    private final JournalReservas journal;
+    private final Function<UUID, Optional<Integer>> carregarQuantidade;
+    private final Clock clock;
+
+    /**
+     * @param journal            Journal local das baixas confirmadas.
+     * @param carregarQuantidade Lê a quantidade atual de um livro no banco (vazio se o livro não existir).
+     * @param clock              Relógio usado para a expiração das reservas.
+     */
+    public MotorReservas(JournalReservas journal, Function<UUID, Optional<Integer>> carregarQuantidade, Clock clock) {
+        this.journal = journal;
+        this.carregarQuantidade = carregarQuantidade;
+        this.clock = clock;
+    }
+
+    /**
+     * Reserva unidades de um livro por um tempo limitado.
+     *
+     * @throws NotFoundException            se o livro não existir.
+     * @throws EstoqueInsuficienteException se não houver unidades disponíveis suficientes.
+     */
+    public Reserva reservar(UUID livroId, int quantidade, Duration validade) {
+        if (!contador(livroId).reservar(quantidade)) {
+            throw new EstoqueInsuficienteException("Estoque insuficiente para reservar " + quantidade + " unidade(s)!");
+        }
+        var reserva = new Reserva(UUID.randomUUID(), livroId, quantidade, clock.instant().plus(validade));
+        reservas.put(reserva.reservaId(), reserva);
+        return reserva;
+    }
+
+    /**
+     * Confirma a reserva: as unidades deixam de estar reservadas e passam a ser uma baixa pendente de gravação.
+     * A baixa é sincronizada no journal antes do retorno.
+     *
+     * @throws NotFoundException         se a reserva (ou o livro) não existir.
+     * @throws ReservaExpiradaException  se a reserva tiver expirado; as unidades voltam ao estoque.
+     */
+    public Reserva confirmar(UUID reservaId) {
+        Reserva reserva = reservas.remove(reservaId);
+        if (reserva == null) {
+            throw new NotFoundException("Reserva não encontrada!");
+        }
+        Contador contador = contadores.get(reserva.livroId());
+        if (contador == null) {
+            throw new NotFoundException("Livro não encontrado!");
+        }
+        if (!reserva.expiraEm().isAfter(clock.instant())) {
+            contador.liberar(reserva.quantidade());
+            throw new ReservaExpiradaException("Reserva expirada!");
+        }
+
+        journalLock.lock();
+        try {
+            journal.registrarConfirmacao(reserva.livroId(), -reserva.quantidade());
+            contador.confirmar(reserva.quantidade());
+        } catch (IOException e) {
+            reservas.put(reservaId, reserva);
+            throw new UncheckedIOException("Falha ao gravar o journal de reservas", e);
+        } finally {
+            journalLock.unlock();
+        }
+        return reserva;
+    }
+
+    /**
+     * Executa uma saída de estoque gravada direto no banco (UPDATE condicional) sem que ela e as reservas vendam
+     * a mesma unidade. As unidades da saída ficam retidas no contador enquanto o UPDATE roda, e o UPDATE recebe
+     * as unidades já comprometidas no motor (reservadas, retidas por outras saídas ou confirmadas e ainda não
+     * gravadas), que deve descontar do saldo. Com saídas concorrentes no mesmo livro a conta é conservadora:
+     * pode recusar uma saída que caberia, nunca aceitar uma que não cabe.
+     *
+     * <p>Se a saída acontecer, as unidades continuam retidas até {@link #concluirSaida}, chamado depois do fim da
+     * transação do UPDATE.</p>
+     *
+     * @param saida Executa o UPDATE com as unidades comprometidas; vazio se não houve saída.
+     * @throws NotFoundException se o livro não existir.
+     */
+    public <T> Optional<T> baixarNoBanco(UUID livroId, int quantidade, IntFunction<Optional<T>> saida) {
+        Contador contador = contador(livroId);
+        int comprometido = contador.reter(quantidade);
+        Optional<T> resultado;
+        try {
+            resultado = saida.apply(comprometido);
+        } catch (RuntimeException e) {
+            contador.liberar(quantidade);
+            throw e;
+        }
+        if (resultado.isEmpty()) {
+            contador.liberar(quantidade);
+        }
+        return resultado;
+    }
+
+    /**
+     * Conclui uma saída de {@link #baixarNoBanco} após o fim da transação (efetivada ou não): solta as unidades
+     * retidas e relê a quantidade do banco, na mesma seção crítica.
+     */
+    public void concluirSaida(UUID livroId, int quantidade) {
+        loteLock.lock();
+        try {
+            Contador contador = contadores.get(livroId);
+            if (contador != null) {
+                carregarQuantidade.apply(livroId).ifPresentOrElse(
+                        quantidadeBanco -> contador.concluirSaida(quantidade, quantidadeBanco),
+                        () -> contadores.remove(livroId));
+            }
+        } finally {
+            loteLock.unlock();
+        }
+    }
+
+    /**
+     * Cancela a reserva, devolvendo as unidades ao estoque disponível.
+     *
+     * @throws NotFoundException se a reserva não existir (ou já tiver expirado).
+     */
+    public Reserva liberar(UUID reservaId) {
+        Reserva reserva = reservas.remove(reservaId);
+        if (reserva == null) {
+            throw new NotFoundException("Reserva não encontrada!");
+        }
+        Contador contador = contadores.get(reserva.livroId());
+        if (contador != null) {
+            contador.liberar(reserva.quantidade());
+        }
+        return reserva;
+    }
+
+    /**
+     * Libera as reservas vencidas.
+     *
+     * @return A quantidade de reservas liberadas.
+     */
+    public int expirarVencidas() {
+        Instant agora = clock.instant();
+        int expiradas = 0;
+        for (Reserva reserva : reservas.values()) {
+            if (!reserva.expiraEm().isAfter(agora) && reservas.remove(reserva.reservaId(), reserva)) {
+                Contador contador = contadores.get(reserva.livroId());
+                if (contador != null) {
+                    contador.liberar(reserva.quantidade());
+                }
+                expiradas++;
+            }
+        }
+        return expiradas;
+    }
+
+    /**
+     * Quantidade ainda disponível para reserva.
+     *
+     * @throws NotFoundException se o livro não existir.
+     */
+    public int disponivel(UUID livroId) {
+        return contador(livroId).disponivel();
+    }
+
+    /**
+     * Grava no banco, em um único lote, os deltas pendentes de todos os livros.
+     * Em caso de falha os deltas voltam a ficar pendentes e o journal é mantido. Deltas recusados pelo banco
+     * são descartados (ver {@link Persistencia}) e o contador passa a refletir a quantidade real.
+     *
+     * @return A quantidade de livros gravados.
+     */
+    public int descarregar(Persistencia persistencia) {
+        loteLock.lock();
+        try {
+            Lote lote = retirarLote();
+            if (lote == null) {
+                return 0;
+            }
+
+            Map<UUID, Integer> gravados;
+            try {
+                gravados = persistencia.aplicar(lote);
+            } catch (RuntimeException e) {
+                lote.deltas().keySet().forEach(this::devolver);
+                throw e;
+            }
+
+            for (UUID livroId : lote.deltas().keySet()) {
+                Contador contador = contadores.get(livroId);
+                if (contador == null) {
+                    continue;
+                }
+                Integer quantidade = gravados.get(livroId);
+                if (quantidade != null) {
+                    contador.gravado(quantidade);
+                } else {
+                    // Recusado pelo banco (estoque reduzido por fora, ex.: importação): repetir nunca daria certo,
+                    // então o delta é descartado e o contador volta à quantidade real
+                    baixasRecusadas.incrementAndGet();
+                    contador.descartar();
+                    ressincronizarSemLock(livroId, contador);
+                }
+            }
+
+            journalLock.lock();
+            try {
+                journal.removerAte(lote.segmento());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao remover segmentos do journal de reservas", e);
+            } finally {
+                journalLock.unlock();
+            }
+            return gravados.size();
+        } finally {
+            loteLock.unlock();
+        }
+    }
+
+    /**
+     * Relê a quantidade do livro no banco após uma alteração feita fora do motor (cadastro, movimentação de estoque).
+     * Só tem efeito para livros que já possuem contador.
+     */
+    public void ressincronizar(UUID livroId) {
+        if (!contadores.containsKey(livroId) || loteLock.isHeldByCurrentThread()) {
+            return; // Sem contador, ou evento publicado pela própria descarga (o contador é atualizado ao concluir o lote)
+        }
+        loteLock.lock();
+        try {
+            Contador contador = contadores.get(livroId);
+            if (contador != null) {
+                ressincronizarSemLock(livroId, contador);
+            }
+        } finally {
+            loteLock.unlock();
+        }
+    }
+
+    /**
+     * Relê a quantidade de todos os livros com contador (após uma importação em lote do catálogo).
+     */
+    public void ressincronizarTodos() {
+        loteLock.lock();
+        try {
+            contadores.forEach(this::ressincronizarSemLock);
+        } finally {
+            loteLock.unlock();
+        }
+    }
+
+    /**
+     * Descarta o contador de um livro excluído.
+     */
+    public void remover(UUID livroId) {
+        contadores.remove(livroId);
+    }
+
+    /**
+     * Restaura os deltas lidos do journal na inicialização, antes de aceitar novas reservas.
+     * Livros que não existem mais são ignorados.
+     */
+    public void restaurar(Map<UUID, Integer> pendentes) {
+        pendentes.forEach((livroId, delta) -> {
+            try {
+                contador(livroId).restaurar(delta);
+            } catch (NotFoundException e) {
+                // Livro excluído após a confirmação: não há o que gravar
+            }
+        });
+    }
+
+    public int reservasAtivas() {
+        return reservas.size();
+    }
+
+    /**
+     * Total de deltas descartados por recusa do banco desde a inicialização.
+     */
+    public long baixasRecusadas() {
+        return baixasRecusadas.get();
+    }
+
+    private Lote retirarLote() {
+        journalLock.lock();
+        try {
+            Map<UUID, Integer> deltas = new HashMap<>();
+            contadores.forEach((livroId, contador) -> {
+                int delta = contador.retirarPendente();
+                if (delta != 0) {
+                    deltas.put(livroId, delta);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return null;
+            }
+            try {
+                return new Lote(journal.rotacionar(), deltas);
+            } catch (IOException e) {
+                deltas.keySet().forEach(this::devolver);
+                throw new UncheckedIOException("Falha ao rotacionar o journal de reservas", e);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void devolver(UUID livroId) {
+        Contador contador = contadores.get(livroId);
+        if (contador != null) {
+            contador.devolver();
+        }
+    }
+
+    private void ressincronizarSemLock(UUID livroId, Contador contador) {
+        carregarQuantidade.apply(livroId).ifPresentOrElse(contador::ressincronizar, () -> contadores.remove(livroId));
+    }
+
+    private Contador contador(UUID livroId) {
+        Contador contador = contadores.get(livroId);
+        if (contador != null) {
+            return contador;
+        }
+        // A leitura do banco fica fora do mapa para não bloquear outros livros; se duas threads semearem
+        // o mesmo livro ao mesmo tempo, a primeira vence
+        int quantidade = carregarQuantidade.apply(livroId)
+                .orElseThrow(() -> new NotFoundException("Livro não encontrado!"));
+        Contador novo = new Contador(quantidade);
+        contador = contadores.putIfAbsent(livroId, novo);
+        return contador != null ? contador : novo;
+    }
+
+    /**
+     * Estado de estoque de um livro. Disponível = base (última quantidade conhecida do banco)
+     * + deltas em gravação + deltas pendentes - unidades reservadas (inclusive as retidas por saídas no banco).
+     */
+    private static final class Contador {
+        private int base;
+        private int emGravacao;
+        private int pendente;
+        private int reservado;
+
+        private Contador(int base) {
+            this.base = base;
+        }
+
+        synchronized int disponivel() {
+            return base + emGravacao + pendente - reservado;
+        }
+
+        synchronized boolean reservar(int quantidade) {
+            if (disponivel() < quantidade) {
+                return false;
+            }
+            reservado += quantidade;
+            return true;
+        }
+
+        synchronized void liberar(int quantidade) {
+            reservado -= quantidade;
+        }
+
+        synchronized int quantidade() {
+            return base + emGravacao + pendente;
+        }
+
+        synchronized int confirmar(int quantidade) {
+            reservado -= quantidade;
+            pendente -= quantidade;
+            return quantidade();
+        }
+
+        // Retém as unidades de uma saída feita no banco e devolve as que já estavam comprometidas antes dela:
+        // unidades que o banco ainda mostra em estoque, mas que o motor já reservou ou vendeu
+        synchronized int reter(int quantidade) {
+            int comprometido = Math.max(0, reservado - emGravacao - pendente);
+            reservado += quantidade;
+            return comprometido;
+        }
+
+        synchronized void concluirSaida(int quantidade, int quantidadeBanco) {
+            reservado -= quantidade;
+            base = quantidadeBanco;
+        }
+
+        synchronized void restaurar(int delta) {
+            pendente += delta;
+        }
+
+        synchronized int retirarPendente() {
+            emGravacao = pendente;
+            pendente = 0;
+            return emGravacao;
+        }
+
+        synchronized void gravado(int quantidadeBanco) {
+            base = quantidadeBanco;
+            emGravacao = 0;
+        }
+
+        synchronized void devolver() {
+            pendente += emGravacao;
+            emGravacao = 0;
+        }
+
+        synchronized void descartar() {
+            emGravacao = 0;
+        }
+
+        synchronized void ressincronizar(int quantidadeBanco) {
+            base = quantidadeBanco;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.sistema.livraria.events;
+
+/**
+ * Evento publicado após o commit de uma importação em lote do catálogo.
+ *
+ * A importação grava diretamente em TB_LIVRO (COPY + upsert), sem um {@link LivroAlteradoEvent} por livro;
+ * os ouvintes que mantêm estruturas em memória devem recarregá-las por completo.
+ *
+ * @param inseridos   Quantidade de livros novos.
+ * @param atualizados Quantidade de livros existentes atualizados.
+ * @param removidos   Quantidade de livros removidos (reconciliação).
+ */
+public record CatalogoImportadoEvent(long inseridos, long atualizados, long removidos) {
+}
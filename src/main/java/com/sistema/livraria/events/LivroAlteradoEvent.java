@@ -0,0 +1,53 @@
+package com.sistema.livraria.events;
+
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroRepository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Evento publicado pelos serviços sempre que um livro é criado, atualizado ou removido.
+ *
+ * Os ouvintes que mantêm estruturas em memória (índices, contadores, caches) devem usar
+ * {@code @TransactionalEventListener} para reagir somente após o commit da transação; o registro
+ * no feed de alterações usa {@code @EventListener} para gravar na mesma transação da alteração.
+ *
+ * @param livroId ID do livro alterado.
+ * @param tipo    Tipo de alteração realizada.
+ * @param livro   Estado do livro após a alteração (no caso de remoção, o último estado conhecido).
+ */
+public record LivroAlteradoEvent(UUID livroId,
+                                 TipoAlteracaoLivro tipo,
+                                 LivroModel livro) {
+
+    /**
+     * Evento de movimentação de estoque, com o livro parcial (apenas os campos devolvidos pelo UPDATE).
+     */
+    public static LivroAlteradoEvent deEstoque(LivroRepository.EstoqueProjection estoque, LocalDateTime agora) {
+        return new LivroAlteradoEvent(estoque.getLivroId(), TipoAlteracaoLivro.ESTOQUE, livroParcial(estoque, agora));
+    }
+
+    /**
+     * Evento de arquivamento: para o catálogo ativo (feed, índices, contadores) o livro arquivado é uma remoção.
+     * As consultas por ID e por ISBN continuam encontrando o livro no arquivo.
+     */
+    public static LivroAlteradoEvent deArquivamento(LivroRepository.EstoqueProjection arquivado, LocalDateTime agora) {
+        return new LivroAlteradoEvent(arquivado.getLivroId(), TipoAlteracaoLivro.REMOVIDO, livroParcial(arquivado, agora));
+    }
+
+    private static LivroModel livroParcial(LivroRepository.EstoqueProjection estoque, LocalDateTime agora) {
+        var livro = new LivroModel();
+        livro.setLivroId(estoque.getLivroId());
+        livro.setIsbn(estoque.getIsbn());
+        livro.setQuantidade(estoque.getQuantidade());
+        livro.setStatusLivro(StatusLivro.valueOf(estoque.getStatusLivro()));
+        livro.setCategoria(estoque.getCategoria() != null ? Categoria.valueOf(estoque.getCategoria()) : null);
+        livro.setDataAtualizacaoLivro(agora);
+        livro.setVersao(estoque.getVersao());
+        return livro;
+    }
+}
@@ -0,0 +1,16 @@
+package com.sistema.livraria.exceptios;
+
+/**
+ * Exceção lançada quando um recurso limitado da aplicação (conexões, vagas de processamento) está esgotado.
+ * Extende a classe RuntimeException para ser uma exceção não verificada.
+ */
+public class CapacidadeEsgotadaException extends RuntimeException {
+    /**
+     * Construtor da exceção CapacidadeEsgotadaException.
+     *
+     * @param message A mensagem de erro que será associada à exceção.
+     */
+    public CapacidadeEsgotadaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.sistema.livraria.exceptios;
+
+/**
+ * Exceção lançada quando uma saída de estoque pede mais unidades do que as disponíveis.
+ * Extende a classe RuntimeException para ser uma exceção não verificada.
+ */
+public class EstoqueInsuficienteException extends RuntimeException {
+    /**
+     * Construtor da exceção EstoqueInsuficienteException.
+     *
+     * @param message A mensagem de erro que será associada à exceção.
+     */
+    public EstoqueInsuficienteException(String message) {
+        super(message);
+    }
+}
@@ -2,11 +2,14 @@ package com.sistema.livraria.exceptios;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -45,6 +48,186 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erroRecordResponse);
     }
 
+    /**
+     * Trata exceções do tipo EstoqueInsuficienteException.
+     * Retorna uma resposta com o código de erro 409 (CONFLICT) e a mensagem da exceção.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem da exceção.
+     */
+    @ExceptionHandler(EstoqueInsuficienteException.class)
+    public ResponseEntity<ErroRecordResponse> handleEstoqueInsuficienteException(EstoqueInsuficienteException exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.CONFLICT.value(),
+                exception.getMessage(),
+                null
+        );
+        logger.warn("ESTOQUE: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(erroRecordResponse);
+    }
+
+    /**
+     * Trata exceções do tipo LivroArquivadoException.
+     * Retorna uma resposta com o código de erro 409 (CONFLICT) e a mensagem da exceção.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem da exceção.
+     */
+    @ExceptionHandler(LivroArquivadoException.class)
+    public ResponseEntity<ErroRecordResponse> handleLivroArquivadoException(LivroArquivadoException exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.CONFLICT.value(),
+                exception.getMessage(),
+                null
+        );
+        logger.warn("ARQUIVO: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(erroRecordResponse);
+    }
+
+    /**
+     * Trata exceções do tipo ReservaExpiradaException.
+     * Retorna uma resposta com o código de erro 410 (GONE) e a mensagem da exceção.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem da exceção.
+     */
+    @ExceptionHandler(ReservaExpiradaException.class)
+    public ResponseEntity<ErroRecordResponse> handleReservaExpiradaException(ReservaExpiradaException exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.GONE.value(),
+                exception.getMessage(),
+                null
+        );
+        logger.warn("RESERVA: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.GONE).body(erroRecordResponse);
+    }
+
+    /**
+     * Trata exceções do tipo CapacidadeEsgotadaException.
+     * Retorna uma resposta com o código de erro 503 (SERVICE_UNAVAILABLE) e a mensagem da exceção.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem da exceção.
+     */
+    @ExceptionHandler(CapacidadeEsgotadaException.class)
+    public ResponseEntity<ErroRecordResponse> handleCapacidadeEsgotadaException(CapacidadeEsgotadaException exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                exception.getMessage(),
+                null
+        );
+        logger.warn("CAPACIDADE: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(erroRecordResponse);
+    }
+
+    /**
+     * Trata exceções do tipo ProvedorIndisponivelException (Open Library fora do ar ou com o disjuntor aberto).
+     * Retorna uma resposta com o código de erro 503 (SERVICE_UNAVAILABLE) e a mensagem da exceção.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem da exceção.
+     */
+    @ExceptionHandler(ProvedorIndisponivelException.class)
+    public ResponseEntity<ErroRecordResponse> handleProvedorIndisponivelException(ProvedorIndisponivelException exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                exception.getMessage(),
+                null
+        );
+        logger.warn("PROVEDOR: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(erroRecordResponse);
+    }
+
+    /**
+     * Trata exceções do tipo LoteExcedidoException (requisição em lote acima do limite de itens).
+     * Retorna uma resposta com o código de erro 400 (BAD_REQUEST) e a mensagem da exceção.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem da exceção.
+     */
+    @ExceptionHandler(LoteExcedidoException.class)
+    public ResponseEntity<ErroRecordResponse> handleLoteExcedidoException(LoteExcedidoException exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                exception.getMessage(),
+                null
+        );
+        logger.warn("LOTE: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(erroRecordResponse);
+    }
+
+    /**
+     * Trata exceções do tipo ReconciliacaoRecusadaException (importação que removeria livros demais).
+     * Retorna uma resposta com o código de erro 422 (UNPROCESSABLE_ENTITY) e a mensagem da exceção.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem da exceção.
+     */
+    @ExceptionHandler(ReconciliacaoRecusadaException.class)
+    public ResponseEntity<ErroRecordResponse> handleReconciliacaoRecusadaException(ReconciliacaoRecusadaException exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                exception.getMessage(),
+                null
+        );
+        logger.warn("IMPORTACAO: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(erroRecordResponse);
+    }
+
+    /**
+     * Trata exceções do tipo VersaoDivergenteException (If-Match diferente da versão atual).
+     * Retorna uma resposta com o código de erro 412 (PRECONDITION_FAILED) e a mensagem da exceção.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem da exceção.
+     */
+    @ExceptionHandler(VersaoDivergenteException.class)
+    public ResponseEntity<ErroRecordResponse> handleVersaoDivergenteException(VersaoDivergenteException exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                exception.getMessage(),
+                null
+        );
+        logger.warn("VERSAO: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(erroRecordResponse);
+    }
+
+    /**
+     * Trata a falha de concorrência otimista (@Version): o registro foi alterado por outra requisição
+     * entre a leitura e a gravação. Retorna 412 (PRECONDITION_FAILED), como um If-Match divergente.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem.
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErroRecordResponse> handleOptimisticLocking(ObjectOptimisticLockingFailureException exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                "O registro foi alterado por outra requisição. Consulte-o novamente e repita a operação.",
+                null
+        );
+        logger.warn("VERSAO: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(erroRecordResponse);
+    }
+
+    /**
+     * Trata a falta de conexão com o banco (pool esgotado dentro do prazo de espera ou banco fora do ar).
+     * Retorna 503 (SERVICE_UNAVAILABLE): a requisição pode ser repetida mais tarde.
+     *
+     * @param exception A exceção capturada.
+     * @return ResponseEntity com o código de erro e a mensagem.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErroRecordResponse> handleSemConexao(Exception exception){
+        var erroRecordResponse = new ErroRecordResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Serviço sobrecarregado: nenhuma conexão com o banco disponível. Tente novamente.",
+                null
+        );
+        logger.warn("CONEXAO: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(erroRecordResponse);
+    }
+
     /**
      * Trata exceções de validação de dados nos DTOs.
      * Retorna uma resposta com o código de erro 400 (BAD_REQUEST), uma mensagem
@@ -0,0 +1,16 @@
+package com.sistema.livraria.exceptios;
+
+/**
+ * Exceção lançada na tentativa de alterar um livro arquivado (fora do catálogo ativo, somente leitura).
+ * Extende a classe RuntimeException para ser uma exceção não verificada.
+ */
+public class LivroArquivadoException extends RuntimeException {
+    /**
+     * Construtor da exceção LivroArquivadoException.
+     *
+     * @param message A mensagem de erro que será associada à exceção.
+     */
+    public LivroArquivadoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.sistema.livraria.exceptios;
+
+/**
+ * Exceção lançada quando uma requisição em lote traz mais itens que o limite configurado. Nada é processado.
+ * Extende a classe RuntimeException para ser uma exceção não verificada.
+ */
+public class LoteExcedidoException extends RuntimeException {
+    /**
+     * Construtor da exceção LoteExcedidoException.
+     *
+     * @param message A mensagem de erro que será associada à exceção.
+     */
+    public LoteExcedidoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.sistema.livraria.exceptios;
+
+/**
+ * Exceção lançada quando um serviço externo (Open Library) está fora do ar, lento demais ou com o disjuntor aberto.
+ * Extende a classe RuntimeException para ser uma exceção não verificada.
+ */
+public class ProvedorIndisponivelException extends RuntimeException {
+    /**
+     * Construtor da exceção ProvedorIndisponivelException.
+     *
+     * @param message A mensagem de erro que será associada à exceção.
+     */
+    public ProvedorIndisponivelException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sistema.livraria.exceptios;
+
+/**
+ * Exceção lançada quando uma importação em modo de reconciliação removeria uma parte grande demais do catálogo
+ * sem a confirmação explícita (forcarRemocao). Nada é gravado.
+ * Extende a classe RuntimeException para ser uma exceção não verificada.
+ */
+public class ReconciliacaoRecusadaException extends RuntimeException {
+    /**
+     * Construtor da exceção ReconciliacaoRecusadaException.
+     *
+     * @param message A mensagem de erro que será associada à exceção.
+     */
+    public ReconciliacaoRecusadaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.sistema.livraria.exceptios;
+
+/**
+ * Exceção lançada ao confirmar uma reserva de estoque cujo prazo já terminou.
+ * Extende a classe RuntimeException para ser uma exceção não verificada.
+ */
+public class ReservaExpiradaException extends RuntimeException {
+    /**
+     * Construtor da exceção ReservaExpiradaException.
+     *
+     * @param message A mensagem de erro que será associada à exceção.
+     */
+    public ReservaExpiradaException(String message) {
+        super(message);
+    }
+}
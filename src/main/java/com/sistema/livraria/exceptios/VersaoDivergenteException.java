@@ -0,0 +1,16 @@
+package com.sistema.livraria.exceptios;
+
+/**
+ * Exceção lançada quando a versão informada pelo cliente (If-Match) não corresponde à versão atual do recurso.
+ * Extende a classe RuntimeException para ser uma exceção não verificada.
+ */
+public class VersaoDivergenteException extends RuntimeException {
+    /**
+     * Construtor da exceção VersaoDivergenteException.
+     *
+     * @param message A mensagem de erro que será associada à exceção.
+     */
+    public VersaoDivergenteException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.sistema.livraria.ids;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * Gerador do Hibernate para os ids anotados com {@link IdUuidV7}.
+ * O id é gerado na aplicação antes do INSERT, então os INSERTs podem ser agrupados em lote (hibernate.jdbc.batch_size).
+ */
+public class GeradorUuidV7 implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return UuidV7.gerar();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,18 @@
+package com.sistema.livraria.ids;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca o id de uma entidade para ser gerado como UUID v7 (ordenado pelo tempo), substituindo
+ * {@code @GeneratedValue}.
+ */
+@IdGeneratorType(GeradorUuidV7.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface IdUuidV7 {
+}
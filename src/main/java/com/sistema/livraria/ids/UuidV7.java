@@ -0,0 +1,65 @@
+package com.sistema.livraria.ids;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Gerador de UUID versão 7 (RFC 9562): os 48 bits mais altos são o instante em milissegundos, então ids gerados
+ * em sequência ficam próximos no índice da chave primária (inserções no fim da btree, e não em páginas aleatórias).
+ *
+ * <p>Layout: {@code unix_ts_ms (48) | versão 7 (4) | contador (12) | variante (2) | aleatório (62)}.
+ * Os 12 bits de "rand_a" funcionam como contador dentro do mesmo milissegundo (método 1 da seção 6.2 da RFC),
+ * o que garante ids estritamente crescentes nesta JVM mesmo com o relógio voltando: nesse caso, e quando o
+ * contador estoura, o último instante usado é reaproveitado ou avançado em 1 ms.</p>
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+    private static final int CONTADOR_MAXIMO = 0xFFF;
+
+    // Gerador usado pelas entidades; os testes criam instâncias próprias, com relógio controlado
+    private static final UuidV7 PADRAO = new UuidV7(System::currentTimeMillis);
+
+    private final LongSupplier relogio;
+
+    // Protegidos por "this"
+    private long ultimoInstante;
+    private int contador;
+
+    UuidV7(LongSupplier relogio) {
+        this.relogio = relogio;
+    }
+
+    public static UUID gerar() {
+        return PADRAO.proximo();
+    }
+
+    UUID proximo() {
+        long agoraMs = relogio.getAsLong();
+        long instante;
+        int sequencia;
+        synchronized (this) {
+            if (agoraMs > ultimoInstante) {
+                ultimoInstante = agoraMs;
+                // Começa na metade inferior do contador, deixando espaço para pelo menos 2048 ids no mesmo ms
+                contador = ALEATORIO.nextInt(CONTADOR_MAXIMO / 2 + 1);
+            } else if (++contador > CONTADOR_MAXIMO) {
+                ultimoInstante++;
+                contador = 0;
+            }
+            instante = ultimoInstante;
+            sequencia = contador;
+        }
+        long maisSignificativos = (instante & 0xFFFF_FFFF_FFFFL) << 16 | 0x7000L | sequencia;
+        long menosSignificativos = (ALEATORIO.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(maisSignificativos, menosSignificativos);
+    }
+
+    /**
+     * Instante (em milissegundos desde a época Unix) codificado em um UUID v7.
+     */
+    public static long instante(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,55 @@
+package com.sistema.livraria.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Classe que representa o controle de gravação do motor de reservas de estoque.
+ * Esta classe é mapeada para a tabela "TB_CONTROLE_RESERVA" no banco de dados e possui uma única linha,
+ * com o último segmento do journal local cujas baixas já foram gravadas em TB_LIVRO.
+ */
+@Entity
+@Table(name = "TB_CONTROLE_RESERVA")
+public class ControleReservaModel implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final int ID_UNICO = 1;
+
+    @Id
+    private Integer controleId;
+
+    @Column(nullable = false)
+    private Long ultimoSegmento;
+
+    @Column
+    private LocalDateTime dataAtualizacao;
+
+    // Métodos acessores e modificadores (GETs e SETs)
+    public Integer getControleId() {
+        return controleId;
+    }
+
+    public void setControleId(Integer controleId) {
+        this.controleId = controleId;
+    }
+
+    public Long getUltimoSegmento() {
+        return ultimoSegmento;
+    }
+
+    public void setUltimoSegmento(Long ultimoSegmento) {
+        this.ultimoSegmento = ultimoSegmento;
+    }
+
+    public LocalDateTime getDataAtualizacao() {
+        return dataAtualizacao;
+    }
+
+    public void setDataAtualizacao(LocalDateTime dataAtualizacao) {
+        this.dataAtualizacao = dataAtualizacao;
+    }
+}
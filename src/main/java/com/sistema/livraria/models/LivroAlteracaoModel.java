@@ -0,0 +1,79 @@
+package com.sistema.livraria.models;
+
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import jakarta.persistence.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Classe que representa uma entrada do feed de alterações do catálogo.
+ * Esta classe é mapeada para a tabela "TB_LIVRO_ALTERACAO" no banco de dados.
+ * As linhas são gravadas apenas por SQL nativo ({@code LivroAlteracaoRepository.registrar}) e recebem a
+ * sequência depois do commit ({@code LivroAlteracaoRepository.sequenciar}); a entidade é usada somente para leitura.
+ */
+@Entity
+@Table(name = "TB_LIVRO_ALTERACAO")
+public class LivroAlteracaoModel implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long registroId;
+
+    @Column(unique = true)
+    private Long sequencia; // nula até a transação que gravou a linha terminar
+
+    @Column(nullable = false)
+    private UUID livroId;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private TipoAlteracaoLivro tipo;
+
+    @Column(nullable = false)
+    private LocalDateTime dataAlteracao;
+
+    // Métodos acessores e modificadores (GETs e SETs)
+    public Long getRegistroId() {
+        return registroId;
+    }
+
+    public void setRegistroId(Long registroId) {
+        this.registroId = registroId;
+    }
+
+    public Long getSequencia() {
+        return sequencia;
+    }
+
+    public void setSequencia(Long sequencia) {
+        this.sequencia = sequencia;
+    }
+
+    public UUID getLivroId() {
+        return livroId;
+    }
+
+    public void setLivroId(UUID livroId) {
+        this.livroId = livroId;
+    }
+
+    public TipoAlteracaoLivro getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(TipoAlteracaoLivro tipo) {
+        this.tipo = tipo;
+    }
+
+    public LocalDateTime getDataAlteracao() {
+        return dataAlteracao;
+    }
+
+    public void setDataAlteracao(LocalDateTime dataAlteracao) {
+        this.dataAlteracao = dataAlteracao;
+    }
+}
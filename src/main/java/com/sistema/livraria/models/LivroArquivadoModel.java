@@ -0,0 +1,177 @@
+package com.sistema.livraria.models;
+
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.Formato;
+import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.enums.TipoCapa;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.springframework.beans.BeanUtils;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Classe que representa um livro arquivado (fora do catálogo ativo).
+ * Esta classe é mapeada para a tabela "TB_LIVRO_ARQUIVO" no banco de dados.
+ * As linhas são gravadas apenas pelo arquivamento em lote ({@code LivroArquivadoRepository.arquivar}),
+ * que as move de TB_LIVRO por SQL nativo; a entidade é usada somente para leitura.
+ */
+@Entity
+@Immutable
+@Table(name = "TB_LIVRO_ARQUIVO")
+public class LivroArquivadoModel implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private UUID livroId;
+
+    @Column
+    private String isbn;
+
+    @Column
+    private String titulo;
+
+    @Column
+    private String subtitulo;
+
+    @Column
+    private BigDecimal valor;
+
+    @Column
+    private Integer quantidade;
+
+    @Column
+    @Enumerated(EnumType.STRING)
+    private StatusLivro statusLivro;
+
+    @Column
+    @Enumerated(EnumType.STRING)
+    private Categoria categoria;
+
+    @Column
+    @Enumerated(EnumType.STRING)
+    private TipoCapa tipoCapa;
+
+    @Column
+    @Enumerated(EnumType.STRING)
+    private Formato formato;
+
+    @Column
+    private String dataPublicacao;
+
+    @Column
+    private Integer numeroPaginas;
+
+    @Column
+    private String capaUrl;
+
+    @Column
+    private String autor;
+
+    @Column
+    private String editora;
+
+    @Column
+    private LocalDateTime dataCadastroLivro;
+
+    @Column
+    private LocalDateTime dataAtualizacaoLivro;
+
+    @Column(nullable = false)
+    private Long versao;
+
+    @Column(nullable = false)
+    private LocalDateTime dataArquivamento;
+
+    /**
+     * Converte para {@link LivroModel} (não gerenciado), marcado como arquivado, para as consultas que recorrem ao arquivo.
+     */
+    public LivroModel paraLivro() {
+        var livro = new LivroModel();
+        BeanUtils.copyProperties(this, livro);
+        livro.setArquivado(true);
+        return livro;
+    }
+
+    // Métodos acessores (GETs)
+    public UUID getLivroId() {
+        return livroId;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public String getSubtitulo() {
+        return subtitulo;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public StatusLivro getStatusLivro() {
+        return statusLivro;
+    }
+
+    public Categoria getCategoria() {
+        return categoria;
+    }
+
+    public TipoCapa getTipoCapa() {
+        return tipoCapa;
+    }
+
+    public Formato getFormato() {
+        return formato;
+    }
+
+    public String getDataPublicacao() {
+        return dataPublicacao;
+    }
+
+    public Integer getNumeroPaginas() {
+        return numeroPaginas;
+    }
+
+    public String getCapaUrl() {
+        return capaUrl;
+    }
+
+    public String getAutor() {
+        return autor;
+    }
+
+    public String getEditora() {
+        return editora;
+    }
+
+    public LocalDateTime getDataCadastroLivro() {
+        return dataCadastroLivro;
+    }
+
+    public LocalDateTime getDataAtualizacaoLivro() {
+        return dataAtualizacaoLivro;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public LocalDateTime getDataArquivamento() {
+        return dataArquivamento;
+    }
+}
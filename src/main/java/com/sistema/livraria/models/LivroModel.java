@@ -3,7 +3,10 @@ package com.sistema.livraria.models;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.sistema.livraria.enums.*;
+import com.sistema.livraria.ids.IdUuidV7;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -14,12 +17,14 @@ import java.util.*;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Entity
 @Table(name = "TB_LIVRO")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "livros")
 public class LivroModel implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @IdUuidV7
     private UUID livroId;
 
     @Column(unique = true)
@@ -74,6 +79,15 @@ public class LivroModel implements Serializable {
     @Column
     private LocalDateTime dataAtualizacaoLivro;
 
+    // Versão para concorrência otimista; exposta como ETag nos endpoints de livro único
+    @Version
+    @Column(nullable = false)
+    private Long versao;
+
+    // Verdadeiro quando o livro veio do arquivo frio (TB_LIVRO_ARQUIVO); nulo (omitido no JSON) no catálogo ativo
+    @Transient
+    private Boolean arquivado;
+
     // Métodos acessores e modificadores (GETs e SETs)
     public UUID getLivroId() {
         return livroId;
@@ -210,4 +224,20 @@ public class LivroModel implements Serializable {
     public void setEditora(String editora) {
         this.editora = editora;
     }
-}
\ No newline at end of file
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public Boolean getArquivado() {
+        return arquivado;
+    }
+
+    public void setArquivado(Boolean arquivado) {
+        this.arquivado = arquivado;
+    }
+}
@@ -0,0 +1,65 @@
+package com.sistema.livraria.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Classe que representa uma resposta da Open Library guardada em cache.
+ * Esta classe é mapeada para a tabela "TB_RESPOSTA_OPENLIBRARY" no banco de dados.
+ * Guarda o JSON do livro devolvido para o ISBN, ou nulo quando o provedor não conhece o ISBN (cache negativo).
+ */
+@Entity
+@Table(name = "TB_RESPOSTA_OPENLIBRARY")
+public class RespostaOpenLibraryModel implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(length = 13)
+    private String isbn;
+
+    @Column(columnDefinition = "text")
+    private String dados;
+
+    @Column(nullable = false)
+    private LocalDateTime dataConsulta;
+
+    @Column(nullable = false)
+    private LocalDateTime dataExpiracao;
+
+    // Métodos acessores e modificadores (GETs e SETs)
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public String getDados() {
+        return dados;
+    }
+
+    public void setDados(String dados) {
+        this.dados = dados;
+    }
+
+    public LocalDateTime getDataConsulta() {
+        return dataConsulta;
+    }
+
+    public void setDataConsulta(LocalDateTime dataConsulta) {
+        this.dataConsulta = dataConsulta;
+    }
+
+    public LocalDateTime getDataExpiracao() {
+        return dataExpiracao;
+    }
+
+    public void setDataExpiracao(LocalDateTime dataExpiracao) {
+        this.dataExpiracao = dataExpiracao;
+    }
+}
@@ -2,7 +2,10 @@ package com.sistema.livraria.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.sistema.livraria.enums.RoleType;
+import com.sistema.livraria.ids.IdUuidV7;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.io.Serializable;
@@ -12,14 +15,17 @@ import java.util.UUID;
  * Classe que representa o modelo da entidade "Role".
  * Esta classe é mapeada para a tabela "TB_ROLE" no banco de dados.
  * A classe implementa Serializable para garantir que os objetos possam ser serializados.
+ * As roles nunca mudam em tempo de execução, por isso ficam no cache de segundo nível como somente leitura.
  */
 @Entity
 @Table(name = "TB_ROLE")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "roles")
 public class RoleModel implements GrantedAuthority, Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @IdUuidV7
     private UUID roleId;
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, unique = true, length = 30)
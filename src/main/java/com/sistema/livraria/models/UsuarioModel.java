@@ -5,7 +5,10 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.sistema.livraria.enums.StatusUsuario;
 import com.sistema.livraria.enums.TipoPerfio;
+import com.sistema.livraria.ids.IdUuidV7;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.hateoas.RepresentationModel;
 
 import java.io.Serial;
@@ -19,16 +22,19 @@ import java.util.UUID;
  * Classe que representa o modelo da entidade "Usuario".
  * Esta classe é mapeada para a tabela "TB_USUARIO" no banco de dados.
  * A classe implementa Serializable para garantir que os objetos possam ser serializados.
+ * O usuário e suas roles ficam no cache de segundo nível, pois o filtro JWT os relê a cada requisição.
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Entity
 @Table(name = "TB_USUARIO")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
 public class UsuarioModel extends RepresentationModel<UsuarioModel> implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO) //
+    @IdUuidV7
     private UUID usuarioId;
 
     @Column(nullable = false, unique = true, length = 150)
@@ -54,6 +60,7 @@ public class UsuarioModel extends RepresentationModel<UsuarioModel> implements S
 
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // Acesso apenas escrita
     @ManyToMany(fetch = FetchType.LAZY) // Associação de muitos para muitos
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuariosRoles")
     // Será gerado uma tabela auxiliar TB_USUARIO_ROLE que conterar o id de usuario e o id de role
     @JoinTable(name = "TB_USUARIO_ROLE",
             joinColumns = @JoinColumn(name = "usuarioId"),
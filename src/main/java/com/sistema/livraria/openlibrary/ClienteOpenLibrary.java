@@ -0,0 +1,282 @@
+package com.sistema.livraria.openlibrary;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sistema.livraria.exceptios.ProvedorIndisponivelException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Requisições à API de livros da Open Library ({@code /api/books}), sobre o {@link HttpClient} compartilhado
+ * (conexões reaproveitadas, HTTP/2 quando disponível).
+ *
+ * <p>Cada chamada tem prazo de {@code livraria.openlibrary.prazo}, que vale para a chamada inteira (conexão,
+ * cabeçalhos e corpo); esgotado o prazo, a requisição é cancelada. O corpo é recebido sem ocupar thread e lido em
+ * streaming, livro a livro. Falhas chegam como {@link RestClientException}, como no RestTemplate:
+ * {@link ResourceAccessException} para prazo esgotado e erros de rede, {@link HttpServerErrorException} e
+ * {@link HttpClientErrorException} para os status HTTP de erro.</p>
+ *
+ * <p>Falhas do provedor (rede, prazo, 5xx, 429, resposta inválida) passam pelo {@link Disjuntor}: com o disjuntor
+ * aberto, a chamada falha na hora com {@link ProvedorIndisponivelException}, sem ocupar thread nem conexão à espera
+ * de um serviço fora do ar. Essas falhas são repetidas até {@code livraria.openlibrary.retentativas.max-tentativas}
+ * vezes, com espera exponencial e aleatória (jitter) entre as tentativas e limitadas pelo
+ * {@link OrcamentoRetentativas}. As demais respostas 4xx não são repetidas nem contam como falha.</p>
+ */
+@Component
+public class ClienteOpenLibrary implements MeterBinder {
+
+    Logger logger = LogManager.getLogger(ClienteOpenLibrary.class);
+
+    final HttpClient httpClient;
+    final ObjectMapper objectMapper;
+    final String url;
+    final Duration prazo;
+    final Disjuntor disjuntor;
+    final OrcamentoRetentativas orcamentoRetentativas;
+    final int maxTentativas;
+    final Duration esperaBase;
+    final Duration esperaMaxima;
+
+    // Resultado e duração das requisições; a versão negociada mostra se as requisições dividem a mesma conexão (HTTP/2)
+    final AtomicLong sucessos = new AtomicLong();
+    final AtomicLong falhas = new AtomicLong();
+    final AtomicLong prazosEsgotados = new AtomicLong();
+    final AtomicLong duracaoTotalNanos = new AtomicLong();
+    final Map<HttpClient.Version, AtomicLong> versoes = new EnumMap<>(HttpClient.Version.class);
+
+    public ClienteOpenLibrary(HttpClient httpClient, ObjectMapper objectMapper,
+                              Disjuntor disjuntor, OrcamentoRetentativas orcamentoRetentativas,
+                              @Value("${livraria.openlibrary.url}") String url,
+                              @Value("${livraria.openlibrary.prazo}") Duration prazo,
+                              @Value("${livraria.openlibrary.retentativas.max-tentativas}") int maxTentativas,
+                              @Value("${livraria.openlibrary.retentativas.espera-base}") Duration esperaBase,
+                              @Value("${livraria.openlibrary.retentativas.espera-maxima}") Duration esperaMaxima) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.disjuntor = disjuntor;
+        this.orcamentoRetentativas = orcamentoRetentativas;
+        this.url = url;
+        this.prazo = prazo;
+        this.maxTentativas = maxTentativas;
+        this.esperaBase = esperaBase;
+        this.esperaMaxima = esperaMaxima;
+        for (HttpClient.Version versao : HttpClient.Version.values()) {
+            versoes.put(versao, new AtomicLong());
+        }
+    }
+
+    /**
+     * Uma requisição ao provedor para os ISBNs informados: cada campo "ISBN:..." do objeto raiz é um livro.
+     * ISBNs ausentes da resposta não são conhecidos pelo provedor.
+     *
+     * @return O JSON de cada livro encontrado, por ISBN.
+     * @throws RestClientException se a requisição falhar ou o prazo se esgotar.
+     * @throws ProvedorIndisponivelException se o disjuntor estiver aberto.
+     */
+    public Map<String, String> consultar(List<String> isbns) {
+        try {
+            return consultarAsync(isbns).join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Versão assíncrona de {@link #consultar(List)}: não bloqueia a thread chamadora, o que permite enviar
+     * vários lotes de ISBNs ao mesmo tempo.
+     *
+     * @return Futuro com o JSON de cada livro encontrado; em caso de falha, completado com {@link RestClientException}
+     *         ou {@link ProvedorIndisponivelException}.
+     */
+    public CompletableFuture<Map<String, String>> consultarAsync(List<String> isbns) {
+        orcamentoRetentativas.registrarRequisicao();
+        return tentar(isbns, 1);
+    }
+
+    private CompletableFuture<Map<String, String>> tentar(List<String> isbns, int tentativa) {
+        if (!disjuntor.permitir()) {
+            return CompletableFuture.failedFuture(new ProvedorIndisponivelException(
+                    "A Open Library está indisponível no momento. Tente novamente mais tarde."));
+        }
+        CompletableFuture<Map<String, String>> envio;
+        try {
+            envio = enviar(isbns);
+        } catch (RuntimeException e) {
+            // A requisição nem saiu (URI inválida, HttpClient recusou): mesmo assim a chamada permitida precisa de um
+            // resultado no disjuntor, senão a vaga de teste do meio-aberto nunca é devolvida
+            envio = CompletableFuture.failedFuture(traduzir(e));
+        }
+        return envio.handle((livros, erro) -> {
+            if (erro == null) {
+                disjuntor.registrarSucesso();
+                return CompletableFuture.completedFuture(livros);
+            }
+            RestClientException falha = (RestClientException) (erro instanceof CompletionException ? erro.getCause() : erro);
+            if (!falhaDoProvedor(falha)) {
+                disjuntor.registrarSucesso(); // o provedor respondeu; o erro é da requisição
+                return CompletableFuture.<Map<String, String>>failedFuture(falha);
+            }
+            disjuntor.registrarFalha();
+            if (tentativa >= maxTentativas || !orcamentoRetentativas.retirar()) {
+                return CompletableFuture.<Map<String, String>>failedFuture(falha);
+            }
+            long espera = espera(tentativa);
+            logger.warn("Open Library: tentativa {} falhou ({}); nova tentativa em {} ms", tentativa, falha.getMessage(), espera);
+            // A espera não ocupa thread: a próxima tentativa é agendada
+            return CompletableFuture.supplyAsync(() -> tentar(isbns, tentativa + 1),
+                            CompletableFuture.delayedExecutor(espera, TimeUnit.MILLISECONDS))
+                    .thenCompose(proxima -> proxima);
+        }).thenCompose(resultado -> resultado);
+    }
+
+    private CompletableFuture<Map<String, String>> enviar(List<String> isbns) {
+        URI uri = UriComponentsBuilder.fromUriString(url)
+                .path("/api/books")
+                .queryParam("bibkeys", isbns.stream().map(isbn -> "ISBN:" + isbn).collect(Collectors.joining(",")))
+                .queryParam("format", "json")
+                .queryParam("jscmd", "data")
+                .encode()
+                .build()
+                .toUri();
+        HttpRequest requisicao = HttpRequest.newBuilder(uri)
+                .timeout(prazo)
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .GET()
+                .build();
+
+        logger.info("Consultando a Open Library: {} ISBN(s)", isbns.size());
+        long inicio = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> envio = httpClient.sendAsync(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+        return envio.thenApply(this::ler)
+                .orTimeout(prazo.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((livros, erro) -> {
+                    duracaoTotalNanos.addAndGet(System.nanoTime() - inicio);
+                    if (erro == null) {
+                        sucessos.incrementAndGet();
+                        return livros;
+                    }
+                    envio.cancel(true); // prazo esgotado: aborta a troca ainda em andamento
+                    throw new CompletionException(traduzir(erro instanceof CompletionException ? erro.getCause() : erro));
+                });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Disjuntor.Estado estado : Disjuntor.Estado.values()) {
+            Gauge.builder("livraria.openlibrary.disjuntor.estado", disjuntor, d -> d.estado() == estado ? 1 : 0)
+                    .tag("estado", estado.name()).register(registry);
+            FunctionCounter.builder("livraria.openlibrary.disjuntor.transicoes", disjuntor, d -> d.transicoes(estado))
+                    .tag("para", estado.name()).register(registry);
+        }
+        FunctionCounter.builder("livraria.openlibrary.disjuntor.rejeitadas", disjuntor, Disjuntor::rejeitadas)
+                .register(registry);
+        FunctionCounter.builder("livraria.openlibrary.retentativas", orcamentoRetentativas, OrcamentoRetentativas::executadas)
+                .tag("resultado", "executada").register(registry);
+        FunctionCounter.builder("livraria.openlibrary.retentativas", orcamentoRetentativas, OrcamentoRetentativas::negadas)
+                .tag("resultado", "sem-orcamento").register(registry);
+        FunctionCounter.builder("livraria.openlibrary.requisicoes", sucessos, AtomicLong::get)
+                .tag("resultado", "sucesso").register(registry);
+        FunctionCounter.builder("livraria.openlibrary.requisicoes", falhas, AtomicLong::get)
+                .tag("resultado", "falha").register(registry);
+        FunctionCounter.builder("livraria.openlibrary.requisicoes", prazosEsgotados, AtomicLong::get)
+                .tag("resultado", "prazo").register(registry);
+        versoes.forEach((versao, contador) ->
+                FunctionCounter.builder("livraria.openlibrary.requisicoes.protocolo", contador, AtomicLong::get)
+                        .tag("versao", versao.name()).register(registry));
+        FunctionTimer.builder("livraria.openlibrary.requisicoes.duracao", this,
+                        cliente -> cliente.sucessos.get() + cliente.falhas.get() + cliente.prazosEsgotados.get(),
+                        cliente -> cliente.duracaoTotalNanos.get(), TimeUnit.NANOSECONDS)
+                .register(registry);
+    }
+
+    private Map<String, String> ler(HttpResponse<byte[]> resposta) {
+        versoes.get(resposta.version()).incrementAndGet();
+        HttpStatusCode status = HttpStatusCode.valueOf(resposta.statusCode());
+        if (status.is5xxServerError()) {
+            throw HttpServerErrorException.create(status, "", HttpHeaders.EMPTY, resposta.body(), null);
+        }
+        if (status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, "", HttpHeaders.EMPTY, resposta.body(), null);
+        }
+        if (!status.is2xxSuccessful()) {
+            throw new RestClientException("Resposta inesperada da Open Library: HTTP " + status.value());
+        }
+
+        Map<String, String> livros = new HashMap<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(resposta.body())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RestClientException("Resposta da Open Library não é um objeto JSON");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String chave = parser.currentName();
+                parser.nextToken();
+                JsonNode livro = parser.readValueAsTree();
+                if (chave.startsWith("ISBN:")) {
+                    livros.put(chave.substring("ISBN:".length()), livro.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new RestClientException("Resposta inválida da Open Library: " + e.getMessage(), e);
+        }
+        return livros;
+    }
+
+    // Rede, prazo, 5xx, 429 e resposta inválida; os demais 4xx são erro da requisição, não do provedor
+    private static boolean falhaDoProvedor(RestClientException falha) {
+        return !(falha instanceof HttpClientErrorException erroCliente) || erroCliente.getStatusCode().value() == 429;
+    }
+
+    // Espera exponencial com jitter completo: aleatória entre zero e min(espera-maxima, espera-base * 2^(tentativa-1))
+    private long espera(int tentativa) {
+        long limite = Math.min(esperaMaxima.toMillis(), esperaBase.toMillis() << Math.min(tentativa - 1, 20));
+        return ThreadLocalRandom.current().nextLong(limite + 1);
+    }
+
+    // Mesmas exceções do RestTemplate, para que quem chama trate os dois clientes igualmente
+    private RestClientException traduzir(Throwable erro) {
+        if (erro instanceof TimeoutException || erro instanceof HttpTimeoutException) {
+            prazosEsgotados.incrementAndGet();
+            return new ResourceAccessException("Prazo de " + prazo.toMillis() + " ms esgotado na consulta à Open Library");
+        }
+        falhas.incrementAndGet();
+        if (erro instanceof RestClientException restClientException) {
+            return restClientException;
+        }
+        if (erro instanceof IOException ioException) {
+            return new ResourceAccessException("Erro de comunicação com a Open Library: " + erro.getMessage(), ioException);
+        }
+        return new RestClientException("Falha na consulta à Open Library: " + erro.getMessage(), erro);
+    }
+}
@@ -0,0 +1,286 @@
+package com.sistema.livraria.openlibrary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sistema.livraria.models.RespostaOpenLibraryModel;
+import com.sistema.livraria.repositorys.RespostaOpenLibraryRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consulta de livros por ISBN na Open Library, com cache em dois níveis das respostas do provedor:
+ * <ol>
+ *     <li>memória (Caffeine, limitado em quantidade de ISBNs);</li>
+ *     <li>TB_RESPOSTA_OPENLIBRARY, que sobrevive a reinícios e é compartilhada entre as instâncias.</li>
+ * </ol>
+ *
+ * <p>ISBNs encontrados valem por {@code livraria.openlibrary.cache.ttl}; ISBNs que o provedor não conhece também
+ * ficam guardados (cache negativo), por {@code ttl-negativo}, para que novas tentativas com o mesmo ISBN não voltem
+ * à rede. Falhas do provedor (erro HTTP, tempo esgotado, JSON inválido) não são guardadas. Na memória, a entrada
+ * expira junto com a do banco (no instante gravado), não a partir do momento em que foi lida.</p>
+ *
+ * <p>Consultas simultâneas ao mesmo ISBN ainda não guardado esperam a primeira: só uma vai ao banco e à rede. A memória
+ * guarda a consulta em andamento (um CompletableFuture), e quem a criou faz o carregamento fora do Caffeine: nenhuma
+ * leitura do banco ou chamada HTTP acontece dentro do ConcurrentHashMap.compute, que fixaria a thread virtual.</p>
+ *
+ * <p>Vários ISBNs ({@link #buscarVarios}) são resolvidos com uma leitura do banco e requisições com até
+ * {@code livraria.openlibrary.isbns-por-requisicao} chaves cada ({@code bibkeys=ISBN:a,ISBN:b,...}), até
+ * {@code requisicoes-simultaneas} delas em andamento ao mesmo tempo (ver {@link ClienteOpenLibrary}).</p>
+ */
+@Component
+public class ConsultaOpenLibrary implements MeterBinder {
+
+    Logger logger = LogManager.getLogger(ConsultaOpenLibrary.class);
+
+    final ClienteOpenLibrary clienteOpenLibrary;
+    final ObjectMapper objectMapper;
+    final RespostaOpenLibraryRepository respostaOpenLibraryRepository;
+    final int isbnsPorRequisicao;
+    final int requisicoesSimultaneas;
+    final Duration ttl;
+    final Duration ttlNegativo;
+    final AsyncCache<String, Resposta> memoria;
+
+    // Origem das respostas que não estavam na memória (os acertos da memória vêm de CaffeineCacheMetrics)
+    final AtomicLong acertosBanco = new AtomicLong();
+    final AtomicLong consultasRede = new AtomicLong();
+
+    public ConsultaOpenLibrary(ClienteOpenLibrary clienteOpenLibrary, ObjectMapper objectMapper,
+                               RespostaOpenLibraryRepository respostaOpenLibraryRepository,
+                               @Value("${livraria.openlibrary.isbns-por-requisicao}") int isbnsPorRequisicao,
+                               @Value("${livraria.openlibrary.requisicoes-simultaneas}") int requisicoesSimultaneas,
+                               @Value("${livraria.openlibrary.cache.tamanho-maximo}") long tamanhoMaximo,
+                               @Value("${livraria.openlibrary.cache.ttl}") Duration ttl,
+                               @Value("${livraria.openlibrary.cache.ttl-negativo}") Duration ttlNegativo) {
+        this.clienteOpenLibrary = clienteOpenLibrary;
+        this.objectMapper = objectMapper;
+        this.respostaOpenLibraryRepository = respostaOpenLibraryRepository;
+        this.isbnsPorRequisicao = isbnsPorRequisicao;
+        this.requisicoesSimultaneas = requisicoesSimultaneas;
+        this.ttl = ttl;
+        this.ttlNegativo = ttlNegativo;
+        this.memoria = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new Expiry<String, Resposta>() {
+                    @Override
+                    public long expireAfterCreate(String isbn, Resposta resposta, long tempoAtual) {
+                        return Math.max(0, Duration.between(agora(), resposta.expiracao()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String isbn, Resposta resposta, long tempoAtual, long duracaoAtual) {
+                        return expireAfterCreate(isbn, resposta, tempoAtual);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String isbn, Resposta resposta, long tempoAtual, long duracaoAtual) {
+                        return duracaoAtual;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Dados do livro devolvidos pela Open Library para o ISBN (o objeto "ISBN:..." da resposta).
+     *
+     * @return O JSON do livro, ou vazio se o provedor não conhece o ISBN.
+     * @throws RuntimeException se a consulta ao provedor falhar (nada é guardado em cache).
+     */
+    public Optional<JsonNode> buscar(String isbn) {
+        var carga = new CompletableFuture<Resposta>();
+        CompletableFuture<Resposta> resposta = memoria.get(isbn, (chave, executor) -> carga);
+        if (resposta == carga) {
+            // Esta chamada criou a entrada: carrega fora do lock do cache; as demais só aguardam o futuro
+            try {
+                carga.complete(carregar(isbn));
+            } catch (Throwable e) {
+                // Inclusive Error: sem isso, quem aguarda o futuro ficaria bloqueado para sempre
+                carga.completeExceptionally(e); // o Caffeine descarta a entrada que falhou
+            }
+        }
+        try {
+            return livro(resposta.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error erro) {
+                throw erro;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Dados dos livros de vários ISBNs: memória, depois uma consulta ao banco e, para os que faltarem,
+     * requisições em lotes ao provedor.
+     *
+     * @return Para cada ISBN resolvido, o JSON do livro (vazio se o provedor não conhece o ISBN). Os ISBNs de um lote
+     *         cuja requisição falhou ficam de fora do mapa (nada é guardado em cache para eles).
+     */
+    public Map<String, Optional<JsonNode>> buscarVarios(Collection<String> isbns) {
+        Map<String, Resposta> respostas = new HashMap<>(memoria.synchronous().getAllPresent(isbns));
+
+        Set<String> faltantes = new LinkedHashSet<>(isbns);
+        faltantes.removeAll(respostas.keySet());
+        if (!faltantes.isEmpty()) {
+            var agora = agora();
+            for (RespostaOpenLibraryModel gravada : respostaOpenLibraryRepository.findAllById(faltantes)) {
+                if (gravada.getDataExpiracao().isAfter(agora)) {
+                    acertosBanco.incrementAndGet();
+                    respostas.put(gravada.getIsbn(), guardar(gravada.getIsbn(), new Resposta(gravada.getDados(), gravada.getDataExpiracao())));
+                    faltantes.remove(gravada.getIsbn());
+                }
+            }
+        }
+
+        List<String> pendentes = new ArrayList<>(faltantes);
+        List<List<String>> lotes = new ArrayList<>();
+        for (int inicio = 0; inicio < pendentes.size(); inicio += isbnsPorRequisicao) {
+            lotes.add(pendentes.subList(inicio, Math.min(inicio + isbnsPorRequisicao, pendentes.size())));
+        }
+        List<RespostaOpenLibraryModel> novas = new ArrayList<>();
+        for (int inicio = 0; inicio < lotes.size(); inicio += requisicoesSimultaneas) {
+            // Os lotes de cada grupo são enviados juntos e aguardados antes do próximo grupo
+            List<List<String>> grupo = lotes.subList(inicio, Math.min(inicio + requisicoesSimultaneas, lotes.size()));
+            List<CompletableFuture<Map<String, String>>> envios = grupo.stream().map(lote -> {
+                consultasRede.addAndGet(lote.size());
+                return clienteOpenLibrary.consultarAsync(lote);
+            }).toList();
+
+            for (int i = 0; i < grupo.size(); i++) {
+                List<String> lote = grupo.get(i);
+                Map<String, String> encontrados;
+                try {
+                    encontrados = envios.get(i).join();
+                } catch (CompletionException e) {
+                    logger.warn("Falha ao consultar a Open Library para {} ISBN(s): {}", lote.size(), e.getCause().getMessage());
+                    continue;
+                }
+                var consulta = agora();
+                for (String isbn : lote) {
+                    String dados = encontrados.get(isbn);
+                    var resposta = new Resposta(dados, consulta.plus(dados != null ? ttl : ttlNegativo));
+                    respostas.put(isbn, guardar(isbn, resposta));
+                    novas.add(model(isbn, resposta, consulta));
+                }
+            }
+        }
+        gravar(novas);
+
+        Map<String, Optional<JsonNode>> livros = new LinkedHashMap<>();
+        for (String isbn : isbns) {
+            Resposta resposta = respostas.get(isbn);
+            if (resposta != null) {
+                livros.put(isbn, livro(resposta));
+            }
+        }
+        return livros;
+    }
+
+    /**
+     * Remove do banco as respostas vencidas.
+     */
+    @Scheduled(fixedDelayString = "${livraria.openlibrary.cache.intervalo-limpeza-ms}")
+    public void limparExpiradas() {
+        int removidas = respostaOpenLibraryRepository.deletarExpiradas(agora());
+        if (removidas > 0) {
+            logger.debug("{} resposta(s) vencida(s) da Open Library removida(s) do cache", removidas);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, memoria, "openLibrary");
+        FunctionCounter.builder("livraria.openlibrary.consultas", acertosBanco, AtomicLong::get)
+                .tag("origem", "banco").register(registry);
+        FunctionCounter.builder("livraria.openlibrary.consultas", consultasRede, AtomicLong::get)
+                .tag("origem", "rede").register(registry);
+    }
+
+    // Memória vazia para o ISBN: tenta o banco e, se não houver resposta válida, o provedor
+    private Resposta carregar(String isbn) {
+        Optional<RespostaOpenLibraryModel> gravada = respostaOpenLibraryRepository.findById(isbn)
+                .filter(resposta -> resposta.getDataExpiracao().isAfter(agora()));
+        if (gravada.isPresent()) {
+            acertosBanco.incrementAndGet();
+            return new Resposta(gravada.get().getDados(), gravada.get().getDataExpiracao());
+        }
+
+        consultasRede.incrementAndGet();
+        String dados = clienteOpenLibrary.consultar(List.of(isbn)).get(isbn);
+        var consulta = agora();
+        var resposta = new Resposta(dados, consulta.plus(dados != null ? ttl : ttlNegativo));
+        gravar(List.of(model(isbn, resposta, consulta)));
+        return resposta;
+    }
+
+    private Resposta guardar(String isbn, Resposta resposta) {
+        memoria.put(isbn, CompletableFuture.completedFuture(resposta));
+        return resposta;
+    }
+
+    private Optional<JsonNode> livro(Resposta resposta) {
+        if (resposta.dados() == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readTree(resposta.dados()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RespostaOpenLibraryModel model(String isbn, Resposta resposta, LocalDateTime consulta) {
+        var model = new RespostaOpenLibraryModel();
+        model.setIsbn(isbn);
+        model.setDados(resposta.dados());
+        model.setDataConsulta(consulta);
+        model.setDataExpiracao(resposta.expiracao());
+        return model;
+    }
+
+    // Falha ao gravar não impede a resposta: os ISBNs ficam só na memória e voltam à rede após um reinício
+    private void gravar(List<RespostaOpenLibraryModel> respostas) {
+        if (respostas.isEmpty()) {
+            return;
+        }
+        try {
+            respostaOpenLibraryRepository.gravarTodas(
+                    respostas.stream().map(RespostaOpenLibraryModel::getIsbn).toArray(String[]::new),
+                    respostas.stream().map(RespostaOpenLibraryModel::getDados).toArray(String[]::new),
+                    respostas.stream().map(RespostaOpenLibraryModel::getDataConsulta).toArray(LocalDateTime[]::new),
+                    respostas.stream().map(RespostaOpenLibraryModel::getDataExpiracao).toArray(LocalDateTime[]::new));
+        } catch (RuntimeException e) {
+            logger.warn("{} resposta(s) da Open Library não foram gravadas no cache persistente: {}", respostas.size(), e.getMessage());
+        }
+    }
+
+    private static LocalDateTime agora() {
+        return LocalDateTime.now(ZoneId.of("America/Recife"));
+    }
+
+    /**
+     * Resposta guardada: o JSON do livro (nulo = ISBN inexistente no provedor) e o instante em que deixa de valer.
+     */
+    record Resposta(String dados, LocalDateTime expiracao) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.sistema.livraria.openlibrary;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Disjuntor (circuit breaker) das chamadas a um serviço externo.
+ *
+ * <p>FECHADO: as chamadas passam e os resultados das últimas {@code janela} entram numa janela deslizante. Com pelo
+ * menos {@code minimoChamadas} na janela e {@code taxaFalhas}% ou mais de falhas, o disjuntor ABRE e recusa as
+ * chamadas de imediato, sem esperar pelo serviço. Passado {@code esperaAberto}, fica MEIO_ABERTO e deixa passar
+ * até {@code chamadasTeste} chamadas de teste: se todas derem certo, FECHA com a janela zerada; a primeira falha
+ * o ABRE de novo.</p>
+ *
+ * <p>Os métodos só alteram memória (synchronized sem I/O, seguro com threads virtuais).</p>
+ */
+public class Disjuntor {
+
+    public enum Estado { FECHADO, ABERTO, MEIO_ABERTO }
+
+    private static final Logger logger = LogManager.getLogger(Disjuntor.class);
+
+    private final String nome;
+    private final boolean[] janela; // true = falha
+    private final int minimoChamadas;
+    private final int taxaFalhas;
+    private final long esperaAbertoNanos;
+    private final int chamadasTeste;
+    private final LongSupplier relogio;
+
+    private Estado estado = Estado.FECHADO;
+    private int posicao;
+    private int registradas;
+    private int falhas;
+    private long abertoEm;
+    private int testesEmAndamento;
+    private int testesComSucesso;
+
+    private final Map<Estado, Long> transicoes = new EnumMap<>(Estado.class);
+    private long rejeitadas;
+
+    public Disjuntor(String nome, int janela, int minimoChamadas, int taxaFalhas, Duration esperaAberto, int chamadasTeste) {
+        this(nome, janela, minimoChamadas, taxaFalhas, esperaAberto, chamadasTeste, System::nanoTime);
+    }
+
+    Disjuntor(String nome, int janela, int minimoChamadas, int taxaFalhas, Duration esperaAberto, int chamadasTeste,
+              LongSupplier relogio) {
+        this.nome = nome;
+        this.janela = new boolean[janela];
+        this.minimoChamadas = Math.min(minimoChamadas, janela);
+        this.taxaFalhas = taxaFalhas;
+        this.esperaAbertoNanos = esperaAberto.toNanos();
+        this.chamadasTeste = chamadasTeste;
+        this.relogio = relogio;
+        for (Estado destino : Estado.values()) {
+            transicoes.put(destino, 0L);
+        }
+    }
+
+    /**
+     * Reserva a passagem de uma chamada. Cada chamada permitida deve terminar com {@link #registrarSucesso()} ou
+     * {@link #registrarFalha()}.
+     *
+     * @return Falso se o disjuntor está aberto (ou já há chamadas de teste suficientes em andamento).
+     */
+    public synchronized boolean permitir() {
+        if (estado == Estado.ABERTO && relogio.getAsLong() - abertoEm >= esperaAbertoNanos) {
+            mudar(Estado.MEIO_ABERTO);
+        }
+        if (estado == Estado.FECHADO) {
+            return true;
+        }
+        if (estado == Estado.MEIO_ABERTO && testesEmAndamento + testesComSucesso < chamadasTeste) {
+            testesEmAndamento++;
+            return true;
+        }
+        rejeitadas++;
+        return false;
+    }
+
+    public synchronized void registrarSucesso() {
+        if (estado == Estado.FECHADO) {
+            registrar(false);
+        } else if (estado == Estado.MEIO_ABERTO) {
+            testesEmAndamento = Math.max(0, testesEmAndamento - 1);
+            if (++testesComSucesso >= chamadasTeste) {
+                mudar(Estado.FECHADO);
+            }
+        }
+        // ABERTO: resposta de uma chamada iniciada antes da abertura, ignorada
+    }
+
+    public synchronized void registrarFalha() {
+        if (estado == Estado.FECHADO) {
+            registrar(true);
+            if (registradas >= minimoChamadas && falhas * 100 >= taxaFalhas * registradas) {
+                mudar(Estado.ABERTO);
+            }
+        } else if (estado == Estado.MEIO_ABERTO) {
+            mudar(Estado.ABERTO);
+        }
+    }
+
+    public synchronized Estado estado() {
+        return estado;
+    }
+
+    /**
+     * Quantas vezes o disjuntor passou para o estado informado.
+     */
+    public synchronized long transicoes(Estado destino) {
+        return transicoes.get(destino);
+    }
+
+    public synchronized long rejeitadas() {
+        return rejeitadas;
+    }
+
+    private void registrar(boolean falha) {
+        if (registradas == janela.length) {
+            falhas -= janela[posicao] ? 1 : 0; // sai o resultado mais antigo
+        } else {
+            registradas++;
+        }
+        janela[posicao] = falha;
+        falhas += falha ? 1 : 0;
+        posicao = (posicao + 1) % janela.length;
+    }
+
+    private void mudar(Estado novo) {
+        logger.warn("Disjuntor {}: {} -> {} ({} falha(s) em {} chamada(s))", nome, estado, novo, falhas, registradas);
+        estado = novo;
+        transicoes.merge(novo, 1L, Long::sum);
+        testesEmAndamento = 0;
+        testesComSucesso = 0;
+        if (novo == Estado.ABERTO) {
+            abertoEm = relogio.getAsLong();
+        } else if (novo == Estado.FECHADO) {
+            posicao = 0;
+            registradas = 0;
+            falhas = 0;
+        }
+    }
+}
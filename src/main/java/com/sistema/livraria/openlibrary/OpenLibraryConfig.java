@@ -0,0 +1,31 @@
+package com.sistema.livraria.openlibrary;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Proteções das chamadas à Open Library (livraria.openlibrary.disjuntor e livraria.openlibrary.retentativas),
+ * usadas por {@link ClienteOpenLibrary}.
+ */
+@Configuration
+public class OpenLibraryConfig {
+
+    @Bean
+    public Disjuntor disjuntorOpenLibrary(@Value("${livraria.openlibrary.disjuntor.janela}") int janela,
+                                          @Value("${livraria.openlibrary.disjuntor.minimo-chamadas}") int minimoChamadas,
+                                          @Value("${livraria.openlibrary.disjuntor.taxa-falhas}") int taxaFalhas,
+                                          @Value("${livraria.openlibrary.disjuntor.espera-aberto}") Duration esperaAberto,
+                                          @Value("${livraria.openlibrary.disjuntor.chamadas-teste}") int chamadasTeste) {
+        return new Disjuntor("openLibrary", janela, minimoChamadas, taxaFalhas, esperaAberto, chamadasTeste);
+    }
+
+    @Bean
+    public OrcamentoRetentativas orcamentoRetentativasOpenLibrary(
+            @Value("${livraria.openlibrary.retentativas.proporcao}") double proporcao,
+            @Value("${livraria.openlibrary.retentativas.saldo-maximo}") int saldoMaximo) {
+        return new OrcamentoRetentativas(proporcao, saldoMaximo);
+    }
+}
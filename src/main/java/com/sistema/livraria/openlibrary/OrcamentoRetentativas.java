@@ -0,0 +1,47 @@
+package com.sistema.livraria.openlibrary;
+
+/**
+ * Orçamento de retentativas: cada requisição nova deposita {@code proporcao} de uma retentativa no saldo (limitado a
+ * {@code saldoMaximo}) e cada retentativa consome uma inteira. Assim as retentativas ficam em no máximo
+ * {@code proporcao} das requisições e, numa queda do serviço, não multiplicam a carga sobre ele.
+ */
+public class OrcamentoRetentativas {
+
+    private final double proporcao;
+    private final double saldoMaximo;
+
+    private double saldo;
+    private long executadas;
+    private long negadas;
+
+    public OrcamentoRetentativas(double proporcao, int saldoMaximo) {
+        this.proporcao = proporcao;
+        this.saldoMaximo = saldoMaximo;
+        this.saldo = saldoMaximo;
+    }
+
+    public synchronized void registrarRequisicao() {
+        saldo = Math.min(saldoMaximo, saldo + proporcao);
+    }
+
+    /**
+     * @return Verdadeiro se há saldo para uma retentativa (que é descontada).
+     */
+    public synchronized boolean retirar() {
+        if (saldo < 1) {
+            negadas++;
+            return false;
+        }
+        saldo -= 1;
+        executadas++;
+        return true;
+    }
+
+    public synchronized long executadas() {
+        return executadas;
+    }
+
+    public synchronized long negadas() {
+        return negadas;
+    }
+}
@@ -0,0 +1,110 @@
+package com.sistema.livraria.replicas;
+
+import com.sistema.livraria.events.CatalogoImportadoEvent;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Garante que um cliente leia as próprias escritas mesmo com as leituras indo para réplicas.
+ *
+ * <p>Após o commit de uma transação de escrita feita numa requisição, o instante do commit é devolvido ao cliente
+ * no cookie {@value #COOKIE} e no cabeçalho {@value #CABECALHO}. Enquanto o cliente o reenviar (cookie ou cabeçalho),
+ * as leituras dele só vão para réplicas que já reproduziram o primário de depois desse instante; sem nenhuma, vão
+ * para o primário. Não há estado no servidor, então vale entre instâncias da aplicação (relógios sincronizados).</p>
+ *
+ * <p>O cookie dura o atraso máximo aceito: passado esse tempo, toda réplica elegível já contém a escrita.</p>
+ */
+public class ConsistenciaLeitura implements TransactionExecutionListener {
+
+    public static final String COOKIE = "livraria-escrita";
+    public static final String CABECALHO = "X-Livraria-Escrita";
+
+    private static final String ATRIBUTO = ConsistenciaLeitura.class.getName();
+
+    private final int validadeSegundos;
+
+    public ConsistenciaLeitura(Duration atrasoMaximo) {
+        this.validadeSegundos = (int) Math.max(1, (atrasoMaximo.toMillis() + 999) / 1000);
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+        if (commitFailure == null && transaction.isNewTransaction() && !transaction.isReadOnly()) {
+            registrarEscrita();
+        }
+    }
+
+    /**
+     * A importação em massa grava por JDBC direto, fora do gerenciador de transações.
+     */
+    @EventListener
+    public void onCatalogoImportado(CatalogoImportadoEvent event) {
+        registrarEscrita();
+    }
+
+    /**
+     * Registra uma escrita da requisição atual (sem efeito fora de requisições, como nas tarefas agendadas).
+     */
+    public void registrarEscrita() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return;
+        }
+        long agora = System.currentTimeMillis();
+        HttpServletRequest request = atributos.getRequest();
+        request.setAttribute(ATRIBUTO, agora);
+
+        HttpServletResponse response = atributos.getResponse();
+        if (response != null && !response.isCommitted()) {
+            var cookie = new Cookie(COOKIE, Long.toString(agora));
+            cookie.setHttpOnly(true);
+            cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+            cookie.setMaxAge(validadeSegundos);
+            response.addCookie(cookie);
+            response.setHeader(CABECALHO, Long.toString(agora));
+        }
+    }
+
+    /**
+     * Instante (em milissegundos) da última escrita conhecida do cliente da requisição atual, ou 0.
+     */
+    static long ultimaEscrita() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return 0;
+        }
+        HttpServletRequest request = atributos.getRequest();
+        if (request.getAttribute(ATRIBUTO) instanceof Long instante) {
+            return instante;
+        }
+        long instante = converter(request.getHeader(CABECALHO));
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    instante = Math.max(instante, converter(cookie.getValue()));
+                }
+            }
+        }
+        request.setAttribute(ATRIBUTO, instante);
+        return instante;
+    }
+
+    private static long converter(String valor) {
+        if (valor == null) {
+            return 0;
+        }
+        try {
+            // Instantes no futuro (cookie adulterado) valeriam para sempre: ficam limitados ao agora
+            return Math.min(Long.parseLong(valor.trim()), System.currentTimeMillis());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
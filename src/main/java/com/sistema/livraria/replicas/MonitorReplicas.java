@@ -0,0 +1,179 @@
+package com.sistema.livraria.replicas;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Acompanha o atraso das réplicas de leitura em relação ao primário.
+ *
+ * <p>A cada verificação, guarda uma amostra (instante, LSN atual do primário) e lê o LSN já reproduzido por cada
+ * réplica. A amostra mais recente com LSN menor ou igual ao da réplica diz até que instante do primário a réplica
+ * está em dia ({@link Replica#alcancouPrimarioEm}). Com o primário parado a réplica continua em dia, ao contrário
+ * de medir pelo horário da última transação reproduzida.</p>
+ *
+ * <p>Uma réplica só recebe leituras se estiver acessível e com atraso até o máximo configurado; para um cliente
+ * que acabou de gravar, também precisa ter alcançado o primário depois dessa escrita ({@link ConsistenciaLeitura}).</p>
+ */
+public class MonitorReplicas {
+
+    Logger logger = LogManager.getLogger(MonitorReplicas.class);
+
+    final DataSource primario;
+    final List<Replica> replicas;
+    final long atrasoMaximoMs;
+
+    private final Deque<Amostra> amostras = new ArrayDeque<>();
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    public MonitorReplicas(DataSource primario, List<Replica> replicas, Duration atrasoMaximo) {
+        this.primario = primario;
+        this.replicas = List.copyOf(replicas);
+        this.atrasoMaximoMs = atrasoMaximo.toMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${livraria.replicas.intervalo-verificacao-ms}")
+    public synchronized void verificar() {
+        long instante = System.currentTimeMillis();
+        long lsnPrimario;
+        try {
+            lsnPrimario = lsnPrimario();
+        } catch (SQLException e) {
+            logger.warn("Não foi possível ler a posição do WAL no primário: {}", e.getMessage());
+            return;
+        }
+        amostras.addLast(new Amostra(instante, lsnPrimario));
+        while (amostras.size() > 1 && amostras.peekFirst().instante() < instante - 2 * atrasoMaximoMs) {
+            amostras.removeFirst();
+        }
+
+        for (Replica replica : replicas) {
+            try {
+                Long lsnReplica = lsnReplica(replica);
+                if (lsnReplica == null) {
+                    indisponivel(replica, "o servidor não está em recuperação (não é uma réplica)");
+                    continue;
+                }
+                replica.alcancouPrimarioEm = alcancado(lsnReplica);
+                if (!replica.disponivel) {
+                    logger.info("Réplica {} disponível para leituras", replica.nome);
+                    replica.disponivel = true;
+                }
+            } catch (SQLException e) {
+                indisponivel(replica, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Réplicas que podem atender uma leitura agora, começando por uma diferente a cada chamada (rodízio).
+     *
+     * @param ultimaEscrita Instante da última escrita do cliente (0 se não houver).
+     */
+    List<Replica> elegiveis(long ultimaEscrita) {
+        long limite = Math.max(ultimaEscrita + 1, System.currentTimeMillis() - atrasoMaximoMs);
+        List<Replica> elegiveis = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.disponivel && replica.alcancouPrimarioEm >= limite) {
+                elegiveis.add(replica);
+            }
+        }
+        if (elegiveis.size() > 1) {
+            Collections.rotate(elegiveis, Math.floorMod(proxima.getAndIncrement(), elegiveis.size()));
+        }
+        return elegiveis;
+    }
+
+    void indisponivel(Replica replica, String motivo) {
+        if (replica.disponivel) {
+            logger.warn("Réplica {} fora do roteamento de leituras: {}", replica.nome, motivo);
+        }
+        replica.disponivel = false;
+    }
+
+    // Posição atual do WAL no primário, em bytes
+    long lsnPrimario() throws SQLException {
+        return consultarLsn(primario, "SELECT (pg_current_wal_lsn() - '0/0')::bigint");
+    }
+
+    // Posição do WAL já reproduzida pela réplica, em bytes (nulo se o servidor não for uma réplica)
+    Long lsnReplica(Replica replica) throws SQLException {
+        return consultarLsn(replica.dataSource, "SELECT (pg_last_wal_replay_lsn() - '0/0')::bigint");
+    }
+
+    public void fechar() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    logger.warn("Erro ao fechar o pool da réplica {}: {}", replica.nome, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private long alcancado(long lsnReplica) {
+        Iterator<Amostra> iterator = amostras.descendingIterator();
+        while (iterator.hasNext()) {
+            Amostra amostra = iterator.next();
+            if (amostra.lsn() <= lsnReplica) {
+                return amostra.instante();
+            }
+        }
+        return 0;
+    }
+
+    private static Long consultarLsn(DataSource dataSource, String sql) throws SQLException {
+        try (Connection conexao = dataSource.getConnection();
+             Statement statement = conexao.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            long lsn = resultSet.getLong(1);
+            return resultSet.wasNull() ? null : lsn;
+        }
+    }
+
+    private record Amostra(long instante, long lsn) {
+    }
+
+    /**
+     * Uma réplica de leitura e o seu estado, atualizado pelo monitor.
+     */
+    public static final class Replica {
+
+        final String nome;
+        final DataSource dataSource;
+
+        // Instante da amostra mais recente do primário que a réplica já reproduziu (0: nenhuma conhecida)
+        volatile long alcancouPrimarioEm;
+        volatile boolean disponivel;
+
+        public Replica(String nome, DataSource dataSource) {
+            this.nome = nome;
+            this.dataSource = dataSource;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        /**
+         * Atraso em milissegundos (-1 enquanto a réplica estiver indisponível).
+         */
+        public long getAtrasoMs() {
+            return disponivel ? Math.max(0, System.currentTimeMillis() - alcancouPrimarioEm) : -1;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.sistema.livraria.replicas;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roteamento das transações somente leitura para réplicas do PostgreSQL (ativo quando livraria.replicas.urls
+ * não está vazio).
+ *
+ * O DataSource da aplicação passa a ser um {@link LazyConnectionDataSourceProxy} sobre o primário
+ * ("dataSourcePrimario", roteado por compartimento em CompartimentosConfig): a conexão
+ * real só é obtida no primeiro comando, quando a transação já marcou a conexão como somente leitura; nesse caso
+ * ela vem de {@link ReplicasDataSource}. Transações de escrita (e tudo fora de @Transactional(readOnly = true)
+ * ou dos métodos de leitura dos repositórios) continuam no primário.
+ */
+@Configuration
+@ConditionalOnExpression("!'${livraria.replicas.urls:}'.isBlank()")
+public class ReplicasConfig {
+
+    Logger logger = LogManager.getLogger(ReplicasConfig.class);
+
+    @Bean(destroyMethod = "fechar")
+    public MonitorReplicas monitorReplicas(@Qualifier("dataSourcePrimario") DataSource primario,
+                                           DataSourceProperties properties,
+                                           @Value("${livraria.replicas.urls}") List<String> urls,
+                                           @Value("${livraria.replicas.atraso-maximo}") Duration atrasoMaximo,
+                                           @Value("${livraria.replicas.tamanho-pool}") int tamanhoPool,
+                                           @Value("${livraria.replicas.tempo-conexao}") Duration tempoConexao) {
+        List<MonitorReplicas.Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url.trim()).build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(tamanhoPool);
+            replica.setConnectionTimeout(tempoConexao.toMillis());
+            replica.setReadOnly(true);
+            replicas.add(new MonitorReplicas.Replica(replica.getPoolName(), replica));
+        }
+        logger.info("Leituras roteadas para {} réplica(s), atraso máximo de {}", replicas.size(), atrasoMaximo);
+        return new MonitorReplicas(primario, replicas, atrasoMaximo);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimario") DataSource primario, MonitorReplicas monitor) {
+        var roteamento = new LazyConnectionDataSourceProxy(primario);
+        roteamento.setReadOnlyDataSource(new ReplicasDataSource(monitor, primario));
+        return roteamento;
+    }
+
+    /**
+     * Registrado no JpaTransactionManager pelo Spring Boot (TransactionExecutionListener).
+     */
+    @Bean
+    public ConsistenciaLeitura consistenciaLeitura(@Value("${livraria.replicas.atraso-maximo}") Duration atrasoMaximo) {
+        return new ConsistenciaLeitura(atrasoMaximo);
+    }
+
+    /**
+     * Atraso de cada réplica em /actuator/metrics/livraria.replicas.atraso (-1: fora do roteamento).
+     */
+    @Bean
+    public MeterBinder metricasReplicas(MonitorReplicas monitor) {
+        return registry -> monitor.replicas.forEach(replica -> Gauge
+                .builder("livraria.replicas.atraso", replica, MonitorReplicas.Replica::getAtrasoMs)
+                .baseUnit("milliseconds")
+                .tag("replica", replica.getNome())
+                .register(registry));
+    }
+}
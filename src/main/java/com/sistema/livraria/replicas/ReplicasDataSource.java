@@ -0,0 +1,40 @@
+package com.sistema.livraria.replicas;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource das transações somente leitura: entrega a conexão de uma réplica elegível
+ * ({@link MonitorReplicas#elegiveis(long)}) e, se não houver nenhuma ou todas falharem, do primário.
+ */
+public class ReplicasDataSource extends AbstractDataSource {
+
+    final MonitorReplicas monitor;
+    final DataSource primario;
+
+    public ReplicasDataSource(MonitorReplicas monitor, DataSource primario) {
+        this.monitor = monitor;
+        this.primario = primario;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        for (MonitorReplicas.Replica replica : monitor.elegiveis(ConsistenciaLeitura.ultimaEscrita())) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                monitor.indisponivel(replica, e.getMessage());
+            }
+        }
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Credenciais explícitas só existem para o primário
+        return primario.getConnection(username, password);
+    }
+}
@@ -0,0 +1,35 @@
+package com.sistema.livraria.repositorys;
+
+import com.sistema.livraria.models.ControleReservaModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface ControleReservaRepository extends JpaRepository<ControleReservaModel, Integer> {
+
+    // Registra (sem nunca retroceder) o último segmento do journal gravado; roda na mesma transação da descarga
+    @Modifying
+    @Query(value = """
+            INSERT INTO tb_controle_reserva (controle_id, ultimo_segmento, data_atualizacao)
+            VALUES (1, :segmento, :agora)
+            ON CONFLICT (controle_id) DO UPDATE
+               SET ultimo_segmento = GREATEST(tb_controle_reserva.ultimo_segmento, EXCLUDED.ultimo_segmento),
+                   data_atualizacao = EXCLUDED.data_atualizacao
+            """, nativeQuery = true)
+    void registrarSegmentoAplicado(@Param("segmento") long segmento, @Param("agora") LocalDateTime agora);
+
+    // Registra os deltas recusados na descarga (estado final: não são tentados de novo), com a quantidade do banco no momento
+    @Modifying
+    @Query(value = """
+            INSERT INTO tb_baixa_recusada (livro_id, delta, quantidade_banco, segmento, data_recusa)
+            SELECT d.livro_id, d.delta, l.quantidade, :segmento, :agora
+              FROM unnest(cast(:livroIds AS uuid[]), cast(:deltas AS int[])) AS d(livro_id, delta)
+              LEFT JOIN tb_livro l ON l.livro_id = d.livro_id
+            """, nativeQuery = true)
+    void registrarBaixasRecusadas(@Param("livroIds") UUID[] livroIds, @Param("deltas") Integer[] deltas,
+                                  @Param("segmento") long segmento, @Param("agora") LocalDateTime agora);
+}
@@ -0,0 +1,59 @@
+package com.sistema.livraria.repositorys;
+
+import com.sistema.livraria.models.LivroAlteracaoModel;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface LivroAlteracaoRepository extends JpaRepository<LivroAlteracaoModel, Long> {
+
+    /**
+     * Registra uma alteração no feed, na transação da própria alteração.
+     * A linha entra sem sequência (ver {@link #sequenciar()}), então nenhuma trava é mantida até o commit.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO tb_livro_alteracao (livro_id, tipo, data_alteracao)
+            VALUES (:livroId, :tipo, :agora)
+            """, nativeQuery = true)
+    void registrar(@Param("livroId") UUID livroId, @Param("tipo") String tipo, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Lock consultivo do sequenciador (liberado no commit): só uma instância numera as alterações por vez.
+     * Deve ser obtido num comando anterior ao {@link #sequenciar()}, para que este enxergue a numeração
+     * confirmada pelo sequenciador anterior.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(7310001)", nativeQuery = true)
+    boolean travarSequenciamento();
+
+    /**
+     * Numera as alterações ainda sem sequência cujas transações já terminaram (transacao abaixo do xmin do
+     * snapshot: nenhuma transação mais antiga continua em andamento), em ordem de transação. Alterações de
+     * transações em andamento esperam a próxima execução; assim um cliente nunca vê a sequência 11 antes da 10
+     * e pode usar a última sequência lida como cursor sem perder alterações.
+     *
+     * @return A quantidade de alterações numeradas.
+     */
+    @Modifying
+    @Query(value = """
+            WITH ultima AS (SELECT coalesce(max(sequencia), 0) AS sequencia FROM tb_livro_alteracao),
+                 pendentes AS (
+                     SELECT registro_id, row_number() OVER (ORDER BY transacao, registro_id) AS posicao
+                       FROM tb_livro_alteracao
+                      WHERE sequencia IS NULL
+                        AND transacao < pg_snapshot_xmin(pg_current_snapshot()))
+            UPDATE tb_livro_alteracao a
+               SET sequencia = ultima.sequencia + pendentes.posicao
+              FROM pendentes, ultima
+             WHERE a.registro_id = pendentes.registro_id
+            """, nativeQuery = true)
+    int sequenciar();
+
+    List<LivroAlteracaoModel> findBySequenciaGreaterThanOrderBySequenciaAsc(long sequencia, Limit limite);
+}
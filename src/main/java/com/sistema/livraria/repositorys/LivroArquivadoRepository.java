@@ -0,0 +1,70 @@
+package com.sistema.livraria.repositorys;
+
+import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.models.LivroArquivadoModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Interface responsável pelo acesso aos livros arquivados (TB_LIVRO_ARQUIVO).
+ */
+public interface LivroArquivadoRepository extends JpaRepository<LivroArquivadoModel, UUID> {
+
+    // O mesmo ISBN pode ter sido arquivado mais de uma vez: vale o arquivamento mais recente
+    Optional<LivroArquivadoModel> findFirstByIsbnOrderByDataArquivamentoDesc(String isbn);
+
+    boolean existsByIsbn(String isbn);
+
+    @Query("select l.versao from LivroArquivadoModel l where l.livroId = :livroId")
+    Optional<Long> buscarVersao(@Param("livroId") UUID livroId);
+
+    List<LivroArquivadoModel> findByStatusLivro(StatusLivro statusLivro);
+
+    @Query("select l from LivroArquivadoModel l where l.quantidade = 0 order by l.dataCadastroLivro desc")
+    List<LivroArquivadoModel> listarSemEstoque();
+
+    /**
+     * Move um lote de livros fora de venda de TB_LIVRO para TB_LIVRO_ARQUIVO em um único comando
+     * (DELETE ... RETURNING alimentando o INSERT). FOR UPDATE SKIP LOCKED deixa de fora os livros que estão sendo
+     * alterados por outra transação (e permite duas instâncias arquivando ao mesmo tempo sem disputa);
+     * eles entram no próximo lote. Livros INDISPONIVEL só entram com {@code arquivarIndisponiveis}.
+     *
+     * @return Os livros arquivados (estado no momento do arquivamento).
+     */
+    @Query(value = """
+            WITH candidatos AS (
+                SELECT livro_id
+                  FROM tb_livro
+                 WHERE (status_livro = 'DANIFICADO' AND data_atualizacao_livro < :limiteDanificado)
+                    OR (:arquivarIndisponiveis AND status_livro = 'INDISPONIVEL'
+                        AND data_atualizacao_livro < :limiteIndisponivel)
+                 LIMIT :tamanhoLote
+                   FOR UPDATE SKIP LOCKED
+            ), movidos AS (
+                DELETE FROM tb_livro l
+                 USING candidatos c
+                 WHERE l.livro_id = c.livro_id
+                RETURNING l.*
+            )
+            INSERT INTO tb_livro_arquivo (livro_id, isbn, titulo, subtitulo, valor, quantidade, status_livro, categoria,
+                                          tipo_capa, formato, data_publicacao, numero_paginas, capa_url, autor, editora,
+                                          data_cadastro_livro, data_atualizacao_livro, versao, data_arquivamento)
+            SELECT livro_id, isbn, titulo, subtitulo, valor, quantidade, status_livro, categoria,
+                   tipo_capa, formato, data_publicacao, numero_paginas, capa_url, autor, editora,
+                   data_cadastro_livro, data_atualizacao_livro, versao, :agora
+              FROM movidos
+            RETURNING livro_id AS "livroId", isbn AS "isbn", quantidade AS "quantidade",
+                      status_livro AS "statusLivro", categoria AS "categoria", versao AS "versao"
+            """, nativeQuery = true)
+    List<LivroRepository.EstoqueProjection> arquivar(@Param("limiteDanificado") LocalDateTime limiteDanificado,
+                                                     @Param("arquivarIndisponiveis") boolean arquivarIndisponiveis,
+                                                     @Param("limiteIndisponivel") LocalDateTime limiteIndisponivel,
+                                                     @Param("tamanhoLote") int tamanhoLote,
+                                                     @Param("agora") LocalDateTime agora);
+}
@@ -1,10 +1,21 @@
 package com.sistema.livraria.repositorys;
 
+import com.sistema.livraria.configs.InvalidadorCacheLivros;
+import com.sistema.livraria.dtos.LivroFacetasRecordDto;
+import com.sistema.livraria.dtos.LivroTextoRecordDto;
 import com.sistema.livraria.enums.StatusLivro;
 import com.sistema.livraria.models.LivroModel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,17 +30,141 @@ public interface LivroRepository extends JpaRepository<LivroModel, UUID>, JpaSpe
 
     boolean existsByTitulo(String titulo);
 
+    // Consultas mais frequentes: resultados mantidos no cache de consultas do Hibernate
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<LivroModel> findByIsbn(String isbn);
 
     boolean existsByIsbn(String isbn);
 
+    // ISBNs já cadastrados, no catálogo ativo ou no arquivo, numa única consulta (cadastro em lote por ISBN)
+    @Query(value = """
+            SELECT isbn FROM tb_livro WHERE isbn IN (:isbns)
+            UNION
+            SELECT isbn FROM tb_livro_arquivo WHERE isbn IN (:isbns)
+            """, nativeQuery = true)
+    List<String> listarIsbnsCadastrados(@Param("isbns") Collection<String> isbns);
+
     // O nome do método deve corresponder ao campo String 'editora' no LivroModel
     boolean existsByEditora(String editora);
 
     // O nome do método deve corresponder ao campo String 'autor' no LivroModel
     boolean existsByAutor(String autor);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = InvalidadorCacheLivros.REGIAO_LIVROS_POR_STATUS)
+    })
     List<LivroModel> findByStatusLivro(StatusLivro statusLivro);
 
     List<LivroModel> findByQuantidade(int quantidade);
+
+    // Livros sem estoque: o literal 0 (em vez de parâmetro) permite ao PostgreSQL usar o índice parcial idx_livro_sem_estoque
+    @Query("select l from LivroModel l where l.quantidade = 0 order by l.dataCadastroLivro desc")
+    List<LivroModel> listarSemEstoque();
+
+    // Carrega apenas os campos textuais usados pelo índice de sugestões (sem materializar as entidades)
+    @Query("select new com.sistema.livraria.dtos.LivroTextoRecordDto(l.livroId, l.titulo, l.autor, l.editora) from LivroModel l")
+    List<LivroTextoRecordDto> listarTextos();
+
+    // Campos contados pelas facetas do catálogo (carga e reconciliação periódica).
+    // Lido sempre no primário: uma réplica atrasada faria a reconciliação apontar divergências que não existem.
+    @Transactional
+    @Query("select new com.sistema.livraria.dtos.LivroFacetasRecordDto(l.livroId, l.categoria, l.statusLivro, l.formato, l.tipoCapa) from LivroModel l")
+    List<LivroFacetasRecordDto> listarFacetas();
+
+    // Versão atual do livro (sem carregar a entidade), para o ETag das consultas condicionais
+    @Query("select l.versao from LivroModel l where l.livroId = :livroId")
+    Optional<Long> buscarVersao(@Param("livroId") UUID livroId);
+
+    /**
+     * Saída de estoque atômica: um único UPDATE condicional, sem leitura prévia do livro.
+     * Só altera a linha se houver quantidade suficiente; ao zerar, o livro fica INDISPONIVEL no mesmo comando.
+     *
+     * @return O estado do estoque após a saída, ou vazio se o livro não existir ou não houver quantidade suficiente.
+     */
+    default Optional<EstoqueProjection> baixarEstoque(UUID livroId, int quantidade, LocalDateTime agora) {
+        return baixarEstoque(livroId, quantidade, 0, agora);
+    }
+
+    /**
+     * Saída de estoque atômica que também desconta as unidades comprometidas no motor de reservas
+     * (reservadas ou confirmadas e ainda não gravadas), que o banco ainda mostra em estoque.
+     *
+     * @return O estado do estoque após a saída, ou vazio se o livro não existir ou não houver quantidade suficiente.
+     */
+    @Query(value = """
+            UPDATE tb_livro
+               SET quantidade = quantidade - :quantidade,
+                   status_livro = CASE WHEN quantidade - :quantidade = 0 THEN 'INDISPONIVEL' ELSE status_livro END,
+                   data_atualizacao_livro = :agora,
+                   versao = versao + 1
+             WHERE livro_id = :livroId
+               AND quantidade - :comprometido >= :quantidade
+            RETURNING livro_id AS "livroId", isbn AS "isbn", quantidade AS "quantidade",
+                      status_livro AS "statusLivro", categoria AS "categoria", versao AS "versao"
+            """, nativeQuery = true)
+    Optional<EstoqueProjection> baixarEstoque(@Param("livroId") UUID livroId,
+                                              @Param("quantidade") int quantidade,
+                                              @Param("comprometido") int comprometido,
+                                              @Param("agora") LocalDateTime agora);
+
+    /**
+     * Entrada de estoque atômica. Um livro que estava INDISPONIVEL por falta de estoque volta a ficar DISPONIVEL.
+     *
+     * @return O estado do estoque após a entrada, ou vazio se o livro não existir.
+     */
+    @Query(value = """
+            UPDATE tb_livro
+               SET quantidade = coalesce(quantidade, 0) + :quantidade,
+                   status_livro = CASE WHEN status_livro = 'INDISPONIVEL' AND coalesce(quantidade, 0) = 0
+                                       THEN 'DISPONIVEL' ELSE status_livro END,
+                   data_atualizacao_livro = :agora,
+                   versao = versao + 1
+             WHERE livro_id = :livroId
+            RETURNING livro_id AS "livroId", isbn AS "isbn", quantidade AS "quantidade",
+                      status_livro AS "statusLivro", categoria AS "categoria", versao AS "versao"
+            """, nativeQuery = true)
+    Optional<EstoqueProjection> reporEstoque(@Param("livroId") UUID livroId,
+                                             @Param("quantidade") int quantidade,
+                                             @Param("agora") LocalDateTime agora);
+
+    // Quantidade atual do livro (sem carregar a entidade), usada para semear o motor de reservas.
+    // Lida sempre no primário (transação de escrita): semear o motor com um saldo atrasado permitiria vender demais.
+    @Transactional
+    @Query("select coalesce(l.quantidade, 0) from LivroModel l where l.livroId = :livroId")
+    Optional<Integer> buscarQuantidade(@Param("livroId") UUID livroId);
+
+    /**
+     * Grava em um único comando as baixas acumuladas pelo motor de reservas (um delta por livro).
+     * Linhas cuja quantidade ficaria negativa não são alteradas e, portanto, não aparecem no retorno.
+     *
+     * @return O estado do estoque dos livros alterados.
+     */
+    @Query(value = """
+            UPDATE tb_livro l
+               SET quantidade = l.quantidade + d.delta,
+                   status_livro = CASE WHEN l.quantidade + d.delta = 0 THEN 'INDISPONIVEL' ELSE l.status_livro END,
+                   data_atualizacao_livro = :agora,
+                   versao = l.versao + 1
+              FROM unnest(cast(:livroIds AS uuid[]), cast(:deltas AS int[])) AS d(livro_id, delta)
+             WHERE l.livro_id = d.livro_id
+               AND l.quantidade + d.delta >= 0
+            RETURNING l.livro_id AS "livroId", l.isbn AS "isbn", l.quantidade AS "quantidade",
+                      l.status_livro AS "statusLivro", l.categoria AS "categoria", l.versao AS "versao"
+            """, nativeQuery = true)
+    List<EstoqueProjection> aplicarDeltasEstoque(@Param("livroIds") UUID[] livroIds,
+                                                 @Param("deltas") Integer[] deltas,
+                                                 @Param("agora") LocalDateTime agora);
+
+    /**
+     * Estado do estoque devolvido pelas movimentações (cláusula RETURNING).
+     */
+    interface EstoqueProjection {
+        UUID getLivroId();
+        String getIsbn();
+        Integer getQuantidade();
+        String getStatusLivro();
+        String getCategoria();
+        Long getVersao();
+    }
 }
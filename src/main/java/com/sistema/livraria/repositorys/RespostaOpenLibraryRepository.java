@@ -0,0 +1,43 @@
+package com.sistema.livraria.repositorys;
+
+import com.sistema.livraria.models.RespostaOpenLibraryModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface RespostaOpenLibraryRepository extends JpaRepository<RespostaOpenLibraryModel, String> {
+
+    // Limpeza periódica das respostas vencidas (as consultas já ignoram as vencidas)
+    @Transactional
+    @Modifying
+    @Query("delete from RespostaOpenLibraryModel r where r.dataExpiracao < :agora")
+    int deletarExpiradas(@Param("agora") LocalDateTime agora);
+
+    /**
+     * Grava as respostas em um único comando, inserindo ou substituindo a linha de cada ISBN. O saveAll faria um
+     * SELECT por linha (a chave é atribuída, então o Hibernate não sabe se a entidade é nova) antes de gravar.
+     * Os arrays são paralelos e não podem repetir ISBN.
+     *
+     * @return Quantidade de linhas gravadas.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO tb_resposta_openlibrary (isbn, dados, data_consulta, data_expiracao)
+            SELECT *
+              FROM unnest(cast(:isbns AS varchar[]), cast(:dados AS text[]),
+                          cast(:consultas AS timestamp[]), cast(:expiracoes AS timestamp[]))
+            ON CONFLICT (isbn) DO UPDATE
+               SET dados = excluded.dados,
+                   data_consulta = excluded.data_consulta,
+                   data_expiracao = excluded.data_expiracao
+            """, nativeQuery = true)
+    int gravarTodas(@Param("isbns") String[] isbns,
+                    @Param("dados") String[] dados,
+                    @Param("consultas") LocalDateTime[] consultas,
+                    @Param("expiracoes") LocalDateTime[] expiracoes);
+}
@@ -2,12 +2,17 @@ package com.sistema.livraria.repositorys;
 
 import com.sistema.livraria.enums.RoleType;
 import com.sistema.livraria.models.RoleModel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 import java.util.UUID;
 
 public interface RoleRepository extends JpaRepository<RoleModel, UUID> {
     // Método para buscar uma RoleModel a partir do nome do tipo de role (RoleType)
+    // O resultado fica no cache de consultas do Hibernate (as roles não mudam)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<RoleModel> findByRoleNome(RoleType nome);
 }
\ No newline at end of file
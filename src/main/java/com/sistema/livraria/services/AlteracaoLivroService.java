@@ -0,0 +1,19 @@
+package com.sistema.livraria.services;
+
+import com.sistema.livraria.dtos.AlteracoesRecordDto;
+
+/**
+ * Interface que define o feed de alterações do catálogo, usado por clientes que mantêm uma cópia dos livros.
+ */
+public interface AlteracaoLivroService {
+
+    /**
+     * Lista as alterações posteriores ao cursor, em ordem de commit.
+     * Cada livro aparece no máximo uma vez por página, com a sua alteração mais recente.
+     *
+     * @param desde  Última sequência já processada pelo cliente (0 para sincronizar desde o início).
+     * @param limite Quantidade máxima de alterações lidas.
+     * @return As alterações e o cursor para a próxima chamada.
+     */
+    AlteracoesRecordDto listar(long desde, int limite);
+}
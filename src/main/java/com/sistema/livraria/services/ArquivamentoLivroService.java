@@ -0,0 +1,15 @@
+package com.sistema.livraria.services;
+
+/**
+ * Interface que define o arquivamento dos livros fora de venda (DANIFICADO ou INDISPONIVEL há muito tempo),
+ * movidos do catálogo ativo (TB_LIVRO) para o arquivo frio (TB_LIVRO_ARQUIVO).
+ */
+public interface ArquivamentoLivroService {
+
+    /**
+     * Arquiva, em lotes, todos os livros que atendem à política configurada (livraria.arquivo).
+     *
+     * @return Quantidade de livros arquivados.
+     */
+    int arquivar();
+}
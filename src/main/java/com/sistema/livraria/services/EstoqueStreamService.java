@@ -0,0 +1,22 @@
+package com.sistema.livraria.services;
+
+import com.sistema.livraria.enums.Categoria;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Interface que define o envio, via Server-Sent Events, das alterações de quantidade e status dos livros.
+ */
+public interface EstoqueStreamService {
+
+    /**
+     * Registra um novo assinante do stream de estoque.
+     *
+     * @param livroIds  Livros de interesse (vazio para todos).
+     * @param categoria Categoria de interesse (nula para todas).
+     * @return O emissor SSE da conexão.
+     */
+    SseEmitter assinar(Set<UUID> livroIds, Categoria categoria);
+}
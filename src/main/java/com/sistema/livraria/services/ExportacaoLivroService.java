@@ -0,0 +1,22 @@
+package com.sistema.livraria.services;
+
+import com.sistema.livraria.models.LivroModel;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Interface que define a exportação do catálogo completo de livros.
+ */
+public interface ExportacaoLivroService {
+
+    /**
+     * Escreve os livros (um JSON por linha, NDJSON) na saída, lidos do banco por cursor.
+     *
+     * @param spec  Filtros opcionais (pode ser nulo).
+     * @param saida Destino da exportação (não é fechado).
+     * @return Quantidade de livros exportados.
+     */
+    long exportar(Specification<LivroModel> spec, OutputStream saida) throws IOException;
+}
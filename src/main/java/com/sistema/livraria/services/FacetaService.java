@@ -0,0 +1,19 @@
+package com.sistema.livraria.services;
+
+import com.sistema.livraria.dtos.FacetasRecordDto;
+
+/**
+ * Interface que define as contagens de livros por categoria, status, formato e tipo de capa (facetas do catálogo).
+ */
+public interface FacetaService {
+
+    /**
+     * Contagens atuais, atendidas pela estrutura em memória (sem consulta ao banco).
+     */
+    FacetasRecordDto contar();
+
+    /**
+     * Recarrega as contagens a partir do banco de dados.
+     */
+    void recarregar();
+}
@@ -0,0 +1,29 @@
+package com.sistema.livraria.services;
+
+import com.sistema.livraria.dtos.ImportacaoRecordDto;
+import com.sistema.livraria.enums.FormatoImportacao;
+import com.sistema.livraria.enums.ModoImportacao;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Interface que define a importação em lote de livros (carga inicial e atualizações de fornecedores).
+ */
+public interface ImportacaoLivroService {
+
+    /**
+     * Importa os livros da entrada, criando os ISBNs novos e atualizando apenas os que mudaram.
+     * Linhas inválidas não interrompem a importação: são listadas no relatório.
+     *
+     * @param entrada Conteúdo CSV ou NDJSON (lido em streaming; não é fechado).
+     * @param formato Formato da entrada.
+     * @param modo    MESCLA, ou RECONCILIACAO para também remover os livros ausentes no arquivo.
+     * @param forcarRemocao Na reconciliação, remove mesmo acima da proporção máxima configurada.
+     * @return Relatório da importação.
+     * @throws com.sistema.livraria.exceptios.ReconciliacaoRecusadaException se a reconciliação removeria mais livros
+     *         do que a proporção máxima e forcarRemocao for falso (nada é gravado).
+     */
+    ImportacaoRecordDto importar(InputStream entrada, FormatoImportacao formato, ModoImportacao modo,
+                                 boolean forcarRemocao) throws IOException;
+}
@@ -1,8 +1,11 @@
 package com.sistema.livraria.services;
 
+import com.sistema.livraria.dtos.CadastroLoteIsbnRecordDto;
 import com.sistema.livraria.dtos.LivroIsbnRecordDto;
 import com.sistema.livraria.models.LivroModel;
 
+import java.util.List;
+
 /**
  * Interface que define os serviços relacionados aos livros na livraria.
  * Contém métodos para registrar e consultar livros através do ISBN.
@@ -18,6 +21,15 @@ public interface LivrariaService {
      */
     LivroModel registrarLivroPorIsbn(String isbn, LivroIsbnRecordDto livroIsbnRecordDto);
 
+    /**
+     * Registra vários livros a partir de seus ISBNs: os já cadastrados são identificados numa única consulta,
+     * os demais são buscados na API externa em lotes e gravados juntos.
+     *
+     * @param livros DTOs com o ISBN e as informações adicionais de cada livro.
+     * @return O resultado de cada ISBN, na ordem recebida.
+     */
+    CadastroLoteIsbnRecordDto registrarLivrosPorIsbn(List<LivroIsbnRecordDto> livros);
+
     /**
      * Consulta um livro existente no banco de dados a partir do ISBN informado.
      *
@@ -1,7 +1,9 @@
 package com.sistema.livraria.services;
 
+import com.sistema.livraria.dtos.EstoqueRecordDto;
 import com.sistema.livraria.dtos.LivroIsbnRecordDto;
 import com.sistema.livraria.dtos.LivroRecordDto;
+import com.sistema.livraria.dtos.MovimentoEstoqueRecordDto;
 import com.sistema.livraria.models.LivroModel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,13 +29,22 @@ public interface LivroService {
     Page<LivroModel> findAll(Specification<LivroModel> spec, Pageable pageable);
 
     /**
-     * Busca um livro pelo seu ID.
+     * Busca um livro pelo seu ID (no catálogo ativo ou, se não houver, no arquivo).
      *
      * @param livroId ID do livro.
      * @return Um Optional com o livro encontrado ou vazio se não encontrado.
      */
     Optional<LivroModel> findById(UUID livroId);
 
+    /**
+     * Busca apenas a versão (@Version) de um livro, sem carregar a entidade (catálogo ativo ou arquivo).
+     *
+     * @param livroId ID do livro.
+     * @return A versão atual do livro.
+     * @throws com.sistema.livraria.exceptios.NotFoundException se o livro não for encontrado.
+     */
+    Long buscarVersao(UUID livroId);
+
     /**
      * Salva um novo livro no sistema com base nas informações fornecidas.
      *
@@ -67,7 +78,7 @@ public interface LivroService {
     void delete(LivroModel livroModel);
 
     /**
-     * Busca um livro pelo seu ISBN.
+     * Busca um livro pelo seu ISBN (no catálogo ativo ou, se não houver, no arquivo).
      *
      * @param isbn Código ISBN do livro (10 ou 13 dígitos).
      * @return Um Optional com o livro encontrado ou vazio se não encontrado.
@@ -91,4 +102,13 @@ public interface LivroService {
     boolean existsByIsbn(String isbn);
 
     LivroModel patchStatus(LivroModel livroModel, LivroRecordDto livroRecordDto);
-}
\ No newline at end of file
+
+    /**
+     * Registra uma entrada ou saída de estoque de forma atômica (um único UPDATE condicional no banco).
+     *
+     * @param livroId ID do livro.
+     * @param movimentoEstoqueRecordDto Tipo e quantidade do movimento.
+     * @return A quantidade e o status do livro após o movimento.
+     */
+    EstoqueRecordDto movimentarEstoque(UUID livroId, MovimentoEstoqueRecordDto movimentoEstoqueRecordDto);
+}
@@ -1,11 +1,14 @@
 package com.sistema.livraria.services;
 
+/**
+ * Relatórios em PDF do catálogo. Com incluirArquivados, os livros arquivados entram junto com os ativos.
+ */
 public interface RelatorioService {
-    byte[] gerarRelatorioLivrosPorCategoria();
-    byte[] gerarRelatorioLivrosPorAutor();
-    byte[] gerarRelatorioLivrosPorValor(double valorMinimo);
-    byte[] gerarRelatorioGenerico(String tituloRelatorio);
-    byte[] gerarRelatorioLivrosPorEditora();
-    byte[] gerarRelatorioLivroPorStatus(String statusFiltro);
-    byte[] gerarRelatorioLivrosPorEstoqueZerado();
+    byte[] gerarRelatorioLivrosPorCategoria(boolean incluirArquivados);
+    byte[] gerarRelatorioLivrosPorAutor(boolean incluirArquivados);
+    byte[] gerarRelatorioLivrosPorValor(double valorMinimo, boolean incluirArquivados);
+    byte[] gerarRelatorioGenerico(String tituloRelatorio, boolean incluirArquivados);
+    byte[] gerarRelatorioLivrosPorEditora(boolean incluirArquivados);
+    byte[] gerarRelatorioLivroPorStatus(String statusFiltro, boolean incluirArquivados);
+    byte[] gerarRelatorioLivrosPorEstoqueZerado(boolean incluirArquivados);
 }
@@ -0,0 +1,57 @@
+package com.sistema.livraria.services;
+
+import com.sistema.livraria.dtos.ReservaEstoqueRecordDto;
+import com.sistema.livraria.dtos.ReservaRecordDto;
+import com.sistema.livraria.repositorys.LivroRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Interface que define o serviço de reservas de estoque, atendido em memória
+ * e gravado no banco em lotes. Opcional: só existe com livraria.reservas.habilitado=true.
+ */
+public interface ReservaService {
+
+    /**
+     * Reserva unidades de um livro pelo prazo configurado.
+     *
+     * @param reservaRecordDto Livro e quantidade a reservar.
+     * @return A reserva criada, com o prazo de expiração.
+     */
+    ReservaEstoqueRecordDto reservar(ReservaRecordDto reservaRecordDto);
+
+    /**
+     * Confirma uma reserva, transformando-a em baixa de estoque.
+     *
+     * @param reservaId ID da reserva.
+     * @return A reserva confirmada.
+     */
+    ReservaEstoqueRecordDto confirmar(UUID reservaId);
+
+    /**
+     * Cancela uma reserva, devolvendo as unidades ao estoque.
+     *
+     * @param reservaId ID da reserva.
+     */
+    void liberar(UUID reservaId);
+
+    /**
+     * Saída de estoque gravada direto no banco, coordenada com o motor: o UPDATE recebe as unidades que o motor
+     * já comprometeu no livro (reservadas ou confirmadas e ainda não gravadas) e deve descontá-las do saldo.
+     * Chamado dentro da transação do UPDATE; as unidades ficam retidas no motor até ela terminar.
+     *
+     * @param livroId    ID do livro.
+     * @param quantidade Unidades da saída.
+     * @param saida      UPDATE condicional, chamado com as unidades comprometidas; vazio se não houve saída.
+     * @return O estado do estoque após a saída, ou vazio se não houve saída.
+     */
+    Optional<LivroRepository.EstoqueProjection> baixarNoBanco(UUID livroId, int quantidade,
+                                                             IntFunction<Optional<LivroRepository.EstoqueProjection>> saida);
+
+    /**
+     * Grava no banco as baixas confirmadas ainda pendentes.
+     */
+    void descarregar();
+}
@@ -0,0 +1,25 @@
+package com.sistema.livraria.services;
+
+import com.sistema.livraria.dtos.SugestaoRecordDto;
+
+import java.util.List;
+
+/**
+ * Interface que define o serviço de sugestões (autocompletar) de títulos, autores e editoras.
+ */
+public interface SugestaoService {
+
+    /**
+     * Busca sugestões para o texto digitado, ordenadas por relevância.
+     *
+     * @param prefixo Texto digitado pelo usuário.
+     * @param limite  Quantidade máxima de sugestões retornadas.
+     * @return Lista de sugestões encontradas.
+     */
+    List<SugestaoRecordDto> sugerir(String prefixo, int limite);
+
+    /**
+     * Recarrega o índice de sugestões a partir do banco de dados.
+     */
+    void recarregarIndice();
+}
@@ -0,0 +1,90 @@
+package com.sistema.livraria.services.impl;
+
+import com.sistema.livraria.dtos.AlteracaoLivroRecordDto;
+import com.sistema.livraria.dtos.AlteracoesRecordDto;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.models.LivroAlteracaoModel;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroAlteracaoRepository;
+import com.sistema.livraria.repositorys.LivroRepository;
+import com.sistema.livraria.services.AlteracaoLivroService;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementação do feed de alterações do catálogo.
+ *
+ * Cada {@link LivroAlteradoEvent} é gravado em TB_LIVRO_ALTERACAO dentro da transação que alterou o livro
+ * (ouvinte síncrono): se a alteração for desfeita, a entrada do feed também é. A entrada nasce sem sequência;
+ * o sequenciador periódico a numera quando todas as transações mais antigas tiverem terminado.
+ */
+@Service
+public class AlteracaoLivroServiceImpl implements AlteracaoLivroService {
+
+    final LivroAlteracaoRepository livroAlteracaoRepository;
+    final LivroRepository livroRepository;
+
+    public AlteracaoLivroServiceImpl(LivroAlteracaoRepository livroAlteracaoRepository, LivroRepository livroRepository) {
+        this.livroAlteracaoRepository = livroAlteracaoRepository;
+        this.livroRepository = livroRepository;
+    }
+
+    @EventListener
+    @Transactional
+    public void registrar(LivroAlteradoEvent event) {
+        livroAlteracaoRepository.registrar(event.livroId(), event.tipo().name(), LocalDateTime.now(ZoneId.of("America/Recife")));
+    }
+
+    /**
+     * Numera as alterações das transações já concluídas. Com várias instâncias, só uma numera por vez
+     * (as demais pulam a execução).
+     */
+    @Scheduled(fixedDelayString = "${livraria.alteracoes.intervalo-sequenciamento-ms}")
+    @Transactional
+    public void sequenciar() {
+        if (livroAlteracaoRepository.travarSequenciamento()) {
+            livroAlteracaoRepository.sequenciar();
+        }
+    }
+
+    @Override
+    public AlteracoesRecordDto listar(long desde, int limite) {
+        List<LivroAlteracaoModel> lidas = livroAlteracaoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(desde, Limit.of(limite));
+        if (lidas.isEmpty()) {
+            return new AlteracoesRecordDto(List.of(), desde, false);
+        }
+
+        // Apenas a alteração mais recente de cada livro (a lista vem em ordem crescente de sequência)
+        Map<UUID, LivroAlteracaoModel> ultimas = new LinkedHashMap<>();
+        for (LivroAlteracaoModel alteracao : lidas) {
+            ultimas.remove(alteracao.getLivroId());
+            ultimas.put(alteracao.getLivroId(), alteracao);
+        }
+
+        // Estado atual dos livros não removidos, numa única consulta
+        Set<UUID> ids = ultimas.values().stream()
+                .filter(alteracao -> alteracao.getTipo() != TipoAlteracaoLivro.REMOVIDO)
+                .map(LivroAlteracaoModel::getLivroId)
+                .collect(Collectors.toSet());
+        Map<UUID, LivroModel> livros = livroRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(LivroModel::getLivroId, Function.identity()));
+
+        List<AlteracaoLivroRecordDto> alteracoes = ultimas.values().stream()
+                .map(alteracao -> new AlteracaoLivroRecordDto(alteracao.getSequencia(), alteracao.getLivroId(),
+                        alteracao.getTipo(), alteracao.getDataAlteracao(), livros.get(alteracao.getLivroId())))
+                .toList();
+
+        long proximoCursor = lidas.get(lidas.size() - 1).getSequencia();
+        return new AlteracoesRecordDto(alteracoes, proximoCursor, lidas.size() == limite);
+    }
+}
@@ -0,0 +1,135 @@
+package com.sistema.livraria.services.impl;
+
+import com.sistema.livraria.compartimentos.ContextoCompartimento;
+import com.sistema.livraria.configs.InvalidadorCacheLivros;
+import com.sistema.livraria.enums.Compartimento;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.repositorys.LivroArquivadoRepository;
+import com.sistema.livraria.repositorys.LivroRepository;
+import com.sistema.livraria.services.ArquivamentoLivroService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Implementação do arquivamento de livros fora de venda.
+ *
+ * Cada lote é movido por um único comando e confirmado em sua própria transação, para que os locks sobre TB_LIVRO
+ * durem pouco e uma falha no meio perca só o lote atual. Os livros arquivados são publicados como remoções
+ * ({@link LivroAlteradoEvent#deArquivamento}): o feed de alterações ganha o tombstone e as estruturas em memória
+ * (facetas, sugestões, reservas) deixam de contá-los. Os lotes usam o pool de trabalhos em lote.
+ *
+ * A idade do livro é medida por data_atualizacao_livro (última gravação, inclusive movimentações de estoque).
+ * O arquivamento não tem volta: por padrão só DANIFICADO é arquivado; INDISPONIVEL (que pode voltar a ser
+ * vendido) depende de livraria.arquivo.arquivar-indisponiveis.
+ */
+@Service
+public class ArquivamentoLivroServiceImpl implements ArquivamentoLivroService {
+
+    Logger logger = LogManager.getLogger(ArquivamentoLivroServiceImpl.class);
+
+    final LivroArquivadoRepository livroArquivadoRepository;
+    final InvalidadorCacheLivros invalidadorCacheLivros;
+    final ApplicationEventPublisher eventPublisher;
+    final TransactionTemplate transactionTemplate;
+    final boolean habilitado;
+    final Duration danificadoApos;
+    final boolean arquivarIndisponiveis;
+    final Duration indisponivelApos;
+    final int tamanhoLote;
+    final Duration pausaEntreLotes;
+
+    public ArquivamentoLivroServiceImpl(LivroArquivadoRepository livroArquivadoRepository,
+                                        InvalidadorCacheLivros invalidadorCacheLivros,
+                                        ApplicationEventPublisher eventPublisher,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${livraria.arquivo.habilitado}") boolean habilitado,
+                                        @Value("${livraria.arquivo.danificado-apos}") Duration danificadoApos,
+                                        @Value("${livraria.arquivo.arquivar-indisponiveis}") boolean arquivarIndisponiveis,
+                                        @Value("${livraria.arquivo.indisponivel-apos}") Duration indisponivelApos,
+                                        @Value("${livraria.arquivo.tamanho-lote}") int tamanhoLote,
+                                        @Value("${livraria.arquivo.pausa-entre-lotes}") Duration pausaEntreLotes) {
+        this.livroArquivadoRepository = livroArquivadoRepository;
+        this.invalidadorCacheLivros = invalidadorCacheLivros;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.danificadoApos = danificadoApos;
+        this.arquivarIndisponiveis = arquivarIndisponiveis;
+        this.indisponivelApos = indisponivelApos;
+        this.tamanhoLote = tamanhoLote;
+        this.pausaEntreLotes = pausaEntreLotes;
+    }
+
+    /**
+     * Execução periódica do arquivamento. Falhas são registradas e a próxima execução continua de onde parou.
+     */
+    @Scheduled(initialDelayString = "${livraria.arquivo.intervalo-ms}", fixedDelayString = "${livraria.arquivo.intervalo-ms}")
+    public void arquivarPeriodicamente() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            arquivar();
+        } catch (RuntimeException e) {
+            logger.error("ERRO: falha no arquivamento de livros, nova tentativa na próxima execução", e);
+        }
+    }
+
+    @Override
+    public int arquivar() {
+        long inicio = System.currentTimeMillis();
+        var agora = LocalDateTime.now(ZoneId.of("America/Recife"));
+        var limiteDanificado = agora.minus(danificadoApos);
+        var limiteIndisponivel = agora.minus(indisponivelApos);
+
+        int total = 0;
+        int movidos;
+        do {
+            movidos = ContextoCompartimento.executar(Compartimento.LOTE,
+                    () -> arquivarLote(limiteDanificado, limiteIndisponivel, agora));
+            total += movidos;
+        } while (movidos == tamanhoLote && pausar());
+
+        if (total > 0) {
+            logger.info("Arquivamento: {} livro(s) movido(s) para o arquivo em {} ms", total, System.currentTimeMillis() - inicio);
+        }
+        return total;
+    }
+
+    private int arquivarLote(LocalDateTime limiteDanificado, LocalDateTime limiteIndisponivel, LocalDateTime agora) {
+        Integer movidos = transactionTemplate.execute(status -> {
+            List<LivroRepository.EstoqueProjection> arquivados =
+                    livroArquivadoRepository.arquivar(limiteDanificado, arquivarIndisponiveis,
+                            limiteIndisponivel, tamanhoLote, agora);
+            if (!arquivados.isEmpty()) {
+                // SQL nativo: os caches de livros (inclusive o de consultas por ISBN) são esvaziados após o commit
+                invalidadorCacheLivros.invalidarTudo();
+                arquivados.forEach(livro -> eventPublisher.publishEvent(LivroAlteradoEvent.deArquivamento(livro, agora)));
+            }
+            return arquivados.size();
+        });
+        return movidos != null ? movidos : 0;
+    }
+
+    // Intervalo entre lotes, para não disputar o banco com as requisições; falso se a thread foi interrompida
+    private boolean pausar() {
+        try {
+            Thread.sleep(pausaEntreLotes);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
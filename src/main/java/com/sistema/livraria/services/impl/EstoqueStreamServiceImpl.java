@@ -0,0 +1,212 @@
+package com.sistema.livraria.services.impl;
+
+import com.sistema.livraria.dtos.EstoqueEventoRecordDto;
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.exceptios.CapacidadeEsgotadaException;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.services.EstoqueStreamService;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementação do stream de estoque.
+ *
+ * As alterações chegam após o commit ({@link LivroAlteradoEvent}) e são apenas enfileiradas: o envio é feito
+ * por um pool fixo de threads, então um cliente lento nunca atrasa quem grava o livro. A fila de cada assinante
+ * guarda só o último estado de cada livro e tem tamanho máximo; quem não consegue acompanhar é desconectado
+ * (o cliente SSE reconecta sozinho) em vez de acumular eventos em memória.
+ */
+@Service
+public class EstoqueStreamServiceImpl implements EstoqueStreamService {
+
+    Logger logger = LogManager.getLogger(EstoqueStreamServiceImpl.class);
+
+    final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    final ExecutorService envio;
+    final int maxAssinantes;
+    final int capacidadeFila;
+    final long timeoutMs;
+
+    public EstoqueStreamServiceImpl(@Value("${livraria.sse.max-assinantes}") int maxAssinantes,
+                                    @Value("${livraria.sse.capacidade-fila}") int capacidadeFila,
+                                    @Value("${livraria.sse.timeout}") Duration timeout,
+                                    @Value("${livraria.sse.threads-envio}") int threadsEnvio) {
+        this.maxAssinantes = maxAssinantes;
+        this.capacidadeFila = capacidadeFila;
+        this.timeoutMs = timeout.toMillis();
+        AtomicInteger contador = new AtomicInteger();
+        this.envio = Executors.newFixedThreadPool(threadsEnvio, tarefa -> {
+            Thread thread = new Thread(tarefa, "sse-estoque-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public SseEmitter assinar(Set<UUID> livroIds, Categoria categoria) {
+        if (assinantes.size() >= maxAssinantes) {
+            throw new CapacidadeEsgotadaException("Limite de conexões do stream de estoque atingido!");
+        }
+        var emitter = novoEmitter();
+        var assinante = new Assinante(emitter, livroIds, categoria);
+        emitter.onCompletion(() -> assinantes.remove(assinante));
+        emitter.onTimeout(() -> assinantes.remove(assinante));
+        emitter.onError(erro -> assinantes.remove(assinante));
+        assinantes.add(assinante);
+        return emitter;
+    }
+
+    // Criação do emissor separada para que os testes observem os envios sem um servlet
+    SseEmitter novoEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    /**
+     * Distribui a alteração para os assinantes interessados, somente após o commit.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarLivro(LivroAlteradoEvent event) {
+        if (assinantes.isEmpty()) {
+            return;
+        }
+        LivroModel livro = event.livro();
+        var evento = new EstoqueEventoRecordDto(event.livroId(), event.tipo(),
+                livro != null ? livro.getQuantidade() : null,
+                livro != null ? livro.getStatusLivro() : null,
+                livro != null ? livro.getCategoria() : null);
+        for (Assinante assinante : assinantes) {
+            if (assinante.interessado(evento)) {
+                assinante.publicar(evento);
+            }
+        }
+    }
+
+    /**
+     * Comentário periódico para manter a conexão aberta em proxies e detectar clientes desconectados.
+     */
+    @Scheduled(fixedDelayString = "${livraria.sse.intervalo-heartbeat-ms}")
+    public void heartbeat() {
+        for (Assinante assinante : assinantes) {
+            assinante.agendar(assinante::ping);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        envio.shutdownNow();
+        assinantes.forEach(assinante -> assinante.emitter.complete());
+    }
+
+    final class Assinante {
+        final SseEmitter emitter;
+        final Set<UUID> livroIds;
+        final Categoria categoria;
+
+        // Último estado de cada livro ainda não enviado (protegido por "this")
+        private final LinkedHashMap<UUID, EstoqueEventoRecordDto> pendentes = new LinkedHashMap<>();
+        private boolean enviando;
+        private boolean encerrado;
+
+        Assinante(SseEmitter emitter, Set<UUID> livroIds, Categoria categoria) {
+            this.emitter = emitter;
+            this.livroIds = livroIds;
+            this.categoria = categoria;
+        }
+
+        boolean interessado(EstoqueEventoRecordDto evento) {
+            if (!livroIds.isEmpty() && !livroIds.contains(evento.livroId())) {
+                return false;
+            }
+            return categoria == null || evento.categoria() == null || categoria == evento.categoria();
+        }
+
+        void publicar(EstoqueEventoRecordDto evento) {
+            boolean agendar;
+            synchronized (this) {
+                if (encerrado) {
+                    return;
+                }
+                pendentes.remove(evento.livroId());
+                pendentes.put(evento.livroId(), evento);
+                if (pendentes.size() > capacidadeFila) {
+                    logger.warn("Assinante do stream de estoque desconectado: fila cheia ({} livros pendentes)", pendentes.size());
+                    desconectar();
+                    return;
+                }
+                agendar = !enviando;
+                enviando = true;
+            }
+            if (agendar) {
+                agendar(this::drenar);
+            }
+        }
+
+        void agendar(Runnable tarefa) {
+            try {
+                envio.execute(tarefa);
+            } catch (RejectedExecutionException e) {
+                // Aplicação encerrando
+            }
+        }
+
+        private void drenar() {
+            while (true) {
+                List<EstoqueEventoRecordDto> lote;
+                synchronized (this) {
+                    if (encerrado || pendentes.isEmpty()) {
+                        enviando = false;
+                        return;
+                    }
+                    lote = new ArrayList<>(pendentes.values());
+                    pendentes.clear();
+                }
+                try {
+                    for (EstoqueEventoRecordDto evento : lote) {
+                        emitter.send(SseEmitter.event().name("estoque").data(evento, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    synchronized (this) {
+                        enviando = false;
+                        desconectar();
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void ping() {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                synchronized (this) {
+                    desconectar();
+                }
+            }
+        }
+
+        // Chamado com o lock do assinante
+        private void desconectar() {
+            if (!encerrado) {
+                encerrado = true;
+                pendentes.clear();
+                assinantes.remove(this);
+                emitter.complete();
+            }
+        }
+    }
+}
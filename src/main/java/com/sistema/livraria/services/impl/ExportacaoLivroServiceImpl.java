@@ -0,0 +1,108 @@
+package com.sistema.livraria.services.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.services.ExportacaoLivroService;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Implementação da exportação do catálogo.
+ *
+ * Os livros são lidos por um cursor do servidor (o driver do PostgreSQL só usa cursor com fetch size e
+ * autocommit desligado, por isso a leitura acontece numa transação somente leitura) e escritos um a um pelo
+ * mesmo {@link SequenceWriter}. A cada lote o contexto de persistência é limpo, então a memória usada não
+ * depende do tamanho do catálogo. A leitura ignora o cache de segundo nível para não despejar os livros "quentes".
+ */
+@Service
+public class ExportacaoLivroServiceImpl implements ExportacaoLivroService {
+
+    Logger logger = LogManager.getLogger(ExportacaoLivroServiceImpl.class);
+
+    final EntityManager entityManager;
+    final ObjectMapper objectMapper;
+    final TransactionTemplate transactionTemplate;
+    final int tamanhoLote;
+
+    public ExportacaoLivroServiceImpl(EntityManager entityManager, ObjectMapper objectMapper,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${livraria.exportacao.tamanho-lote}") int tamanhoLote) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Override
+    public long exportar(Specification<LivroModel> spec, OutputStream saida) throws IOException {
+        try {
+            Long total = transactionTemplate.execute(status -> {
+                try (Stream<LivroModel> livros = consultar(spec);
+                     SequenceWriter writer = objectMapper.writer()
+                             .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                             .withRootValueSeparator("\n")
+                             .writeValues(saida)) {
+                    long exportados = 0;
+                    Iterator<LivroModel> iterator = livros.iterator();
+                    while (iterator.hasNext()) {
+                        writer.write(iterator.next());
+                        if (++exportados % tamanhoLote == 0) {
+                            entityManager.clear();
+                            writer.flush();
+                        }
+                    }
+                    if (exportados > 0) {
+                        writer.flush();
+                        saida.write('\n'); // o separador só é escrito entre os valores
+                    }
+                    return exportados;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Exportação do catálogo concluída: {} livros", total);
+            return total;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Stream<LivroModel> consultar(Specification<LivroModel> spec) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LivroModel> query = builder.createQuery(LivroModel.class);
+        Root<LivroModel> root = query.from(LivroModel.class);
+        if (spec != null) {
+            var filtro = spec.toPredicate(root, query, builder);
+            if (filtro != null) {
+                query.where(filtro);
+            }
+        }
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, tamanhoLote)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS)
+                .setHint("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS)
+                .getResultStream();
+    }
+}
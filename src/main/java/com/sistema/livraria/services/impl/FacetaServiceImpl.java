@@ -0,0 +1,82 @@
+package com.sistema.livraria.services.impl;
+
+import com.sistema.livraria.busca.ContadorFacetas;
+import com.sistema.livraria.compartimentos.ContextoCompartimento;
+import com.sistema.livraria.dtos.FacetasRecordDto;
+import com.sistema.livraria.enums.Compartimento;
+import com.sistema.livraria.events.CatalogoImportadoEvent;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroRepository;
+import com.sistema.livraria.services.FacetaService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Implementação das facetas do catálogo.
+ *
+ * As contagens são carregadas na inicialização, mantidas pelos eventos de alteração de livros (após o commit)
+ * e conferidas periodicamente com o banco, que corrige qualquer divergência (ex.: alterações feitas direto no banco).
+ */
+@Service
+public class FacetaServiceImpl implements FacetaService {
+
+    Logger logger = LogManager.getLogger(FacetaServiceImpl.class);
+
+    final LivroRepository livroRepository;
+    final ContadorFacetas contador = new ContadorFacetas();
+
+    public FacetaServiceImpl(LivroRepository livroRepository) {
+        this.livroRepository = livroRepository;
+    }
+
+    @Override
+    public FacetasRecordDto contar() {
+        return contador.contagens();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public void recarregar() {
+        long inicio = System.currentTimeMillis();
+        contador.iniciarRecarga();
+        contador.recarregar(livroRepository.listarFacetas());
+        logger.info("Facetas do catálogo carregadas: {} livros em {} ms", contador.contagens().total(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Confere as contagens mantidas em memória com o banco.
+     */
+    @Scheduled(initialDelayString = "${livraria.facetas.intervalo-reconciliacao-ms}",
+               fixedDelayString = "${livraria.facetas.intervalo-reconciliacao-ms}")
+    public void reconciliar() {
+        contador.iniciarRecarga();
+        // Varredura da tabela inteira: usa o pool de trabalhos em lote, não o das requisições
+        var livros = ContextoCompartimento.executar(Compartimento.LOTE, livroRepository::listarFacetas);
+        if (contador.recarregar(livros)) {
+            logger.warn("Facetas do catálogo divergiam do banco e foram corrigidas");
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarLivro(LivroAlteradoEvent event) {
+        LivroModel livro = event.livro();
+        switch (event.tipo()) {
+            case REMOVIDO -> contador.remover(event.livroId());
+            case ESTOQUE -> contador.alterarStatus(event.livroId(), livro.getStatusLivro()); // livro parcial
+            default -> contador.registrar(event.livroId(), livro.getCategoria(), livro.getStatusLivro(),
+                    livro.getFormato(), livro.getTipoCapa());
+        }
+    }
+
+    @EventListener
+    public void aoImportarCatalogo(CatalogoImportadoEvent event) {
+        recarregar();
+    }
+}
@@ -0,0 +1,522 @@
+package com.sistema.livraria.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sistema.livraria.configs.InvalidadorCacheLivros;
+import com.sistema.livraria.dtos.ErroImportacaoRecordDto;
+import com.sistema.livraria.dtos.ImportacaoRecordDto;
+import com.sistema.livraria.dtos.LivroRecordDto;
+import com.sistema.livraria.enums.FormatoImportacao;
+import com.sistema.livraria.enums.ModoImportacao;
+import com.sistema.livraria.events.CatalogoImportadoEvent;
+import com.sistema.livraria.exceptios.ReconciliacaoRecusadaException;
+import com.sistema.livraria.services.ImportacaoLivroService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Implementação da importação em lote de livros.
+ *
+ * A entrada é lida linha a linha: cada linha é convertida em {@link LivroRecordDto}, validada com as mesmas
+ * regras do cadastro e, se válida, enviada ao banco por COPY para uma tabela temporária. Ao final, um único
+ * INSERT ... ON CONFLICT (isbn) cria os livros novos e atualiza os existentes (se o mesmo ISBN aparecer mais
+ * de uma vez, a última linha prevalece). Tudo acontece numa transação: ou o lote inteiro entra, ou nada entra.
+ * Como no cadastro individual e no cadastro por ISBN, um ISBN que só existe no arquivo (TB_LIVRO_ARQUIVO) conta
+ * como já cadastrado: a linha é recusada e listada no relatório, em vez de recriar o livro no catálogo ativo.
+ *
+ * Linhas cujo conteúdo é igual ao do banco (comparando o hash da linha com a coluna gerada hash_conteudo) não são
+ * gravadas: numa carga diária em que pouco muda, quase nada é escrito (WAL, índices, versões). No modo
+ * {@link ModoImportacao#RECONCILIACAO} os livros ausentes no arquivo também são removidos; se isso atingir mais
+ * que a proporção configurada do catálogo (ex.: arquivo truncado), a importação é recusada e nada é gravado,
+ * a menos que a remoção seja forçada.
+ *
+ * Como o JPA não participa, os caches de livros são invalidados e um {@link CatalogoImportadoEvent} é publicado
+ * após o commit; o feed de alterações recebe uma entrada por livro na mesma transação.
+ */
+@Service
+public class ImportacaoLivroServiceImpl implements ImportacaoLivroService {
+
+    Logger logger = LogManager.getLogger(ImportacaoLivroServiceImpl.class);
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    private static final int TAMANHO_MAXIMO_TEXTO = 255;
+
+    private static final String SQL_TABELA_LIVROS = """
+            CREATE TEMP TABLE stg_importacao_livro (
+                linha      BIGINT,
+                isbn       VARCHAR(255),
+                titulo     VARCHAR(255),
+                subtitulo  VARCHAR(255),
+                valor      NUMERIC(38, 2),
+                quantidade INTEGER,
+                categoria  VARCHAR(255),
+                tipo_capa  VARCHAR(255),
+                autor      VARCHAR(255),
+                editora    VARCHAR(255)
+            ) ON COMMIT DROP
+            """;
+
+    private static final String SQL_TABELA_RESULTADO =
+            "CREATE TEMP TABLE stg_importacao_resultado (livro_id UUID, tipo VARCHAR(20)) ON COMMIT DROP";
+
+    private static final String SQL_COPY = """
+            COPY stg_importacao_livro (linha, isbn, titulo, subtitulo, valor, quantidade, categoria, tipo_capa, autor, editora)
+            FROM STDIN (FORMAT csv)
+            """;
+
+    // ISBNs que só existem no arquivo: as linhas saem da tabela temporária e vão para o relatório de erros
+    private static final String SQL_RECUSA_ARQUIVADOS = """
+            DELETE FROM stg_importacao_livro s
+             WHERE EXISTS (SELECT 1 FROM tb_livro_arquivo a WHERE a.isbn = s.isbn)
+               AND NOT EXISTS (SELECT 1 FROM tb_livro l WHERE l.isbn = s.isbn)
+            RETURNING s.linha, s.isbn
+            """;
+
+    // Livros novos seguem os padrões do cadastro (DISPONIVEL, FISICO); nos existentes o status é preservado.
+    // Linhas iguais às do banco (mesmo hash) ficam de fora do INSERT, então nem chegam a travar a linha existente.
+    private static final String SQL_UPSERT = """
+            WITH upsert AS (
+                INSERT INTO tb_livro (livro_id, isbn, titulo, subtitulo, valor, quantidade, status_livro, categoria,
+                                      tipo_capa, formato, autor, editora, data_cadastro_livro, data_atualizacao_livro, versao)
+                SELECT uuid_v7(), s.isbn, s.titulo, s.subtitulo, s.valor, s.quantidade, 'DISPONIVEL', s.categoria,
+                       s.tipo_capa, 'FISICO', s.autor, s.editora, ?, ?, 0
+                  FROM (SELECT DISTINCT ON (isbn) * FROM stg_importacao_livro ORDER BY isbn, linha DESC) s
+                 WHERE NOT EXISTS (SELECT 1
+                                     FROM tb_livro l
+                                    WHERE l.isbn = s.isbn
+                                      AND l.hash_conteudo = livro_hash_conteudo(s.isbn, s.titulo, s.subtitulo, s.valor,
+                                                                                s.quantidade, s.categoria, s.tipo_capa,
+                                                                                s.autor, s.editora))
+                ON CONFLICT (isbn) DO UPDATE
+                   SET titulo = EXCLUDED.titulo,
+                       subtitulo = EXCLUDED.subtitulo,
+                       valor = EXCLUDED.valor,
+                       quantidade = EXCLUDED.quantidade,
+                       categoria = EXCLUDED.categoria,
+                       tipo_capa = EXCLUDED.tipo_capa,
+                       autor = EXCLUDED.autor,
+                       editora = EXCLUDED.editora,
+                       data_atualizacao_livro = EXCLUDED.data_atualizacao_livro,
+                       versao = tb_livro.versao + 1
+                RETURNING livro_id, CASE WHEN xmax = 0 THEN 'CRIADO' ELSE 'ATUALIZADO' END AS tipo
+            )
+            INSERT INTO stg_importacao_resultado (livro_id, tipo) SELECT livro_id, tipo FROM upsert
+            """;
+
+    // Reconciliação: quantos livros seriam removidos, e de quantos no total
+    private static final String SQL_CONTAGEM_REMOCAO = """
+            SELECT count(*) FILTER (WHERE NOT EXISTS (SELECT 1 FROM stg_importacao_livro s WHERE s.isbn = l.isbn)),
+                   count(*)
+              FROM tb_livro l
+            """;
+
+    // Reconciliação: remove os livros cujo ISBN não está no arquivo
+    private static final String SQL_REMOCAO = """
+            WITH removidos AS (
+                DELETE FROM tb_livro l
+                 WHERE NOT EXISTS (SELECT 1 FROM stg_importacao_livro s WHERE s.isbn = l.isbn)
+                RETURNING l.livro_id
+            )
+            INSERT INTO stg_importacao_resultado (livro_id, tipo) SELECT livro_id, 'REMOVIDO' FROM removidos
+            """;
+
+    // Entradas do feed sem sequência, numeradas depois pelo sequenciador (ver LivroAlteracaoRepository.sequenciar)
+    private static final String SQL_FEED = """
+            INSERT INTO tb_livro_alteracao (livro_id, tipo, data_alteracao)
+            SELECT r.livro_id, r.tipo, ?
+              FROM stg_importacao_resultado r
+            """;
+
+    private static final String SQL_TOTAIS = """
+            SELECT count(*) FILTER (WHERE tipo = 'CRIADO'),
+                   count(*) FILTER (WHERE tipo = 'ATUALIZADO'),
+                   count(*) FILTER (WHERE tipo = 'REMOVIDO'),
+                   (SELECT count(DISTINCT isbn) FROM stg_importacao_livro)
+              FROM stg_importacao_resultado
+            """;
+
+    final DataSource dataSource;
+    final ObjectMapper objectMapper;
+    final ObjectReader leitorJson;
+    final Validator validator;
+    final InvalidadorCacheLivros invalidadorCacheLivros;
+    final ApplicationEventPublisher eventPublisher;
+    final int maxErrosRelatorio;
+    final double maxProporcaoRemocao;
+
+    public ImportacaoLivroServiceImpl(DataSource dataSource, ObjectMapper objectMapper, Validator validator,
+                                      InvalidadorCacheLivros invalidadorCacheLivros,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${livraria.importacao.max-erros-relatorio}") int maxErrosRelatorio,
+                                      @Value("${livraria.importacao.max-proporcao-remocao}") double maxProporcaoRemocao) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.leitorJson = objectMapper.readerFor(LivroRecordDto.class);
+        this.validator = validator;
+        this.invalidadorCacheLivros = invalidadorCacheLivros;
+        this.eventPublisher = eventPublisher;
+        this.maxErrosRelatorio = maxErrosRelatorio;
+        this.maxProporcaoRemocao = maxProporcaoRemocao;
+    }
+
+    @Override
+    public ImportacaoRecordDto importar(InputStream entrada, FormatoImportacao formato, ModoImportacao modo,
+                                        boolean forcarRemocao) throws IOException {
+        long inicio = System.currentTimeMillis();
+        var agora = LocalDateTime.now(ZoneId.of("America/Recife"));
+        var relatorio = new Relatorio(maxErrosRelatorio);
+        var totais = new Totais(0, 0, 0, 0);
+
+        try (Connection conexao = dataSource.getConnection()) {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+            try {
+                try (Statement statement = conexao.createStatement()) {
+                    statement.execute(SQL_TABELA_LIVROS);
+                    statement.execute(SQL_TABELA_RESULTADO);
+                }
+                long validas = copiar(conexao, entrada, formato, relatorio);
+                long invalidas = relatorio.totalErros;
+                // As linhas de livros arquivados são recusadas, mas não contam como inválidas para a reconciliação
+                if (validas > 0 && validas > recusarArquivados(conexao, relatorio)) {
+                    // Um arquivo com linhas inválidas não é um inventário confiável: nada é removido
+                    boolean remover = modo == ModoImportacao.RECONCILIACAO && invalidas == 0;
+                    if (modo == ModoImportacao.RECONCILIACAO && !remover) {
+                        logger.warn("Reconciliação sem remoções: o arquivo tem {} linhas inválidas", invalidas);
+                    }
+                    if (remover && !forcarRemocao) {
+                        verificarProporcaoRemocao(conexao);
+                    }
+                    totais = mesclar(conexao, agora, remover);
+                }
+                conexao.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("Importação de livros", null, e);
+        }
+
+        if (totais.inseridos() + totais.atualizados() + totais.removidos() > 0) {
+            invalidadorCacheLivros.invalidarTudo();
+            eventPublisher.publishEvent(new CatalogoImportadoEvent(totais.inseridos(), totais.atualizados(), totais.removidos()));
+        }
+        logger.info("Importação de livros ({}, {}): {} linhas, {} inseridos, {} atualizados, {} removidos, {} inalterados, {} erros em {} ms",
+                formato, modo, relatorio.linhasLidas, totais.inseridos(), totais.atualizados(), totais.removidos(),
+                totais.inalterados(), relatorio.totalErros, System.currentTimeMillis() - inicio);
+        return new ImportacaoRecordDto(relatorio.linhasLidas, totais.inseridos(), totais.atualizados(), totais.removidos(),
+                totais.inalterados(), relatorio.totalErros, relatorio.erros);
+    }
+
+    /**
+     * Lê, valida e envia por COPY as linhas válidas. Retorna a quantidade de linhas enviadas.
+     */
+    private long copiar(Connection conexao, InputStream entrada, FormatoImportacao formato, Relatorio relatorio)
+            throws SQLException, IOException {
+        CopyIn copy = conexao.unwrap(PGConnection.class).getCopyAPI().copyIn(SQL_COPY);
+        try {
+            var leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+            var buffer = new StringBuilder(TAMANHO_BUFFER + 4096);
+            Map<String, Integer> cabecalho = null;
+            long validas = 0;
+            long numero = 0;
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                numero++;
+                long inicio = numero; // linha do relatório: onde o registro começa
+                if (numero == 1 && linha.startsWith("\uFEFF")) {
+                    linha = linha.substring(1); // BOM
+                }
+                if (formato == FormatoImportacao.CSV) {
+                    // Campo entre aspas com quebra de linha: o registro continua nas linhas seguintes
+                    String continuacao;
+                    while (aspasAbertas(linha) && (continuacao = leitor.readLine()) != null) {
+                        numero++;
+                        linha = linha + "\n" + continuacao;
+                    }
+                }
+                if (linha.isBlank()) {
+                    continue;
+                }
+                if (formato == FormatoImportacao.CSV && cabecalho == null) {
+                    cabecalho = lerCabecalho(linha);
+                    if (!cabecalho.containsKey("isbn")) {
+                        relatorio.erro(inicio, null, "Cabeçalho CSV sem a coluna 'isbn'.");
+                        break;
+                    }
+                    continue;
+                }
+                LivroRecordDto livro = ler(linha, formato, cabecalho, inicio, relatorio);
+                if (livro != null) {
+                    escreverLinhaCopy(buffer, inicio, livro);
+                    validas++;
+                    if (buffer.length() >= TAMANHO_BUFFER) {
+                        enviar(copy, buffer);
+                    }
+                }
+            }
+            relatorio.linhasLidas = numero;
+            enviar(copy, buffer);
+            copy.endCopy();
+            return validas;
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Remove da tabela temporária as linhas cujo ISBN só existe no arquivo e as registra como erro. Retorna a
+     * quantidade de linhas recusadas.
+     */
+    private long recusarArquivados(Connection conexao, Relatorio relatorio) throws SQLException {
+        long recusadas = 0;
+        try (Statement statement = conexao.createStatement();
+             ResultSet resultado = statement.executeQuery(SQL_RECUSA_ARQUIVADOS)) {
+            while (resultado.next()) {
+                relatorio.erro(resultado.getLong(1), resultado.getString(2),
+                        "Livro arquivado: o ISBN já está cadastrado e não pode ser importado.");
+                recusadas++;
+            }
+        }
+        return recusadas;
+    }
+
+    /**
+     * Recusa a reconciliação que removeria mais que a proporção máxima do catálogo (ex.: arquivo truncado).
+     */
+    private void verificarProporcaoRemocao(Connection conexao) throws SQLException {
+        try (Statement statement = conexao.createStatement();
+             ResultSet resultado = statement.executeQuery(SQL_CONTAGEM_REMOCAO)) {
+            resultado.next();
+            long ausentes = resultado.getLong(1);
+            long total = resultado.getLong(2);
+            if (total > 0 && (double) ausentes / total > maxProporcaoRemocao) {
+                throw new ReconciliacaoRecusadaException("A reconciliação removeria " + ausentes + " de " + total
+                        + " livros (acima de " + Math.round(maxProporcaoRemocao * 100) + "%). Confira o arquivo ou"
+                        + " repita com forcarRemocao=true.");
+            }
+        }
+    }
+
+    private Totais mesclar(Connection conexao, LocalDateTime agora, boolean remover) throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("ANALYZE stg_importacao_livro"); // estatísticas para o DISTINCT ON e o upsert
+        }
+        try (PreparedStatement upsert = conexao.prepareStatement(SQL_UPSERT)) {
+            upsert.setObject(1, agora);
+            upsert.setObject(2, agora);
+            upsert.executeUpdate();
+        }
+        if (remover) {
+            try (Statement statement = conexao.createStatement()) {
+                statement.executeUpdate(SQL_REMOCAO);
+            }
+        }
+        try (PreparedStatement feed = conexao.prepareStatement(SQL_FEED)) {
+            feed.setObject(1, agora);
+            feed.executeUpdate();
+        }
+        try (Statement statement = conexao.createStatement();
+             ResultSet resultado = statement.executeQuery(SQL_TOTAIS)) {
+            resultado.next();
+            long inseridos = resultado.getLong(1);
+            long atualizados = resultado.getLong(2);
+            return new Totais(inseridos, atualizados, resultado.getLong(3), resultado.getLong(4) - inseridos - atualizados);
+        }
+    }
+
+    /**
+     * Converte e valida uma linha. Retorna nulo (e registra o erro) se a linha for inválida.
+     */
+    private LivroRecordDto ler(String linha, FormatoImportacao formato, Map<String, Integer> cabecalho,
+                               long numero, Relatorio relatorio) {
+        LivroRecordDto livro;
+        try {
+            livro = formato == FormatoImportacao.NDJSON
+                    ? leitorJson.readValue(linha)
+                    : objectMapper.convertValue(camposCsv(linha, cabecalho), LivroRecordDto.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            relatorio.erro(numero, null, mensagemConversao(e));
+            return null;
+        }
+
+        Set<ConstraintViolation<LivroRecordDto>> violacoes = validator.validate(livro, LivroRecordDto.LivroView.Cadastro.class);
+        if (!violacoes.isEmpty()) {
+            relatorio.erro(numero, livro.isbn(), violacoes.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" ")));
+            return null;
+        }
+        for (String texto : new String[]{livro.subtitulo(), livro.autor(), livro.editora()}) {
+            if (texto != null && texto.length() > TAMANHO_MAXIMO_TEXTO) {
+                relatorio.erro(numero, livro.isbn(), "Subtítulo, autor e editora devem ter no máximo " + TAMANHO_MAXIMO_TEXTO + " caracteres.");
+                return null;
+            }
+        }
+        return livro;
+    }
+
+    private static String mensagemConversao(Exception e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof JsonMappingException mapeamento && !mapeamento.getPath().isEmpty()) {
+                String campo = mapeamento.getPath().get(mapeamento.getPath().size() - 1).getFieldName();
+                return "Valor inválido para o campo '" + campo + "'.";
+            }
+        }
+        return "Linha com formato inválido.";
+    }
+
+    private static Map<String, Integer> lerCabecalho(String linha) {
+        Map<String, Integer> cabecalho = new HashMap<>();
+        List<String> nomes = dividirCsv(linha);
+        for (int i = 0; i < nomes.size(); i++) {
+            cabecalho.put(nomes.get(i).trim(), i);
+        }
+        return cabecalho;
+    }
+
+    private static Map<String, String> camposCsv(String linha, Map<String, Integer> cabecalho) {
+        List<String> valores = dividirCsv(linha);
+        Map<String, String> campos = new HashMap<>();
+        cabecalho.forEach((nome, indice) -> {
+            if (indice < valores.size() && !valores.get(indice).isEmpty()) {
+                campos.put(nome, valores.get(indice));
+            }
+        });
+        return campos;
+    }
+
+    /**
+     * Indica se a linha termina dentro de um campo entre aspas (número ímpar de aspas: o escape "" conta duas).
+     */
+    static boolean aspasAbertas(String linha) {
+        int aspas = 0;
+        for (int i = 0; i < linha.length(); i++) {
+            if (linha.charAt(i) == '"') {
+                aspas++;
+            }
+        }
+        return aspas % 2 != 0;
+    }
+
+    /**
+     * Divide um registro CSV (separador vírgula, aspas duplas com "" como escape). Campos vazios, com ou sem
+     * aspas, viram texto vazio; {@link #camposCsv} os trata como ausentes.
+     */
+    static List<String> dividirCsv(String linha) {
+        List<String> valores = new ArrayList<>();
+        var atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                valores.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        valores.add(atual.toString());
+        return valores;
+    }
+
+    /**
+     * Escreve o livro como uma linha do CSV do COPY: NULL é campo vazio sem aspas, texto vai sempre entre aspas.
+     */
+    static void escreverLinhaCopy(StringBuilder buffer, long numero, LivroRecordDto livro) {
+        buffer.append(numero).append(',');
+        texto(buffer, livro.isbn()).append(',');
+        texto(buffer, livro.titulo()).append(',');
+        texto(buffer, livro.subtitulo()).append(',');
+        buffer.append(livro.valor().toPlainString()).append(',');
+        buffer.append(livro.quantidade()).append(',');
+        texto(buffer, livro.categoria().name()).append(',');
+        texto(buffer, livro.tipoCapa().name()).append(',');
+        texto(buffer, livro.autor()).append(',');
+        texto(buffer, livro.editora()).append('\n');
+    }
+
+    private static StringBuilder texto(StringBuilder buffer, String valor) {
+        if (valor == null) {
+            return buffer;
+        }
+        buffer.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        return buffer.append('"');
+    }
+
+    private static void enviar(CopyIn copy, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private record Totais(long inseridos, long atualizados, long removidos, long inalterados) {
+    }
+
+    private static final class Relatorio {
+        final int maxErros;
+        final List<ErroImportacaoRecordDto> erros = new ArrayList<>();
+        long linhasLidas;
+        long totalErros;
+
+        Relatorio(int maxErros) {
+            this.maxErros = maxErros;
+        }
+
+        void erro(long linha, String isbn, String mensagem) {
+            totalErros++;
+            if (erros.size() < maxErros) {
+                erros.add(new ErroImportacaoRecordDto(linha, isbn, mensagem));
+            }
+        }
+    }
+}
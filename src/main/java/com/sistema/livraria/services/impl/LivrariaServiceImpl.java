@@ -1,25 +1,44 @@
 package com.sistema.livraria.services.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sistema.livraria.configs.CacheConfig;
+import com.sistema.livraria.configs.InvalidadorCacheLivros;
+import com.sistema.livraria.dtos.CadastroLoteIsbnRecordDto;
 import com.sistema.livraria.dtos.LivroIsbnRecordDto;
+import com.sistema.livraria.dtos.ResultadoIsbnRecordDto;
 import com.sistema.livraria.enums.Formato;
+import com.sistema.livraria.enums.ResultadoCadastroIsbn;
 import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.exceptios.LivroArquivadoException;
+import com.sistema.livraria.exceptios.LoteExcedidoException;
 import com.sistema.livraria.exceptios.NotFoundException;
+import com.sistema.livraria.exceptios.ProvedorIndisponivelException;
 import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.openlibrary.ConsultaOpenLibrary;
 import com.sistema.livraria.repositorys.LivroRepository;
 import com.sistema.livraria.services.LivrariaService;
-import jakarta.transaction.Transactional;
+import com.sistema.livraria.services.LivroService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Implementação dos serviços relacionados à livraria,
@@ -30,19 +49,43 @@ public class LivrariaServiceImpl implements LivrariaService {
 
     Logger logger = LogManager.getLogger(LivrariaServiceImpl.class);
 
+    // Gravações do cadastro em lote desfeitas por um ISBN cadastrado ao mesmo tempo por outra requisição
+    static final int TENTATIVAS_LOTE = 3;
+
     final LivroRepository livroRepository;
-    final RestTemplate restTemplate;
+    final LivroService livroService;
+    final ConsultaOpenLibrary consultaOpenLibrary;
+    final ApplicationEventPublisher eventPublisher;
+    final TransactionTemplate transactionTemplate;
+    final Validator validator;
+    final InvalidadorCacheLivros invalidadorCacheLivros;
+    final int maxItensLote;
 
 
     /**
-     * Construtor que inicializa os repositórios e o RestTemplate.
+     * Construtor que inicializa os repositórios e a consulta à Open Library.
      *
      * @param livroRepository Repositório de livros
-     * @param restTemplate Template para chamadas HTTP externas
+     * @param livroService Serviço de livros (consultas por ISBN em cache)
+     * @param consultaOpenLibrary Consulta à Open Library (com cache das respostas)
+     * @param eventPublisher Publicador dos eventos de alteração de livros
+     * @param transactionManager Gerenciador de transações (o cadastro por ISBN delimita a transação manualmente)
+     * @param validator Validador dos itens do cadastro em lote
+     * @param invalidadorCacheLivros Invalidação dos caches de livros após o cadastro em lote
+     * @param maxItensLote Máximo de itens aceitos no cadastro em lote
      */
-    public LivrariaServiceImpl(LivroRepository livroRepository, RestTemplate restTemplate) {
+    public LivrariaServiceImpl(LivroRepository livroRepository, LivroService livroService, ConsultaOpenLibrary consultaOpenLibrary,
+                               ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                               Validator validator, InvalidadorCacheLivros invalidadorCacheLivros,
+                               @Value("${livraria.openlibrary.max-itens-lote}") int maxItensLote) {
         this.livroRepository = livroRepository;
-        this.restTemplate = restTemplate;
+        this.livroService = livroService;
+        this.consultaOpenLibrary = consultaOpenLibrary;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.invalidadorCacheLivros = invalidadorCacheLivros;
+        this.maxItensLote = maxItensLote;
     }
 
     /**
@@ -52,7 +95,7 @@ public class LivrariaServiceImpl implements LivrariaService {
      * @return Livro encontrado
      * @throws NotFoundException se o ISBN for inválido ou o livro não existir
      */
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public LivroModel consultarLivroPorIsbn(String isbn) {
         String isbnLimpo = isbn.replaceAll("[\\s-]", ""); // remove espaços e hífens
@@ -62,7 +105,7 @@ public class LivrariaServiceImpl implements LivrariaService {
             throw new NotFoundException("Formato de ISBN inválido. Use 10 ou 13 dígitos numéricos.");
         }
 
-        Optional<LivroModel> livroOptional = livroRepository.findByIsbn(isbnLimpo);
+        Optional<LivroModel> livroOptional = livroService.buscarPorIsbn(isbnLimpo);
         if (livroOptional.isEmpty()) {
             throw new NotFoundException("Livro com ISBN: " + isbnLimpo + " não encontrado.");
         }
@@ -71,84 +114,238 @@ public class LivrariaServiceImpl implements LivrariaService {
 
     /**
      * Registra um livro no sistema a partir de seu ISBN, buscando dados via API externa.
+     * A chamada à Open Library é feita antes de abrir a transação, para que nenhuma conexão do pool fique
+     * presa esperando a resposta HTTP.
+     * Como nos demais cadastros, um ISBN que só existe no arquivo conta como cadastrado e não volta ao catálogo ativo.
      *
      * @param isbn Código ISBN do livro
      * @param livroIsbnRecordDto DTO contendo informações adicionais para o cadastro
      * @return Livro salvo com os dados vindos da API e os fornecidos no DTO
+     * @throws LivroArquivadoException se o ISBN estiver no arquivo
      */
-    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ISBN, key = "#isbn"),
+            @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ID, key = "#result.livroId")
+    })
     @Override
     public LivroModel registrarLivroPorIsbn(String isbn, LivroIsbnRecordDto livroIsbnRecordDto) {
-        LivroModel livro = livroRepository.findByIsbn(isbn)
-                .orElseGet(() -> consultarERegistrarLivro(isbn));
+        LivroModel consultado = livroService.existsByIsbn(isbn) ? null : consultarOpenLibrary(isbn);
 
-        // Preenche dados adicionais fornecidos manualmente
-        livro.setQuantidade(livroIsbnRecordDto.quantidade());
-        livro.setValor(livroIsbnRecordDto.valor());
-        livro.setCategoria(livroIsbnRecordDto.categoria());
-        livro.setTipoCapa(livroIsbnRecordDto.tipoCapa());
+        return transactionTemplate.execute(status -> {
+            Optional<LivroModel> existente = livroRepository.findByIsbn(isbn);
+            if (existente.isEmpty() && livroService.existsByIsbn(isbn)) {
+                throw new LivroArquivadoException("Livro arquivado: o ISBN já está cadastrado!");
+            }
+            // Se o livro foi excluído entre a verificação e a transação, a consulta externa é refeita
+            LivroModel livro = existente.orElseGet(() ->
+                    livroRepository.save(consultado != null ? consultado : consultarOpenLibrary(isbn)));
 
-        return livro;
+            preencherDadosManuais(livro, livroIsbnRecordDto);
+
+            var tipo = existente.isPresent() ? TipoAlteracaoLivro.ATUALIZADO : TipoAlteracaoLivro.CRIADO;
+            eventPublisher.publishEvent(new LivroAlteradoEvent(livro.getLivroId(), tipo, livro));
+            return livro;
+        });
     }
 
     /**
-     * Consulta a API Open Library para buscar os dados de um livro por ISBN
-     * e registra esse livro no banco de dados.
+     * Registra vários livros a partir de seus ISBNs, em poucas idas ao banco e à Open Library:
+     * <ul>
+     *     <li>os ISBNs já cadastrados (no catálogo ativo ou no arquivo) são identificados numa única consulta;</li>
+     *     <li>os demais são buscados na Open Library em lotes de vários ISBNs por requisição, fora da transação;</li>
+     *     <li>os livros encontrados são gravados juntos, numa só transação (INSERTs agrupados pelo Hibernate).</li>
+     * </ul>
+     * Um item inválido ou não encontrado não impede o cadastro dos demais: o resultado de cada ISBN é devolvido
+     * na ordem recebida. Um ISBN gravado por outra requisição entre a conferência e o INSERT viola a chave única e
+     * desfaz a transação; ela é repetida sem esse ISBN, que fica como JA_CADASTRADO.
      *
-     * @param isbn Código ISBN do livro
-     * @return LivroModel com dados preenchidos e persistido no banco
-     * @throws NotFoundException em caso de erro ou dados ausentes
+     * @param livros DTOs com o ISBN e as informações adicionais de cada livro
+     * @return Totais e resultado de cada ISBN
+     * @throws LoteExcedidoException se o lote tiver mais itens que livraria.openlibrary.max-itens-lote
      */
-    private LivroModel consultarERegistrarLivro(String isbn) {
-        String url = "https://openlibrary.org/api/books?bibkeys=ISBN:" + isbn + "&format=json&jscmd=data";
-        logger.info("URL da requisição: {}", url); // Log da URL
+    @Override
+    public CadastroLoteIsbnRecordDto registrarLivrosPorIsbn(List<LivroIsbnRecordDto> livros) {
+        if (livros.size() > maxItensLote) {
+            throw new LoteExcedidoException("O lote tem " + livros.size() + " itens; o máximo por requisição é "
+                    + maxItensLote + ".");
+        }
+        long inicio = System.currentTimeMillis();
+        ResultadoIsbnRecordDto[] resultados = new ResultadoIsbnRecordDto[livros.size()];
+        Map<String, Integer> posicoes = new LinkedHashMap<>(); // ISBN limpo -> posição do item na lista
 
-        try {
-            // Faz a requisição à API externa
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+        for (int i = 0; i < livros.size(); i++) {
+            var item = livros.get(i);
+            String isbn = item.isbn() == null ? null : item.isbn().replaceAll("[\\s-]", "");
+            String erro = validar(item, isbn);
+            if (erro == null && posicoes.containsKey(isbn)) {
+                erro = "ISBN repetido no lote.";
+            }
+            if (erro != null) {
+                resultados[i] = new ResultadoIsbnRecordDto(isbn, ResultadoCadastroIsbn.INVALIDO, null, erro);
+            } else {
+                posicoes.put(isbn, i);
+            }
+        }
 
-            // Log da resposta para verificar o que a API retornou
-            logger.info("Resposta da API Open Library: {}", response.getBody());
+        // Uma consulta para todos os ISBNs, em vez de uma por item
+        if (!posicoes.isEmpty()) {
+            marcarCadastrados(livroRepository.listarIsbnsCadastrados(posicoes.keySet()), posicoes, resultados);
+        }
 
-            // Verifica se a resposta foi bem-sucedida
-            if (response.getStatusCode() == HttpStatus.OK) {
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode root = mapper.readTree(response.getBody());
-                JsonNode livroNode = root.path("ISBN:" + isbn);
+        // Os faltantes vão à Open Library em lotes; ISBNs ausentes do mapa tiveram o lote com falha
+        Map<String, Optional<JsonNode>> consultados = posicoes.isEmpty()
+                ? Map.of() : consultaOpenLibrary.buscarVarios(posicoes.keySet());
+        Map<String, JsonNode> encontrados = new LinkedHashMap<>();
+        posicoes.forEach((isbn, i) -> {
+            Optional<JsonNode> livroNode = consultados.get(isbn);
+            if (livroNode == null) {
+                resultados[i] = new ResultadoIsbnRecordDto(isbn, ResultadoCadastroIsbn.ERRO_PROVEDOR, null,
+                        "Falha ao consultar a Open Library. Tente novamente mais tarde.");
+            } else if (livroNode.isEmpty()) {
+                resultados[i] = new ResultadoIsbnRecordDto(isbn, ResultadoCadastroIsbn.NAO_ENCONTRADO, null,
+                        "Livro inexistente para o ISBN fornecido.");
+            } else {
+                encontrados.put(isbn, livroNode.get());
+            }
+        });
 
-                if (livroNode.isMissingNode()) {
-                    logger.error("Livro não encontrado para o ISBN: {}", isbn);
-                    throw new NotFoundException("Livro inexistente para o ISBN fornecido.");
+        for (int tentativa = 1; !encontrados.isEmpty(); tentativa++) {
+            try {
+                gravarLote(encontrados, livros, posicoes, resultados);
+                break;
+            } catch (DataIntegrityViolationException e) {
+                if (tentativa >= TENTATIVAS_LOTE) {
+                    throw e;
                 }
+                // A nova conferência marca como JA_CADASTRADO o ISBN gravado pela outra requisição
+                logger.warn("Cadastro em lote por ISBN: conflito com um cadastro simultâneo, repetindo ({})", e.getMessage());
+            }
+        }
 
-                // Criação do objeto LivroModel com dados da API
-                var livro = new LivroModel();
-                livro.setIsbn(isbn);
-                livro.setTitulo(livroNode.path("title").asText("")); // Título do livro
-                livro.setSubtitulo(livroNode.path("subtitle").asText("")); // Subtítulo do livro
-                livro.setNumeroPaginas(livroNode.path("number_of_pages").asInt(0)); // Número de páginas
-                livro.setDataPublicacao(livroNode.path("publish_date").asText("")); // Data de publicação
-                livro.setFormato(Formato.FISICO); // Formato do livro (Físico)
-                livro.setStatusLivro(StatusLivro.DISPONIVEL); // Status do livro (Disponível)
-                livro.setDataCadastroLivro(LocalDateTime.now(ZoneId.of("America/Recife"))); // Data de cadastro
-                livro.setDataAtualizacaoLivro(LocalDateTime.now(ZoneId.of("America/Recife"))); // Data de atualização
-
-                // Define a URL da capa do livro, se existir
-                if (livroNode.has("cover")) {
-                    livro.setCapaUrl(livroNode.path("cover").path("medium").asText(""));
-                }
+        long cadastrados = Arrays.stream(resultados)
+                .filter(resultado -> resultado.resultado() == ResultadoCadastroIsbn.CADASTRADO)
+                .count();
+        logger.info("Cadastro em lote por ISBN: {} de {} livro(s) cadastrado(s) em {} ms",
+                cadastrados, livros.size(), System.currentTimeMillis() - inicio);
+        return new CadastroLoteIsbnRecordDto(livros.size(), cadastrados, List.of(resultados));
+    }
 
-                return livroRepository.save(livro); // Salva o livro no banco de dados
-            } else {
-                logger.error("Erro ao buscar livro na API externa. Status: {}", response.getStatusCode());
-                throw new NotFoundException("Erro ao buscar livro na API externa");
+    /**
+     * Grava os livros encontrados numa transação. As entidades são montadas a cada tentativa: as de uma transação
+     * desfeita já têm ID e versão e seriam tratadas como existentes pelo saveAll.
+     */
+    private void gravarLote(Map<String, JsonNode> encontrados, List<LivroIsbnRecordDto> livros,
+                            Map<String, Integer> posicoes, ResultadoIsbnRecordDto[] resultados) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Cadastrados por outra requisição enquanto a Open Library era consultada
+            marcarCadastrados(livroRepository.listarIsbnsCadastrados(encontrados.keySet()), posicoes, resultados)
+                    .forEach(encontrados::remove);
+
+            List<LivroModel> novos = new ArrayList<>();
+            encontrados.forEach((isbn, livroNode) -> {
+                LivroModel livro = montarLivro(isbn, livroNode);
+                preencherDadosManuais(livro, livros.get(posicoes.get(isbn)));
+                novos.add(livro);
+            });
+
+            // Os IDs são gerados na aplicação, então o Hibernate agrupa os INSERTs (jdbc.batch_size); o flush aqui
+            // faz a violação da chave única aparecer dentro da transação, e não no commit
+            for (LivroModel livro : livroRepository.saveAllAndFlush(novos)) {
+                eventPublisher.publishEvent(new LivroAlteradoEvent(livro.getLivroId(), TipoAlteracaoLivro.CRIADO, livro));
+                resultados[posicoes.get(livro.getIsbn())] = new ResultadoIsbnRecordDto(livro.getIsbn(),
+                        ResultadoCadastroIsbn.CADASTRADO, livro.getLivroId(), null);
             }
-        } catch (NotFoundException e) {
-            logger.error("Livro inexistente para o ISBN: {}. Detalhes: {}", isbn, e.getMessage());
-            throw new NotFoundException("Livro inexistente para o ISBN fornecido.");
+            invalidadorCacheLivros.invalidarTudo(); // inclui o cache negativo das consultas por ISBN
+        });
+    }
+
+    // Mensagens das violações do item (mesmo grupo do cadastro individual) e do formato do ISBN
+    private String validar(LivroIsbnRecordDto item, String isbn) {
+        if (isbn == null || !isbn.matches("\\d{10}|\\d{13}")) {
+            return "Formato de ISBN inválido. Use 10 ou 13 dígitos numéricos.";
+        }
+        Set<ConstraintViolation<LivroIsbnRecordDto>> violacoes =
+                validator.validate(item, LivroIsbnRecordDto.LivroView.Cadastro.class);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+        return violacoes.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(" "));
+    }
+
+    // Marca os ISBNs já cadastrados e devolve-os, para que sejam retirados dos pendentes
+    private static List<String> marcarCadastrados(List<String> cadastrados, Map<String, Integer> posicoes,
+                                                  ResultadoIsbnRecordDto[] resultados) {
+        for (String isbn : cadastrados) {
+            resultados[posicoes.remove(isbn)] = new ResultadoIsbnRecordDto(isbn, ResultadoCadastroIsbn.JA_CADASTRADO,
+                    null, "Livro já cadastrado!");
+        }
+        return cadastrados;
+    }
+
+    // Preenche dados adicionais fornecidos manualmente
+    private static void preencherDadosManuais(LivroModel livro, LivroIsbnRecordDto livroIsbnRecordDto) {
+        livro.setQuantidade(livroIsbnRecordDto.quantidade());
+        livro.setValor(livroIsbnRecordDto.valor());
+        livro.setCategoria(livroIsbnRecordDto.categoria());
+        livro.setTipoCapa(livroIsbnRecordDto.tipoCapa());
+    }
+
+    /**
+     * Consulta a API Open Library para buscar os dados de um livro por ISBN.
+     * ISBNs já consultados (inclusive os inexistentes) são atendidos pelo cache, sem ir à rede.
+     *
+     * @param isbn Código ISBN do livro
+     * @return LivroModel com dados preenchidos, ainda não persistido
+     * @throws NotFoundException em caso de erro ou dados ausentes
+     * @throws ProvedorIndisponivelException se a Open Library falhar ou estiver com o disjuntor aberto
+     */
+    private LivroModel consultarOpenLibrary(String isbn) {
+        JsonNode livroNode;
+        try {
+            livroNode = consultaOpenLibrary.buscar(isbn).orElse(null);
+        } catch (ProvedorIndisponivelException e) {
+            throw e;
+        } catch (RestClientException e) {
+            // Provedor fora do ar ou lento (já com as retentativas): 503, e não "livro inexistente"
+            logger.error("Falha na consulta à API externa: {}", e.getMessage());
+            throw new ProvedorIndisponivelException("Falha ao consultar a Open Library. Tente novamente mais tarde.");
         } catch (Exception e) {
             logger.error("Erro ao processar resposta da API externa: {}", e.getMessage());
             throw new NotFoundException("Erro ao processar resposta da API externa");
         }
+
+        if (livroNode == null) {
+            logger.error("Livro inexistente para o ISBN: {}", isbn);
+            throw new NotFoundException("Livro inexistente para o ISBN fornecido.");
+        }
+
+        return montarLivro(isbn, livroNode);
+    }
+
+    /**
+     * Cria o LivroModel (ainda não persistido) com os dados do livro retornados pela Open Library.
+     */
+    private static LivroModel montarLivro(String isbn, JsonNode livroNode) {
+        // Criação do objeto LivroModel com dados da API
+        var livro = new LivroModel();
+        livro.setIsbn(isbn);
+        livro.setTitulo(livroNode.path("title").asText("")); // Título do livro
+        livro.setSubtitulo(livroNode.path("subtitle").asText("")); // Subtítulo do livro
+        livro.setNumeroPaginas(livroNode.path("number_of_pages").asInt(0)); // Número de páginas
+        livro.setDataPublicacao(livroNode.path("publish_date").asText("")); // Data de publicação
+        livro.setFormato(Formato.FISICO); // Formato do livro (Físico)
+        livro.setStatusLivro(StatusLivro.DISPONIVEL); // Status do livro (Disponível)
+        livro.setDataCadastroLivro(LocalDateTime.now(ZoneId.of("America/Recife"))); // Data de cadastro
+        livro.setDataAtualizacaoLivro(LocalDateTime.now(ZoneId.of("America/Recife"))); // Data de atualização
+
+        // Define a URL da capa do livro, se existir
+        if (livroNode.has("cover")) {
+            livro.setCapaUrl(livroNode.path("cover").path("medium").asText(""));
+        }
+
+        return livro;
     }
-}
\ No newline at end of file
+}
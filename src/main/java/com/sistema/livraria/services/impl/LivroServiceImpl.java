@@ -1,22 +1,38 @@
 package com.sistema.livraria.services.impl;
 
+import com.sistema.livraria.configs.CacheConfig;
+import com.sistema.livraria.configs.InvalidadorCacheLivros;
+import com.sistema.livraria.dtos.EstoqueRecordDto;
 import com.sistema.livraria.dtos.LivroIsbnRecordDto;
 import com.sistema.livraria.dtos.LivroRecordDto;
+import com.sistema.livraria.dtos.MovimentoEstoqueRecordDto;
 import com.sistema.livraria.enums.Formato;
 import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.enums.TipoMovimentoEstoque;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.exceptios.EstoqueInsuficienteException;
+import com.sistema.livraria.exceptios.LivroArquivadoException;
 import com.sistema.livraria.exceptios.NotFoundException;
+import com.sistema.livraria.models.LivroArquivadoModel;
 import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroArquivadoRepository;
 import com.sistema.livraria.repositorys.LivroRepository;
 import com.sistema.livraria.services.LivroService;
-import jakarta.transaction.Transactional;
+import com.sistema.livraria.services.ReservaService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.BeanUtils;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -31,28 +47,44 @@ public class LivroServiceImpl implements LivroService {
     Logger logger = LogManager.getLogger(LivroServiceImpl.class);
 
     final LivroRepository livroRepository;
+    final LivroArquivadoRepository livroArquivadoRepository;
+    final ApplicationEventPublisher eventPublisher;
+    final InvalidadorCacheLivros invalidadorCacheLivros;
+    final ReservaService reservaService; // nulo com o motor de reservas desabilitado
 
-    public LivroServiceImpl(LivroRepository livroRepository) {
+    public LivroServiceImpl(LivroRepository livroRepository, LivroArquivadoRepository livroArquivadoRepository,
+                            ApplicationEventPublisher eventPublisher, InvalidadorCacheLivros invalidadorCacheLivros,
+                            @Nullable ReservaService reservaService) {
         this.livroRepository = livroRepository;
+        this.livroArquivadoRepository = livroArquivadoRepository;
+        this.eventPublisher = eventPublisher;
+        this.invalidadorCacheLivros = invalidadorCacheLivros;
+        this.reservaService = reservaService;
     }
 
     /**
      * Busca todos os livros com filtros dinâmicos e paginação.
+     * As leituras (readOnly) podem ser atendidas por uma réplica, quando configuradas.
      */
+    @Transactional(readOnly = true)
     @Override
     public Page<LivroModel> findAll(Specification<LivroModel> spec, Pageable pageable) {
         return livroRepository.findAll(spec, pageable);
     }
 
     /**
-     * Busca um livro por ID.
+     * Busca um livro por ID (com cache; livros inexistentes não são armazenados).
+     * Se o livro não estiver no catálogo ativo, é procurado no arquivo (marcado como arquivado).
      * @param livroId ID do livro
      * @return Optional com o livro encontrado
      * @throws NotFoundException se o livro não for encontrado
      */
+    @Cacheable(cacheNames = CacheConfig.LIVROS_POR_ID, key = "#livroId")
+    @Transactional(readOnly = true)
     @Override
     public Optional<LivroModel> findById(UUID livroId) {
-        Optional<LivroModel> livroOptional = livroRepository.findById(livroId);
+        Optional<LivroModel> livroOptional = livroRepository.findById(livroId)
+                .or(() -> livroArquivadoRepository.findById(livroId).map(LivroArquivadoModel::paraLivro));
 
         if (livroOptional.isEmpty()) {
             logger.error("ERRO: LIVRO NÃO ENCONTRADO!");
@@ -62,9 +94,24 @@ public class LivroServiceImpl implements LivroService {
         return livroOptional;
     }
 
+    /**
+     * Busca a versão do livro com uma consulta de uma coluna, usada no ETag antes de decidir se o corpo é necessário.
+     * @param livroId ID do livro
+     * @return versão atual do livro
+     * @throws NotFoundException se o livro não for encontrado
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Long buscarVersao(UUID livroId) {
+        return livroRepository.buscarVersao(livroId)
+                .or(() -> livroArquivadoRepository.buscarVersao(livroId))
+                .orElseThrow(() -> new NotFoundException("Livro não encontrado!"));
+    }
+
     /**
      * Cadastra um novo livro com validações de autor e editora.
      */
+    @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ISBN, key = "#livroRecordDto.isbn") // remove o cache negativo do ISBN
     @Transactional
     @Override
     public LivroModel save(LivroRecordDto livroRecordDto) {
@@ -80,7 +127,7 @@ public class LivroServiceImpl implements LivroService {
         livroModel.setDataCadastroLivro(LocalDateTime.now(ZoneId.of("America/Recife")));
         livroModel.setDataAtualizacaoLivro(LocalDateTime.now(ZoneId.of("America/Recife")));
 
-        return livroRepository.save(livroModel);
+        return publicar(livroRepository.save(livroModel), TipoAlteracaoLivro.CRIADO);
     }
 
     /**
@@ -89,9 +136,15 @@ public class LivroServiceImpl implements LivroService {
      * @param livroRecordDto dados a serem atualizados
      * @return livro atualizado
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ID, key = "#livroModel.livroId"),
+            @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ISBN, key = "#livroModel.isbn", beforeInvocation = true), // ISBN antigo
+            @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ISBN, key = "#livroRecordDto.isbn")                       // ISBN novo
+    })
     @Transactional
     @Override
     public LivroModel update(LivroModel livroModel, LivroRecordDto livroRecordDto) {
+        verificarAtivo(livroModel);
         livroModel.setTitulo(livroRecordDto.titulo());
         livroModel.setSubtitulo(livroRecordDto.subtitulo());
         livroModel.setAutor(livroRecordDto.autor());
@@ -104,36 +157,50 @@ public class LivroServiceImpl implements LivroService {
         livroModel.setStatusLivro(livroRecordDto.status());
         livroModel.setDataAtualizacaoLivro(LocalDateTime.now(ZoneId.of("America/Recife")));
 
-        return livroRepository.save(livroModel);
+        return publicar(livroRepository.save(livroModel), TipoAlteracaoLivro.ATUALIZADO);
     }
 
     /**
      * Deleta um livro. (Ajustar lógica se necessário: atualmente está deletando autor e editora novos)
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ID, key = "#livro.livroId"),
+            @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ISBN, key = "#livro.isbn")
+    })
     @Transactional
     @Override
     public void delete(LivroModel livro){
+        verificarAtivo(livro);
         livroRepository.delete(livro);
+        publicar(livro, TipoAlteracaoLivro.REMOVIDO);
     }
 
     /**
      * Verifica se um livro já existe pelo título.
      */
+    @Transactional(readOnly = true)
     @Override
     public boolean existsByTitulo(String titulo) {
         return livroRepository.existsByTitulo(titulo);
     }
 
     /**
-     * Busca um livro pelo ISBN.
+     * Busca um livro pelo ISBN, no catálogo ativo e, se não houver, no arquivo.
+     * ISBNs inexistentes também ficam em cache (cache negativo, com TTL menor).
      */
+    @Cacheable(cacheNames = CacheConfig.LIVROS_POR_ISBN, key = "#isbn")
+    @Transactional(readOnly = true)
+    @Override
     public Optional<LivroModel> buscarPorIsbn(String isbn) {
-        return livroRepository.findByIsbn(isbn);
+        return livroRepository.findByIsbn(isbn)
+                .or(() -> livroArquivadoRepository.findFirstByIsbnOrderByDataArquivamentoDesc(isbn).map(LivroArquivadoModel::paraLivro));
     }
 
     /**
      * Salva um livro cadastrado via ISBN (ex: via API externa).
      */
+    @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ISBN, key = "#livroIsbnRecordDto.isbn")
+    @Transactional
     @Override
     public LivroModel saveLivroIsbn(LivroIsbnRecordDto livroIsbnRecordDto) {
         var livroModel = new LivroModel();
@@ -143,20 +210,88 @@ public class LivroServiceImpl implements LivroService {
         livroModel.setDataAtualizacaoLivro(LocalDateTime.now(ZoneId.of("America/Recife")));
         livroModel.setFormato(Formato.FISICO);
 
-        return livroRepository.save(livroModel);
+        return publicar(livroRepository.save(livroModel), TipoAlteracaoLivro.CRIADO);
     }
 
     /**
-     * Verifica se já existe um livro com o ISBN informado.
+     * Verifica se já existe um livro com o ISBN informado (ativo ou arquivado).
      */
+    @Transactional(readOnly = true)
     @Override
     public boolean existsByIsbn(String isbn) {
-        return livroRepository.existsByIsbn(isbn);
+        return livroRepository.existsByIsbn(isbn) || livroArquivadoRepository.existsByIsbn(isbn);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ID, key = "#livroModel.livroId"),
+            @CacheEvict(cacheNames = CacheConfig.LIVROS_POR_ISBN, key = "#livroModel.isbn")
+    })
+    @Transactional
     @Override
     public LivroModel patchStatus(LivroModel livroModel, LivroRecordDto livroRecordDto) {
+        verificarAtivo(livroModel);
         livroModel.setStatusLivro(livroRecordDto.status());
-        return livroRepository.save(livroModel);
+        // A data conta o prazo da política de arquivamento (ex.: tempo desde que o livro ficou DANIFICADO)
+        livroModel.setDataAtualizacaoLivro(LocalDateTime.now(ZoneId.of("America/Recife")));
+        return publicar(livroRepository.save(livroModel), TipoAlteracaoLivro.ATUALIZADO);
+    }
+
+    /**
+     * Movimenta o estoque sem ler o livro antes: a verificação de saldo e a troca de status
+     * acontecem no próprio UPDATE, então requisições concorrentes nunca deixam a quantidade negativa.
+     * Como o SQL é nativo, os caches do livro são invalidados explicitamente após o commit.
+     * Com o motor de reservas habilitado, a saída também desconta as unidades reservadas ou vendidas por ele e
+     * ainda não gravadas.
+     */
+    @Transactional
+    @Override
+    public EstoqueRecordDto movimentarEstoque(UUID livroId, MovimentoEstoqueRecordDto movimentoEstoqueRecordDto) {
+        var agora = LocalDateTime.now(ZoneId.of("America/Recife"));
+        int quantidade = movimentoEstoqueRecordDto.quantidade();
+
+        Optional<LivroRepository.EstoqueProjection> resultado;
+        if (movimentoEstoqueRecordDto.tipo() == TipoMovimentoEstoque.ENTRADA) {
+            resultado = livroRepository.reporEstoque(livroId, quantidade, agora);
+        } else if (reservaService == null) {
+            resultado = livroRepository.baixarEstoque(livroId, quantidade, agora);
+        } else {
+            resultado = reservaService.baixarNoBanco(livroId, quantidade,
+                    comprometido -> livroRepository.baixarEstoque(livroId, quantidade, comprometido, agora));
+        }
+
+        if (resultado.isEmpty()) {
+            // Nenhuma linha alterada: o livro não existe ou não há quantidade suficiente
+            if (!livroRepository.existsById(livroId)) {
+                logger.error("ERRO: LIVRO NÃO ENCONTRADO!");
+                throw new NotFoundException("Livro não encontrado!");
+            }
+            throw new EstoqueInsuficienteException("Estoque insuficiente para a saída de " + quantidade + " unidade(s)!");
+        }
+
+        var estoque = resultado.get();
+        invalidadorCacheLivros.invalidar(estoque.getLivroId(), estoque.getIsbn());
+
+        // Evento com o estado parcial do livro (apenas os campos afetados pelo movimento)
+        var evento = LivroAlteradoEvent.deEstoque(estoque, agora);
+        eventPublisher.publishEvent(evento);
+
+        return new EstoqueRecordDto(evento.livroId(), evento.livro().getQuantidade(), evento.livro().getStatusLivro());
+    }
+
+    /**
+     * Livros arquivados são somente leitura.
+     */
+    private static void verificarAtivo(LivroModel livro) {
+        if (Boolean.TRUE.equals(livro.getArquivado())) {
+            throw new LivroArquivadoException("Livro arquivado não pode ser alterado!");
+        }
+    }
+
+    /**
+     * Publica o evento de alteração do livro. Os ouvintes em memória só reagem após o commit.
+     */
+    private LivroModel publicar(LivroModel livro, TipoAlteracaoLivro tipo) {
+        eventPublisher.publishEvent(new LivroAlteradoEvent(livro.getLivroId(), tipo, livro));
+        return livro;
     }
 }
\ No newline at end of file
@@ -5,27 +5,40 @@ import com.itextpdf.text.pdf.*;
 import com.itextpdf.text.pdf.draw.LineSeparator;
 import com.sistema.livraria.enums.Categoria;
 import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.models.LivroArquivadoModel;
 import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroArquivadoRepository;
 import com.sistema.livraria.repositorys.LivroRepository;
 import com.sistema.livraria.services.RelatorioService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Relatórios em PDF. Cada relatório lê a tabela inteira numa transação somente leitura,
+ * que vai para uma réplica quando houver (livraria.replicas).
+ * Os livros arquivados (TB_LIVRO_ARQUIVO) só entram quando o relatório é pedido com incluirArquivados.
+ */
 @Service
+@Transactional(readOnly = true)
 public class RelatorioServiceImpl implements RelatorioService {
 
     final LivroRepository livroRepository;
+    final LivroArquivadoRepository livroArquivadoRepository;
 
-    public RelatorioServiceImpl(LivroRepository livroRepository) {
+    public RelatorioServiceImpl(LivroRepository livroRepository, LivroArquivadoRepository livroArquivadoRepository) {
         this.livroRepository = livroRepository;
+        this.livroArquivadoRepository = livroArquivadoRepository;
     }
 
     /**
@@ -35,17 +48,18 @@ public class RelatorioServiceImpl implements RelatorioService {
      *
      * @param tituloRelatorio Título personalizado para o cabeçalho do relatório.
      *                         Caso nulo ou vazio, será definido como "RELATÓRIO GERAL".
+     * @param incluirArquivados Se verdadeiro, inclui os livros arquivados.
      * @return Um array de bytes representando o conteúdo do relatório em formato PDF.
      */
     @Override
-    public byte[] gerarRelatorioGenerico(String tituloRelatorio) {
+    public byte[] gerarRelatorioGenerico(String tituloRelatorio, boolean incluirArquivados) {
         // Define título padrão se não informado
         if (tituloRelatorio == null || tituloRelatorio.trim().isEmpty()) {
             tituloRelatorio = "RELATÓRIO GERAL";
         }
 
         // Recupera todos os livros do banco de dados
-        List<LivroModel> livros = livroRepository.findAll();
+        List<LivroModel> livros = todos(incluirArquivados);
 
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         Document document = new Document(PageSize.A4, 30, 30, 30, 30); // margens
@@ -142,12 +156,13 @@ public class RelatorioServiceImpl implements RelatorioService {
      *
      * O PDF é gerado utilizando a biblioteca iText e retornado como um array de bytes.
      *
+     * @param incluirArquivados Se verdadeiro, inclui os livros arquivados.
      * @return um array de bytes representando o conteúdo do PDF gerado
      */
     @Override
-    public byte[] gerarRelatorioLivrosPorCategoria() {
+    public byte[] gerarRelatorioLivrosPorCategoria(boolean incluirArquivados) {
         // Busca todos os livros do banco de dados
-        List<LivroModel> livros = livroRepository.findAll();
+        List<LivroModel> livros = todos(incluirArquivados);
 
         // Stream de saída para armazenar o conteúdo do PDF em memória
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
@@ -271,12 +286,13 @@ public class RelatorioServiceImpl implements RelatorioService {
      * Gera um relatório em PDF com a listagem de livros agrupados por autor.
      * Cada seção do relatório representa um autor com sua respectiva lista de livros.
      *
+     * @param incluirArquivados Se verdadeiro, inclui os livros arquivados.
      * @return Um array de bytes representando o conteúdo do PDF gerado.
      */
     @Override
-    public byte[] gerarRelatorioLivrosPorAutor() {
+    public byte[] gerarRelatorioLivrosPorAutor(boolean incluirArquivados) {
         // Recupera todos os livros do banco de dados
-        List<LivroModel> livros = livroRepository.findAll();
+        List<LivroModel> livros = todos(incluirArquivados);
 
         // Agrupa os livros por nome do autor
         Map<String, List<LivroModel>> livrosPorAutor = livros.stream()
@@ -404,12 +420,13 @@ public class RelatorioServiceImpl implements RelatorioService {
      * Cada grupo contém uma tabela com os detalhes dos livros, incluindo:
      * título, ISBN, valor, categoria, autores e quantidade.
      *
+     * @param incluirArquivados Se verdadeiro, inclui os livros arquivados.
      * @return Um array de bytes representando o PDF gerado.
      */
     @Override
-    public byte[] gerarRelatorioLivrosPorEditora() {
+    public byte[] gerarRelatorioLivrosPorEditora(boolean incluirArquivados) {
         // Recupera todos os livros do banco de dados
-        List<LivroModel> livros = livroRepository.findAll();
+        List<LivroModel> livros = todos(incluirArquivados);
 
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         Document document = new Document(PageSize.A4, 40, 40, 40, 40);
@@ -533,15 +550,16 @@ public class RelatorioServiceImpl implements RelatorioService {
      * O relatório apresenta os dados dos livros ordenados do maior para o menor valor.
      *
      * @param valorMinimo valor mínimo para filtrar os livros.
+     * @param incluirArquivados Se verdadeiro, inclui os livros arquivados.
      * @return um array de bytes representando o conteúdo do PDF gerado.
      */
     @Override
-    public byte[] gerarRelatorioLivrosPorValor(double valorMinimo) {
+    public byte[] gerarRelatorioLivrosPorValor(double valorMinimo, boolean incluirArquivados) {
         // Converte o valor mínimo de double para BigDecimal para comparações precisas
         BigDecimal valorMinimoDecimal = BigDecimal.valueOf(valorMinimo);
 
         // Filtra os livros pelo valor mínimo e ordena do mais caro para o mais barato
-        List<LivroModel> livros = livroRepository.findAll().stream()
+        List<LivroModel> livros = todos(incluirArquivados).stream()
                 .filter(livro -> livro.getValor() != null && livro.getValor().compareTo(valorMinimoDecimal) >= 0)
                 .sorted(Comparator.comparing(LivroModel::getValor).reversed())
                 .collect(Collectors.toList());
@@ -636,17 +654,20 @@ public class RelatorioServiceImpl implements RelatorioService {
      * O PDF contém cabeçalho com data, tabela com os dados dos livros e o total de registros.
      *
      * @param filtroStatus o status pelo qual os livros serão filtrados
+     * @param incluirArquivados Se verdadeiro, inclui os livros arquivados.
      * @return um array de bytes representando o conteúdo do PDF gerado
      */
     @Override
-    public byte[] gerarRelatorioLivroPorStatus(String filtroStatus) {
+    public byte[] gerarRelatorioLivroPorStatus(String filtroStatus, boolean incluirArquivados) {
         // Define o status padrão caso o parâmetro esteja nulo ou vazio
         if (filtroStatus == null || filtroStatus.trim().isEmpty()) {
             filtroStatus = "DISPONIVEL";
         }
 
         // Busca os livros com base no status fornecido
-        List<LivroModel> livros = livroRepository.findByStatusLivro(StatusLivro.valueOf(filtroStatus));
+        StatusLivro status = StatusLivro.valueOf(filtroStatus);
+        List<LivroModel> livros = comArquivados(livroRepository.findByStatusLivro(status), incluirArquivados,
+                () -> livroArquivadoRepository.findByStatusLivro(status));
 
         // Criação do PDF em memória
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
@@ -737,8 +758,9 @@ public class RelatorioServiceImpl implements RelatorioService {
     }
 
     @Override
-    public byte[] gerarRelatorioLivrosPorEstoqueZerado() {
-        List<LivroModel> livrosZerados = livroRepository.findByQuantidade(0);
+    public byte[] gerarRelatorioLivrosPorEstoqueZerado(boolean incluirArquivados) {
+        List<LivroModel> livrosZerados = comArquivados(livroRepository.listarSemEstoque(), incluirArquivados,
+                livroArquivadoRepository::listarSemEstoque);
 
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         Document document = new Document(PageSize.A4.rotate(), 30, 30, 30, 30);
@@ -928,4 +950,19 @@ public class RelatorioServiceImpl implements RelatorioService {
             }
         };
     }
-}
\ No newline at end of file
+
+    // Catálogo ativo e, se pedido, também o arquivo
+    private List<LivroModel> todos(boolean incluirArquivados) {
+        return comArquivados(livroRepository.findAll(), incluirArquivados, livroArquivadoRepository::findAll);
+    }
+
+    private static List<LivroModel> comArquivados(List<LivroModel> livros, boolean incluirArquivados,
+                                                  Supplier<List<LivroArquivadoModel>> arquivados) {
+        if (!incluirArquivados) {
+            return livros;
+        }
+        List<LivroModel> todos = new ArrayList<>(livros);
+        arquivados.get().forEach(arquivado -> todos.add(arquivado.paraLivro()));
+        return todos;
+    }
+}
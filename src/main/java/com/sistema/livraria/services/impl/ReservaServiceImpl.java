@@ -0,0 +1,325 @@
+package com.sistema.livraria.services.impl;
+
+import com.sistema.livraria.configs.InvalidadorCacheLivros;
+import com.sistema.livraria.dtos.ReservaEstoqueRecordDto;
+import com.sistema.livraria.dtos.ReservaRecordDto;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.estoque.JournalReservas;
+import com.sistema.livraria.estoque.MotorReservas;
+import com.sistema.livraria.events.CatalogoImportadoEvent;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.exceptios.CapacidadeEsgotadaException;
+import com.sistema.livraria.models.ControleReservaModel;
+import com.sistema.livraria.repositorys.ControleReservaRepository;
+import com.sistema.livraria.repositorys.LivroRepository;
+import com.sistema.livraria.services.ReservaService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Implementação do serviço de reservas de estoque.
+ *
+ * As reservas são atendidas pelo {@link MotorReservas}; as baixas confirmadas são gravadas em TB_LIVRO
+ * periodicamente, num único UPDATE por descarga, junto com o segmento do journal coberto (TB_CONTROLE_RESERVA).
+ * Na inicialização, as baixas do journal que não chegaram ao banco são restauradas e gravadas antes de
+ * qualquer nova reserva.
+ *
+ * As saídas de /livros/{id}/estoque/movimento continuam sendo um UPDATE condicional no banco, que desconta as
+ * unidades reservadas ou confirmadas e ainda não gravadas ({@link #baixarNoBanco}). Deltas que o banco recusa
+ * na descarga (estoque reduzido por fora, ex.: edição da quantidade ou importação) são registrados em
+ * TB_BAIXA_RECUSADA e contados na métrica livraria.reservas.baixas.recusadas, sem novas tentativas.
+ *
+ * O motor é opcional (livraria.reservas.habilitado) e os contadores são locais: só uma instância pode atendê-lo.
+ * Isso é garantido por um advisory lock do PostgreSQL, mantido numa conexão própria enquanto a instância vive.
+ * Sem o lock (outra instância já o tem) a aplicação não sobe; se a conexão cair, reservas e descargas são
+ * recusadas até o lock ser retomado.
+ */
+@Service
+@ConditionalOnProperty(name = "livraria.reservas.habilitado", havingValue = "true")
+public class ReservaServiceImpl implements ReservaService, MeterBinder {
+
+    Logger logger = LogManager.getLogger(ReservaServiceImpl.class);
+
+    // Chave do advisory lock que reserva o motor para uma única instância
+    static final long LOCK_INSTANCIA = 0x4C49565F52455356L;
+
+    final DataSource dataSource;
+    final LivroRepository livroRepository;
+    final ControleReservaRepository controleReservaRepository;
+    final InvalidadorCacheLivros invalidadorCacheLivros;
+    final ApplicationEventPublisher eventPublisher;
+    final TransactionTemplate transactionTemplate;
+    final JournalReservas journal;
+    final MotorReservas motor;
+    final Duration validade;
+
+    // Conexão que mantém o advisory lock; nula enquanto a instância não o tiver
+    private Connection conexaoInstancia;
+    private volatile boolean instanciaAtiva;
+
+    public ReservaServiceImpl(DataSource dataSource,
+                              LivroRepository livroRepository,
+                              ControleReservaRepository controleReservaRepository,
+                              InvalidadorCacheLivros invalidadorCacheLivros,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${livraria.reservas.diretorio-journal}") Path diretorioJournal,
+                              @Value("${livraria.reservas.validade}") Duration validade) throws IOException {
+        this.dataSource = dataSource;
+        this.livroRepository = livroRepository;
+        this.controleReservaRepository = controleReservaRepository;
+        this.invalidadorCacheLivros = invalidadorCacheLivros;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new JournalReservas(diretorioJournal);
+        this.motor = new MotorReservas(journal, livroRepository::buscarQuantidade, Clock.systemUTC());
+        this.validade = validade;
+    }
+
+    /**
+     * Assume o motor para esta instância, restaura as baixas do journal que ainda não foram gravadas
+     * (ex.: queda da aplicação) e grava imediatamente.
+     */
+    @PostConstruct
+    void recuperar() throws IOException {
+        if (!garantirInstancia()) {
+            throw new IllegalStateException("O motor de reservas já está ativo em outra instância. Habilite-o"
+                    + " (livraria.reservas.habilitado) em uma única instância da aplicação.");
+        }
+        long ultimoSegmento = controleReservaRepository.findById(ControleReservaModel.ID_UNICO)
+                .map(ControleReservaModel::getUltimoSegmento)
+                .orElse(0L);
+        Map<UUID, Integer> pendentes = journal.lerPendentes(ultimoSegmento);
+        if (!pendentes.isEmpty()) {
+            logger.warn("Restaurando baixas de estoque não gravadas de {} livro(s) a partir do journal", pendentes.size());
+            motor.restaurar(pendentes);
+            motor.descarregar(this::gravar);
+        }
+    }
+
+    @Override
+    public ReservaEstoqueRecordDto reservar(ReservaRecordDto reservaRecordDto) {
+        verificarInstancia();
+        return toDto(motor.reservar(reservaRecordDto.livroId(), reservaRecordDto.quantidade(), validade));
+    }
+
+    @Override
+    public ReservaEstoqueRecordDto confirmar(UUID reservaId) {
+        verificarInstancia();
+        return toDto(motor.confirmar(reservaId));
+    }
+
+    @Override
+    public void liberar(UUID reservaId) {
+        motor.liberar(reservaId);
+    }
+
+    @Override
+    public Optional<LivroRepository.EstoqueProjection> baixarNoBanco(UUID livroId, int quantidade,
+                                                                    IntFunction<Optional<LivroRepository.EstoqueProjection>> saida) {
+        verificarInstancia();
+        Optional<LivroRepository.EstoqueProjection> resultado = motor.baixarNoBanco(livroId, quantidade, saida);
+        if (resultado.isPresent()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                // Até o commit, a saída ainda não aparece para quem relê o banco: as unidades seguem retidas
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        motor.concluirSaida(livroId, quantidade);
+                    }
+                });
+            } else {
+                motor.concluirSaida(livroId, quantidade);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Descarga periódica (write-behind). Em caso de falha as baixas continuam pendentes para a próxima execução.
+     */
+    @Scheduled(fixedDelayString = "${livraria.reservas.intervalo-descarga-ms}")
+    @Override
+    public void descarregar() {
+        if (!garantirInstancia()) {
+            logger.error("ERRO: motor de reservas sem o lock de instância, baixas mantidas no journal até retomá-lo");
+            return;
+        }
+        try {
+            int gravados = motor.descarregar(this::gravar);
+            if (gravados > 0) {
+                logger.debug("Baixas de estoque gravadas para {} livro(s)", gravados);
+            }
+        } catch (RuntimeException e) {
+            logger.error("ERRO: falha ao gravar as baixas de estoque, nova tentativa na próxima descarga", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${livraria.reservas.intervalo-expiracao-ms}")
+    public void expirarReservas() {
+        int expiradas = motor.expirarVencidas();
+        if (expiradas > 0) {
+            logger.debug("{} reserva(s) expirada(s) liberada(s)", expiradas);
+        }
+    }
+
+    /**
+     * Mantém os contadores coerentes com alterações de estoque feitas fora do motor.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarLivro(LivroAlteradoEvent event) {
+        if (event.tipo() == TipoAlteracaoLivro.REMOVIDO) {
+            motor.remover(event.livroId());
+        } else if (event.tipo() != TipoAlteracaoLivro.CRIADO) {
+            motor.ressincronizar(event.livroId());
+        }
+    }
+
+    /**
+     * A importação em lote não publica eventos por livro: todos os contadores são relidos.
+     */
+    @EventListener
+    public void aoImportarCatalogo(CatalogoImportadoEvent event) {
+        motor.ressincronizarTodos();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("livraria.reservas.baixas.recusadas", motor, MotorReservas::baixasRecusadas)
+                .description("Baixas confirmadas que o banco recusou na descarga (ver TB_BAIXA_RECUSADA)")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        descarregar();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            liberarInstancia();
+        }
+    }
+
+    /**
+     * Confere se esta instância ainda tem o advisory lock do motor e tenta obtê-lo se não tiver (ex.: a conexão
+     * que o mantinha caiu). O lock é de sessão: vale enquanto a conexão estiver aberta.
+     */
+    private synchronized boolean garantirInstancia() {
+        try {
+            if (conexaoInstancia != null && conexaoInstancia.isValid(2)) {
+                return true;
+            }
+            liberarInstancia();
+            Connection conexao = dataSource.getConnection();
+            try (PreparedStatement lock = conexao.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                lock.setLong(1, LOCK_INSTANCIA);
+                try (ResultSet resultado = lock.executeQuery()) {
+                    resultado.next();
+                    if (resultado.getBoolean(1)) {
+                        conexaoInstancia = conexao;
+                    } else {
+                        conexao.close();
+                    }
+                }
+            } catch (SQLException e) {
+                conexao.close();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("ERRO: falha ao obter o lock de instância do motor de reservas", e);
+        }
+        instanciaAtiva = conexaoInstancia != null;
+        return instanciaAtiva;
+    }
+
+    private synchronized void liberarInstancia() {
+        instanciaAtiva = false;
+        if (conexaoInstancia != null) {
+            // A conexão volta ao pool com a sessão aberta: o lock precisa ser solto antes
+            try (Connection conexao = conexaoInstancia;
+                 PreparedStatement unlock = conexao.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                unlock.setLong(1, LOCK_INSTANCIA);
+                unlock.execute();
+            } catch (SQLException e) {
+                logger.warn("Falha ao fechar a conexão do lock de instância do motor de reservas", e);
+            }
+            conexaoInstancia = null;
+        }
+    }
+
+    // Sem o lock, outra instância pode estar com o motor: nada é reservado nem vendido aqui
+    private void verificarInstancia() {
+        if (!instanciaAtiva) {
+            throw new CapacidadeEsgotadaException("Motor de reservas indisponível nesta instância. Tente novamente mais tarde.");
+        }
+    }
+
+    /**
+     * Grava o lote numa única transação: deltas em TB_LIVRO, deltas recusados em TB_BAIXA_RECUSADA e segmento
+     * coberto em TB_CONTROLE_RESERVA.
+     */
+    private Map<UUID, Integer> gravar(MotorReservas.Lote lote) {
+        return transactionTemplate.execute(status -> {
+            var agora = LocalDateTime.now(ZoneId.of("America/Recife"));
+            UUID[] livroIds = lote.deltas().keySet().toArray(UUID[]::new);
+            Integer[] deltas = Arrays.stream(livroIds).map(lote.deltas()::get).toArray(Integer[]::new);
+
+            Map<UUID, Integer> gravados = new HashMap<>();
+            for (LivroRepository.EstoqueProjection estoque : livroRepository.aplicarDeltasEstoque(livroIds, deltas, agora)) {
+                gravados.put(estoque.getLivroId(), estoque.getQuantidade());
+                invalidadorCacheLivros.invalidar(estoque.getLivroId(), estoque.getIsbn());
+                eventPublisher.publishEvent(LivroAlteradoEvent.deEstoque(estoque, agora));
+            }
+
+            if (gravados.size() < livroIds.length) {
+                UUID[] recusados = Arrays.stream(livroIds).filter(livroId -> !gravados.containsKey(livroId)).toArray(UUID[]::new);
+                Integer[] deltasRecusados = Arrays.stream(recusados).map(lote.deltas()::get).toArray(Integer[]::new);
+                controleReservaRepository.registrarBaixasRecusadas(recusados, deltasRecusados, lote.segmento(), agora);
+                logger.error("ERRO: baixas de estoque recusadas pelo banco (quantidade insuficiente), registradas em "
+                        + "TB_BAIXA_RECUSADA para conferência: livros {}", Arrays.toString(recusados));
+            }
+
+            controleReservaRepository.registrarSegmentoAplicado(lote.segmento(), agora);
+            return gravados;
+        });
+    }
+
+    private ReservaEstoqueRecordDto toDto(MotorReservas.Reserva reserva) {
+        return new ReservaEstoqueRecordDto(reserva.reservaId(), reserva.livroId(), reserva.quantidade(),
+                LocalDateTime.ofInstant(reserva.expiraEm(), ZoneId.of("America/Recife")));
+    }
+}
@@ -0,0 +1,78 @@
+package com.sistema.livraria.services.impl;
+
+import com.sistema.livraria.busca.IndiceSugestoes;
+import com.sistema.livraria.dtos.SugestaoRecordDto;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.events.CatalogoImportadoEvent;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroRepository;
+import com.sistema.livraria.services.SugestaoService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Implementação do serviço de sugestões.
+ *
+ * O índice é carregado uma única vez na inicialização da aplicação e, a partir daí, mantido
+ * incrementalmente pelos eventos de alteração de livros publicados após o commit.
+ */
+@Service
+public class SugestaoServiceImpl implements SugestaoService {
+
+    Logger logger = LogManager.getLogger(SugestaoServiceImpl.class);
+
+    final LivroRepository livroRepository;
+    final IndiceSugestoes indice = new IndiceSugestoes();
+
+    public SugestaoServiceImpl(LivroRepository livroRepository) {
+        this.livroRepository = livroRepository;
+    }
+
+    @Override
+    public List<SugestaoRecordDto> sugerir(String prefixo, int limite) {
+        return indice.buscar(prefixo, limite);
+    }
+
+    /**
+     * Carrega o índice quando a aplicação termina de subir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public void recarregarIndice() {
+        long inicio = System.currentTimeMillis();
+        indice.recarregar(livroRepository.listarTextos());
+        logger.info("Índice de sugestões carregado: {} livros em {} ms", indice.tamanho(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Mantém o índice atualizado após o commit de cada alteração de livro.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarLivro(LivroAlteradoEvent event) {
+        if (event.tipo() == TipoAlteracaoLivro.REMOVIDO) {
+            indice.remover(event.livroId());
+            return;
+        }
+        if (event.tipo() == TipoAlteracaoLivro.ESTOQUE) {
+            return; // Movimentação de estoque não altera título, autor nem editora
+        }
+        LivroModel livro = event.livro();
+        indice.indexar(event.livroId(), livro.getTitulo(), livro.getAutor(), livro.getEditora());
+    }
+
+    /**
+     * Uma importação em lote pode alterar milhares de livros: o índice é reconstruído.
+     */
+    @EventListener
+    public void aoImportarCatalogo(CatalogoImportadoEvent event) {
+        recarregarIndice();
+    }
+}
@@ -0,0 +1,69 @@
+package com.sistema.livraria.specifications;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import net.kaczmarzyk.spring.data.jpa.domain.PathSpecification;
+import net.kaczmarzyk.spring.data.jpa.domain.WithoutTypeConversion;
+import net.kaczmarzyk.spring.data.jpa.utils.QueryContext;
+
+import java.util.Objects;
+
+/**
+ * Filtro por prefixo (LIKE 'x%'), como o StartingWith da biblioteca, mas tratando "%", "_" e "\" do valor recebido
+ * como texto: "50%" procura títulos que começam com "50%", e não com "50".
+ *
+ * @param <T> Entidade filtrada.
+ */
+public class ComecaCom<T> extends PathSpecification<T> implements WithoutTypeConversion {
+
+    static final char ESCAPE = '\\';
+
+    private final String padrao;
+
+    public ComecaCom(QueryContext queryContext, String path, String[] args) {
+        super(queryContext, path);
+        if (args == null || args.length != 1) {
+            throw new IllegalArgumentException("Esperado um único valor para o filtro por prefixo de " + path);
+        }
+        this.padrao = escapar(args[0]) + "%";
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        return cb.like(this.<String>path(root), padrao, ESCAPE);
+    }
+
+    static String escapar(String valor) {
+        StringBuilder escapado = new StringBuilder(valor.length() + 4);
+        for (char c : valor.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                escapado.append(ESCAPE);
+            }
+            escapado.append(c);
+        }
+        return escapado.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass() || !super.equals(o)) {
+            return false;
+        }
+        return padrao.equals(((ComecaCom<?>) o).padrao);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), padrao);
+    }
+
+    @Override
+    public String toString() {
+        return "ComecaCom [padrao=" + padrao + "]";
+    }
+}
@@ -3,6 +3,9 @@ package com.sistema.livraria.specifications;
 import com.sistema.livraria.models.LivroModel;
 import com.sistema.livraria.models.UsuarioModel;
 import net.kaczmarzyk.spring.data.jpa.domain.Equal;
+import net.kaczmarzyk.spring.data.jpa.domain.GreaterThanOrEqual;
+import net.kaczmarzyk.spring.data.jpa.domain.In;
+import net.kaczmarzyk.spring.data.jpa.domain.LessThanOrEqual;
 import net.kaczmarzyk.spring.data.jpa.domain.Like;
 import net.kaczmarzyk.spring.data.jpa.web.annotation.And;
 import net.kaczmarzyk.spring.data.jpa.web.annotation.Spec;
@@ -38,16 +41,31 @@ public class SpecificationsTemplate {
      * Interface para definir filtros de busca na entidade LivroModel.
      *
      * Os filtros suportados são:
-     * - Busca parcial (LIKE) para o campo "titulo"
-     * - Busca parcial (LIKE) para o campo "isbn"
-     * - Igualdade para o campo "valor"
+     * - Prefixo (LIKE 'x%') para os campos "titulo", "isbn", "autor" e "editora", que usa os índices
+     *   varchar_pattern_ops (uma busca por trecho no meio do texto é atendida por GET /livros/sugestoes);
+     *   "%" e "_" no valor recebido são procurados literalmente ({@link ComecaCom})
+     * - Igualdade para o campo "valor" e faixas valorMin/valorMax
+     * - Faixas cadastradoDe/cadastradoAte (formato yyyy-MM-dd'T'HH:mm:ss) e paginasMin/paginasMax
+     * - Listas (IN) para "categoria", "statusLivro" e "formato", separadas por vírgula ou com o parâmetro repetido
+     *
+     * Filtros ausentes não entram na consulta; listas IN têm o tamanho completado até a próxima potência de 2
+     * (hibernate.query.in_clause_parameter_padding), o que mantém poucas formas de SQL no cache de planos.
      */
     @And({
-            @Spec(path = "titulo", spec = Like.class),     // Filtra por similaridade no campo titulo (LIKE)
-            @Spec(path = "isbn", spec = Like.class),       // Filtra por similaridade no campo isbn (LIKE)
-            @Spec(path = "autores", spec = Like.class),       // Filtra por similaridade no campo isbn (LIKE)
-            @Spec(path = "valor", spec = Equal.class),    // Filtra por igualdade no campo valor
-
+            @Spec(path = "titulo", spec = ComecaCom.class),         // Filtra pelo início do título (LIKE 'x%')
+            @Spec(path = "isbn", spec = ComecaCom.class),           // Filtra pelo início do ISBN (LIKE 'x%')
+            @Spec(path = "autor", spec = ComecaCom.class),          // Filtra pelo início do nome do autor (LIKE 'x%')
+            @Spec(path = "editora", spec = ComecaCom.class),        // Filtra pelo início do nome da editora (LIKE 'x%')
+            @Spec(path = "valor", spec = Equal.class),              // Filtra por igualdade no campo valor
+            @Spec(path = "valor", params = "valorMin", spec = GreaterThanOrEqual.class),
+            @Spec(path = "valor", params = "valorMax", spec = LessThanOrEqual.class),
+            @Spec(path = "dataCadastroLivro", params = "cadastradoDe", config = "yyyy-MM-dd'T'HH:mm:ss", spec = GreaterThanOrEqual.class),
+            @Spec(path = "dataCadastroLivro", params = "cadastradoAte", config = "yyyy-MM-dd'T'HH:mm:ss", spec = LessThanOrEqual.class),
+            @Spec(path = "numeroPaginas", params = "paginasMin", spec = GreaterThanOrEqual.class),
+            @Spec(path = "numeroPaginas", params = "paginasMax", spec = LessThanOrEqual.class),
+            @Spec(path = "categoria", paramSeparator = ',', spec = In.class),
+            @Spec(path = "statusLivro", paramSeparator = ',', spec = In.class),
+            @Spec(path = "formato", paramSeparator = ',', spec = In.class),
     })
     public interface LivroSpec extends Specification<LivroModel> {}
 }
\ No newline at end of file
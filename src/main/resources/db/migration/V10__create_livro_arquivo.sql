@@ -0,0 +1,35 @@
+-- V10__create_livro_arquivo.sql
+-- Arquivo frio do catálogo: livros que não podem mais ser vendidos (DANIFICADO ou INDISPONIVEL há muito tempo)
+-- saem de tb_livro em lotes (ver ArquivamentoLivroServiceImpl), para que listagens, ordenações e relatórios
+-- varram só o catálogo ativo. As consultas por ID e por ISBN recorrem a esta tabela quando o livro não está
+-- em tb_livro. Mesmas colunas de tb_livro, exceto hash_conteudo (usado só pela importação).
+
+CREATE TABLE IF NOT EXISTS tb_livro_arquivo (
+    livro_id               UUID PRIMARY KEY,
+    isbn                   VARCHAR(255),
+    titulo                 VARCHAR(255),
+    subtitulo              VARCHAR(255),
+    valor                  NUMERIC(38, 2),
+    quantidade             INTEGER,
+    status_livro           VARCHAR(255),
+    categoria              VARCHAR(255),
+    tipo_capa              VARCHAR(255),
+    formato                VARCHAR(255),
+    data_publicacao        VARCHAR(255),
+    numero_paginas         INTEGER,
+    capa_url               VARCHAR(255),
+    autor                  VARCHAR(255),
+    editora                VARCHAR(255),
+    data_cadastro_livro    TIMESTAMP(6),
+    data_atualizacao_livro TIMESTAMP(6),
+    versao                 BIGINT NOT NULL,
+    data_arquivamento      TIMESTAMP(6) NOT NULL
+);
+
+-- Sem UNIQUE: o mesmo ISBN pode ser recadastrado no catálogo ativo e arquivado de novo mais tarde
+CREATE INDEX IF NOT EXISTS idx_livro_arquivo_isbn ON tb_livro_arquivo (isbn);
+CREATE INDEX IF NOT EXISTS idx_livro_arquivo_status ON tb_livro_arquivo (status_livro);
+
+-- Candidatos ao arquivamento: índice parcial pequeno, só com os livros fora de venda
+CREATE INDEX IF NOT EXISTS idx_livro_fora_venda ON tb_livro (data_atualizacao_livro)
+    WHERE status_livro IN ('DANIFICADO', 'INDISPONIVEL');
@@ -0,0 +1,13 @@
+-- V11__create_resposta_openlibrary.sql
+-- Segundo nível do cache das consultas de ISBN à Open Library (o primeiro fica em memória, ver ConsultaOpenLibrary).
+-- Sobrevive a reinícios e é compartilhado entre as instâncias. dados nulo = ISBN inexistente no provedor
+-- (cache negativo, com validade menor). Linhas vencidas são apagadas periodicamente.
+
+CREATE TABLE IF NOT EXISTS tb_resposta_openlibrary (
+    isbn            VARCHAR(13) PRIMARY KEY,
+    dados           TEXT,
+    data_consulta   TIMESTAMP(6) NOT NULL,
+    data_expiracao  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_resposta_openlibrary_expiracao ON tb_resposta_openlibrary (data_expiracao);
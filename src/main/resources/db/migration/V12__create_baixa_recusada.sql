@@ -0,0 +1,15 @@
+-- V12__create_baixa_recusada.sql
+-- Deltas do motor de reservas que o banco recusou na descarga (a quantidade ficaria negativa, ex.: estoque
+-- reduzido por uma importação). Não são tentados de novo: ficam aqui, gravados na mesma transação da descarga,
+-- para conferência manual (unidades confirmadas ao cliente sem estoque correspondente no banco).
+
+CREATE TABLE IF NOT EXISTS tb_baixa_recusada (
+    baixa_recusada_id  BIGSERIAL PRIMARY KEY,
+    livro_id           UUID NOT NULL,
+    delta              INTEGER NOT NULL,
+    quantidade_banco   INTEGER,
+    segmento           BIGINT NOT NULL,
+    data_recusa        TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_baixa_recusada_livro ON tb_baixa_recusada (livro_id);
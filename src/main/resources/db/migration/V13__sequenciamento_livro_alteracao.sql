@@ -0,0 +1,17 @@
+-- V13__sequenciamento_livro_alteracao.sql
+-- O feed de alterações deixa de numerar as linhas dentro da transação que altera o livro (o que exigia um lock
+-- global até o commit). Cada linha guarda a transação que a gravou; a sequência, que é o cursor dos clientes,
+-- é atribuída depois por um único sequenciador, só para linhas de transações já concluídas
+-- (transacao < xmin do snapshot atual). Assim nenhuma sequência menor aparece depois de uma maior já lida.
+
+ALTER TABLE tb_livro_alteracao ADD COLUMN IF NOT EXISTS registro_id BIGINT GENERATED ALWAYS AS IDENTITY;
+ALTER TABLE tb_livro_alteracao ADD COLUMN IF NOT EXISTS transacao xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+ALTER TABLE tb_livro_alteracao DROP CONSTRAINT IF EXISTS tb_livro_alteracao_pkey;
+ALTER TABLE tb_livro_alteracao ADD PRIMARY KEY (registro_id);
+ALTER TABLE tb_livro_alteracao ALTER COLUMN sequencia DROP NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_livro_alteracao_sequencia ON tb_livro_alteracao (sequencia);
+CREATE INDEX IF NOT EXISTS idx_livro_alteracao_pendente ON tb_livro_alteracao (transacao, registro_id) WHERE sequencia IS NULL;
+
+DROP SEQUENCE IF EXISTS seq_livro_alteracao;
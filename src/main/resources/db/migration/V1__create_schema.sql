@@ -0,0 +1,46 @@
+-- V1__create_schema.sql
+-- Esquema das entidades mapeadas (o Hibernate apenas valida: ddl-auto = validate).
+-- IF NOT EXISTS: bancos criados antes pelo ddl-auto = update recebem o baseline (versão 0) e reaproveitam as tabelas.
+
+CREATE EXTENSION IF NOT EXISTS "pgcrypto";
+
+CREATE TABLE IF NOT EXISTS tb_role (
+    role_id   UUID PRIMARY KEY,
+    role_nome VARCHAR(30) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS tb_usuario (
+    usuario_id       UUID PRIMARY KEY,
+    nome             VARCHAR(150) NOT NULL UNIQUE,
+    senha            VARCHAR(255) NOT NULL UNIQUE,
+    status_usuario   VARCHAR(255) NOT NULL,
+    perfil_usuario   VARCHAR(255) NOT NULL,
+    data_criacao     TIMESTAMP(6) NOT NULL,
+    data_atualizacao TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS tb_usuario_role (
+    usuario_id UUID NOT NULL REFERENCES tb_usuario (usuario_id),
+    role_id    UUID NOT NULL REFERENCES tb_role (role_id),
+    PRIMARY KEY (usuario_id, role_id)
+);
+
+CREATE TABLE IF NOT EXISTS tb_livro (
+    livro_id               UUID PRIMARY KEY,
+    isbn                   VARCHAR(255) UNIQUE,
+    titulo                 VARCHAR(255),
+    subtitulo              VARCHAR(255),
+    valor                  NUMERIC(38, 2),
+    quantidade             INTEGER,
+    status_livro           VARCHAR(255),
+    categoria              VARCHAR(255),
+    tipo_capa              VARCHAR(255),
+    formato                VARCHAR(255),
+    data_publicacao        VARCHAR(255),
+    numero_paginas         INTEGER,
+    capa_url               VARCHAR(255),
+    autor                  VARCHAR(255),
+    editora                VARCHAR(255),
+    data_cadastro_livro    TIMESTAMP(6),
+    data_atualizacao_livro TIMESTAMP(6)
+);
@@ -1,6 +0,0 @@
-CREATE TABLE livros (
-    id SERIAL PRIMARY KEY,
-    titulo VARCHAR(255) NOT NULL,
-    autor VARCHAR(255),
-    ano_publicacao INTEGER
-);
@@ -0,0 +1,4 @@
+-- V2__insert_roles.sql
+
+INSERT INTO tb_role (role_id, role_nome) VALUES (gen_random_uuid(), 'ROLE_USUARIO') ON CONFLICT (role_nome) DO NOTHING;
+INSERT INTO tb_role (role_id, role_nome) VALUES (gen_random_uuid(), 'ROLE_ADMINISTRADOR') ON CONFLICT (role_nome) DO NOTHING;
@@ -0,0 +1,6 @@
+-- Controle de gravação do motor de reservas: último segmento do journal local já aplicado em tb_livro
+CREATE TABLE IF NOT EXISTS tb_controle_reserva (
+    controle_id      INTEGER PRIMARY KEY,
+    ultimo_segmento  BIGINT NOT NULL,
+    data_atualizacao TIMESTAMP(6)
+);
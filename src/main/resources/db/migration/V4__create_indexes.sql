@@ -0,0 +1,22 @@
+-- V4__create_indexes.sql
+-- Índices das consultas mais frequentes.
+
+-- findByStatusLivro (relatórios por status)
+CREATE INDEX IF NOT EXISTS idx_livro_status_livro ON tb_livro (status_livro);
+
+-- Relatório de livros sem estoque (listarSemEstoque): índice parcial, pequeno e só com as linhas zeradas
+CREATE INDEX IF NOT EXISTS idx_livro_sem_estoque ON tb_livro (data_cadastro_livro DESC) WHERE quantidade = 0;
+
+-- Filtros e agrupamentos por categoria, autor e editora (existsByAutor, relatórios)
+CREATE INDEX IF NOT EXISTS idx_livro_categoria ON tb_livro (categoria);
+CREATE INDEX IF NOT EXISTS idx_livro_autor ON tb_livro (autor);
+CREATE INDEX IF NOT EXISTS idx_livro_editora ON tb_livro (editora);
+
+-- existsByTitulo
+CREATE INDEX IF NOT EXISTS idx_livro_titulo ON tb_livro (titulo);
+
+-- Ordenação padrão da listagem (GET /livros ordena por dataCadastroLivro DESC)
+CREATE INDEX IF NOT EXISTS idx_livro_data_cadastro ON tb_livro (data_cadastro_livro DESC);
+
+-- Busca dos perfis de um usuário a partir do perfil (lado inverso da chave primária composta)
+CREATE INDEX IF NOT EXISTS idx_usuario_role_role ON tb_usuario_role (role_id);
@@ -0,0 +1,20 @@
+-- V5__create_livro_alteracao.sql
+-- Feed de alterações do catálogo (GET /livros/alteracoes): uma linha por criação, atualização, movimentação
+-- de estoque ou remoção (tombstone), em ordem de commit.
+
+CREATE SEQUENCE IF NOT EXISTS seq_livro_alteracao;
+
+CREATE TABLE IF NOT EXISTS tb_livro_alteracao (
+    sequencia      BIGINT PRIMARY KEY,
+    livro_id       UUID NOT NULL,
+    tipo           VARCHAR(20) NOT NULL,
+    data_alteracao TIMESTAMP(6) NOT NULL
+);
+
+-- Carga inicial: livros já existentes entram no feed como criados
+INSERT INTO tb_livro_alteracao (sequencia, livro_id, tipo, data_alteracao)
+SELECT nextval('seq_livro_alteracao'), livro_id, 'CRIADO', coalesce(data_atualizacao_livro, data_cadastro_livro, now())
+  FROM (SELECT livro_id, data_atualizacao_livro, data_cadastro_livro
+          FROM tb_livro
+         ORDER BY data_cadastro_livro NULLS FIRST) livros
+ WHERE NOT EXISTS (SELECT 1 FROM tb_livro_alteracao);
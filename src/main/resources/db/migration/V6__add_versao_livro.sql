@@ -0,0 +1,5 @@
+-- V6__add_versao_livro.sql
+-- Versão do livro para concorrência otimista (@Version), exposta como ETag em GET/PUT/PATCH de livro único.
+-- As movimentações de estoque em SQL nativo também incrementam a versão.
+
+ALTER TABLE tb_livro ADD COLUMN IF NOT EXISTS versao bigint NOT NULL DEFAULT 0;
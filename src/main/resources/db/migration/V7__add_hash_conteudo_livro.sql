@@ -0,0 +1,30 @@
+-- V7__add_hash_conteudo_livro.sql
+-- Hash do conteúdo alterável do livro (os campos gravados pela importação), usado pela importação em lote para
+-- gravar apenas as linhas que realmente mudaram. A coluna é gerada pelo banco, então fica correta mesmo quando
+-- o livro é alterado pela API (JPA) ou por movimentações de estoque. NULL é representado por \x1e, para que
+-- não se confunda com texto vazio.
+
+CREATE OR REPLACE FUNCTION livro_hash_conteudo(isbn VARCHAR, titulo VARCHAR, subtitulo VARCHAR, valor NUMERIC,
+                                               quantidade INTEGER, categoria VARCHAR, tipo_capa VARCHAR,
+                                               autor VARCHAR, editora VARCHAR)
+    RETURNS BYTEA
+    LANGUAGE sql
+    IMMUTABLE
+    PARALLEL SAFE
+AS
+$$
+SELECT decode(md5(coalesce(isbn, E'\x1e') || E'\x1f' ||
+                  coalesce(titulo, E'\x1e') || E'\x1f' ||
+                  coalesce(subtitulo, E'\x1e') || E'\x1f' ||
+                  coalesce(valor::text, E'\x1e') || E'\x1f' ||
+                  coalesce(quantidade::text, E'\x1e') || E'\x1f' ||
+                  coalesce(categoria, E'\x1e') || E'\x1f' ||
+                  coalesce(tipo_capa, E'\x1e') || E'\x1f' ||
+                  coalesce(autor, E'\x1e') || E'\x1f' ||
+                  coalesce(editora, E'\x1e')), 'hex')
+$$;
+
+ALTER TABLE tb_livro
+    ADD COLUMN IF NOT EXISTS hash_conteudo BYTEA
+        GENERATED ALWAYS AS (livro_hash_conteudo(isbn, titulo, subtitulo, valor, quantidade, categoria, tipo_capa,
+                                                 autor, editora)) STORED;
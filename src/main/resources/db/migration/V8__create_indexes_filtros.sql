@@ -0,0 +1,15 @@
+-- V8__create_indexes_filtros.sql
+-- Índices dos filtros da listagem (SpecificationsTemplate.LivroSpec).
+
+-- Filtros por prefixo (LIKE 'x%'): com collation diferente de "C", só índices varchar_pattern_ops atendem LIKE.
+-- Eles também atendem igualdade (existsByTitulo, existsByAutor...), então substituem os índices simples da V4.
+DROP INDEX IF EXISTS idx_livro_titulo;
+DROP INDEX IF EXISTS idx_livro_autor;
+DROP INDEX IF EXISTS idx_livro_editora;
+CREATE INDEX IF NOT EXISTS idx_livro_titulo_prefixo ON tb_livro (titulo varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_livro_autor_prefixo ON tb_livro (autor varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_livro_editora_prefixo ON tb_livro (editora varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_livro_isbn_prefixo ON tb_livro (isbn varchar_pattern_ops);
+
+-- Faixas de valor (valorMin/valorMax); faixas de cadastro usam idx_livro_data_cadastro
+CREATE INDEX IF NOT EXISTS idx_livro_valor ON tb_livro (valor);
@@ -0,0 +1,25 @@
+-- V9__create_funcao_uuid_v7.sql
+-- Ids ordenados pelo tempo (UUID v7) também nas inserções feitas direto no banco (importação via COPY, scripts).
+-- A aplicação gera os seus com com.sistema.livraria.ids.UuidV7; aqui não há contador dentro do mesmo milissegundo,
+-- só a ordem por milissegundo, o que já basta para as inserções caírem no fim do índice.
+-- (O PostgreSQL 18 traz uuidv7() nativo; esta função cobre o 17.)
+CREATE OR REPLACE FUNCTION uuid_v7() RETURNS uuid
+    LANGUAGE sql VOLATILE PARALLEL SAFE AS
+$$
+    -- 6 primeiros bytes: instante em ms; bits 52 e 53 trocam a versão 4 do gen_random_uuid() pela 7
+    SELECT encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid())
+                                          PLACING substring(int8send(floor(extract(EPOCH FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+                                          FROM 1 FOR 6),
+                                  52, 1),
+                          53, 1),
+                  'hex')::uuid
+$$;
+
+ALTER TABLE tb_livro ALTER COLUMN livro_id SET DEFAULT uuid_v7();
+ALTER TABLE tb_usuario ALTER COLUMN usuario_id SET DEFAULT uuid_v7();
+ALTER TABLE tb_role ALTER COLUMN role_id SET DEFAULT uuid_v7();
+
+-- Ids existentes (v4, aleatórios) são mantidos: eles aparecem em URLs, ETags, no feed de alterações e no journal
+-- de reservas, e trocá-los quebraria os clientes. Os dois formatos convivem na mesma coluna uuid; só as linhas
+-- novas passam a ser ordenadas. Para compactar um índice já fragmentado, rodar fora do horário de pico:
+--   REINDEX INDEX CONCURRENTLY tb_livro_pkey;
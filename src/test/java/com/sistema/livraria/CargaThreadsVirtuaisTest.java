@@ -0,0 +1,146 @@
+package com.sistema.livraria;
+
+import com.sistema.livraria.enums.*;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Teste de carga da listagem de livros (limitada pelo JDBC), para comparar threads de plataforma e virtuais.
+ *
+ * <p>Não roda no build normal. Executar uma vez em cada modo e comparar as linhas do log:
+ * <pre>
+ * mvn test -Dtest=CargaThreadsVirtuaisTest -Dbenchmark=true -Dspring.threads.virtual.enabled=false
+ * mvn test -Dtest=CargaThreadsVirtuaisTest -Dbenchmark=true -Dspring.threads.virtual.enabled=true
+ * </pre>
+ * Parâmetros opcionais: {@code -Dcarga.concorrencia=1000 -Dcarga.requisicoes=20000}.</p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "livraria.reservas.diretorio-journal=${java.io.tmpdir}/livraria-teste/reservas")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CargaThreadsVirtuaisTest {
+
+    private static final Logger logger = LogManager.getLogger(CargaThreadsVirtuaisTest.class);
+
+    @LocalServerPort
+    private int porta;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean threadsVirtuais;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Test
+    void vazaoELatenciaDaListagem() throws Exception {
+        int concorrencia = Integer.getInteger("carga.concorrencia", 1000);
+        int requisicoes = Integer.getInteger("carga.requisicoes", 20_000);
+        criarLivros(500);
+
+        HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10)).build();
+        // Aquecimento (JIT, caches de planos do banco), descartado
+        disparar(cliente, 50, 2_000);
+
+        long inicio = System.nanoTime();
+        Resultado resultado = disparar(cliente, concorrencia, requisicoes);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long[] latencias = resultado.latenciasMs();
+        Arrays.sort(latencias);
+        logger.info("Threads {}: {} requisições, concorrência {}, {} req/s, p50 {} ms, p99 {} ms, {} respostas 503",
+                threadsVirtuais ? "virtuais" : "de plataforma", requisicoes, concorrencia,
+                Math.round(requisicoes / segundos), percentil(latencias, 0.50), percentil(latencias, 0.99),
+                resultado.indisponiveis());
+        assertEquals(0, resultado.falhas());
+    }
+
+    private Resultado disparar(HttpClient cliente, int concorrencia, int requisicoes) throws InterruptedException {
+        long[] latencias = new long[requisicoes];
+        AtomicInteger proxima = new AtomicInteger();
+        AtomicInteger indisponiveis = new AtomicInteger();
+        AtomicInteger falhas = new AtomicInteger();
+        // Os clientes usam threads virtuais nos dois modos, para que só o servidor varie
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Runnable> tarefas = new ArrayList<>();
+            for (int c = 0; c < concorrencia; c++) {
+                tarefas.add(() -> {
+                    int i;
+                    while ((i = proxima.getAndIncrement()) < requisicoes) {
+                        var requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta
+                                + "/livraria/livros?size=20&page=" + (i % 25))).GET().build();
+                        long inicio = System.nanoTime();
+                        try {
+                            int status = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 503) {
+                                indisponiveis.incrementAndGet();
+                            } else if (status != 200) {
+                                falhas.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            falhas.incrementAndGet();
+                        }
+                        latencias[i] = (System.nanoTime() - inicio) / 1_000_000;
+                    }
+                });
+            }
+            tarefas.forEach(clientes::execute);
+        }
+        return new Resultado(latencias, indisponiveis.get(), falhas.get());
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        return ordenadas[Math.min(ordenadas.length - 1, (int) Math.ceil(p * ordenadas.length) - 1)];
+    }
+
+    private void criarLivros(int quantidade) {
+        livroRepository.deleteAllInBatch();
+        List<LivroModel> livros = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            var livro = new LivroModel();
+            livro.setTitulo("Livro " + i);
+            livro.setIsbn(String.format("978%010d", i));
+            livro.setAutor("Autor " + (i % 40));
+            livro.setEditora("Editora " + (i % 10));
+            livro.setValor(new BigDecimal("29.90"));
+            livro.setQuantidade(10);
+            livro.setCategoria(Categoria.HISTORIA);
+            livro.setTipoCapa(TipoCapa.COMUM);
+            livro.setFormato(Formato.FISICO);
+            livro.setStatusLivro(StatusLivro.DISPONIVEL);
+            livro.setDataCadastroLivro(LocalDateTime.now());
+            livro.setDataAtualizacaoLivro(LocalDateTime.now());
+            livros.add(livro);
+        }
+        livroRepository.saveAll(livros);
+    }
+
+    private record Resultado(long[] latenciasMs, int indisponiveis, int falhas) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.sistema.livraria.Controllers;
+
+import com.sistema.livraria.enums.*;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Filtros da listagem de livros (LivroSpec) contra um PostgreSQL embarcado: um teste por filtro, a listagem sem
+ * filtros e o tratamento literal de "%" e "_" nos filtros por prefixo.
+ */
+@SpringBootTest(properties = "livraria.reservas.diretorio-journal=${java.io.tmpdir}/livraria-teste/reservas")
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class LivroControllerFiltrosTest {
+
+    private static final String DESCONTO = "9780000000011";
+    private static final String RECEITAS = "9780000000022";
+    private static final String CASMURRO = "9781000000033";
+    private static final String QUIXOTE = "9781000000044";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository.deleteAllInBatch();
+        novoLivro(DESCONTO, "50% de desconto", "Ana", "Alfa", "10.00", 100, Categoria.HISTORIA,
+                StatusLivro.DISPONIVEL, Formato.FISICO, "2024-01-10T10:00:00");
+        novoLivro(RECEITAS, "500 receitas", "Bruno", "Beta", "50.00", 300, Categoria.EDUCACAO,
+                StatusLivro.INDISPONIVEL, Formato.DIGITAL, "2024-06-10T10:00:00");
+        novoLivro(CASMURRO, "Dom_Casmurro", "Ana Clara", "Alfa", "90.00", 500, Categoria.FILOSOFIA,
+                StatusLivro.DANIFICADO, Formato.FISICO, "2025-01-10T10:00:00");
+        novoLivro(QUIXOTE, "Dom Quixote", "Cervantes", "Gama", "30.00", 200, Categoria.TECNOLOGIA,
+                StatusLivro.DISPONIVEL, Formato.FISICO, "2023-05-01T10:00:00");
+    }
+
+    @Test
+    void testSemFiltros_RetornaTodos() throws Exception {
+        esperar(get("/livros"), DESCONTO, RECEITAS, CASMURRO, QUIXOTE);
+    }
+
+    @Test
+    void testTitulo_PercentualELiteral() throws Exception {
+        // Sem o escape, "50%" também encontraria "500 receitas"
+        esperar(get("/livros").param("titulo", "50%"), DESCONTO);
+        esperar(get("/livros").param("titulo", "50"), DESCONTO, RECEITAS);
+    }
+
+    @Test
+    void testTitulo_SublinhadoELiteral() throws Exception {
+        // Sem o escape, "_" casaria com qualquer caractere (inclusive o espaço de "Dom Quixote")
+        esperar(get("/livros").param("titulo", "Dom_"), CASMURRO);
+    }
+
+    @Test
+    void testIsbn_Prefixo() throws Exception {
+        esperar(get("/livros").param("isbn", "9781"), CASMURRO, QUIXOTE);
+    }
+
+    @Test
+    void testAutor_Prefixo() throws Exception {
+        esperar(get("/livros").param("autor", "Ana"), DESCONTO, CASMURRO);
+    }
+
+    @Test
+    void testEditora_Prefixo() throws Exception {
+        esperar(get("/livros").param("editora", "Beta"), RECEITAS);
+    }
+
+    @Test
+    void testValor_FaixaInclusiva() throws Exception {
+        esperar(get("/livros").param("valorMin", "50"), RECEITAS, CASMURRO);
+        esperar(get("/livros").param("valorMax", "50"), DESCONTO, RECEITAS, QUIXOTE);
+        esperar(get("/livros").param("valorMin", "20").param("valorMax", "60"), RECEITAS, QUIXOTE);
+    }
+
+    @Test
+    void testDataCadastro_Faixa() throws Exception {
+        esperar(get("/livros").param("cadastradoDe", "2024-06-01T00:00:00"), RECEITAS, CASMURRO);
+        esperar(get("/livros").param("cadastradoAte", "2024-06-01T00:00:00"), DESCONTO, QUIXOTE);
+    }
+
+    @Test
+    void testNumeroPaginas_FaixaInclusiva() throws Exception {
+        esperar(get("/livros").param("paginasMin", "300"), RECEITAS, CASMURRO);
+        esperar(get("/livros").param("paginasMax", "300"), DESCONTO, RECEITAS, QUIXOTE);
+    }
+
+    @Test
+    void testCategoria_ListaSeparadaPorVirgulaOuRepetida() throws Exception {
+        esperar(get("/livros").param("categoria", "HISTORIA,EDUCACAO"), DESCONTO, RECEITAS);
+        esperar(get("/livros").param("categoria", "FILOSOFIA").param("categoria", "TECNOLOGIA"), CASMURRO, QUIXOTE);
+    }
+
+    @Test
+    void testStatusLivro_Lista() throws Exception {
+        esperar(get("/livros").param("statusLivro", "INDISPONIVEL,DANIFICADO"), RECEITAS, CASMURRO);
+    }
+
+    @Test
+    void testFormato_Lista() throws Exception {
+        esperar(get("/livros").param("formato", "DIGITAL"), RECEITAS);
+    }
+
+    @Test
+    void testFiltrosCombinados() throws Exception {
+        esperar(get("/livros").param("autor", "Ana").param("valorMax", "50"), DESCONTO);
+    }
+
+    private void esperar(MockHttpServletRequestBuilder requisicao, String... isbns) throws Exception {
+        mockMvc.perform(requisicao.param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].isbn", containsInAnyOrder(isbns)));
+    }
+
+    private void novoLivro(String isbn, String titulo, String autor, String editora, String valor, int paginas,
+                           Categoria categoria, StatusLivro status, Formato formato, String cadastro) {
+        var livro = new LivroModel();
+        livro.setIsbn(isbn);
+        livro.setTitulo(titulo);
+        livro.setAutor(autor);
+        livro.setEditora(editora);
+        livro.setValor(new BigDecimal(valor));
+        livro.setNumeroPaginas(paginas);
+        livro.setQuantidade(10);
+        livro.setCategoria(categoria);
+        livro.setTipoCapa(TipoCapa.COMUM);
+        livro.setFormato(formato);
+        livro.setStatusLivro(status);
+        livro.setDataCadastroLivro(LocalDateTime.parse(cadastro));
+        livro.setDataAtualizacaoLivro(LocalDateTime.parse(cadastro));
+        livroRepository.save(livro);
+    }
+}
@@ -0,0 +1,66 @@
+package com.sistema.livraria.Controllers;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Recusas do cadastro por ISBN antes de qualquer consulta à Open Library: lote acima de
+ * livraria.openlibrary.max-itens-lote e ISBN já cadastrado (inclusive só no arquivo).
+ */
+@SpringBootTest(properties = {
+        "livraria.reservas.diretorio-journal=${java.io.tmpdir}/livraria-teste/reservas",
+        "livraria.openlibrary.max-itens-lote=2"
+})
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class LivroControllerLoteIsbnTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testRegistrarLivrosPorIsbn_LoteAcimaDoLimiteRetorna400() throws Exception {
+        mockMvc.perform(post("/livros/isbn/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"isbn": "9788535910663"}, {"isbn": "9788535914849"}, {"isbn": "9788535902778"}]
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.codigoErro").value(400))
+                .andExpect(jsonPath("$.mensagemErro").value("O lote tem 3 itens; o máximo por requisição é 2."));
+    }
+
+    @Test
+    void testRegistrarLivroPorIsbn_IsbnDoCaminhoArquivadoRetorna409() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO tb_livro_arquivo (livro_id, isbn, titulo, status_livro, versao, data_arquivamento)
+                VALUES (?, '9788535909555', 'Livro arquivado', 'DANIFICADO', 0, ?)
+                """, UUID.randomUUID(), LocalDateTime.now());
+
+        // Vale o ISBN do caminho, não o do corpo
+        mockMvc.perform(post("/livros/isbn/{isbn}", "9788535909555")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"isbn": "9788535910663", "valor": 29.90, "quantidade": 1,
+                                 "categoria": "HISTORIA", "tipoCapa": "COMUM"}
+                                """))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,233 @@
+package com.sistema.livraria.Controllers;
+
+import com.sistema.livraria.configs.security.TokenJwt;
+import com.sistema.livraria.configs.security.UsuarioDetailsImpl;
+import com.sistema.livraria.dtos.LivroRecordDto;
+import com.sistema.livraria.enums.*;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.models.UsuarioModel;
+import com.sistema.livraria.repositorys.LivroRepository;
+import com.sistema.livraria.repositorys.RoleRepository;
+import com.sistema.livraria.repositorys.UsuarioRepository;
+import com.sistema.livraria.services.LivroService;
+import com.sistema.livraria.services.impl.AlteracaoLivroServiceImpl;
+import com.sistema.livraria.support.ContadorSql;
+import com.sistema.livraria.support.ContadorSqlConfig;
+import com.sistema.livraria.support.OrcamentoSql;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Orçamento de comandos SQL por endpoint, contra um PostgreSQL embarcado com o esquema do Flyway.
+ * Cada teste começa com os caches (Spring e segundo nível do Hibernate) vazios.
+ * Toda escrita inclui um INSERT no feed de alterações (TB_LIVRO_ALTERACAO).
+ */
+@SpringBootTest(properties = "livraria.reservas.diretorio-journal=${java.io.tmpdir}/livraria-teste/reservas")
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import(ContadorSqlConfig.class)
+class LivroControllerOrcamentoSqlTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private AlteracaoLivroServiceImpl alteracaoLivroService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private TokenJwt tokenJwt;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testGetOneLivro_VersaoELivroEDepoisSoAVersao() throws Exception {
+        UUID livroId = novoLivro("Dom Casmurro", "9788535910663").getLivroId();
+
+        // A versão (para o ETag) e o livro; na segunda consulta o livro vem do cache
+        var primeira = ContadorSql.medir(() -> mockMvc.perform(get("/livros/livroId/{id}", livroId)).andExpect(status().isOk()));
+        OrcamentoSql.de(primeira).maximoConsultas(2).maximoLinhas(2);
+
+        var segunda = ContadorSql.medir(() -> mockMvc.perform(get("/livros/livroId/{id}", livroId)).andExpect(status().isOk()));
+        OrcamentoSql.de(segunda).maximoConsultas(1).maximoLinhas(1);
+    }
+
+    @Test
+    void testGetOneLivro_NaoModificadoNaoCarregaOLivro() throws Exception {
+        var livro = novoLivro("Quincas Borba", "9788535912654");
+        String etag = "\"" + livro.getLivroId() + "-" + livro.getVersao() + "\"";
+
+        var medicao = ContadorSql.medir(() -> mockMvc.perform(get("/livros/livroId/{id}", livro.getLivroId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified()));
+
+        OrcamentoSql.de(medicao).maximoConsultas(1).maximoLinhas(1);
+    }
+
+    @Test
+    void testRequisicaoAutenticada_UsuarioVemDoCacheDeSegundoNivel() throws Exception {
+        UUID livroId = novoLivro("Memórias Póstumas", "9788535911664").getLivroId();
+        var usuario = novoUsuario(RoleType.ROLE_USUARIO);
+        String token = tokenJwt.gerarJwt(new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+        mockMvc.perform(get("/livros/livroId/{id}", livroId).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        var medicao = ContadorSql.medir(() -> mockMvc.perform(get("/livros/livroId/{id}", livroId)
+                .header("Authorization", "Bearer " + token)).andExpect(status().isOk()));
+
+        OrcamentoSql.de(medicao).maximoConsultas(1); // só a versão: usuário, roles e livro vêm dos caches
+        usuarioRepository.deleteById(usuario.getUsuarioId());
+    }
+
+    @Test
+    void testRequisicaoAutenticada_UsuarioRebaixadoOuExcluidoPerdeOAcesso() throws Exception {
+        var usuario = novoUsuario(RoleType.ROLE_ADMINISTRADOR);
+        String token = tokenJwt.gerarJwt(new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+        mockMvc.perform(get("/actuator/caches").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+
+        // O token ainda carrega ROLE_ADMINISTRADOR, mas valem as roles atuais
+        UsuarioModel usuarioModel = usuarioRepository.findByNome(usuario.getUsername()).orElseThrow();
+        usuarioModel.setRoles(new HashSet<>(Set.of(roleRepository.findByRoleNome(RoleType.ROLE_USUARIO).orElseThrow())));
+        usuarioRepository.save(usuarioModel);
+        mockMvc.perform(get("/actuator/caches").header("Authorization", "Bearer " + token)).andExpect(status().isForbidden());
+
+        usuarioRepository.deleteById(usuario.getUsuarioId());
+        mockMvc.perform(get("/actuator/caches").header("Authorization", "Bearer " + token)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testGetAllLivros_SemNMaisUm() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            novoLivro("Livro " + i, "97800000000" + String.format("%02d", i));
+        }
+
+        var medicao = ContadorSql.medir(() -> mockMvc.perform(get("/livros").param("size", "5")).andExpect(status().isOk()));
+
+        // Página + contagem, independentemente da quantidade de livros
+        OrcamentoSql.de(medicao).maximoConsultas(2).semNMaisUm().semLeiturasDuplicadas();
+    }
+
+    @Test
+    void testUpdateLivro_UmaLeituraUmaEscritaEOFeed() throws Exception {
+        UUID livroId = novoLivro("O Cortiço", "9788508133082").getLivroId();
+
+        var medicao = ContadorSql.medir(() -> mockMvc.perform(put("/livros/{id}", livroId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"isbn": "9788508133082", "titulo": "O Cortiço", "subtitulo": "Edição revista",
+                                 "valor": 39.90, "quantidade": 5, "categoria": "HISTORIA", "tipoCapa": "COMUM",
+                                 "autor": "Aluísio Azevedo", "editora": "Ática"}
+                                """))
+                .andExpect(status().isOk()));
+
+        OrcamentoSql.de(medicao).maximoConsultas(3).semLeiturasDuplicadas();
+    }
+
+    @Test
+    void testDeleteLivro_SemLeituraDuplicada() throws Exception {
+        UUID livroId = novoLivro("Iracema", "9788572327554").getLivroId();
+
+        var medicao = ContadorSql.medir(() -> mockMvc.perform(delete("/livros/{id}", livroId)).andExpect(status().isNoContent()));
+
+        OrcamentoSql.de(medicao).maximoConsultas(3).semLeiturasDuplicadas();
+    }
+
+    @Test
+    void testMovimentarEstoque_UmComandoMaisOFeed() throws Exception {
+        UUID livroId = novoLivro("Senhora", "9788508040018").getLivroId();
+
+        var medicao = ContadorSql.medir(() -> mockMvc.perform(post("/livros/{id}/estoque/movimento", livroId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tipo\": \"SAIDA\", \"quantidade\": 2}"))
+                .andExpect(status().isOk()));
+
+        // O UPDATE condicional e a entrada do feed
+        OrcamentoSql.de(medicao).maximoConsultas(2);
+    }
+
+    @Test
+    void testGetAlteracoes_UmaLeituraDoFeedEUmaDosLivros() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            // Pelo serviço, para que o cadastro passe pelo evento que grava o feed
+            livroService.save(new LivroRecordDto("97811111111" + String.format("%02d", i), "Feed " + i, null,
+                    new BigDecimal("19.90"), 3, Categoria.EDUCACAO, TipoCapa.COMUM, "Autor", "Editora", null));
+        }
+        alteracaoLivroService.sequenciar(); // sem esperar o agendamento
+
+        var medicao = ContadorSql.medir(() -> mockMvc.perform(get("/livros/alteracoes").param("desde", "0"))
+                .andExpect(status().isOk()));
+
+        OrcamentoSql.de(medicao).maximoConsultas(2).semNMaisUm();
+    }
+
+    private UsuarioDetailsImpl novoUsuario(RoleType roleType) {
+        var usuario = new UsuarioModel();
+        usuario.setNome("usuario-" + UUID.randomUUID());
+        usuario.setSenha(UUID.randomUUID().toString());
+        usuario.setStatusUsuario(StatusUsuario.ATIVO);
+        usuario.setPerfilUsuario(TipoPerfio.USUARIO);
+        usuario.setDataCriacao(LocalDateTime.now());
+        usuario.setDataAtualizacao(LocalDateTime.now());
+        usuario.getRoles().add(roleRepository.findByRoleNome(roleType).orElseThrow());
+        return UsuarioDetailsImpl.build(usuarioRepository.save(usuario));
+    }
+
+    private LivroModel novoLivro(String titulo, String isbn) {
+        var livro = new LivroModel();
+        livro.setTitulo(titulo);
+        livro.setIsbn(isbn);
+        livro.setAutor("Autor");
+        livro.setEditora("Editora");
+        livro.setValor(new BigDecimal("29.90"));
+        livro.setQuantidade(10);
+        livro.setCategoria(Categoria.HISTORIA);
+        livro.setTipoCapa(TipoCapa.COMUM);
+        livro.setFormato(Formato.FISICO);
+        livro.setStatusLivro(StatusLivro.DISPONIVEL);
+        livro.setDataCadastroLivro(LocalDateTime.now());
+        livro.setDataAtualizacaoLivro(LocalDateTime.now());
+        return livroRepository.save(livro);
+    }
+}
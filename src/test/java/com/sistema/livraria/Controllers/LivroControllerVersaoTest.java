@@ -0,0 +1,141 @@
+package com.sistema.livraria.Controllers;
+
+import com.sistema.livraria.enums.*;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Requisições condicionais do livro único: If-None-Match nas consultas (304) e If-Match nas gravações (412).
+ */
+@SpringBootTest(properties = "livraria.reservas.diretorio-journal=${java.io.tmpdir}/livraria-teste/reservas")
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class LivroControllerVersaoTest {
+
+    private static final String ISBN = "9788535910663";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private LivroModel livro;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+        livro = novoLivro();
+    }
+
+    @Test
+    void testGetOneLivro_IfNoneMatchDaVersaoAtualRetorna304SemCorpo() throws Exception {
+        String etag = etagAtual();
+
+        mockMvc.perform(get("/livros/livroId/{id}", livro.getLivroId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetOneLivro_IfNoneMatchDeVersaoAntigaRetornaOLivro() throws Exception {
+        String antigo = etagAtual();
+        atualizar(null).andExpect(status().isOk());
+
+        String atual = mockMvc.perform(get("/livros/livroId/{id}", livro.getLivroId()).header(HttpHeaders.IF_NONE_MATCH, antigo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subtitulo").value("Edição revista"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(antigo, atual);
+    }
+
+    @Test
+    void testConsultarLivroPorIsbn_IfNoneMatchDaVersaoAtualRetorna304() throws Exception {
+        mockMvc.perform(get("/livros/isbn/{isbn}", ISBN).header(HttpHeaders.IF_NONE_MATCH, etagAtual()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testUpdateLivro_IfMatchDivergenteRetorna412SemGravar() throws Exception {
+        atualizar("\"" + livro.getLivroId() + "-999\"").andExpect(status().isPreconditionFailed());
+
+        assertEquals(livro.getVersao(), livroRepository.findById(livro.getLivroId()).orElseThrow().getVersao());
+    }
+
+    @Test
+    void testUpdateLivro_IfMatchDaVersaoAtualGrava() throws Exception {
+        String etag = etagAtual();
+
+        String novo = atualizar(etag).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(etag, novo);
+        // O ETag antigo deixou de valer para uma nova gravação
+        atualizar(etag).andExpect(status().isPreconditionFailed());
+    }
+
+    private String etagAtual() throws Exception {
+        return mockMvc.perform(get("/livros/livroId/{id}", livro.getLivroId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private ResultActions atualizar(String ifMatch) throws Exception {
+        var requisicao = put("/livros/{id}", livro.getLivroId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"isbn": "9788535910663", "titulo": "Dom Casmurro", "subtitulo": "Edição revista",
+                         "valor": 39.90, "quantidade": 5, "categoria": "HISTORIA", "tipoCapa": "COMUM",
+                         "autor": "Machado de Assis", "editora": "Companhia das Letras"}
+                        """);
+        if (ifMatch != null) {
+            requisicao.header(HttpHeaders.IF_MATCH, ifMatch);
+        }
+        return mockMvc.perform(requisicao);
+    }
+
+    private LivroModel novoLivro() {
+        var novo = new LivroModel();
+        novo.setTitulo("Dom Casmurro");
+        novo.setIsbn(ISBN);
+        novo.setAutor("Machado de Assis");
+        novo.setEditora("Companhia das Letras");
+        novo.setValor(new BigDecimal("29.90"));
+        novo.setQuantidade(10);
+        novo.setCategoria(Categoria.HISTORIA);
+        novo.setTipoCapa(TipoCapa.COMUM);
+        novo.setFormato(Formato.FISICO);
+        novo.setStatusLivro(StatusLivro.DISPONIVEL);
+        novo.setDataCadastroLivro(LocalDateTime.now());
+        novo.setDataAtualizacaoLivro(LocalDateTime.now());
+        return livroRepository.save(novo);
+    }
+}
@@ -0,0 +1,92 @@
+package com.sistema.livraria.busca;
+
+import com.sistema.livraria.dtos.FacetasRecordDto;
+import com.sistema.livraria.dtos.LivroFacetasRecordDto;
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.Formato;
+import com.sistema.livraria.enums.StatusLivro;
+import com.sistema.livraria.enums.TipoCapa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContadorFacetasTest {
+
+    private static final Categoria CATEGORIA = Categoria.values()[0];
+
+    private ContadorFacetas contador;
+    private final UUID livro1 = UUID.randomUUID();
+    private final UUID livro2 = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        contador = new ContadorFacetas();
+        contador.recarregar(List.of(
+                new LivroFacetasRecordDto(livro1, CATEGORIA, StatusLivro.DISPONIVEL, Formato.FISICO, TipoCapa.DURA),
+                new LivroFacetasRecordDto(livro2, CATEGORIA, StatusLivro.DISPONIVEL, Formato.DIGITAL, null)));
+    }
+
+    @Test
+    void testContagensIniciais() {
+        FacetasRecordDto facetas = contador.contagens();
+
+        assertEquals(2, facetas.total());
+        assertEquals(2, facetas.categorias().get(CATEGORIA));
+        assertEquals(2, facetas.status().get(StatusLivro.DISPONIVEL));
+        assertEquals(1, facetas.formatos().get(Formato.DIGITAL));
+        assertEquals(1, facetas.tiposCapa().get(TipoCapa.DURA));
+        assertEquals(0, facetas.tiposCapa().get(TipoCapa.COMUM));
+    }
+
+    @Test
+    void testAlterarStatusMoveAContagem() {
+        contador.alterarStatus(livro1, StatusLivro.INDISPONIVEL);
+
+        FacetasRecordDto facetas = contador.contagens();
+        assertEquals(1, facetas.status().get(StatusLivro.DISPONIVEL));
+        assertEquals(1, facetas.status().get(StatusLivro.INDISPONIVEL));
+        assertEquals(1, facetas.formatos().get(Formato.FISICO)); // demais campos preservados
+    }
+
+    @Test
+    void testRemoverEReregistrar() {
+        contador.remover(livro2);
+        contador.registrar(livro1, CATEGORIA, StatusLivro.DANIFICADO, Formato.DIGITAL, TipoCapa.COMUM);
+
+        FacetasRecordDto facetas = contador.contagens();
+        assertEquals(1, facetas.total());
+        assertEquals(1, facetas.status().get(StatusLivro.DANIFICADO));
+        assertEquals(0, facetas.status().get(StatusLivro.DISPONIVEL));
+        assertEquals(1, facetas.formatos().get(Formato.DIGITAL));
+        assertEquals(0, facetas.tiposCapa().get(TipoCapa.DURA));
+    }
+
+    @Test
+    void testRecargaReaplicaAlteracoesConcorrentes() {
+        contador.iniciarRecarga();
+        UUID novo = UUID.randomUUID();
+        contador.registrar(novo, CATEGORIA, StatusLivro.DISPONIVEL, Formato.FISICO, TipoCapa.COMUM); // após a leitura do banco
+        contador.alterarStatus(livro1, StatusLivro.EMPRESTADO);
+
+        // Leitura do banco feita antes das duas alterações
+        boolean divergiu = contador.recarregar(List.of(
+                new LivroFacetasRecordDto(livro1, CATEGORIA, StatusLivro.DISPONIVEL, Formato.FISICO, TipoCapa.DURA),
+                new LivroFacetasRecordDto(livro2, CATEGORIA, StatusLivro.DISPONIVEL, Formato.DIGITAL, null)));
+
+        assertFalse(divergiu);
+        FacetasRecordDto facetas = contador.contagens();
+        assertEquals(3, facetas.total());
+        assertEquals(1, facetas.status().get(StatusLivro.EMPRESTADO));
+    }
+
+    @Test
+    void testRecargaDetectaDivergencia() {
+        assertTrue(contador.recarregar(List.of(
+                new LivroFacetasRecordDto(livro1, CATEGORIA, StatusLivro.DISPONIVEL, Formato.FISICO, TipoCapa.DURA))));
+        assertEquals(1, contador.contagens().total());
+    }
+}
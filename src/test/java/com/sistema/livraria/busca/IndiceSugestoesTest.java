@@ -0,0 +1,102 @@
+package com.sistema.livraria.busca;
+
+import com.sistema.livraria.dtos.LivroTextoRecordDto;
+import com.sistema.livraria.dtos.SugestaoRecordDto;
+import com.sistema.livraria.enums.CampoSugestao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceSugestoesTest {
+
+    private IndiceSugestoes indice;
+    private final UUID senhor = UUID.randomUUID();
+    private final UUID dom = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceSugestoes();
+        indice.recarregar(List.of(
+                new LivroTextoRecordDto(senhor, "O Senhor dos Anéis", "J. R. R. Tolkien", "HarperCollins"),
+                new LivroTextoRecordDto(dom, "Dom Casmurro", "Machado de Assis", "Editora Ática")));
+    }
+
+    @Test
+    void testNormalizar() {
+        assertEquals("o senhor dos aneis", IndiceSugestoes.normalizar("  O Senhor dos Anéis!! "));
+        assertEquals("", IndiceSugestoes.normalizar(null));
+    }
+
+    @Test
+    void testBuscarPorPrefixoDePalavra() {
+        List<SugestaoRecordDto> result = indice.buscar("ane", 5);
+
+        assertEquals(1, result.size());
+        assertEquals(senhor, result.get(0).livroId());
+        assertEquals(CampoSugestao.TITULO, result.get(0).campo());
+        assertEquals("O Senhor dos Anéis", result.get(0).texto());
+    }
+
+    @Test
+    void testBuscarPorTrigramaNoMeioDaPalavra() {
+        List<SugestaoRecordDto> result = indice.buscar("smurr", 5);
+
+        assertEquals(1, result.size());
+        assertEquals(dom, result.get(0).livroId());
+    }
+
+    @Test
+    void testTituloTemPrioridadeSobreAutor() {
+        UUID outro = UUID.randomUUID();
+        indice.indexar(outro, "Machado de Assis: uma biografia", "Fulano", "Editora X");
+
+        List<SugestaoRecordDto> result = indice.buscar("machado", 5);
+
+        assertEquals(2, result.size());
+        assertEquals(CampoSugestao.TITULO, result.get(0).campo());
+        assertEquals(CampoSugestao.AUTOR, result.get(1).campo());
+    }
+
+    @Test
+    void testAtualizacaoERemocaoIncrementais() {
+        indice.indexar(dom, "Memórias Póstumas de Brás Cubas", "Machado de Assis", "Editora Ática");
+        assertTrue(indice.buscar("casmurro", 5).isEmpty());
+        assertEquals(1, indice.buscar("memorias", 5).size());
+
+        indice.remover(dom);
+        assertTrue(indice.buscar("memorias", 5).isEmpty());
+        assertEquals(1, indice.tamanho());
+    }
+
+    @Test
+    void testDeltaOrdenadoDaOsMesmosResultadosQueACompactacao() {
+        for (int i = 0; i < 500; i++) { // abaixo do limite de compactação: tudo fica no delta
+            indice.indexar(UUID.randomUUID(), "Livro " + (499 - i), "Autor " + (i % 10), "Editora");
+        }
+        List<SugestaoRecordDto> noDelta = indice.buscar("livro 4", 10);
+        List<SugestaoRecordDto> autores = indice.buscar("autor", 10);
+        indice.compactar();
+
+        assertEquals(10, noDelta.size());
+        assertEquals("Livro 4", noDelta.get(0).texto());
+        assertEquals(noDelta, indice.buscar("livro 4", 10));
+        assertEquals(autores, indice.buscar("autor", 10));
+    }
+
+    @Test
+    void testCompactacaoMantemResultados() {
+        for (int i = 0; i < 3000; i++) {
+            indice.indexar(UUID.randomUUID(), "Livro " + i, "Autor " + (i % 10), "Editora");
+        }
+        indice.compactar();
+
+        assertEquals(3002, indice.tamanho());
+        assertEquals("Livro 2999", indice.buscar("livro 2999", 5).get(0).texto());
+        // "Editora" (repetida 3000 vezes) e "Editora Ática" aparecem uma única vez cada
+        assertEquals(2, indice.buscar("editora", 5).stream().filter(s -> s.campo() == CampoSugestao.EDITORA).count());
+    }
+}
@@ -0,0 +1,95 @@
+package com.sistema.livraria.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.models.LivroModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache do JSON serializado dos livros: acertos sem carregar o livro, faltas e remoção da versão anterior.
+ */
+class CacheRespostasLivroTest {
+
+    private final CacheRespostasLivro cache =
+            new CacheRespostasLivro(new ObjectMapper(), new SimpleMeterRegistry(), 1 << 20, Duration.ofMinutes(10));
+
+    private final UUID livroId = UUID.randomUUID();
+    private final AtomicInteger carregamentos = new AtomicInteger();
+
+    @Test
+    void faltaCarregaOLivroEAcertoNaoCarregaDeNovo() {
+        var livro = livro(0L, "Dom Casmurro");
+
+        byte[] primeira = cache.json(livroId, 0L, carregar(livro));
+        byte[] segunda = cache.json(livroId, 0L, carregar(livro));
+
+        assertEquals(1, carregamentos.get());
+        assertSame(primeira, segunda);
+        assertTrue(new String(primeira, StandardCharsets.UTF_8).contains("Dom Casmurro"));
+        assertEquals(1, cache.cache.stats().hitCount());
+    }
+
+    @Test
+    void novaVersaoNaoEncontraOJsonAntigo() {
+        cache.json(livroId, 0L, carregar(livro(0L, "Dom Casmurro")));
+
+        byte[] json = cache.json(livroId, 1L, carregar(livro(1L, "Dom Casmurro, edição revista")));
+
+        assertEquals(2, carregamentos.get());
+        assertTrue(new String(json, StandardCharsets.UTF_8).contains("edição revista"));
+    }
+
+    @Test
+    void alteracaoRemoveAVersaoAnterior() {
+        cache.json(livroId, 0L, carregar(livro(0L, "Dom Casmurro")));
+        cache.json(livroId, 1L, carregar(livro(1L, "Dom Casmurro")));
+
+        cache.aoAlterarLivro(new LivroAlteradoEvent(livroId, TipoAlteracaoLivro.ATUALIZADO, livro(1L, "Dom Casmurro")));
+
+        assertNull(cache.cache.getIfPresent(new CacheRespostasLivro.Chave(livroId, 0L)));
+        assertNotNull(cache.cache.getIfPresent(new CacheRespostasLivro.Chave(livroId, 1L)));
+    }
+
+    @Test
+    void remocaoRemoveAVersaoAtual() {
+        cache.json(livroId, 3L, carregar(livro(3L, "Dom Casmurro")));
+
+        cache.aoAlterarLivro(new LivroAlteradoEvent(livroId, TipoAlteracaoLivro.REMOVIDO, livro(3L, "Dom Casmurro")));
+
+        assertEquals(0, cache.cache.asMap().size());
+    }
+
+    @Test
+    void versaoMaisNovaNoCarregamentoFicaComAChaveLida() {
+        // A versão mudou entre a leitura da versão e o carregamento: o JSON fica guardado com a versão carregada
+        cache.json(livroId, 0L, carregar(livro(1L, "Dom Casmurro")));
+
+        assertNull(cache.cache.getIfPresent(new CacheRespostasLivro.Chave(livroId, 0L)));
+        assertNotNull(cache.cache.getIfPresent(new CacheRespostasLivro.Chave(livroId, 1L)));
+    }
+
+    private Supplier<LivroModel> carregar(LivroModel livro) {
+        return () -> {
+            carregamentos.incrementAndGet();
+            return livro;
+        };
+    }
+
+    private LivroModel livro(Long versao, String titulo) {
+        var livro = new LivroModel();
+        livro.setLivroId(livroId);
+        livro.setTitulo(titulo);
+        livro.setVersao(versao);
+        return livro;
+    }
+}
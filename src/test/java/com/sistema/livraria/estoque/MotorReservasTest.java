@@ -0,0 +1,227 @@
+package com.sistema.livraria.estoque;
+
+import com.sistema.livraria.exceptios.EstoqueInsuficienteException;
+import com.sistema.livraria.exceptios.NotFoundException;
+import com.sistema.livraria.exceptios.ReservaExpiradaException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MotorReservasTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final UUID livroId = UUID.randomUUID();
+    private final Map<UUID, Integer> banco = new ConcurrentHashMap<>();
+    private final Map<UUID, List<Integer>> recusados = new ConcurrentHashMap<>();
+    private final AtomicInteger segmentoAplicado = new AtomicInteger();
+    private Instant agora = Instant.parse("2025-01-01T12:00:00Z");
+
+    private JournalReservas journal;
+    private MotorReservas motor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        banco.put(livroId, 100);
+        journal = new JournalReservas(diretorio);
+        motor = novoMotor(journal);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    void testReservasConcorrentesNuncaPassamDoEstoque() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        AtomicInteger aceitas = new AtomicInteger();
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tarefas.add(executor.submit(() -> {
+                try {
+                    motor.reservar(livroId, 1, Duration.ofMinutes(5));
+                    aceitas.incrementAndGet();
+                } catch (EstoqueInsuficienteException e) {
+                    // esperado após esgotar o estoque
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+
+        assertEquals(100, aceitas.get());
+        assertEquals(0, motor.disponivel(livroId));
+    }
+
+    @Test
+    void testConfirmarEDescarregarGravaODelta() {
+        var reserva = motor.reservar(livroId, 3, Duration.ofMinutes(5));
+        motor.confirmar(reserva.reservaId());
+
+        assertEquals(1, motor.descarregar(this::gravar));
+        assertEquals(97, banco.get(livroId));
+        assertEquals(97, motor.disponivel(livroId));
+        assertEquals(0, motor.descarregar(this::gravar));
+    }
+
+    @Test
+    void testLiberarDevolveAsUnidades() {
+        var reserva = motor.reservar(livroId, 10, Duration.ofMinutes(5));
+        assertEquals(90, motor.disponivel(livroId));
+
+        motor.liberar(reserva.reservaId());
+
+        assertEquals(100, motor.disponivel(livroId));
+        assertThrows(NotFoundException.class, () -> motor.confirmar(reserva.reservaId()));
+    }
+
+    @Test
+    void testReservaExpirada() {
+        var reserva = motor.reservar(livroId, 10, Duration.ofMinutes(5));
+        agora = agora.plus(Duration.ofMinutes(6));
+
+        assertThrows(ReservaExpiradaException.class, () -> motor.confirmar(reserva.reservaId()));
+        assertEquals(100, motor.disponivel(livroId));
+
+        motor.reservar(livroId, 5, Duration.ofMinutes(5));
+        agora = agora.plus(Duration.ofMinutes(6));
+        assertEquals(1, motor.expirarVencidas());
+        assertEquals(100, motor.disponivel(livroId));
+    }
+
+    @Test
+    void testFalhaNaGravacaoMantemOsDeltasPendentes() {
+        motor.confirmar(motor.reservar(livroId, 4, Duration.ofMinutes(5)).reservaId());
+
+        assertThrows(IllegalStateException.class, () -> motor.descarregar(lote -> {
+            throw new IllegalStateException("banco indisponível");
+        }));
+        assertEquals(96, motor.disponivel(livroId));
+        assertEquals(100, banco.get(livroId));
+
+        motor.descarregar(this::gravar);
+        assertEquals(96, banco.get(livroId));
+    }
+
+    @Test
+    void testRecuperacaoAposQuedaReaplicaApenasOQueNaoFoiGravado() throws Exception {
+        motor.confirmar(motor.reservar(livroId, 2, Duration.ofMinutes(5)).reservaId());
+        motor.descarregar(this::gravar);
+        motor.confirmar(motor.reservar(livroId, 5, Duration.ofMinutes(5)).reservaId());
+        motor.reservar(livroId, 7, Duration.ofMinutes(5)); // nunca confirmada: some com a queda
+        journal.close();
+
+        // "Queda": novo journal e novo motor, semeado pelo banco
+        journal = new JournalReservas(diretorio);
+        Map<UUID, Integer> pendentes = journal.lerPendentes(segmentoAplicado.get());
+        assertEquals(Map.of(livroId, -5), pendentes);
+
+        motor = novoMotor(journal);
+        motor.restaurar(pendentes);
+        motor.descarregar(this::gravar);
+
+        assertEquals(93, banco.get(livroId));
+        assertEquals(93, motor.disponivel(livroId));
+        assertTrue(journal.lerPendentes(segmentoAplicado.get()).isEmpty());
+    }
+
+    @Test
+    void testDeltaRecusadoPeloBancoEDescartado() throws Exception {
+        motor.confirmar(motor.reservar(livroId, 5, Duration.ofMinutes(5)).reservaId());
+        banco.put(livroId, 3); // estoque reduzido por fora do motor (ex.: importação)
+
+        assertEquals(0, motor.descarregar(this::gravar));
+
+        assertEquals(List.of(-5), recusados.get(livroId));
+        assertEquals(1, motor.baixasRecusadas());
+        assertEquals(3, motor.disponivel(livroId)); // o contador volta à quantidade real do banco
+        assertTrue(journal.lerPendentes(segmentoAplicado.get()).isEmpty());
+
+        // Nada é tentado de novo nas próximas descargas
+        assertEquals(0, motor.descarregar(this::gravar));
+        assertEquals(1, recusados.get(livroId).size());
+        assertEquals(3, banco.get(livroId));
+    }
+
+    @Test
+    void testSaidaNoBancoDescontaReservasEBaixasNaoGravadas() {
+        motor.confirmar(motor.reservar(livroId, 60, Duration.ofMinutes(5)).reservaId()); // confirmada, ainda não gravada
+        motor.reservar(livroId, 30, Duration.ofMinutes(5));
+
+        // Simula o UPDATE condicional: quantidade - comprometido >= saída
+        assertTrue(motor.baixarNoBanco(livroId, 11, comprometido -> saidaNoBanco(11, comprometido)).isEmpty());
+        assertEquals(10, motor.disponivel(livroId)); // a saída recusada não retém nada
+
+        assertEquals(Optional.of(90), motor.baixarNoBanco(livroId, 10, comprometido -> saidaNoBanco(10, comprometido)));
+        // Antes do fim da transação as 10 unidades seguem retidas sobre a base antiga (100)
+        assertEquals(0, motor.disponivel(livroId));
+        assertThrows(EstoqueInsuficienteException.class, () -> motor.reservar(livroId, 1, Duration.ofMinutes(5)));
+
+        motor.concluirSaida(livroId, 10);
+        assertEquals(0, motor.disponivel(livroId)); // 90 no banco - 60 não gravadas - 30 reservadas
+
+        motor.descarregar(this::gravar);
+        assertEquals(30, banco.get(livroId));
+    }
+
+    private MotorReservas novoMotor(JournalReservas journal) {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return agora;
+            }
+        };
+        return new MotorReservas(journal, id -> Optional.ofNullable(banco.get(id)), clock);
+    }
+
+    private Optional<Integer> saidaNoBanco(int quantidade, int comprometido) {
+        int atual = banco.get(livroId);
+        if (atual - comprometido < quantidade) {
+            return Optional.empty();
+        }
+        banco.put(livroId, atual - quantidade);
+        return Optional.of(atual - quantidade);
+    }
+
+    // Simula o UPDATE em lote: recusa (e registra) deltas que deixariam a quantidade negativa
+    private Map<UUID, Integer> gravar(MotorReservas.Lote lote) {
+        Map<UUID, Integer> gravados = new HashMap<>();
+        lote.deltas().forEach((id, delta) -> {
+            int quantidade = banco.get(id) + delta;
+            if (quantidade >= 0) {
+                banco.put(id, quantidade);
+                gravados.put(id, quantidade);
+            } else {
+                recusados.computeIfAbsent(id, chave -> new ArrayList<>()).add(delta);
+            }
+        });
+        segmentoAplicado.set((int) lote.segmento());
+        return gravados;
+    }
+}
@@ -0,0 +1,77 @@
+package com.sistema.livraria.ids;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara ids aleatórios (UUID v4) e ordenados pelo tempo (UUID v7) como chave primária: vazão de INSERT em lote e
+ * tamanho final do índice, contra um PostgreSQL embarcado.
+ *
+ * <p>Não roda no build normal. Para executar: {@code mvn test -Dtest=UuidV7BenchmarkTest -Dbenchmark=true}
+ * (opcionalmente {@code -Dbenchmark.linhas=2000000}). O resultado sai no log.</p>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UuidV7BenchmarkTest {
+
+    private static final Logger logger = LogManager.getLogger(UuidV7BenchmarkTest.class);
+
+    private static final int LOTE = 1_000;
+
+    @Test
+    void insercaoEIndiceV4ContraV7() throws Exception {
+        int linhas = Integer.getInteger("benchmark.linhas", 500_000);
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             Connection conexao = postgres.getPostgresDatabase().getConnection()) {
+            // Aquecimento da JVM e do banco, descartado
+            medir(conexao, "aquecimento", UUID::randomUUID, linhas / 10);
+
+            Resultado v4 = medir(conexao, "bench_v4", UUID::randomUUID, linhas);
+            Resultado v7 = medir(conexao, "bench_v7", UuidV7::gerar, linhas);
+
+            logger.info("UUID v4: {} linhas/s, índice da PK {} KB", v4.linhasPorSegundo(), v4.tamanhoIndice() / 1024);
+            logger.info("UUID v7: {} linhas/s, índice da PK {} KB", v7.linhasPorSegundo(), v7.tamanhoIndice() / 1024);
+
+            // Com inserções sempre no fim, as páginas da btree ficam cheias (fillfactor 90) em vez de ~70% após splits
+            assertTrue(v7.tamanhoIndice() < v4.tamanhoIndice());
+        }
+    }
+
+    private Resultado medir(Connection conexao, String tabela, Supplier<UUID> ids, int linhas) throws Exception {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + tabela);
+            statement.execute("CREATE TABLE " + tabela + " (id uuid PRIMARY KEY, titulo varchar(255) NOT NULL)");
+        }
+        long inicio = System.nanoTime();
+        try (PreparedStatement insert = conexao.prepareStatement("INSERT INTO " + tabela + " (id, titulo) VALUES (?, ?)")) {
+            for (int i = 1; i <= linhas; i++) {
+                insert.setObject(1, ids.get());
+                insert.setString(2, "Livro " + i);
+                insert.addBatch();
+                if (i % LOTE == 0 || i == linhas) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        long nanos = System.nanoTime() - inicio;
+        try (Statement statement = conexao.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_relation_size('" + tabela + "_pkey')")) {
+            rs.next();
+            return new Resultado(linhas * 1_000_000_000L / Math.max(nanos, 1), rs.getLong(1));
+        }
+    }
+
+    private record Resultado(long linhasPorSegundo, long tamanhoIndice) {
+    }
+}
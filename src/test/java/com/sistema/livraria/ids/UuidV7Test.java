@@ -0,0 +1,56 @@
+package com.sistema.livraria.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gerador com relógio controlado pelo teste: cada teste usa a própria instância, sem tocar no gerador das entidades.
+ */
+class UuidV7Test {
+
+    private final AtomicLong relogio = new AtomicLong(1_700_000_000_000L);
+    private final UuidV7 gerador = new UuidV7(relogio::get);
+
+    @Test
+    void geraVersao7VarianteRfcComInstante() {
+        UUID uuid = gerador.proximo();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(relogio.get(), UuidV7.instante(uuid));
+    }
+
+    @Test
+    void idsSaoCrescentesNoMesmoMilissegundo() {
+        UUID anterior = gerador.proximo();
+        for (int i = 0; i < 10_000; i++) {
+            UUID atual = gerador.proximo();
+            // Comparação sem sinal, como a do PostgreSQL e a ordem lexicográfica do texto
+            assertTrue(Long.compareUnsigned(atual.getMostSignificantBits(), anterior.getMostSignificantBits()) > 0);
+            anterior = atual;
+        }
+        // 10 mil ids estouram o contador de 12 bits: o instante avança em vez de repetir
+        assertTrue(UuidV7.instante(anterior) > relogio.get());
+    }
+
+    @Test
+    void relogioVoltandoNaoQuebraAOrdem() {
+        UUID depois = gerador.proximo();
+        relogio.addAndGet(-5_000);
+        UUID antes = gerador.proximo();
+
+        assertTrue(Long.compareUnsigned(antes.getMostSignificantBits(), depois.getMostSignificantBits()) > 0);
+    }
+
+    @Test
+    void geradorPadraoUsaORelogioDoSistema() {
+        long inicio = System.currentTimeMillis();
+        long instante = UuidV7.instante(UuidV7.gerar());
+
+        assertTrue(instante >= inicio);
+    }
+}
@@ -0,0 +1,112 @@
+package com.sistema.livraria.openlibrary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara os clientes HTTP contra um servidor local que imita a Open Library (com latência fixa por resposta):
+ * RestTemplate padrão (HttpURLConnection), RestTemplate sobre o HttpClient do JDK e o {@link ClienteOpenLibrary}
+ * com várias requisições assíncronas em andamento.
+ *
+ * <p>Não roda no build normal. Para executar: {@code mvn test -Dtest=ClienteOpenLibraryBenchmarkTest -Dbenchmark=true}
+ * (opcionalmente {@code -Dbenchmark.requisicoes=2000 -Dbenchmark.latencia-ms=20}). O resultado sai no log.</p>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ClienteOpenLibraryBenchmarkTest {
+
+    private static final Logger logger = LogManager.getLogger(ClienteOpenLibraryBenchmarkTest.class);
+
+    private static final int SIMULTANEAS = 8;
+    private static final byte[] CORPO = "{\"ISBN:9780140328721\": {\"title\": \"Fantastic Mr Fox\", \"number_of_pages\": 96}}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void clientesSequenciaisContraAssincrono() throws Exception {
+        int requisicoes = Integer.getInteger("benchmark.requisicoes", 500);
+        long latencia = Long.getLong("benchmark.latencia-ms", 10);
+
+        ExecutorService threadsServidor = Executors.newCachedThreadPool();
+        HttpServer servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/api/books", troca -> {
+            try {
+                Thread.sleep(latencia);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            troca.getResponseHeaders().add("Content-Type", "application/json");
+            troca.sendResponseHeaders(200, CORPO.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(CORPO);
+            }
+        });
+        servidor.setExecutor(threadsServidor);
+        servidor.start();
+
+        String url = "http://127.0.0.1:" + servidor.getAddress().getPort();
+        String endereco = url + "/api/books?bibkeys=ISBN:9780140328721&format=json&jscmd=data";
+        try (HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build()) {
+            var padrao = new RestTemplate();
+            var pooled = new RestTemplate(new JdkClientHttpRequestFactory(httpClient));
+            var cliente = new ClienteOpenLibrary(httpClient, new ObjectMapper(),
+                    new Disjuntor("benchmark", 20, 10, 50, Duration.ofSeconds(30), 3), new OrcamentoRetentativas(0.2, 10),
+                    url, Duration.ofSeconds(5), 1, Duration.ofMillis(200), Duration.ofSeconds(2));
+
+            // Aquecimento da JVM e das conexões, descartado
+            medir(requisicoes / 10, () -> padrao.getForObject(endereco, String.class));
+            medir(requisicoes / 10, () -> pooled.getForObject(endereco, String.class));
+
+            long restTemplatePadrao = medir(requisicoes, () -> padrao.getForObject(endereco, String.class));
+            long restTemplateJdk = medir(requisicoes, () -> pooled.getForObject(endereco, String.class));
+            long assincrono = medirAssincrono(cliente, requisicoes);
+
+            logger.info("RestTemplate padrão, sequencial: {} req/s", restTemplatePadrao);
+            logger.info("RestTemplate sobre HttpClient, sequencial: {} req/s", restTemplateJdk);
+            logger.info("ClienteOpenLibrary assíncrono ({} simultâneas): {} req/s", SIMULTANEAS, assincrono);
+
+            // Com latência fixa no servidor, a vazão sequencial fica presa a 1/latência
+            assertTrue(assincrono > restTemplateJdk);
+        } finally {
+            servidor.stop(0);
+            threadsServidor.shutdownNow();
+        }
+    }
+
+    private long medir(int requisicoes, Runnable chamada) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < requisicoes; i++) {
+            chamada.run();
+        }
+        return requisicoes * 1_000_000_000L / Math.max(System.nanoTime() - inicio, 1);
+    }
+
+    private long medirAssincrono(ClienteOpenLibrary cliente, int requisicoes) {
+        long inicio = System.nanoTime();
+        for (int enviadas = 0; enviadas < requisicoes; enviadas += SIMULTANEAS) {
+            List<CompletableFuture<?>> envios = new ArrayList<>();
+            for (int i = enviadas; i < Math.min(enviadas + SIMULTANEAS, requisicoes); i++) {
+                envios.add(cliente.consultarAsync(List.of("9780140328721")));
+            }
+            CompletableFuture.allOf(envios.toArray(CompletableFuture[]::new)).join();
+        }
+        return requisicoes * 1_000_000_000L / Math.max(System.nanoTime() - inicio, 1);
+    }
+}
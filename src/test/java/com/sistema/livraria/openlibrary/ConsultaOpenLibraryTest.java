@@ -0,0 +1,313 @@
+package com.sistema.livraria.openlibrary;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sistema.livraria.exceptios.ProvedorIndisponivelException;
+import com.sistema.livraria.models.RespostaOpenLibraryModel;
+import com.sistema.livraria.repositorys.RespostaOpenLibraryRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache das consultas à Open Library contra um servidor HTTP local que imita o provedor.
+ * O repositório é simulado por um mapa, que faz o papel de TB_RESPOSTA_OPENLIBRARY entre instâncias da consulta.
+ */
+class ConsultaOpenLibraryTest {
+
+    private static final String ISBN_EXISTENTE = "9780140328721";
+    private static final String ISBN_INEXISTENTE = "9780000000000";
+
+    private HttpServer servidor;
+    private ExecutorService threadsServidor;
+    private final AtomicInteger requisicoes = new AtomicInteger();
+    private final List<String> consultas = new CopyOnWriteArrayList<>();
+    private volatile int statusResposta = 200;
+    private volatile long atrasoResposta;
+    private final AtomicInteger falhasPassageiras = new AtomicInteger(); // respostas 503 antes de voltar ao normal
+
+    private final Map<String, RespostaOpenLibraryModel> banco = new ConcurrentHashMap<>();
+    private RespostaOpenLibraryRepository repository;
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/api/books", troca -> {
+            requisicoes.incrementAndGet();
+            String consulta = troca.getRequestURI().getQuery();
+            consultas.add(consulta);
+            try {
+                Thread.sleep(atrasoResposta);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String corpo = consulta.contains(ISBN_EXISTENTE)
+                    ? "{\"ISBN:" + ISBN_EXISTENTE + "\": {\"title\": \"Fantastic Mr Fox\", \"number_of_pages\": 96}}"
+                    : "{}";
+            byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().add("Content-Type", "application/json");
+            troca.sendResponseHeaders(falhasPassageiras.getAndDecrement() > 0 ? 503 : statusResposta, bytes.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(bytes);
+            }
+        });
+        threadsServidor = Executors.newCachedThreadPool(); // lotes simultâneos
+        servidor.setExecutor(threadsServidor);
+        servidor.start();
+
+        repository = mock(RespostaOpenLibraryRepository.class);
+        when(repository.findById(anyString())).thenAnswer(chamada -> Optional.ofNullable(banco.get(chamada.<String>getArgument(0))));
+        when(repository.findAllById(any())).thenAnswer(chamada -> {
+            Iterable<String> isbns = chamada.getArgument(0);
+            List<RespostaOpenLibraryModel> gravadas = new ArrayList<>();
+            isbns.forEach(isbn -> Optional.ofNullable(banco.get(isbn)).ifPresent(gravadas::add));
+            return gravadas;
+        });
+        when(repository.gravarTodas(any(), any(), any(), any())).thenAnswer(chamada -> {
+            String[] isbns = chamada.getArgument(0);
+            for (int i = 0; i < isbns.length; i++) {
+                var model = new RespostaOpenLibraryModel();
+                model.setIsbn(isbns[i]);
+                model.setDados(chamada.<String[]>getArgument(1)[i]);
+                model.setDataConsulta(chamada.<LocalDateTime[]>getArgument(2)[i]);
+                model.setDataExpiracao(chamada.<LocalDateTime[]>getArgument(3)[i]);
+                banco.put(isbns[i], model);
+            }
+            return isbns.length;
+        });
+    }
+
+    @AfterEach
+    void parar() {
+        servidor.stop(0);
+        threadsServidor.shutdownNow();
+    }
+
+    @Test
+    void consultaRepetidaEAtendidaPelaMemoria() {
+        var consulta = novaConsulta();
+
+        assertEquals("Fantastic Mr Fox", consulta.buscar(ISBN_EXISTENTE).orElseThrow().path("title").asText());
+        assertEquals("Fantastic Mr Fox", consulta.buscar(ISBN_EXISTENTE).orElseThrow().path("title").asText());
+
+        assertEquals(1, requisicoes.get());
+        assertTrue(banco.containsKey(ISBN_EXISTENTE));
+    }
+
+    @Test
+    void isbnInexistenteFicaNoCacheNegativo() {
+        var consulta = novaConsulta();
+
+        assertTrue(consulta.buscar(ISBN_INEXISTENTE).isEmpty());
+        assertTrue(consulta.buscar(ISBN_INEXISTENTE).isEmpty());
+
+        assertEquals(1, requisicoes.get());
+        assertNull(banco.get(ISBN_INEXISTENTE).getDados());
+    }
+
+    @Test
+    void novaInstanciaUsaORespostaGravadaNoBanco() {
+        novaConsulta().buscar(ISBN_EXISTENTE);
+        novaConsulta().buscar(ISBN_INEXISTENTE);
+
+        // Memória vazia (como após um reinício): as respostas vêm do banco, sem ir à rede
+        var reiniciada = novaConsulta();
+        assertTrue(reiniciada.buscar(ISBN_EXISTENTE).isPresent());
+        assertTrue(reiniciada.buscar(ISBN_INEXISTENTE).isEmpty());
+
+        assertEquals(2, requisicoes.get());
+        assertEquals(2, reiniciada.acertosBanco.get());
+    }
+
+    @Test
+    void respostaVencidaNoBancoVoltaAoProvedor() {
+        novaConsulta().buscar(ISBN_EXISTENTE);
+        banco.get(ISBN_EXISTENTE).setDataExpiracao(LocalDateTime.now().minusDays(400));
+
+        assertTrue(novaConsulta().buscar(ISBN_EXISTENTE).isPresent());
+
+        assertEquals(2, requisicoes.get());
+    }
+
+    @Test
+    void falhaDoProvedorNaoEGuardada() {
+        var consulta = novaConsulta();
+        statusResposta = 503;
+
+        assertThrows(RestClientException.class, () -> consulta.buscar(ISBN_EXISTENTE));
+        assertTrue(banco.isEmpty());
+
+        statusResposta = 200;
+        assertTrue(consulta.buscar(ISBN_EXISTENTE).isPresent());
+        assertEquals(2, requisicoes.get());
+    }
+
+    @Test
+    void consultasSimultaneasAoMesmoIsbnFazemUmaRequisicao() throws Exception {
+        atrasoResposta = 300;
+        var consulta = novaConsulta();
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Optional<JsonNode>>> buscas = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                buscas.add(threads.submit(() -> consulta.buscar(ISBN_EXISTENTE)));
+            }
+            for (Future<Optional<JsonNode>> busca : buscas) {
+                assertTrue(busca.get().isPresent());
+            }
+        }
+
+        assertEquals(1, requisicoes.get());
+        assertEquals(1, consulta.memoria.synchronous().stats().loadSuccessCount());
+    }
+
+    @Test
+    void variosIsbnsVaoAoProvedorEmLotes() {
+        var consulta = novaConsulta(2);
+        String terceiro = "9780306406157";
+
+        Map<String, Optional<JsonNode>> livros =
+                consulta.buscarVarios(List.of(ISBN_EXISTENTE, ISBN_INEXISTENTE, terceiro));
+
+        assertEquals(3, livros.size());
+        assertTrue(livros.get(ISBN_EXISTENTE).isPresent());
+        assertTrue(livros.get(ISBN_INEXISTENTE).isEmpty());
+        assertTrue(livros.get(terceiro).isEmpty());
+        assertEquals(2, requisicoes.get()); // 2 + 1 ISBNs
+        assertTrue(consultas.stream().anyMatch(consulta -> consulta.contains("ISBN:" + ISBN_EXISTENTE + ",ISBN:" + ISBN_INEXISTENTE)));
+
+        // Todos ficaram guardados: nem a consulta individual nem uma nova instância voltam à rede
+        assertTrue(consulta.buscar(ISBN_EXISTENTE).isPresent());
+        assertEquals(3, novaConsulta(2).buscarVarios(List.of(ISBN_EXISTENTE, ISBN_INEXISTENTE, terceiro)).size());
+        assertEquals(2, requisicoes.get());
+    }
+
+    @Test
+    void loteComFalhaFicaForaDoResultado() {
+        statusResposta = 500;
+
+        assertTrue(novaConsulta(10).buscarVarios(List.of(ISBN_EXISTENTE, ISBN_INEXISTENTE)).isEmpty());
+        assertTrue(banco.isEmpty());
+    }
+
+    @Test
+    void respostaLentaEsgotaOPrazo() {
+        atrasoResposta = 2_000;
+
+        var consulta = novaConsulta(50, Duration.ofMillis(200));
+        long inicio = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> consulta.buscar(ISBN_EXISTENTE));
+
+        assertTrue(System.nanoTime() - inicio < Duration.ofSeconds(1).toNanos());
+        assertTrue(banco.isEmpty());
+        assertEquals(1, consulta.clienteOpenLibrary.prazosEsgotados.get());
+    }
+
+    @Test
+    void falhaPassageiraERepetida() {
+        falhasPassageiras.set(2);
+        var consulta = novaConsulta(cliente(Duration.ofSeconds(5), disjuntor(), 3));
+
+        assertTrue(consulta.buscar(ISBN_EXISTENTE).isPresent());
+
+        assertEquals(3, requisicoes.get());
+        assertEquals(2, consulta.clienteOpenLibrary.orcamentoRetentativas.executadas());
+    }
+
+    @Test
+    void disjuntorAbertoFalhaSemIrAoProvedor() {
+        statusResposta = 503;
+        var consulta = novaConsulta(cliente(Duration.ofSeconds(5),
+                new Disjuntor("teste", 4, 2, 50, Duration.ofMinutes(1), 1), 1));
+
+        assertThrows(RestClientException.class, () -> consulta.buscar(ISBN_EXISTENTE));
+        assertThrows(RestClientException.class, () -> consulta.buscar(ISBN_INEXISTENTE));
+        assertThrows(ProvedorIndisponivelException.class, () -> consulta.buscar("9780306406157"));
+
+        assertEquals(2, requisicoes.get());
+        assertEquals(Disjuntor.Estado.ABERTO, consulta.clienteOpenLibrary.disjuntor.estado());
+        assertTrue(banco.isEmpty());
+    }
+
+    @Test
+    void requisicaoQueNaoSaiRegistraResultadoNoDisjuntor() {
+        var relogio = new AtomicLong();
+        var disjuntor = new Disjuntor("teste", 4, 2, 50, Duration.ofSeconds(30), 1, relogio::get);
+        // O HttpClient recusa o esquema ftp ao montar a requisição, antes de qualquer envio
+        var cliente = new ClienteOpenLibrary(HttpClient.newHttpClient(), new ObjectMapper(), disjuntor,
+                new OrcamentoRetentativas(0.2, 10), "ftp://127.0.0.1", Duration.ofSeconds(5), 1,
+                Duration.ofMillis(10), Duration.ofMillis(50));
+
+        assertThrows(RestClientException.class, () -> cliente.consultar(List.of(ISBN_EXISTENTE)));
+        assertThrows(RestClientException.class, () -> cliente.consultar(List.of(ISBN_EXISTENTE)));
+        assertEquals(Disjuntor.Estado.ABERTO, disjuntor.estado());
+
+        // A chamada de teste do meio-aberto também falha e reabre o disjuntor, em vez de prender a única vaga
+        relogio.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThrows(RestClientException.class, () -> cliente.consultar(List.of(ISBN_EXISTENTE)));
+        assertEquals(Disjuntor.Estado.ABERTO, disjuntor.estado());
+        relogio.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(disjuntor.permitir());
+        assertEquals(0, requisicoes.get());
+    }
+
+    private ConsultaOpenLibrary novaConsulta() {
+        return novaConsulta(50);
+    }
+
+    private ConsultaOpenLibrary novaConsulta(int isbnsPorRequisicao) {
+        return novaConsulta(isbnsPorRequisicao, Duration.ofSeconds(5));
+    }
+
+    private ConsultaOpenLibrary novaConsulta(int isbnsPorRequisicao, Duration prazo) {
+        return novaConsulta(cliente(prazo, disjuntor(), 1), isbnsPorRequisicao);
+    }
+
+    private ConsultaOpenLibrary novaConsulta(ClienteOpenLibrary cliente) {
+        return novaConsulta(cliente, 50);
+    }
+
+    private ConsultaOpenLibrary novaConsulta(ClienteOpenLibrary cliente, int isbnsPorRequisicao) {
+        return new ConsultaOpenLibrary(cliente, new ObjectMapper(), repository, isbnsPorRequisicao, 4, 100,
+                Duration.ofDays(30), Duration.ofDays(1));
+    }
+
+    // Sem retentativas (maxTentativas = 1), as requisições contadas pelo servidor são as chamadas feitas
+    private ClienteOpenLibrary cliente(Duration prazo, Disjuntor disjuntor, int maxTentativas) {
+        return new ClienteOpenLibrary(HttpClient.newHttpClient(), new ObjectMapper(), disjuntor,
+                new OrcamentoRetentativas(0.2, 10), "http://127.0.0.1:" + servidor.getAddress().getPort(), prazo,
+                maxTentativas, Duration.ofMillis(10), Duration.ofMillis(50));
+    }
+
+    private static Disjuntor disjuntor() {
+        return new Disjuntor("teste", 20, 10, 50, Duration.ofSeconds(30), 3);
+    }
+}
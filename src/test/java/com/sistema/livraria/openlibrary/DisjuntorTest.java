@@ -0,0 +1,108 @@
+package com.sistema.livraria.openlibrary;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Transições do disjuntor com um relógio controlado pelo teste.
+ */
+class DisjuntorTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final Disjuntor disjuntor = new Disjuntor("teste", 10, 4, 50, Duration.ofSeconds(30), 2, relogio::get);
+
+    @Test
+    void abreQuandoATaxaDeFalhasAtingeOLimite() {
+        chamada(false);
+        chamada(true);
+        chamada(false);
+        assertEquals(Disjuntor.Estado.FECHADO, disjuntor.estado()); // abaixo do mínimo de chamadas
+
+        chamada(true);
+        assertEquals(Disjuntor.Estado.ABERTO, disjuntor.estado()); // 2 falhas em 4 = 50%
+        assertFalse(disjuntor.permitir());
+        assertEquals(1, disjuntor.rejeitadas());
+    }
+
+    @Test
+    void janelaDeslizanteConsideraSoAsUltimasChamadas() {
+        for (int i = 0; i < 3; i++) {
+            chamada(true);
+        }
+        for (int i = 0; i < 10; i++) {
+            chamada(false);
+        }
+        for (int i = 0; i < 4; i++) {
+            chamada(true);
+        }
+        assertEquals(Disjuntor.Estado.FECHADO, disjuntor.estado()); // 4 falhas nas últimas 10
+
+        // 5 falhas nas últimas 10 (no total seriam 8 em 18, abaixo do limite)
+        chamada(true);
+        assertEquals(Disjuntor.Estado.ABERTO, disjuntor.estado());
+    }
+
+    @Test
+    void meioAbertoFechaAposAsChamadasDeTeste() {
+        abrir();
+
+        relogio.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(disjuntor.permitir());
+        assertTrue(disjuntor.permitir());
+        assertFalse(disjuntor.permitir()); // só duas chamadas de teste ao mesmo tempo
+        assertEquals(Disjuntor.Estado.MEIO_ABERTO, disjuntor.estado());
+
+        disjuntor.registrarSucesso();
+        disjuntor.registrarSucesso();
+        assertEquals(Disjuntor.Estado.FECHADO, disjuntor.estado());
+        assertEquals(1, disjuntor.transicoes(Disjuntor.Estado.FECHADO));
+    }
+
+    @Test
+    void falhaNoTesteReabre() {
+        abrir();
+
+        relogio.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertTrue(disjuntor.permitir());
+        disjuntor.registrarFalha();
+
+        assertEquals(Disjuntor.Estado.ABERTO, disjuntor.estado());
+        assertFalse(disjuntor.permitir()); // a espera recomeça
+        assertEquals(2, disjuntor.transicoes(Disjuntor.Estado.ABERTO));
+    }
+
+    @Test
+    void orcamentoLimitaAsRetentativas() {
+        var orcamento = new OrcamentoRetentativas(0.5, 1);
+
+        assertTrue(orcamento.retirar());
+        assertFalse(orcamento.retirar());
+
+        orcamento.registrarRequisicao();
+        assertFalse(orcamento.retirar()); // meia retentativa acumulada
+        orcamento.registrarRequisicao();
+        assertTrue(orcamento.retirar());
+        assertEquals(2, orcamento.executadas());
+        assertEquals(2, orcamento.negadas());
+    }
+
+    private void abrir() {
+        for (int i = 0; i < 4; i++) {
+            chamada(true);
+        }
+        assertEquals(Disjuntor.Estado.ABERTO, disjuntor.estado());
+    }
+
+    private void chamada(boolean falha) {
+        assertTrue(disjuntor.permitir());
+        if (falha) {
+            disjuntor.registrarFalha();
+        } else {
+            disjuntor.registrarSucesso();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.sistema.livraria.replicas;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Roteamento de leituras com dois PostgreSQL locais (embarcados): um faz o papel de primário e o outro de réplica.
+ * Cada banco tem uma tabela "origem" com o próprio nome, o que mostra de onde veio cada leitura.
+ * Como não há replicação de verdade entre eles, as posições do WAL são simuladas (exceto no último teste).
+ */
+class RoteamentoReplicasTest {
+
+    private static EmbeddedPostgres primario;
+    private static EmbeddedPostgres replica;
+
+    private long lsnPrimario = 100;
+    private long lsnReplica = 100;
+
+    @BeforeAll
+    static void iniciarBancos() throws Exception {
+        primario = EmbeddedPostgres.builder().start();
+        replica = EmbeddedPostgres.builder().start();
+        for (var banco : List.of(primario, replica)) {
+            var jdbc = new JdbcTemplate(banco.getPostgresDatabase());
+            jdbc.execute("CREATE TABLE origem (nome text)");
+            jdbc.update("INSERT INTO origem VALUES (?)", banco == primario ? "primario" : "replica");
+        }
+    }
+
+    @AfterAll
+    static void pararBancos() throws Exception {
+        primario.close();
+        replica.close();
+    }
+
+    @AfterEach
+    void limparRequisicao() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void leituraSomenteLeituraVaiParaReplicaEmDia() {
+        var cenario = new Cenario(replica.getPostgresDatabase(), Duration.ofSeconds(5));
+        cenario.monitor.verificar();
+
+        assertEquals("replica", cenario.origem(true));
+        assertEquals("primario", cenario.origem(false));
+    }
+
+    @Test
+    void replicaAtrasadaAlemDoLimiteVoltaParaOPrimario() throws Exception {
+        var cenario = new Cenario(replica.getPostgresDatabase(), Duration.ofMillis(200));
+        cenario.monitor.verificar();
+        lsnPrimario = 200; // a réplica continua em 100
+        Thread.sleep(300);
+        cenario.monitor.verificar();
+
+        assertEquals("primario", cenario.origem(true));
+
+        lsnReplica = 200;
+        cenario.monitor.verificar();
+        assertEquals("replica", cenario.origem(true));
+    }
+
+    @Test
+    void clienteLeAPropriaEscritaAteAReplicaAlcancar() throws Exception {
+        var cenario = new Cenario(replica.getPostgresDatabase(), Duration.ofSeconds(5));
+        cenario.monitor.verificar();
+        var response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+
+        Thread.sleep(5);
+        cenario.escrever();
+        lsnPrimario = 150;
+        assertNotNull(response.getCookie(ConsistenciaLeitura.COOKIE));
+        assertEquals("primario", cenario.origem(true));
+
+        // Nova requisição do mesmo cliente, com o cookie: a réplica ainda não reproduziu a escrita
+        var proxima = new MockHttpServletRequest();
+        proxima.setCookies(response.getCookie(ConsistenciaLeitura.COOKIE));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(proxima, new MockHttpServletResponse()));
+        Thread.sleep(5);
+        cenario.monitor.verificar();
+        assertEquals("primario", cenario.origem(true));
+
+        lsnReplica = 150;
+        Thread.sleep(5);
+        cenario.monitor.verificar();
+        assertEquals("replica", cenario.origem(true));
+
+        // Outro cliente, sem cookie, podia usar a réplica o tempo todo
+        RequestContextHolder.resetRequestAttributes();
+        assertEquals("replica", cenario.origem(true));
+    }
+
+    @Test
+    void replicaInacessivelCaiNoPrimario() {
+        var inacessivel = new PGSimpleDataSource();
+        inacessivel.setServerNames(new String[]{"localhost"});
+        inacessivel.setPortNumbers(new int[]{1});
+        inacessivel.setConnectTimeout(1);
+        var cenario = new Cenario(inacessivel, Duration.ofSeconds(5));
+        cenario.monitor.verificar(); // posições simuladas: a réplica parece em dia
+
+        assertEquals("primario", cenario.origem(true));
+        assertTrue(cenario.monitor.elegiveis(0).isEmpty());
+    }
+
+    @Test
+    void servidorQueNaoEReplicaFicaForaDoRoteamento() throws Exception {
+        // Sem simulação: o segundo banco não está em recuperação, então pg_last_wal_replay_lsn() é nulo
+        var monitor = new MonitorReplicas(primario.getPostgresDatabase(),
+                List.of(new MonitorReplicas.Replica("replica-1", replica.getPostgresDatabase())), Duration.ofSeconds(5));
+        assertTrue(monitor.lsnPrimario() > 0);
+
+        monitor.verificar();
+
+        assertTrue(monitor.elegiveis(0).isEmpty());
+        assertEquals(-1, monitor.replicas.get(0).getAtrasoMs());
+    }
+
+    private class Cenario {
+
+        final MonitorReplicas monitor;
+        final JdbcTemplate jdbc;
+        final DataSourceTransactionManager transactionManager;
+
+        Cenario(DataSource dataSourceReplica, Duration atrasoMaximo) {
+            DataSource dataSourcePrimario = primario.getPostgresDatabase();
+            monitor = new MonitorReplicas(dataSourcePrimario,
+                    List.of(new MonitorReplicas.Replica("replica-1", dataSourceReplica)), atrasoMaximo) {
+                @Override
+                long lsnPrimario() {
+                    return lsnPrimario;
+                }
+
+                @Override
+                Long lsnReplica(Replica replica) {
+                    return lsnReplica;
+                }
+            };
+            var roteamento = new LazyConnectionDataSourceProxy(dataSourcePrimario);
+            roteamento.setReadOnlyDataSource(new ReplicasDataSource(monitor, dataSourcePrimario));
+            jdbc = new JdbcTemplate(roteamento);
+            transactionManager = new DataSourceTransactionManager(roteamento);
+            transactionManager.addListener(new ConsistenciaLeitura(atrasoMaximo));
+        }
+
+        String origem(boolean somenteLeitura) {
+            var template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(somenteLeitura);
+            return template.execute(status -> jdbc.queryForObject("SELECT nome FROM origem", String.class));
+        }
+
+        void escrever() {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    jdbc.update("UPDATE origem SET nome = nome"));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.sistema.livraria.services;
+
+import com.sistema.livraria.dtos.ImportacaoRecordDto;
+import com.sistema.livraria.enums.FormatoImportacao;
+import com.sistema.livraria.enums.ModoImportacao;
+import com.sistema.livraria.exceptios.ReconciliacaoRecusadaException;
+import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Importação em lote contra um PostgreSQL embarcado com o esquema do Flyway (COPY, upsert com hash e reconciliação).
+ */
+@SpringBootTest(properties = {"livraria.reservas.diretorio-journal=${java.io.tmpdir}/livraria-teste/reservas",
+        "livraria.importacao.max-erros-relatorio=2"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class ImportacaoLivroIntegracaoTest {
+
+    private static final String CABECALHO = "isbn,titulo,subtitulo,valor,quantidade,categoria,tipoCapa,autor,editora\n";
+
+    @Autowired
+    private ImportacaoLivroService importacaoLivroService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM tb_livro_arquivo");
+    }
+
+    @Test
+    void testLinhasIguaisAoBancoNaoSaoGravadas() throws Exception {
+        importarCsv(linhas(0, 2), ModoImportacao.MESCLA, false);
+        long versao = livro(0).getVersao();
+
+        ImportacaoRecordDto relatorio = importarCsv(linhas(0, 2), ModoImportacao.MESCLA, false);
+
+        assertEquals(0, relatorio.inseridos());
+        assertEquals(0, relatorio.atualizados());
+        assertEquals(2, relatorio.inalterados());
+        assertEquals(versao, livro(0).getVersao().longValue()); // a linha nem foi tocada
+    }
+
+    @Test
+    void testLinhaAlteradaEAtualizada() throws Exception {
+        importarCsv(linhas(0, 2), ModoImportacao.MESCLA, false);
+        long versao = livro(1).getVersao();
+
+        ImportacaoRecordDto relatorio = importarCsv(linha(0) + linha(1).replace("Livro 1", "Livro 1 revisado"),
+                ModoImportacao.MESCLA, false);
+
+        assertEquals(1, relatorio.atualizados());
+        assertEquals(1, relatorio.inalterados());
+        assertEquals("Livro 1 revisado", livro(1).getTitulo());
+        assertEquals(versao + 1, livro(1).getVersao().longValue());
+    }
+
+    @Test
+    void testReconciliacaoRemoveOsAusentes() throws Exception {
+        importarCsv(linhas(0, 10), ModoImportacao.MESCLA, false);
+
+        ImportacaoRecordDto relatorio = importarCsv(linhas(0, 9), ModoImportacao.RECONCILIACAO, false);
+
+        assertEquals(1, relatorio.removidos()); // 10% do catálogo, abaixo do limite
+        assertEquals(9, livroRepository.count());
+        assertTrue(livroRepository.findByIsbn(isbn(9)).isEmpty());
+    }
+
+    @Test
+    void testReconciliacaoAcimaDoLimiteERecusada() throws Exception {
+        importarCsv(linhas(0, 10), ModoImportacao.MESCLA, false);
+
+        assertThrows(ReconciliacaoRecusadaException.class,
+                () -> importarCsv(linha(0).replace("Livro 0", "Livro 0 revisado"), ModoImportacao.RECONCILIACAO, false));
+
+        assertEquals(10, livroRepository.count());
+        assertEquals("Livro 0", livro(0).getTitulo()); // nada foi gravado
+    }
+
+    @Test
+    void testReconciliacaoForcadaRemoveAcimaDoLimite() throws Exception {
+        importarCsv(linhas(0, 10), ModoImportacao.MESCLA, false);
+
+        ImportacaoRecordDto relatorio = importarCsv(linha(0), ModoImportacao.RECONCILIACAO, true);
+
+        assertEquals(9, relatorio.removidos());
+        assertEquals(1, livroRepository.count());
+    }
+
+    @Test
+    void testReconciliacaoComLinhasInvalidasNaoRemove() throws Exception {
+        importarCsv(linhas(0, 3), ModoImportacao.MESCLA, false);
+
+        ImportacaoRecordDto relatorio = importarCsv(linha(0) + "9780000000099,,,abc,1,HISTORIA,COMUM,Autor,Editora\n",
+                ModoImportacao.RECONCILIACAO, true);
+
+        assertEquals(1, relatorio.totalErros());
+        assertEquals(0, relatorio.removidos());
+        assertEquals(3, livroRepository.count());
+    }
+
+    @Test
+    void testIsbnArquivadoERecusado() throws Exception {
+        importarCsv(linhas(0, 3), ModoImportacao.MESCLA, false);
+        arquivar(isbn(5));
+
+        ImportacaoRecordDto relatorio = importarCsv(linhas(0, 3) + linha(5) + linha(6),
+                ModoImportacao.RECONCILIACAO, false);
+
+        // Como em /livros/isbn/lote: o ISBN arquivado conta como cadastrado e não volta ao catálogo ativo
+        assertEquals(1, relatorio.inseridos());
+        assertEquals(1, relatorio.totalErros());
+        assertEquals(isbn(5), relatorio.erros().get(0).isbn());
+        assertEquals(5, relatorio.erros().get(0).linha());
+        assertTrue(livroRepository.findByIsbn(isbn(5)).isEmpty());
+        assertEquals(4, livroRepository.count());
+    }
+
+    @Test
+    void testCsvComBomAspasEQuebraDeLinha() throws Exception {
+        String conteudo = "\uFEFF" + CABECALHO
+                + isbn(0) + ",\"Memórias, \"\"volume\"\" 1\",\"primeira linha\nsegunda linha\",29.90,5,HISTORIA,COMUM,Autor,Editora\n";
+
+        ImportacaoRecordDto relatorio = importar(conteudo, FormatoImportacao.CSV, ModoImportacao.MESCLA, false);
+
+        assertEquals(0, relatorio.totalErros());
+        assertEquals(1, relatorio.inseridos());
+        assertEquals(3, relatorio.linhasLidas());
+        assertEquals("Memórias, \"volume\" 1", livro(0).getTitulo());
+        assertEquals("primeira linha\nsegunda linha", livro(0).getSubtitulo());
+    }
+
+    @Test
+    void testNdjson() throws Exception {
+        String conteudo = """
+                {"isbn": "%s", "titulo": "Livro 0", "valor": 29.90, "quantidade": 5, "categoria": "HISTORIA", "tipoCapa": "COMUM", "autor": "Autor", "editora": "Editora"}
+                {"isbn": "%s", "titulo": "Livro 1", "subtitulo": null, "valor": 10, "quantidade": 0, "categoria": "CIENCIAS", "tipoCapa": "DURA", "autor": "Autor", "editora": "Editora"}
+                """.formatted(isbn(0), isbn(1));
+
+        ImportacaoRecordDto relatorio = importar(conteudo, FormatoImportacao.NDJSON, ModoImportacao.MESCLA, false);
+
+        assertEquals(2, relatorio.inseridos());
+        assertEquals(0, livro(1).getQuantidade());
+        assertNull(livro(1).getSubtitulo());
+    }
+
+    @Test
+    void testRelatorioDeErrosLimitado() throws Exception {
+        String invalidas = "9780000000099,Sem valor,,abc,1,HISTORIA,COMUM,Autor,Editora\n".repeat(5);
+
+        ImportacaoRecordDto relatorio = importarCsv(invalidas + linha(0), ModoImportacao.MESCLA, false);
+
+        assertEquals(5, relatorio.totalErros());
+        assertEquals(2, relatorio.erros().size()); // livraria.importacao.max-erros-relatorio
+        assertEquals(2, relatorio.erros().get(0).linha());
+        assertEquals("Valor inválido para o campo 'valor'.", relatorio.erros().get(0).mensagem());
+        assertEquals(1, relatorio.inseridos());
+    }
+
+    @Test
+    void testIsbnDuplicadoUltimaLinhaPrevalece() throws Exception {
+        ImportacaoRecordDto relatorio = importarCsv(linha(0) + linha(0).replace("Livro 0", "Livro 0 corrigido"),
+                ModoImportacao.MESCLA, false);
+
+        assertEquals(1, relatorio.inseridos());
+        assertEquals(1, livroRepository.count());
+        assertEquals("Livro 0 corrigido", livro(0).getTitulo());
+    }
+
+    @Test
+    void testFalhaNaLeituraDesfazTudo() {
+        importarSemErro(linhas(0, 1));
+        // Mais que o buffer do COPY (64 KB), para que parte das linhas já tenha sido enviada ao banco
+        byte[] validas = (CABECALHO + linhas(1, 99).repeat(20)).getBytes(StandardCharsets.UTF_8);
+        InputStream falha = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("conexão com o cliente interrompida");
+            }
+        };
+        InputStream entrada = new SequenceInputStream(new ByteArrayInputStream(validas), falha);
+
+        assertThrows(IOException.class,
+                () -> importacaoLivroService.importar(entrada, FormatoImportacao.CSV, ModoImportacao.MESCLA, false));
+
+        assertEquals(1, livroRepository.count());
+    }
+
+    private void importarSemErro(String linhas) {
+        assertDoesNotThrow(() -> importarCsv(linhas, ModoImportacao.MESCLA, false));
+    }
+
+    private ImportacaoRecordDto importarCsv(String linhas, ModoImportacao modo, boolean forcarRemocao) throws Exception {
+        return importar(CABECALHO + linhas, FormatoImportacao.CSV, modo, forcarRemocao);
+    }
+
+    private ImportacaoRecordDto importar(String conteudo, FormatoImportacao formato, ModoImportacao modo,
+                                         boolean forcarRemocao) throws Exception {
+        return importacaoLivroService.importar(new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8)),
+                formato, modo, forcarRemocao);
+    }
+
+    private void arquivar(String isbn) {
+        jdbcTemplate.update("""
+                INSERT INTO tb_livro_arquivo (livro_id, isbn, titulo, status_livro, versao, data_arquivamento)
+                VALUES (?, ?, 'Livro arquivado', 'DANIFICADO', 0, ?)
+                """, UUID.randomUUID(), isbn, LocalDateTime.now());
+    }
+
+    private LivroModel livro(int indice) {
+        return livroRepository.findByIsbn(isbn(indice)).orElseThrow();
+    }
+
+    private static String linhas(int inicio, int fim) {
+        var linhas = new StringBuilder();
+        for (int i = inicio; i < fim; i++) {
+            linhas.append(linha(i));
+        }
+        return linhas.toString();
+    }
+
+    private static String linha(int indice) {
+        return isbn(indice) + ",Livro " + indice + ",,29.90,5,HISTORIA,COMUM,Autor,Editora\n";
+    }
+
+    private static String isbn(int indice) {
+        return "97800000000" + String.format("%02d", indice);
+    }
+}
@@ -1,9 +1,16 @@
 package com.sistema.livraria.services;
 
+import com.sistema.livraria.configs.InvalidadorCacheLivros;
+import com.sistema.livraria.dtos.EstoqueRecordDto;
 import com.sistema.livraria.dtos.LivroRecordDto;
+import com.sistema.livraria.dtos.MovimentoEstoqueRecordDto;
 import com.sistema.livraria.enums.*;
+import com.sistema.livraria.exceptios.EstoqueInsuficienteException;
+import com.sistema.livraria.exceptios.LivroArquivadoException;
 import com.sistema.livraria.exceptios.NotFoundException;
+import com.sistema.livraria.models.LivroArquivadoModel;
 import com.sistema.livraria.models.LivroModel;
+import com.sistema.livraria.repositorys.LivroArquivadoRepository;
 import com.sistema.livraria.repositorys.LivroRepository;
 import com.sistema.livraria.services.impl.LivroServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +26,7 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.IntFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +36,15 @@ class LivroServiceImplTest {
     @Mock
     private LivroRepository livroRepository;
 
+    @Mock
+    private LivroArquivadoRepository livroArquivadoRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private InvalidadorCacheLivros invalidadorCacheLivros;
+
     @InjectMocks
     private LivroServiceImpl livroService;
 
@@ -69,6 +87,31 @@ class LivroServiceImplTest {
         assertThrows(NotFoundException.class, () -> livroService.findById(id));
     }
 
+    @Test
+    void testFindById_Arquivado() {
+        UUID id = UUID.randomUUID();
+        LivroModel livro = new LivroModel();
+        livro.setArquivado(true);
+        LivroArquivadoModel arquivado = mock(LivroArquivadoModel.class);
+        when(arquivado.paraLivro()).thenReturn(livro);
+        when(livroRepository.findById(id)).thenReturn(Optional.empty());
+        when(livroArquivadoRepository.findById(id)).thenReturn(Optional.of(arquivado));
+
+        Optional<LivroModel> result = livroService.findById(id);
+
+        assertTrue(result.isPresent());
+        assertTrue(result.get().getArquivado());
+    }
+
+    @Test
+    void testUpdate_Arquivado() {
+        LivroModel livro = new LivroModel();
+        livro.setArquivado(true);
+
+        assertThrows(LivroArquivadoException.class, () -> livroService.update(livro, null));
+        verify(livroRepository, never()).save(any());
+    }
+
     @Test
     void testSave() {
         LivroRecordDto dto = new LivroRecordDto(
@@ -115,6 +158,7 @@ class LivroServiceImplTest {
 
         assertEquals("Novo Título", result.getTitulo());
         assertEquals(StatusLivro.INDISPONIVEL, result.getStatusLivro());
+        assertEquals(5, result.getQuantidade());
         verify(livroRepository, times(1)).save(livro);
     }
 
@@ -173,4 +217,73 @@ class LivroServiceImplTest {
         assertEquals(StatusLivro.INDISPONIVEL, result.getStatusLivro());
         verify(livroRepository, times(1)).save(livro);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMovimentarEstoque_SaidaZerandoEstoque() {
+        UUID id = UUID.randomUUID();
+        LivroRepository.EstoqueProjection estoque = mock(LivroRepository.EstoqueProjection.class);
+        when(estoque.getLivroId()).thenReturn(id);
+        when(estoque.getIsbn()).thenReturn("12345");
+        when(estoque.getQuantidade()).thenReturn(0);
+        when(estoque.getStatusLivro()).thenReturn("INDISPONIVEL");
+        when(livroRepository.baixarEstoque(eq(id), eq(2), any())).thenReturn(Optional.of(estoque));
+
+        EstoqueRecordDto result = livroService.movimentarEstoque(id, new MovimentoEstoqueRecordDto(TipoMovimentoEstoque.SAIDA, 2));
+
+        assertEquals(0, result.quantidade());
+        assertEquals(StatusLivro.INDISPONIVEL, result.statusLivro());
+        verify(invalidadorCacheLivros, times(1)).invalidar(id, "12345");
+        verify(livroRepository, never()).findById(any());
+    }
+
+    @Test
+    void testMovimentarEstoque_SaidaSemEstoque() {
+        UUID id = UUID.randomUUID();
+        when(livroRepository.baixarEstoque(eq(id), eq(5), any())).thenReturn(Optional.empty());
+        when(livroRepository.existsById(id)).thenReturn(true);
+
+        assertThrows(EstoqueInsuficienteException.class,
+                () -> livroService.movimentarEstoque(id, new MovimentoEstoqueRecordDto(TipoMovimentoEstoque.SAIDA, 5)));
+        verifyNoInteractions(invalidadorCacheLivros);
+    }
+
+    @Test
+    void testMovimentarEstoque_Entrada() {
+        UUID id = UUID.randomUUID();
+        LivroRepository.EstoqueProjection estoque = mock(LivroRepository.EstoqueProjection.class);
+        when(estoque.getLivroId()).thenReturn(id);
+        when(estoque.getIsbn()).thenReturn("12345");
+        when(estoque.getQuantidade()).thenReturn(3);
+        when(estoque.getStatusLivro()).thenReturn("DISPONIVEL");
+        when(livroRepository.reporEstoque(eq(id), eq(3), any())).thenReturn(Optional.of(estoque));
+
+        EstoqueRecordDto result = livroService.movimentarEstoque(id, new MovimentoEstoqueRecordDto(TipoMovimentoEstoque.ENTRADA, 3));
+
+        assertEquals(3, result.quantidade());
+        assertEquals(StatusLivro.DISPONIVEL, result.statusLivro());
+        verify(invalidadorCacheLivros, times(1)).invalidar(id, "12345");
+    }
+
+    @Test
+    void testMovimentarEstoque_SaidaComMotorDeReservasDescontaUnidadesComprometidas() {
+        ReservaService reservaService = mock(ReservaService.class);
+        var servico = new LivroServiceImpl(livroRepository, livroArquivadoRepository, eventPublisher,
+                invalidadorCacheLivros, reservaService);
+        UUID id = UUID.randomUUID();
+        LivroRepository.EstoqueProjection estoque = mock(LivroRepository.EstoqueProjection.class);
+        when(estoque.getLivroId()).thenReturn(id);
+        when(estoque.getIsbn()).thenReturn("12345");
+        when(estoque.getQuantidade()).thenReturn(4);
+        when(estoque.getStatusLivro()).thenReturn("DISPONIVEL");
+        // 3 unidades reservadas ou vendidas pelo motor e ainda não gravadas
+        when(reservaService.baixarNoBanco(eq(id), eq(2), any())).thenAnswer(chamada ->
+                chamada.<IntFunction<Optional<LivroRepository.EstoqueProjection>>>getArgument(2).apply(3));
+        when(livroRepository.baixarEstoque(eq(id), eq(2), eq(3), any())).thenReturn(Optional.of(estoque));
+
+        EstoqueRecordDto result = servico.movimentarEstoque(id, new MovimentoEstoqueRecordDto(TipoMovimentoEstoque.SAIDA, 2));
+
+        assertEquals(4, result.quantidade());
+        verify(livroRepository, never()).baixarEstoque(eq(id), eq(2), any());
+        verify(invalidadorCacheLivros, times(1)).invalidar(id, "12345");
+    }
+}
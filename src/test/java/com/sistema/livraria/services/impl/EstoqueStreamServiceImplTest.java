@@ -0,0 +1,187 @@
+package com.sistema.livraria.services.impl;
+
+import com.sistema.livraria.dtos.EstoqueEventoRecordDto;
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.TipoAlteracaoLivro;
+import com.sistema.livraria.events.LivroAlteradoEvent;
+import com.sistema.livraria.exceptios.CapacidadeEsgotadaException;
+import com.sistema.livraria.models.LivroModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stream de estoque com emissores que gravam os eventos enviados (sem servlet). O envio pode ser travado para
+ * simular um cliente lento e observar a fila de cada assinante.
+ */
+class EstoqueStreamServiceImplTest {
+
+    private static final UUID LIVRO_A = UUID.randomUUID();
+    private static final UUID LIVRO_B = UUID.randomUUID();
+    private static final UUID LIVRO_C = UUID.randomUUID();
+
+    private final CountDownLatch liberarEnvios = new CountDownLatch(1);
+    private EstoqueStreamServiceImpl service;
+
+    @AfterEach
+    void encerrar() {
+        liberarEnvios.countDown();
+        service.encerrar();
+    }
+
+    @Test
+    void assinanteRecebeSoOsLivrosECategoriaFiltrados() throws Exception {
+        iniciar(10, 10, true);
+        EmissorGravado porLivro = assinar(Set.of(LIVRO_A), null);
+        EmissorGravado porCategoria = assinar(Set.of(), Categoria.HISTORIA);
+
+        alterar(LIVRO_B, 7, Categoria.HISTORIA);
+        alterar(LIVRO_A, 5, Categoria.EDUCACAO);
+        alterar(LIVRO_C, 1, null); // evento sem categoria (livro parcial) vale para todas
+
+        assertEquals(List.of(LIVRO_A), livros(porLivro.recebidos(1)));
+        assertEquals(List.of(LIVRO_B, LIVRO_C), livros(porCategoria.recebidos(2)));
+        assertTrue(porLivro.semMaisEventos());
+        assertTrue(porCategoria.semMaisEventos());
+    }
+
+    @Test
+    void clienteLentoRecebeSoOUltimoEstadoDeCadaLivro() throws Exception {
+        iniciar(10, 10, false);
+        EmissorGravado emissor = assinar(Set.of(), null);
+
+        alterar(LIVRO_A, 10, null);
+        assertTrue(emissor.enviando.await(5, TimeUnit.SECONDS)); // o primeiro envio está travado
+
+        alterar(LIVRO_A, 9, null);
+        alterar(LIVRO_B, 3, null);
+        alterar(LIVRO_A, 8, null);
+        liberarEnvios.countDown();
+
+        List<EstoqueEventoRecordDto> recebidos = emissor.recebidos(3);
+        assertEquals(List.of(LIVRO_A, LIVRO_B, LIVRO_A), livros(recebidos));
+        assertEquals(List.of(10, 3, 8), recebidos.stream().map(EstoqueEventoRecordDto::quantidade).toList());
+        assertTrue(emissor.semMaisEventos());
+    }
+
+    @Test
+    void filaCheiaDesconectaOAssinante() throws Exception {
+        iniciar(10, 2, false);
+        EmissorGravado emissor = assinar(Set.of(), null);
+
+        alterar(LIVRO_A, 1, null);
+        assertTrue(emissor.enviando.await(5, TimeUnit.SECONDS));
+        alterar(LIVRO_B, 1, null);
+        alterar(LIVRO_C, 1, null);
+        assertFalse(emissor.concluido);
+
+        alterar(UUID.randomUUID(), 1, null); // terceiro livro pendente com capacidade 2
+
+        assertTrue(emissor.concluido);
+        assertTrue(service.assinantes.isEmpty());
+        liberarEnvios.countDown();
+        assertEquals(List.of(LIVRO_A), livros(emissor.recebidos(1))); // só o envio que já estava em andamento
+        assertTrue(emissor.semMaisEventos());
+    }
+
+    @Test
+    void limiteDeAssinantesRecusaNovaConexao() {
+        iniciar(2, 10, true);
+        assinar(Set.of(), null);
+        assinar(Set.of(), null);
+
+        // Tratada como 503 (SERVICE_UNAVAILABLE) pelo GlobalExceptionHandler
+        assertThrows(CapacidadeEsgotadaException.class, () -> service.assinar(Set.of(), null));
+        assertEquals(2, service.assinantes.size());
+    }
+
+    private void iniciar(int maxAssinantes, int capacidadeFila, boolean enviosLiberados) {
+        if (enviosLiberados) {
+            liberarEnvios.countDown();
+        }
+        service = new EstoqueStreamServiceImpl(maxAssinantes, capacidadeFila, Duration.ofMinutes(1), 1) {
+            @Override
+            SseEmitter novoEmitter() {
+                return new EmissorGravado(liberarEnvios);
+            }
+        };
+    }
+
+    private EmissorGravado assinar(Set<UUID> livroIds, Categoria categoria) {
+        return (EmissorGravado) service.assinar(livroIds, categoria);
+    }
+
+    private void alterar(UUID livroId, int quantidade, Categoria categoria) {
+        var livro = new LivroModel();
+        livro.setLivroId(livroId);
+        livro.setQuantidade(quantidade);
+        livro.setCategoria(categoria);
+        service.aoAlterarLivro(new LivroAlteradoEvent(livroId, TipoAlteracaoLivro.ESTOQUE, livro));
+    }
+
+    private static List<UUID> livros(List<EstoqueEventoRecordDto> eventos) {
+        return eventos.stream().map(EstoqueEventoRecordDto::livroId).toList();
+    }
+
+    /**
+     * Emissor que guarda os eventos de estoque enviados; cada envio espera a liberação do teste.
+     */
+    static class EmissorGravado extends SseEmitter {
+
+        final BlockingQueue<EstoqueEventoRecordDto> enviados = new LinkedBlockingQueue<>();
+        final CountDownLatch enviando = new CountDownLatch(1);
+        final CountDownLatch liberar;
+        volatile boolean concluido;
+
+        EmissorGravado(CountDownLatch liberar) {
+            this.liberar = liberar;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            enviando.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (ResponseBodyEmitter.DataWithMediaType parte : builder.build()) {
+                if (parte.getData() instanceof EstoqueEventoRecordDto evento) {
+                    enviados.add(evento);
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            concluido = true;
+        }
+
+        List<EstoqueEventoRecordDto> recebidos(int quantidade) throws InterruptedException {
+            List<EstoqueEventoRecordDto> recebidos = new ArrayList<>();
+            for (int i = 0; i < quantidade; i++) {
+                EstoqueEventoRecordDto evento = enviados.poll(5, TimeUnit.SECONDS);
+                assertNotNull(evento, "Esperados " + quantidade + " evento(s), recebidos " + recebidos.size());
+                recebidos.add(evento);
+            }
+            return recebidos;
+        }
+
+        boolean semMaisEventos() throws InterruptedException {
+            return enviados.poll(200, TimeUnit.MILLISECONDS) == null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.sistema.livraria.services.impl;
+
+import com.sistema.livraria.dtos.LivroRecordDto;
+import com.sistema.livraria.enums.Categoria;
+import com.sistema.livraria.enums.TipoCapa;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Leitura do CSV de entrada e escrita das linhas do COPY, sem banco.
+ */
+class ImportacaoLivroServiceImplTest {
+
+    @Test
+    void testDividirCsvSimples() {
+        assertEquals(List.of("9780000000001", "Título", "29.90"), ImportacaoLivroServiceImpl.dividirCsv("9780000000001,Título,29.90"));
+    }
+
+    @Test
+    void testDividirCsvComAspasEVirgulas() {
+        assertEquals(List.of("Memórias, volume 1", "O \"último\" capítulo", "fim"),
+                ImportacaoLivroServiceImpl.dividirCsv("\"Memórias, volume 1\",\"O \"\"último\"\" capítulo\",fim"));
+    }
+
+    @Test
+    void testDividirCsvComQuebraDeLinhaEntreAspas() {
+        assertEquals(List.of("1", "primeira linha\nsegunda linha", "2"),
+                ImportacaoLivroServiceImpl.dividirCsv("1,\"primeira linha\nsegunda linha\",2"));
+    }
+
+    @Test
+    void testDividirCsvCamposVazios() {
+        // Vazio com ou sem aspas é texto vazio (tratado como ausente na conversão); a vírgula final abre um campo
+        assertEquals(List.of("a", "", "", "b", ""), ImportacaoLivroServiceImpl.dividirCsv("a,,\"\",b,"));
+        assertEquals(List.of(""), ImportacaoLivroServiceImpl.dividirCsv(""));
+    }
+
+    @Test
+    void testAspasAbertas() {
+        assertFalse(ImportacaoLivroServiceImpl.aspasAbertas("1,\"fechado\",2"));
+        assertFalse(ImportacaoLivroServiceImpl.aspasAbertas("1,\"com \"\"escape\"\"\",2"));
+        assertTrue(ImportacaoLivroServiceImpl.aspasAbertas("1,\"continua na"));
+        assertTrue(ImportacaoLivroServiceImpl.aspasAbertas("1,\"com \"\"escape\"\" e sem fim"));
+    }
+
+    @Test
+    void testEscreverLinhaCopyNuloVazioEEscape() {
+        var livro = new LivroRecordDto("9780000000001", "O \"último\", enfim", null, new BigDecimal("29.90"), 5,
+                Categoria.HISTORIA, TipoCapa.COMUM, "", "Editora\nNova", null);
+        var buffer = new StringBuilder();
+
+        ImportacaoLivroServiceImpl.escreverLinhaCopy(buffer, 7, livro);
+
+        // Subtítulo nulo: campo vazio sem aspas (NULL no COPY); autor vazio: "" (texto vazio)
+        assertEquals("7,\"9780000000001\",\"O \"\"último\"\", enfim\",,29.90,5,\"HISTORIA\",\"COMUM\",\"\",\"Editora\nNova\"\n",
+                buffer.toString());
+    }
+
+    @Test
+    void testEscreverLinhaCopyValorSemNotacaoCientifica() {
+        var livro = new LivroRecordDto("9780000000001", "Título", null, new BigDecimal("1E+2"), 0,
+                Categoria.HISTORIA, TipoCapa.DURA, "Autor", "Editora", null);
+        var buffer = new StringBuilder();
+
+        ImportacaoLivroServiceImpl.escreverLinhaCopy(buffer, 1, livro);
+
+        assertTrue(buffer.toString().contains(",,100,0,"));
+    }
+}
@@ -0,0 +1,192 @@
+package com.sistema.livraria.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Conta os comandos SQL (idas ao banco) e as linhas lidas/alteradas durante um trecho de teste.
+ *
+ * <p>O {@link DataSource} da aplicação é envolvido por {@link #envolver(DataSource)} (ver {@link ContadorSqlConfig}).
+ * A medição é feita por thread, então tarefas agendadas em outras threads não entram na conta. Uma requisição
+ * via MockMvc ou uma transação executada pelo teste roda na thread do próprio teste:</p>
+ *
+ * <pre>
+ * Medicao medicao = ContadorSql.medir(() -> mockMvc.perform(get("/livros/livroId/{id}", id)));
+ * OrcamentoSql.de(medicao).maximoConsultas(1).semLeiturasDuplicadas();
+ * </pre>
+ */
+public final class ContadorSql {
+
+    private static final ThreadLocal<Medicao> ATUAL = new ThreadLocal<>();
+
+    private ContadorSql() {
+    }
+
+    @FunctionalInterface
+    public interface Trecho {
+        void executar() throws Exception;
+    }
+
+    /**
+     * Comando executado: SQL, parâmetros (na ordem dos índices) e linhas lidas ou alteradas.
+     */
+    public record Execucao(String sql, List<String> parametros, int linhas) {
+    }
+
+    /**
+     * Resultado de uma medição.
+     */
+    public static final class Medicao {
+        private final List<Execucao> execucoes = new ArrayList<>();
+
+        public List<Execucao> execucoes() {
+            return Collections.unmodifiableList(execucoes);
+        }
+
+        public int consultas() {
+            return execucoes.size();
+        }
+
+        public int linhas() {
+            return execucoes.stream().mapToInt(Execucao::linhas).sum();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder(consultas() + " comando(s), " + linhas() + " linha(s):");
+            execucoes.forEach(e -> texto.append("\n  ").append(e.sql()).append(' ').append(e.parametros())
+                    .append(" -> ").append(e.linhas()).append(" linha(s)"));
+            return texto.toString();
+        }
+    }
+
+    /**
+     * Executa o trecho contando os comandos SQL emitidos pela thread atual.
+     */
+    public static Medicao medir(Trecho trecho) throws Exception {
+        var medicao = new Medicao();
+        ATUAL.set(medicao);
+        try {
+            trecho.executar();
+        } finally {
+            ATUAL.remove();
+        }
+        return medicao;
+    }
+
+    public static DataSource envolver(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection conexao = super.getConnection();
+                return proxy(Connection.class, conexao, new ConexaoHandler(conexao));
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                Connection conexao = super.getConnection(username, password);
+                return proxy(Connection.class, conexao, new ConexaoHandler(conexao));
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, Object alvo, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ContadorSql.class.getClassLoader(), new Class<?>[]{tipo}, handler);
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConexaoHandler(Connection conexao) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            Object resultado = invocar(conexao, metodo, args);
+            if (resultado instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String texto ? texto : null;
+                Class<? extends Statement> tipo = resultado instanceof CallableStatement ? CallableStatement.class
+                        : resultado instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return proxy(tipo, statement, new StatementHandler(statement, sql));
+            }
+            return resultado;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String sql;
+        private final SortedMap<Integer, Object> parametros = new TreeMap<>();
+
+        // Última execução registrada por este statement (para somar as linhas lidas do ResultSet)
+        private Medicao medicao;
+        private int posicao = -1;
+
+        private StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nome = metodo.getName();
+            if (nome.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                parametros.put(indice, args[1]);
+            } else if (nome.equals("clearParameters")) {
+                parametros.clear();
+            }
+
+            Object resultado = invocar(statement, metodo, args);
+
+            if (nome.startsWith("execute")) {
+                String texto = sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0]) : "<batch>";
+                int linhas = resultado instanceof Integer alteradas ? alteradas
+                        : resultado instanceof int[] lote ? Arrays.stream(lote).filter(n -> n > 0).sum()
+                        : resultado instanceof Long alteradas ? alteradas.intValue() : 0;
+                registrar(new Execucao(texto, parametros.values().stream().map(String::valueOf).toList(), linhas));
+            }
+            if (resultado instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, resultSet, new ResultSetHandler(resultSet, this));
+            }
+            return resultado;
+        }
+
+        private void registrar(Execucao execucao) {
+            medicao = ATUAL.get();
+            if (medicao != null) {
+                medicao.execucoes.add(execucao);
+                posicao = medicao.execucoes.size() - 1;
+            }
+        }
+
+        // Linhas lidas são contadas à medida que o ResultSet avança
+        private void linhaLida() {
+            if (medicao != null && posicao >= 0) {
+                Execucao execucao = medicao.execucoes.get(posicao);
+                medicao.execucoes.set(posicao, new Execucao(execucao.sql(), execucao.parametros(), execucao.linhas() + 1));
+            }
+        }
+    }
+
+    private record ResultSetHandler(ResultSet resultSet, StatementHandler statement) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            Object resultado = invocar(resultSet, metodo, args);
+            if (metodo.getName().equals("next") && Boolean.TRUE.equals(resultado)) {
+                statement.linhaLida();
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sistema.livraria.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Envolve o DataSource da aplicação com o {@link ContadorSql}. Use com {@code @Import(ContadorSqlConfig.class)}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class ContadorSqlConfig {
+
+    @Bean
+    static BeanPostProcessor contadorSqlPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? ContadorSql.envolver(dataSource) : bean;
+            }
+        };
+    }
+}
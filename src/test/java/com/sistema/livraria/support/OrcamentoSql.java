@@ -0,0 +1,77 @@
+package com.sistema.livraria.support;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Asserções de orçamento de SQL sobre uma {@link ContadorSql.Medicao}.
+ *
+ * <pre>
+ * OrcamentoSql.de(medicao)
+ *         .maximoConsultas(2)
+ *         .semLeiturasDuplicadas()
+ *         .semNMaisUm();
+ * </pre>
+ *
+ * As mensagens de erro listam todos os comandos executados, para facilitar achar a consulta a mais.
+ */
+public final class OrcamentoSql {
+
+    // Mesmo SQL repetido a partir de quantas execuções é considerado N+1
+    private static final int LIMITE_REPETICOES = 3;
+
+    private final ContadorSql.Medicao medicao;
+
+    private OrcamentoSql(ContadorSql.Medicao medicao) {
+        this.medicao = medicao;
+    }
+
+    public static OrcamentoSql de(ContadorSql.Medicao medicao) {
+        return new OrcamentoSql(medicao);
+    }
+
+    public OrcamentoSql maximoConsultas(int maximo) {
+        if (medicao.consultas() > maximo) {
+            fail("Orçamento de " + maximo + " comando(s) SQL excedido: " + medicao);
+        }
+        return this;
+    }
+
+    public OrcamentoSql maximoLinhas(int maximo) {
+        if (medicao.linhas() > maximo) {
+            fail("Orçamento de " + maximo + " linha(s) excedido: " + medicao);
+        }
+        return this;
+    }
+
+    /**
+     * Falha se o mesmo SELECT, com os mesmos parâmetros, foi executado mais de uma vez.
+     */
+    public OrcamentoSql semLeiturasDuplicadas() {
+        Map<String, Long> leituras = medicao.execucoes().stream()
+                .filter(execucao -> execucao.sql().stripLeading().toLowerCase(Locale.ROOT).startsWith("select"))
+                .collect(Collectors.groupingBy(execucao -> execucao.sql() + " " + execucao.parametros(), Collectors.counting()));
+        leituras.forEach((leitura, vezes) -> {
+            if (vezes > 1) {
+                fail("Leitura duplicada (" + vezes + "x): " + leitura + "\n" + medicao);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Falha se o mesmo SQL (com parâmetros diferentes) foi executado várias vezes, padrão típico de N+1.
+     */
+    public OrcamentoSql semNMaisUm() {
+        Map<String, Long> porSql = medicao.execucoes().stream()
+                .collect(Collectors.groupingBy(ContadorSql.Execucao::sql, Collectors.counting()));
+        porSql.forEach((sql, vezes) -> {
+            if (vezes >= LIMITE_REPETICOES) {
+                fail("Possível N+1 (" + vezes + "x): " + sql + "\n" + medicao);
+            }
+        });
+        return this;
+    }
+}